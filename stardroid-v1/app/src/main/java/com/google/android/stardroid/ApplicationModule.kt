@@ -25,8 +25,10 @@ import androidx.core.content.getSystemService
 import androidx.preference.PreferenceManager
 import com.google.android.stardroid.control.*
 import com.google.android.stardroid.layers.*
+import com.google.android.stardroid.renderer.QualityGovernor
 import com.google.android.stardroid.util.Analytics
 import com.google.android.stardroid.util.AnalyticsInterface
+import com.google.android.stardroid.util.AppExecutors
 import com.google.android.stardroid.util.MiscUtil.getTag
 import dagger.Module
 import dagger.Provides
@@ -34,7 +36,6 @@ import dagger.hilt.InstallIn
 import dagger.hilt.android.qualifiers.ApplicationContext
 import dagger.hilt.components.SingletonComponent
 import java.util.concurrent.ScheduledExecutorService
-import java.util.concurrent.ScheduledThreadPoolExecutor
 import javax.inject.Named
 import javax.inject.Singleton
 
@@ -77,7 +78,7 @@ class ApplicationModule {
   @Singleton
   @Named("real")
   fun provideRealMagneticDeclinationCalculator(): MagneticDeclinationCalculator =
-      RealMagneticDeclinationCalculator()
+      CachedMagneticDeclinationCalculator()
 
   @Provides
   @Singleton
@@ -85,12 +86,13 @@ class ApplicationModule {
 
   @Provides
   @Singleton
-  fun provideBackgroundExecutor(): ScheduledExecutorService {
-    val cpuCount = Runtime.getRuntime().availableProcessors()
-    // I/O-Bound (Network calls, Database, File writing)
-    val corePoolSize = cpuCount * 2
-    return ScheduledThreadPoolExecutor(corePoolSize)
-  }
+  fun provideBackgroundExecutor(executors: AppExecutors): ScheduledExecutorService =
+      executors[AppExecutors.Lane.IO]
+
+  // Shared so that the diagnostics can show the level the renderer last chose.
+  @Provides
+  @Singleton
+  fun provideQualityGovernor(): QualityGovernor = QualityGovernor()
 
   @Provides
   @Singleton
@@ -134,13 +136,17 @@ class ApplicationModule {
   @Singleton
   fun provideLayerManager(
     assetManager: AssetManager, resources: Resources, model: AstronomerModel?,
-    preferences: SharedPreferences
+    preferences: SharedPreferences, executors: AppExecutors
   ): LayerManager {
     Log.i(TAG, "Initializing LayerManager")
     val layerManager = LayerManager(preferences)
-    layerManager.addLayer(StarsLayer(assetManager, resources, preferences))
-    layerManager.addLayer(DeepSkyObjectLayer(assetManager, resources, preferences))
-    layerManager.addLayer(ConstellationsLayer(assetManager, resources, preferences))
+    // The catalogs are read on the IO lane.
+    val loadExecutor = executors[AppExecutors.Lane.IO]
+    layerManager.addLayer(StarsLayer(assetManager, resources, preferences, loadExecutor))
+    layerManager.addLayer(
+        DeepSkyObjectLayer(assetManager, resources, preferences, loadExecutor))
+    layerManager.addLayer(
+        ConstellationsLayer(assetManager, resources, preferences, loadExecutor))
     layerManager.addLayer(SolarSystemLayer(model!!, resources, preferences))
     layerManager.addLayer(MeteorShowerLayer(model, resources, preferences))
     layerManager.addLayer(CometsLayer(model, resources, preferences))
@@ -38,7 +38,9 @@ import com.google.android.stardroid.activities.util.SensorAccuracyDecoder;
 import com.google.android.stardroid.control.AstronomerModel;
 import com.google.android.stardroid.math.LatLong;
 import com.google.android.stardroid.math.Vector3;
+import com.google.android.stardroid.renderer.QualityGovernor;
 import com.google.android.stardroid.util.Analytics;
+import com.google.android.stardroid.util.AppExecutors;
 import com.google.android.stardroid.util.MiscUtil;
 
 import java.text.SimpleDateFormat;
@@ -69,6 +71,8 @@ public class DiagnosticActivity extends androidx.fragment.app.FragmentActivity
   @Inject @Nullable LocationManager locationManager;
   @Inject LocationController locationController;
   @Inject AstronomerModel model;
+  @Inject QualityGovernor qualityGovernor;
+  @Inject AppExecutors appExecutors;
   @Inject Handler handler;
   @Inject SensorAccuracyDecoder sensorAccuracyDecoder;
 
@@ -244,6 +248,17 @@ public class DiagnosticActivity extends androidx.fragment.app.FragmentActivity
 
     setText(R.id.diagnose_utc_datetime_txt, dateFormatUtc.format(nowTime));
     setText(R.id.diagnose_local_datetime_txt, dateFormatLocal.format(nowTime));
+    setText(R.id.diagnose_render_quality_txt, getString(R.string.diagnostics_render_quality_format,
+        qualityGovernor.getLevel(), QualityGovernor.MAX_LEVEL));
+    int queued = 0;
+    float maxWaitMillis = 0;
+    for (AppExecutors.Lane lane : AppExecutors.Lane.values()) {
+      AppExecutors.LaneStats stats = appExecutors.stats(lane);
+      queued += stats.getQueued();
+      maxWaitMillis = Math.max(maxWaitMillis, stats.getMaxWaitMillis());
+    }
+    setText(R.id.diagnose_background_tasks_txt, getString(
+        R.string.diagnostics_background_tasks_format, queued, Math.round(maxWaitMillis)));
   }
 
   @Override
@@ -15,6 +15,7 @@
 package com.google.android.stardroid.activities;
 
 import android.Manifest;
+import android.app.ActivityManager;
 import android.app.SearchManager;
 import android.content.pm.PackageManager;
 import java.lang.ref.WeakReference;
@@ -28,6 +29,7 @@ import android.hardware.Sensor;
 import android.hardware.SensorManager;
 import android.media.MediaPlayer;
 import android.opengl.GLSurfaceView;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.PowerManager;
@@ -64,6 +66,7 @@ import androidx.fragment.app.FragmentManager;
 
 import com.google.android.stardroid.ApplicationConstants;
 import com.google.android.stardroid.R;
+import com.google.android.stardroid.StardroidApplication;
 import com.google.android.stardroid.activities.dialogs.CreditsDialogFragment;
 import com.google.android.stardroid.activities.dialogs.EulaDialogFragment;
 import com.google.android.stardroid.activities.dialogs.HelpDialogFragment;
@@ -100,6 +103,8 @@ import com.google.android.stardroid.math.CoordinateManipulationsKt;
 import com.google.android.stardroid.math.MathUtils;
 import com.google.android.stardroid.math.RaDec;
 import com.google.android.stardroid.math.Vector3;
+import com.google.android.stardroid.renderer.QualityGovernor;
+import com.google.android.stardroid.renderer.RenderScheduler;
 import com.google.android.stardroid.renderer.RendererController;
 import com.google.android.stardroid.renderer.SkyRenderer;
 import com.google.android.stardroid.search.CoordinateParser;
@@ -110,6 +115,7 @@ import com.google.android.stardroid.touch.GestureInterpreter;
 import com.google.android.stardroid.touch.GestureInterpreterFactory;
 import com.google.android.stardroid.util.Analytics;
 import com.google.android.stardroid.util.AnalyticsInterface;
+import com.google.android.stardroid.util.AppExecutors;
 import com.google.android.stardroid.util.Experiment;
 import com.google.android.stardroid.util.ExperimentConfig;
 import com.google.android.stardroid.util.MiscUtil;
@@ -117,6 +123,7 @@ import com.google.android.stardroid.util.SensorAccuracyMonitor;
 import com.google.android.stardroid.views.ButtonLayerView;
 import com.google.android.stardroid.views.PreferencesButton;
 
+import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
@@ -241,6 +248,9 @@ public class DynamicStarMapActivity extends androidx.fragment.app.FragmentActivi
   @Inject
   AstronomerModel model;
   private RendererController rendererController;
+  private RenderScheduler renderScheduler;
+  @Inject
+  QualityGovernor qualityGovernor;
   private boolean nightMode = false;
   private volatile boolean searchMode = false;
   private volatile boolean lastSearchFocusState = false;
@@ -288,6 +298,8 @@ public class DynamicStarMapActivity extends androidx.fragment.app.FragmentActivi
   SensorAccuracyMonitor sensorAccuracyMonitor;
   @Inject
   DragRotateZoomGestureDetector dragZoomRotateDetector;
+  @Inject
+  AppExecutors appExecutors;
   private FullscreenControlsManager fullscreenControlsManager;
 
   @VisibleForTesting
@@ -761,6 +773,7 @@ public class DynamicStarMapActivity extends androidx.fragment.app.FragmentActivi
     wakeLock.acquire();
     Log.i(TAG, "Starting view");
     skyView.onResume();
+    renderScheduler.start();
     Log.i(TAG, "Starting controller");
     controller.start();
     controller.getLocationController().addStateListener(locationStateListener);
@@ -954,7 +967,9 @@ public class DynamicStarMapActivity extends androidx.fragment.app.FragmentActivi
     activityLightLevelManager.onPause();
     controller.getLocationController().removeStateListener(locationStateListener);
     controller.stop();
+    renderScheduler.stop();
     skyView.onPause();
+    appExecutors.cancelPausable();
     wakeLock.release();
     // Debug.stopMethodTracing();
     Log.d(TAG, "DynamicStarMap -onPause");
@@ -966,6 +981,9 @@ public class DynamicStarMapActivity extends androidx.fragment.app.FragmentActivi
     if (key == null) {
       return;
     }
+    renderScheduler.requestRender();
+    // The layer may have been shown or hidden.
+    renderScheduler.setTimeGranularity(layerManager.getFinestUpdateGranularity());
     switch (key) {
       case ApplicationConstants.AUTO_MODE_PREF_KEY:
         boolean autoMode = sharedPreferences.getBoolean(key, true);
@@ -1121,12 +1139,26 @@ public class DynamicStarMapActivity extends androidx.fragment.app.FragmentActivi
     skyView = findViewById(R.id.skyrenderer_view);
     // We don't want a depth buffer.
     skyView.setEGLConfigChooser(false);
-    SkyRenderer renderer = new SkyRenderer(getResources());
+    // The OpenGL ES 2.0 backend is opt in, and needs a context created for it.
+    boolean useGles2 = sharedPreferences.getBoolean(ApplicationConstants.GLES2_RENDERER_PREF_KEY, false)
+        && ((ActivityManager) getSystemService(ACTIVITY_SERVICE))
+            .getDeviceConfigurationInfo().reqGlEsVersion >= 0x20000;
+    if (useGles2) {
+      skyView.setEGLContextClientVersion(2);
+    }
+    SkyRenderer renderer = new SkyRenderer(getResources(), useGles2, qualityGovernor);
+    // Everything that changes how the label glyphs are drawn.
+    String glyphEnvironment = getResources().getConfiguration().locale + "/"
+        + getResources().getDisplayMetrics().density + "/"
+        + ((StardroidApplication) getApplication()).getVersion() + "/" + Build.FINGERPRINT;
+    renderer.setGlyphAtlasCache(new File(getCacheDir(), "glyph_atlas"), glyphEnvironment,
+        appExecutors.get(AppExecutors.Lane.IO));
     skyView.setRenderer(renderer);
 
     rendererController = new RendererController(renderer, skyView);
-    // The renderer will now call back every frame to get model updates.
-    rendererController.addUpdateClosure(
+    // Frames are only drawn when something changes.  The scheduler also calls back every frame to
+    // get model updates.
+    renderScheduler = new RenderScheduler(skyView, renderer, rendererController, model,
         new RendererModelUpdateClosure(model, rendererController, sharedPreferences));
     WeakReference<DynamicStarMapActivity> weakThis = new WeakReference<>(this);
     rendererController.addUpdateClosure(() -> {
@@ -1146,6 +1178,7 @@ public class DynamicStarMapActivity extends androidx.fragment.app.FragmentActivi
 
     Log.i(TAG, "Setting layers @ " + System.currentTimeMillis());
     layerManager.registerWithRenderer(rendererController);
+    renderScheduler.setTimeGranularity(layerManager.getFinestUpdateGranularity());
     Log.i(TAG, "Set up controllers @ " + System.currentTimeMillis());
     controller.setModel(model);
     wireUpScreenControls(); // TODO(johntaylor) move these?
@@ -124,6 +124,21 @@ public interface AstronomerModel {
    */
   Date getTime();
 
+  /**
+   * Reads the clock for the frame about to be drawn.  Called on the GL thread at the start of each
+   * frame, and whenever the clock, the time travel or the location is changed.
+   */
+  void beginFrame();
+
+  /**
+   * Returns the time read by the last {@link #beginFrame}.  Everything updated for a frame should
+   * use this rather than {@link #getTime}, so that it all agrees on the time.  Off the GL thread
+   * it's the time of the last frame or change, so callers wanting the time now, rather than the
+   * time being drawn, should use {@link #getTime}.  The manual controllers only turn the pointing,
+   * which doesn't depend on the time.
+   */
+  FrameTime getFrameTime();
+
   /**
    * Sets the clock that provides the time.
    */
@@ -171,6 +186,13 @@ public interface AstronomerModel {
    */
   void setPhoneSensorValues(float[] rotationVector);
 
+  /**
+   * As {@link #setPhoneSensorValues(float[])}, with the time of the sample from
+   * {@link android.hardware.SensorEvent#timestamp}, so that the model can predict the orientation
+   * when the pointing is drawn rather than use the sample as it is.
+   */
+  void setPhoneSensorValues(float[] rotationVector, long timestampNanos);
+
   /**
    * Returns the user's North in celestial coordinates.
    */
@@ -20,6 +20,7 @@ import com.google.android.stardroid.math.Matrix3x3.Companion.identity
 import com.google.android.stardroid.control.AstronomerModel.Pointing
 import com.google.android.stardroid.ApplicationConstants
 import android.hardware.SensorManager
+import android.os.SystemClock
 import android.util.Log
 import com.google.android.stardroid.math.*
 import com.google.android.stardroid.util.MiscUtil
@@ -78,6 +79,7 @@ class AstronomerModelImpl(magneticDeclinationCalculator: MagneticDeclinationCalc
     private var fieldOfView = 45f // Degrees
     private var location = LatLong(90f, 0f)
     private var clock: Clock = RealClock()
+    @Volatile private var frameTime = FrameTime(clock.timeInMillisSinceEpoch)
     private var celestialCoordsLastUpdated: Long = -1
 
     /**
@@ -96,6 +98,15 @@ class AstronomerModelImpl(magneticDeclinationCalculator: MagneticDeclinationCalc
     private var useRotationVector = false
     private val rotationVector = floatArrayOf(1f, 0f, 0f, 0f)
 
+    /**
+     * Predicts the orientation from timestamped rotation vector samples.  Its
+     * [OrientationPredictor.horizonNanos] is how far ahead the pointing is drawn.
+     */
+    val orientationPredictor = OrientationPredictor()
+    private val predictedRotationVector = FloatArray(4)
+    // Written by the sensor thread and read by the GL thread.
+    @Volatile private var predictOrientation = false
+
     /** North along the ground in celestial coordinates.  */
     private var trueNorthCelestial = Vector3.unitX()
 
@@ -149,12 +160,25 @@ class AstronomerModelImpl(magneticDeclinationCalculator: MagneticDeclinationCalc
         return Date(clock.timeInMillisSinceEpoch)
     }
 
+    override fun beginFrame() {
+        val millis = clock.timeInMillisSinceEpoch
+        if (millis != frameTime.millis) {
+            frameTime = FrameTime(millis)
+        }
+    }
+
+    override fun getFrameTime(): FrameTime {
+        return frameTime
+    }
+
     override fun getLocation(): LatLong {
         return location
     }
 
     override fun setLocation(location: LatLong) {
         this.location = location
+        // Set off the GL thread, so read the clock rather than use the last frame's time.
+        beginFrame()
         calculateLocalNorthAndUpInCelestialCoords(true)
     }
 
@@ -172,9 +196,28 @@ class AstronomerModelImpl(magneticDeclinationCalculator: MagneticDeclinationCalc
         this.acceleration.assign(acceleration)
         this.magneticField.assign(magneticField)
         useRotationVector = false
+        stopPredictingOrientation()
+    }
+
+    override fun setPhoneSensorValues(rotationVector: FloatArray, timestampNanos: Long) {
+        storeRotationVector(rotationVector)
+        orientationPredictor.addSample(timestampNanos, rotationVector)
+        predictOrientation = true
     }
 
     override fun setPhoneSensorValues(rotationVector: FloatArray) {
+        storeRotationVector(rotationVector)
+        stopPredictingOrientation()
+    }
+
+    private fun stopPredictingOrientation() {
+        if (predictOrientation) {
+            predictOrientation = false
+            orientationPredictor.reset()
+        }
+    }
+
+    private fun storeRotationVector(rotationVector: FloatArray) {
         // TODO(jontayler): What checks do we need for this to be valid?
         // Note on some phones such as the Galaxy S4 this vector is the wrong size and needs to be
         // truncated to 4.
@@ -250,22 +293,20 @@ class AstronomerModelImpl(magneticDeclinationCalculator: MagneticDeclinationCalc
      * coordinate frame.
      */
     private fun calculateLocalNorthAndUpInCelestialCoords(forceUpdate: Boolean) {
-        val currentTime = clock.timeInMillisSinceEpoch
+        val now = frameTime
         if (!forceUpdate &&
-            abs(currentTime - celestialCoordsLastUpdated) <
+            abs(now.millis - celestialCoordsLastUpdated) <
             MINIMUM_TIME_BETWEEN_CELESTIAL_COORD_UPDATES_MILLIS
         ) {
             return
         }
-        celestialCoordsLastUpdated = currentTime
-        updateMagneticCorrection()
-        val up = calculateRADecOfZenith(time, location)
-        upCelestial = getGeocentricCoords(up)
-        val z = AXIS_OF_EARTHS_ROTATION
-        val zDotu = upCelestial dot z
-        trueNorthCelestial = z - upCelestial * zDotu
-        trueNorthCelestial.normalize()
-        trueEastCelestial = trueNorthCelestial * upCelestial
+        celestialCoordsLastUpdated = now.millis
+        updateMagneticCorrection(now)
+        // Copied, as the frame is shared and these are handed out.
+        val horizontal = now.horizontalFrame(location)
+        upCelestial = horizontal.zenith.copyForJ()
+        trueNorthCelestial = horizontal.north.copyForJ()
+        trueEastCelestial = horizontal.east.copyForJ()
 
         // Apply magnetic correction.  Rather than correct the phone's axes for
         // the magnetic declination, it's more efficient to rotate the
@@ -293,7 +334,15 @@ class AstronomerModelImpl(magneticDeclinationCalculator: MagneticDeclinationCalc
         val magneticEastPhone: Vector3
         if (useRotationVector) {
             val rotationMatrix = FloatArray(9)
-            SensorManager.getRotationMatrixFromVector(rotationMatrix, rotationVector)
+            val rotation = if (predictOrientation) {
+                // Draw the orientation as it's expected to be when the frame is seen.
+                orientationPredictor.predict(
+                    SystemClock.elapsedRealtimeNanos(), predictedRotationVector)
+                predictedRotationVector
+            } else {
+                rotationVector
+            }
+            SensorManager.getRotationMatrixFromVector(rotationMatrix, rotation)
             // The up and north vectors are the 2nd and 3rd rows of this matrix.
             magneticNorthPhone = Vector3(rotationMatrix[3], rotationMatrix[4], rotationMatrix[5])
             upPhone = Vector3(rotationMatrix[6], rotationMatrix[7], rotationMatrix[8])
@@ -322,8 +371,8 @@ class AstronomerModelImpl(magneticDeclinationCalculator: MagneticDeclinationCalc
     /**
      * Updates the angle between True North and Magnetic North.
      */
-    private fun updateMagneticCorrection() {
-        magneticDeclinationCalculator?.setLocationAndTime(location, timeMillis)
+    private fun updateMagneticCorrection(frameTime: FrameTime) {
+        magneticDeclinationCalculator?.setLocationAndTime(location, frameTime.millis)
     }
 
     /**
@@ -342,6 +391,7 @@ class AstronomerModelImpl(magneticDeclinationCalculator: MagneticDeclinationCalc
 
     override fun setClock(clock: Clock) {
         this.clock = clock
+        beginFrame()
         calculateLocalNorthAndUpInCelestialCoords(true)
     }
 
@@ -0,0 +1,150 @@
+// Copyright 2026 Penterakt LLC.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.android.stardroid.control;
+
+import android.hardware.GeomagneticField;
+
+import com.google.android.stardroid.math.LatLong;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Calculates the magnetic declination from a cache of the geomagnetic model, rather than
+ * evaluating it afresh every time the location or time changes.
+ *
+ * <p>The model is sampled at the corners of a grid of cells in latitude, longitude and time, and
+ * the declination is interpolated between the corners of the cell the user is in.  Moving within
+ * a cell, as when scrubbing through time, is just the interpolation; moving into a new one only
+ * evaluates the corners that haven't been seen recently.  The declination varies slowly over a
+ * cell, except very near the magnetic poles, and the model is linear in time, so the error is
+ * small.
+ */
+public class CachedMagneticDeclinationCalculator implements MagneticDeclinationCalculator {
+  /** Evaluates the declination, in degrees, directly from the geomagnetic model. */
+  public interface DeclinationModel {
+    float getDeclination(float latitude, float longitude, long timeInMillis);
+  }
+
+  static final float GRID_DEGREES = 1f;
+  static final long GRID_MILLIS = 91L * 24 * 60 * 60 * 1000;
+  // Enough for the cells around a few places over several years of time travel.
+  private static final int MAX_CACHED_SAMPLES = 512;
+
+  private final DeclinationModel model;
+  private final Map<Long, Float> samples =
+      new LinkedHashMap<Long, Float>(MAX_CACHED_SAMPLES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Float> eldest) {
+          return size() > MAX_CACHED_SAMPLES;
+        }
+      };
+  // The declinations at the corners of the current cell, unwrapped to within 180 degrees of the
+  // first, indexed by time, latitude and longitude bits.
+  private final float[] corners = new float[8];
+  private boolean hasCell = false;
+  private int cellLatitude;
+  private int cellLongitude;
+  private long cellTime;
+  private float declination;
+
+  /** Caches the device's model of the Earth's field. */
+  public CachedMagneticDeclinationCalculator() {
+    this((latitude, longitude, timeInMillis) ->
+        new GeomagneticField(latitude, longitude, 0, timeInMillis).getDeclination());
+  }
+
+  public CachedMagneticDeclinationCalculator(DeclinationModel model) {
+    this.model = model;
+  }
+
+  /**
+   * {@inheritDoc}
+   * Silently returns zero if the time and location have not been set.
+   */
+  @Override
+  public float getDeclination() {
+    return declination;
+  }
+
+  @Override
+  public void setLocationAndTime(LatLong location, long timeInMillis) {
+    float latitudeCells = location.getLatitude() / GRID_DEGREES;
+    float longitudeCells = location.getLongitude() / GRID_DEGREES;
+    int latitude = (int) Math.floor(latitudeCells);
+    int longitude = (int) Math.floor(longitudeCells);
+    long time = Math.floorDiv(timeInMillis, GRID_MILLIS);
+    if (!hasCell || latitude != cellLatitude || longitude != cellLongitude || time != cellTime) {
+      loadCell(latitude, longitude, time);
+    }
+    float u = (float) (Math.floorMod(timeInMillis, GRID_MILLIS) / (double) GRID_MILLIS);
+    float v = latitudeCells - latitude;
+    float w = longitudeCells - longitude;
+    float value = 0;
+    for (int i = 0; i < 8; i++) {
+      float weight = ((i & 4) != 0 ? u : 1 - u)
+          * ((i & 2) != 0 ? v : 1 - v)
+          * ((i & 1) != 0 ? w : 1 - w);
+      value += weight * corners[i];
+    }
+    // Back into -180 to 180, in case the corners were unwrapped past it.
+    if (value > 180) {
+      value -= 360;
+    } else if (value < -180) {
+      value += 360;
+    }
+    declination = value;
+  }
+
+  private void loadCell(int latitude, int longitude, long time) {
+    for (int i = 0; i < 8; i++) {
+      float corner = sample(latitude + ((i >> 1) & 1), longitude + (i & 1), time + (i >> 2));
+      // Near the magnetic poles the declination can wrap around between corners.
+      if (i > 0) {
+        if (corner - corners[0] > 180) {
+          corner -= 360;
+        } else if (corner - corners[0] < -180) {
+          corner += 360;
+        }
+      }
+      corners[i] = corner;
+    }
+    cellLatitude = latitude;
+    cellLongitude = longitude;
+    cellTime = time;
+    hasCell = true;
+  }
+
+  private float sample(int latitude, int longitude, long time) {
+    // Latitudes span -90 to 90 and longitudes -180 to 180 whole cells, and time is in quarters
+    // of a year, so they pack into a long for any date that's wanted.
+    long key = (time << 20) | ((latitude + 256L) << 10) | (longitude + 512L);
+    Float cached = samples.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    float value = model.getDeclination(
+        Math.max(-90f, Math.min(90f, latitude * GRID_DEGREES)),
+        longitude * GRID_DEGREES,
+        time * GRID_MILLIS);
+    samples.put(key, value);
+    return value;
+  }
+
+  @Override
+  public String toString() {
+    return "Real Magnetic Correction";
+  }
+}
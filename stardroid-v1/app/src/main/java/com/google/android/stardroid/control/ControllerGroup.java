@@ -90,6 +90,7 @@ public class ControllerGroup implements Controller {
    */
   public void goTimeTravel(Date d) {
     transitioningClock.goTimeTravel(d);
+    timeChanged();
   }
 
   /**
@@ -105,6 +106,7 @@ public class ControllerGroup implements Controller {
    */
   public void useRealTime() {
     transitioningClock.returnToRealTime();
+    timeChanged();
   }
 
   /**
@@ -113,6 +115,7 @@ public class ControllerGroup implements Controller {
    */
   public void accelerateTimeTravel() {
     timeTravelClock.accelerateTimeTravel();
+    timeChanged();
   }
 
   /**
@@ -121,6 +124,7 @@ public class ControllerGroup implements Controller {
    */
   public void decelerateTimeTravel() {
     timeTravelClock.decelerateTimeTravel();
+    timeChanged();
   }
 
   /**
@@ -128,6 +132,14 @@ public class ControllerGroup implements Controller {
    */
   public void pauseTime() {
     timeTravelClock.pauseTime();
+    timeChanged();
+  }
+
+  // Moves the model's time on now, rather than at the next frame, for anything reading it before.
+  private void timeChanged() {
+    if (model != null) {
+      model.beginFrame();
+    }
   }
 
   /**
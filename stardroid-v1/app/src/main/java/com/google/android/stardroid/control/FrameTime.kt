@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2026 Penterakt LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.stardroid.control
+
+import com.google.android.stardroid.math.AstronomicalTime
+import com.google.android.stardroid.math.LatLong
+import java.util.Date
+
+/**
+ * The model's time for one frame, read from the clock once so that everything updated for the
+ * frame agrees on it, along with the values most often derived from it.  Those are shared, through
+ * [AstronomicalTime], with the ephemeris asking about the same time.
+ *
+ * @param millis the time, in milliseconds since the epoch, UTC.
+ */
+class FrameTime(val millis: Long) {
+    val astronomicalTime = AstronomicalTime.at(millis)
+
+    /** The Julian day, to the millisecond. */
+    val julianDay get() = astronomicalTime.julianDay
+
+    /** The Greenwich mean sidereal time, in degrees. */
+    val greenwichSiderealTime get() = astronomicalTime.greenwichSiderealTime.toFloat()
+
+    /**
+     * The time as a date, for APIs which take one.  It's shared by everything using this frame's
+     * time, on any thread, so must not be modified.
+     */
+    val date = Date(millis)
+
+    /**
+     * The local mean sidereal time at the given longitude, in degrees.  Longitude is negative
+     * west of Greenwich.
+     */
+    fun localSiderealTime(longitude: Float) = astronomicalTime.localSiderealTime(longitude)
+
+    /** The zenith, north and east at the location, which must not be modified. */
+    fun horizontalFrame(location: LatLong) = astronomicalTime.horizontalFrame(location)
+}
@@ -28,15 +28,15 @@ import javax.inject.Inject
 import javax.inject.Singleton
 import androidx.core.content.edit
 import com.google.android.stardroid.R
+import com.google.android.stardroid.util.AppExecutors
 import com.google.android.stardroid.util.MiscUtil
-import java.util.concurrent.ScheduledExecutorService
 
 @Singleton
 class LocationController @Inject constructor(
     private val locationProvider: LocationProvider,
     private val astronomerModel: AstronomerModel,
     private val preferences: SharedPreferences,
-    private val backgroundExecutor: ScheduledExecutorService,
+    private val executors: AppExecutors,
     @ApplicationContext private val context: Context
 ) : AbstractController() {
 
@@ -220,7 +220,8 @@ class LocationController @Inject constructor(
     }
 
     private fun showLocationToast(location: LatLong) {
-        backgroundExecutor.execute {
+        // Not worth showing once the user has left.
+        executors.executeUntilPause(AppExecutors.Lane.IO) {
             val name = tryReverseGeocode(location)
             val locName = name ?: context.getString(
                 R.string.location_long_lat,
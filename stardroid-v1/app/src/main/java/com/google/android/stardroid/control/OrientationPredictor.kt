@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2026 Penterakt LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.stardroid.control
+
+import kotlin.math.atan2
+import kotlin.math.cos
+import kotlin.math.sin
+import kotlin.math.sqrt
+
+/**
+ * Predicts the phone's orientation a short time ahead from its recent rotation vector samples, so
+ * that a frame can be drawn for when it will be seen rather than for when the sensor last
+ * reported.
+ *
+ * The angular velocity is estimated from the rotation between consecutive samples, smoothed to
+ * take the edge off sensor noise, and the latest orientation is rotated on at that rate to
+ * [horizonNanos] after the time of the prediction.  The extrapolation is limited to [maxLeadNanos]
+ * past the latest sample, since the longer it is the worse it gets when the phone changes
+ * direction, and the sensor may have stopped reporting.
+ *
+ * Quaternions are in the order of the rotation vector sensor: x, y, z, w.  Samples and
+ * predictions may come from different threads.
+ *
+ * @param horizonNanos how long after the prediction is made that it's seen: for a frame, the time
+ *     to draw it and for it to reach the display.  0 turns prediction off.
+ * @param maxLeadNanos the furthest past the latest sample the orientation is extrapolated.
+ * @param smoothing the weight, from 0 to 1, of each new angular velocity estimate against the
+ *     previous ones.
+ */
+class OrientationPredictor(
+    @Volatile var horizonNanos: Long = DEFAULT_HORIZON_NANOS,
+    @Volatile var maxLeadNanos: Long = DEFAULT_MAX_LEAD_NANOS,
+    private val smoothing: Double = DEFAULT_SMOOTHING
+) {
+    private val latest = DoubleArray(4)
+    private var latestNanos = NO_SAMPLE
+    // In radians per second, about the phone's axes.
+    private val angularVelocity = DoubleArray(3)
+
+    /** Whether there's been a sample since construction or the last [reset]. */
+    val hasSample: Boolean
+        get() = latestNanos != NO_SAMPLE
+
+    /** Forgets the samples, as when the sensor has been stopped. */
+    @Synchronized
+    fun reset() {
+        latestNanos = NO_SAMPLE
+        angularVelocity.fill(0.0)
+    }
+
+    /**
+     * Adds a sample from the rotation vector sensor.  If it has no w component, as on some older
+     * devices, it's computed from the others.
+     */
+    @Synchronized
+    fun addSample(timestampNanos: Long, rotationVector: FloatArray) {
+        val x = rotationVector[0].toDouble()
+        val y = rotationVector[1].toDouble()
+        val z = rotationVector[2].toDouble()
+        val w = if (rotationVector.size > 3) {
+            rotationVector[3].toDouble()
+        } else {
+            sqrt(maxOf(0.0, 1 - x * x - y * y - z * z))
+        }
+        val norm = sqrt(x * x + y * y + z * z + w * w)
+        if (norm < 1e-9) {
+            return
+        }
+        var sign = 1 / norm
+        if (hasSample && x * latest[0] + y * latest[1] + z * latest[2] + w * latest[3] < 0) {
+            // q and -q are the same orientation: keep to the hemisphere of the last sample, so
+            // that the rotation between them is the short way round.
+            sign = -sign
+        }
+        val qx = x * sign
+        val qy = y * sign
+        val qz = z * sign
+        val qw = w * sign
+
+        val dtNanos = timestampNanos - latestNanos
+        if (hasSample && dtNanos in 1..MAX_SAMPLE_GAP_NANOS) {
+            // The rotation from the last sample to this one, in the phone's frame: conj(p) * q.
+            val px = latest[0]
+            val py = latest[1]
+            val pz = latest[2]
+            val pw = latest[3]
+            val dw = pw * qw + px * qx + py * qy + pz * qz
+            val dx = pw * qx - px * qw - py * qz + pz * qy
+            val dy = pw * qy + px * qz - py * qw - pz * qx
+            val dz = pw * qz - px * qy + py * qx - pz * qw
+            val sinHalf = sqrt(dx * dx + dy * dy + dz * dz)
+            val dtSeconds = dtNanos * 1e-9
+            // The angle over the sine of half of it, divided by the time, scales the vector part
+            // to the angular velocity.  For tiny angles the ratio tends to 2.
+            val scale = if (sinHalf < 1e-9) {
+                2.0
+            } else {
+                2 * atan2(sinHalf, dw) / sinHalf
+            } / dtSeconds
+            angularVelocity[0] += smoothing * (dx * scale - angularVelocity[0])
+            angularVelocity[1] += smoothing * (dy * scale - angularVelocity[1])
+            angularVelocity[2] += smoothing * (dz * scale - angularVelocity[2])
+        } else {
+            // Too long since the last sample, or out of order, to tell how fast it's turning.
+            angularVelocity.fill(0.0)
+        }
+        latest[0] = qx
+        latest[1] = qy
+        latest[2] = qz
+        latest[3] = qw
+        latestNanos = timestampNanos
+    }
+
+    /**
+     * Writes the orientation predicted for [horizonNanos] after the given time, which is on the
+     * sensor's clock, into out as a rotation vector with its w component.  Does nothing if there
+     * have been no samples.
+     */
+    @Synchronized
+    fun predict(nowNanos: Long, out: FloatArray) {
+        if (!hasSample) {
+            return
+        }
+        val leadNanos = (nowNanos + horizonNanos - latestNanos).coerceIn(0, maxLeadNanos)
+        val leadSeconds = leadNanos * 1e-9
+        val ax = angularVelocity[0] * leadSeconds
+        val ay = angularVelocity[1] * leadSeconds
+        val az = angularVelocity[2] * leadSeconds
+        val angle = sqrt(ax * ax + ay * ay + az * az)
+        // The rotation over the lead time, as a quaternion r, applied in the phone's frame: q * r.
+        val rw = cos(angle / 2)
+        val s = if (angle < 1e-9) 0.5 else sin(angle / 2) / angle
+        val rx = ax * s
+        val ry = ay * s
+        val rz = az * s
+        val qx = latest[0]
+        val qy = latest[1]
+        val qz = latest[2]
+        val qw = latest[3]
+        out[0] = (qw * rx + qx * rw + qy * rz - qz * ry).toFloat()
+        out[1] = (qw * ry - qx * rz + qy * rw + qz * rx).toFloat()
+        out[2] = (qw * rz + qx * ry - qy * rx + qz * rw).toFloat()
+        out[3] = (qw * rw - qx * rx - qy * ry - qz * rz).toFloat()
+    }
+
+    companion object {
+        /**
+         * About two frames at 60 Hz: one until the view set after a frame is drawn, and one for
+         * that to be composited and displayed.
+         */
+        const val DEFAULT_HORIZON_NANOS = 33_000_000L
+        /** The horizon plus a sample interval at the rate the app asks for. */
+        const val DEFAULT_MAX_LEAD_NANOS = 53_000_000L
+        private const val DEFAULT_SMOOTHING = 0.5
+        // Longer than this between samples and the phone may have done anything in between.
+        private const val MAX_SAMPLE_GAP_NANOS = 100_000_000L
+        private const val NO_SAMPLE = Long.MIN_VALUE
+    }
+}
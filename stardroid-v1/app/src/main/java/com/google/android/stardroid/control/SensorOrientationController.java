@@ -24,8 +24,8 @@ import android.util.Log;
 
 import com.google.android.stardroid.ApplicationConstants;
 import com.google.android.stardroid.util.MiscUtil;
-import com.google.android.stardroid.util.smoothers.ExponentiallyWeightedSmoother;
 import com.google.android.stardroid.util.smoothers.PlainSmootherModelAdaptor;
+import com.google.android.stardroid.util.smoothers.SensorFusionSmoother;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -41,38 +41,26 @@ public class SensorOrientationController extends AbstractController
   // TODO(johntaylor): this class needs to be refactored to use the new
   // sensor API and to behave properly when sensors are not available.
 
-  private static class SensorDampingSettings {
-    public float damping;
-    public int exponent;
-    public SensorDampingSettings(float damping, int exponent) {
-      this.damping = damping;
-      this.exponent = exponent;
-    }
-  }
   private final static String TAG = MiscUtil.getTag(SensorOrientationController.class);
   /**
-   * Parameters that control the smoothing of the accelerometer and
-   * magnetic sensors.
+   * How much noisier than they seem the accelerometer and magnetic sensors are taken to be, for
+   * each damping preference.  The fusion filter learns the noise itself, so these only trade lag
+   * for steadiness.
+   */
+  private static final float[] MEASUREMENT_NOISE_SCALES = {1f, 4f, 16f, 64f};
+  /**
+   * How long the rotation sensor may hold samples in its FIFO while the phone is still, so that
+   * the CPU can sleep between batches.  It's also how long it can take to notice it being moved.
    */
-  private static final SensorDampingSettings[] ACC_DAMPING_SETTINGS = {
-        new SensorDampingSettings(0.7f, 3),
-        new SensorDampingSettings(0.7f, 3),
-        new SensorDampingSettings(0.1f, 3),
-        new SensorDampingSettings(0.1f, 3),
-  };
-  private static final SensorDampingSettings[] MAG_DAMPING_SETTINGS = {
-      new SensorDampingSettings(0.05f, 3),  // Derived for the Nexus One
-      new SensorDampingSettings(0.001f, 4),  // Derived for the unpatched MyTouch Slide
-      new SensorDampingSettings(0.0001f, 5),  // Just guessed for Nexus 6
-      new SensorDampingSettings(0.000001f, 5)  // Just guessed for Nexus 6
-  };
+  private static final int STILL_MAX_REPORT_LATENCY_US = 200000;
 
   private SensorManager manager;
-  private SensorEventListener accelerometerSmoother;
-  private SensorEventListener compassSmoother;
+  private SensorEventListener classicSensorSmoother;
   private Provider<PlainSmootherModelAdaptor> modelAdaptorProvider;
   private Sensor rotationSensor;
   private SharedPreferences sharedPreferences;
+  private final StillnessDetector stillnessDetector = new StillnessDetector();
+  private boolean batchWhenStill;
 
   @Inject
   SensorOrientationController(Provider<PlainSmootherModelAdaptor> modelAdaptorProvider,
@@ -92,14 +80,16 @@ public class SensorOrientationController extends AbstractController
       if (!sharedPreferences.getBoolean(ApplicationConstants.SHARED_PREFERENCE_DISABLE_GYRO,
           false) && rotationSensor != null) {
         Log.d(TAG, "Using rotation sensor");
-        manager.registerListener(this, rotationSensor, SensorManager.SENSOR_DELAY_GAME);
+        batchWhenStill = rotationSensor.getFifoMaxEventCount() > 0;
+        stillnessDetector.reset();
+        registerRotationSensor(false);
       } else {
         if (rotationSensor == null) {
           Log.w(TAG, "Rotation sensor not available, falling back to classic sensors");
         }
         // TODO(jontayler): remove this code once enough it's used in few enough phones.
         Log.d(TAG, "Using classic sensors");
-        Log.d(TAG, "Exponentially weighted smoothers used");
+        Log.d(TAG, "Sensor fusion smoother used");
         String dampingPreference = sharedPreferences.getString(
             ApplicationConstants.SENSOR_DAMPING_PREF_KEY,
             ApplicationConstants.SENSOR_DAMPING_STANDARD);
@@ -121,14 +111,8 @@ public class SensorOrientationController extends AbstractController
         } else if (ApplicationConstants.SENSOR_SPEED_HIGH.equals(speedPreference)) {
           sensorSpeed = SensorManager.SENSOR_DELAY_FASTEST;
         }
-        accelerometerSmoother = new ExponentiallyWeightedSmoother(
-            modelAdaptor,
-            ACC_DAMPING_SETTINGS[dampingIndex].damping,
-            ACC_DAMPING_SETTINGS[dampingIndex].exponent);
-        compassSmoother = new ExponentiallyWeightedSmoother(
-            modelAdaptor,
-            MAG_DAMPING_SETTINGS[dampingIndex].damping,
-            MAG_DAMPING_SETTINGS[dampingIndex].exponent);
+        classicSensorSmoother = new SensorFusionSmoother(
+            modelAdaptor, MEASUREMENT_NOISE_SCALES[dampingIndex]);
         Sensor accelerometer = manager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
         Sensor compass = manager.getDefaultSensor(Sensor.TYPE_MAGNETIC_FIELD);
         if (accelerometer == null || compass == null) {
@@ -136,12 +120,23 @@ public class SensorOrientationController extends AbstractController
           return;
         }
 
-        manager.registerListener(accelerometerSmoother,
+        manager.registerListener(classicSensorSmoother,
                                  accelerometer,
                                  sensorSpeed);
-        manager.registerListener(compassSmoother,
+        manager.registerListener(classicSensorSmoother,
                                  compass,
                                  sensorSpeed);
+        // The gyroscope turns the smoothed readings between samples, unless the user has turned it
+        // off or the magnetometer's z axis is reversed, when it would turn that the wrong way.
+        Sensor gyro = manager.getDefaultSensor(Sensor.TYPE_GYROSCOPE);
+        if (gyro != null
+            && !sharedPreferences.getBoolean(
+                ApplicationConstants.SHARED_PREFERENCE_DISABLE_GYRO, false)
+            && !sharedPreferences.getBoolean(
+                ApplicationConstants.REVERSE_MAGNETIC_Z_PREFKEY, false)) {
+          Log.d(TAG, "Fusing gyroscope with classic sensors");
+          manager.registerListener(classicSensorSmoother, gyro, sensorSpeed);
+        }
       }
     }
     Log.d(TAG, "Registered sensor listener");
@@ -150,19 +145,36 @@ public class SensorOrientationController extends AbstractController
   @Override
   public void stop() {
     Log.d(
-        TAG, "Unregistering sensor listeners: " + accelerometerSmoother + ", "
-            + compassSmoother + ", " + this);
-    manager.unregisterListener(accelerometerSmoother);
-    manager.unregisterListener(compassSmoother);
+        TAG, "Unregistering sensor listeners: " + classicSensorSmoother + ", " + this);
+    manager.unregisterListener(classicSensorSmoother);
     manager.unregisterListener(this);
   }
 
+  /**
+   * Registers for the rotation sensor at the game rate, with its samples batched if the phone is
+   * still or delivered as they're taken otherwise.
+   */
+  private void registerRotationSensor(boolean batched) {
+    manager.unregisterListener(this, rotationSensor);
+    if (batched) {
+      manager.registerListener(this, rotationSensor, SensorManager.SENSOR_DELAY_GAME,
+          STILL_MAX_REPORT_LATENCY_US);
+    } else {
+      manager.registerListener(this, rotationSensor, SensorManager.SENSOR_DELAY_GAME);
+    }
+  }
+
   @Override
   public void onSensorChanged(SensorEvent event) {
     if (event.sensor != rotationSensor) {
       return;
     }
-    model.setPhoneSensorValues(event.values);
+    model.setPhoneSensorValues(event.values, event.timestamp);
+    if (batchWhenStill && stillnessDetector.addSample(event.timestamp, event.values)) {
+      Log.d(TAG, stillnessDetector.isStill() ? "Still: batching rotation sensor"
+          : "Moving: unbatching rotation sensor");
+      registerRotationSensor(stillnessDetector.isStill());
+    }
   }
 
   @Override
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026 Penterakt LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.stardroid.control
+
+import kotlin.math.abs
+import kotlin.math.atan2
+import kotlin.math.sqrt
+
+/**
+ * Tells from the rotation vector sensor when the phone has been put down or mounted, so that the
+ * sensor can be batched, and when it's picked up again, so that it can be switched back.
+ *
+ * The phone's angular speed is measured between consecutive samples and its mean square, in
+ * effect the variance of the rotation vector over time, is smoothed.  The phone is still once that
+ * has stayed low for [stillNanos], and moving again as soon as it, or any single sample, is high.
+ *
+ * @param stillNanos how long the phone must be steady to count as still.
+ */
+class StillnessDetector(private val stillNanos: Long = DEFAULT_STILL_NANOS) {
+    private val last = DoubleArray(4)
+    private var lastNanos = NO_SAMPLE
+    private var steadySinceNanos = NO_SAMPLE
+    // Of the angular speed, in radians per second.
+    private var meanSquareSpeed = 0.0
+
+    /** Whether the phone is still. */
+    var isStill = false
+        private set
+
+    /** Forgets the samples, as when the sensor has been stopped. */
+    fun reset() {
+        lastNanos = NO_SAMPLE
+        steadySinceNanos = NO_SAMPLE
+        meanSquareSpeed = 0.0
+        isStill = false
+    }
+
+    /**
+     * Adds a sample from the rotation vector sensor, and returns whether that changed [isStill].
+     */
+    fun addSample(timestampNanos: Long, rotationVector: FloatArray): Boolean {
+        val x = rotationVector[0].toDouble()
+        val y = rotationVector[1].toDouble()
+        val z = rotationVector[2].toDouble()
+        val w = if (rotationVector.size > 3) {
+            rotationVector[3].toDouble()
+        } else {
+            sqrt(maxOf(0.0, 1 - x * x - y * y - z * z))
+        }
+        val norm = sqrt(x * x + y * y + z * z + w * w)
+        if (norm < 1e-9) {
+            return false
+        }
+        val qx = x / norm
+        val qy = y / norm
+        val qz = z / norm
+        val qw = w / norm
+        val dtNanos = timestampNanos - lastNanos
+        val hadSample = lastNanos != NO_SAMPLE
+        // The rotation from the last sample to this one is conj(p) * q.  Its angle is taken from
+        // its vector part, which unlike its w component keeps its precision for tiny turns.
+        val px = last[0]
+        val py = last[1]
+        val pz = last[2]
+        val pw = last[3]
+        val dw = pw * qw + px * qx + py * qy + pz * qz
+        val dx = pw * qx - px * qw - py * qz + pz * qy
+        val dy = pw * qy + px * qz - py * qw - pz * qx
+        val dz = pw * qz - px * qy + py * qx - pz * qw
+        last[0] = qx
+        last[1] = qy
+        last[2] = qz
+        last[3] = qw
+        lastNanos = timestampNanos
+        if (!hadSample || dtNanos <= 0) {
+            steadySinceNanos = timestampNanos
+            return false
+        }
+        val angle = 2 * atan2(sqrt(dx * dx + dy * dy + dz * dz), abs(dw))
+        val speed = angle / (dtNanos * 1e-9)
+        meanSquareSpeed += SMOOTHING * (speed * speed - meanSquareSpeed)
+
+        val wasStill = isStill
+        if (speed > MOVING_SPEED || meanSquareSpeed > STILL_SPEED * STILL_SPEED) {
+            steadySinceNanos = timestampNanos
+            isStill = false
+        } else if (timestampNanos - steadySinceNanos >= stillNanos) {
+            isStill = true
+        }
+        return isStill != wasStill
+    }
+
+    companion object {
+        const val DEFAULT_STILL_NANOS = 2_000_000_000L
+        // Slower than about 3 degrees a second, on average, is a phone held on a tripod or put
+        // down; a single sample faster than about 10 is it being moved.
+        private const val STILL_SPEED = 0.05
+        private const val MOVING_SPEED = 0.2
+        private const val SMOOTHING = 0.1
+        private const val NO_SAMPLE = Long.MIN_VALUE
+    }
+}
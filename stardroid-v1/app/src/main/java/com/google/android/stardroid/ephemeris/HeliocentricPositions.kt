@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2026 Penterakt LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.stardroid.ephemeris
+
+import kotlin.math.cos
+import kotlin.math.sin
+
+/** The number of orbital elements [SolarSystemBody.writeOrbitalElements] writes. */
+internal const val ORBITAL_ELEMENT_COUNT = 6
+
+/**
+ * Writes the heliocentric ecliptic positions of the bodies, in AU, at each of the times into
+ * [out]: x, y and z for each body in turn at the first time, then for each at the second, and so
+ * on.  It's all in double precision, in flat arrays, so that many bodies and times make one tight
+ * loop; callers convert to float only at the last, as the renderer wants it.
+ *
+ * @param julianCenturies the times, in Julian centuries from J2000.0.
+ */
+fun heliocentricPositions(
+    bodies: Array<SolarSystemBody>,
+    julianCenturies: DoubleArray,
+    out: DoubleArray
+) {
+    require(out.size >= 3 * bodies.size * julianCenturies.size) { "Output too small" }
+    val elements = DoubleArray(ORBITAL_ELEMENT_COUNT)
+    var offset = 0
+    for (jc in julianCenturies) {
+        for (body in bodies) {
+            body.writeOrbitalElements(jc, elements)
+            writeHeliocentricPosition(elements, out, offset)
+            offset += 3
+        }
+    }
+}
+
+/**
+ * Converts orbital elements, as written by [SolarSystemBody.writeOrbitalElements], to cartesian
+ * coordinates centered on the sun with a z-axis normal to Earth's orbital plane, in AU.
+ */
+private fun writeHeliocentricPosition(elements: DoubleArray, out: DoubleArray, offset: Int) {
+    val distance = elements[0]
+    val ecc = elements[1]
+    val inc = elements[2]
+    val asc = elements[3]
+    val per = elements[4]
+    val anomaly = trueAnomaly(elements[5] - per, ecc)
+    val radius = distance * (1 - ecc * ecc) / (1 + ecc * cos(anomaly))
+
+    // heliocentric rectangular coordinates of planet
+    val u = anomaly + per - asc
+    out[offset] = radius * (cos(asc) * cos(u) - sin(asc) * sin(u) * cos(inc))
+    out[offset + 1] = radius * (sin(asc) * cos(u) + cos(asc) * sin(u) * cos(inc))
+    out[offset + 2] = radius * (sin(u) * sin(inc))
+}
@@ -18,9 +18,9 @@ package com.google.android.stardroid.ephemeris
 
 import com.google.android.stardroid.R
 import com.google.android.stardroid.base.TimeConstants
-import com.google.android.stardroid.math.DEGREES_TO_RADIANS
+import com.google.android.stardroid.math.Vector3
 import com.google.android.stardroid.math.julianCenturies
-import com.google.android.stardroid.math.mod2pi
+import com.google.android.stardroid.math.positiveMod
 import com.google.android.stardroid.util.MiscUtil
 import java.util.*
 
@@ -101,94 +101,120 @@ enum class SolarSystemBody
     Moon(R.drawable.moon4, R.string.moon, TimeConstants.MILLISECONDS_PER_MINUTE, 1737.0f),
     Earth(R.drawable.earth, R.string.earth, TimeConstants.MILLISECONDS_PER_HOUR, 6371.0f);
 
+    /**
+     * The body's orbital elements at the date, for rendering and the like; the positions are
+     * worked out from [writeOrbitalElements] in double precision.
+     */
+    fun getOrbitalElements(date: Date): OrbitalElements {
+        val elements = DoubleArray(ORBITAL_ELEMENT_COUNT)
+        writeOrbitalElements(julianCenturies(date), elements)
+        return OrbitalElements(
+            elements[0].toFloat(), elements[1].toFloat(), elements[2].toFloat(),
+            elements[3].toFloat(), elements[4].toFloat(), elements[5].toFloat()
+        )
+    }
+
+    /**
+     * The body's heliocentric ecliptic position in AU, for rendering and the like, from
+     * [heliocentricPositions].
+     */
+    fun getHeliocentricCoordinates(date: Date): Vector3 {
+        val position = DoubleArray(3)
+        heliocentricPositions(arrayOf(this), doubleArrayOf(julianCenturies(date)), position)
+        return Vector3(position[0].toFloat(), position[1].toFloat(), position[2].toFloat())
+    }
+
     // Taken from JPL's Planetary Positions page: http://ssd.jpl.nasa.gov/?planet_pos
     // This gives us a good approximation for the years 1800 to 2050 AD.
     // TODO(serafini): Update the numbers so we can extend the approximation to cover 
     // 3000 BC to 3000 AD.
-    fun getOrbitalElements(date: Date): OrbitalElements {
-        // Centuries since J2000
-        val jc = julianCenturies(date).toFloat()
-        return when (this) {
+    /**
+     * Writes the body's orbital elements at [julianCenturies] from J2000 into [out], in the order
+     * of [OrbitalElements]' properties, with the angles in radians.
+     */
+    internal fun writeOrbitalElements(julianCenturies: Double, out: DoubleArray) {
+        val jc = julianCenturies
+        when (this) {
             Mercury -> {
-                val a = 0.38709927f + 0.00000037f * jc
-                val e = 0.20563593f + 0.00001906f * jc
-                val i: Float = (7.00497902f - 0.00594749f * jc) * DEGREES_TO_RADIANS
-                val l = mod2pi((252.25032350f + 149472.67411175f * jc) * DEGREES_TO_RADIANS)
-                val w: Float = (77.45779628f + 0.16047689f * jc) * DEGREES_TO_RADIANS
-                val o: Float = (48.33076593f - 0.12534081f * jc) * DEGREES_TO_RADIANS
-                OrbitalElements(a, e, i, o, w, l)
+                val a = 0.38709927 + 0.00000037 * jc
+                val e = 0.20563593 + 0.00001906 * jc
+                val i = 7.00497902 - 0.00594749 * jc
+                val l = 252.25032350 + 149472.67411175 * jc
+                val w = 77.45779628 + 0.16047689 * jc
+                val o = 48.33076593 - 0.12534081 * jc
+                writeElements(out, a, e, i, o, w, l)
             }
             Venus -> {
-                val a = 0.72333566f + 0.00000390f * jc
-                val e = 0.00677672f - 0.00004107f * jc
-                val i: Float = (3.39467605f - 0.00078890f * jc) * DEGREES_TO_RADIANS
-                val l = mod2pi((181.97909950f + 58517.81538729f * jc) * DEGREES_TO_RADIANS)
-                val w: Float = (131.60246718f + 0.00268329f * jc) * DEGREES_TO_RADIANS
-                val o: Float = (76.67984255f - 0.27769418f * jc) * DEGREES_TO_RADIANS
-                OrbitalElements(a, e, i, o, w, l)
+                val a = 0.72333566 + 0.00000390 * jc
+                val e = 0.00677672 - 0.00004107 * jc
+                val i = 3.39467605 - 0.00078890 * jc
+                val l = 181.97909950 + 58517.81538729 * jc
+                val w = 131.60246718 + 0.00268329 * jc
+                val o = 76.67984255 - 0.27769418 * jc
+                writeElements(out, a, e, i, o, w, l)
             }
             Earth -> {
-                val a = 1.00000261f + 0.00000562f * jc
-                val e = 0.01671123f - 0.00004392f * jc
-                val i: Float = (-0.00001531f - 0.01294668f * jc) * DEGREES_TO_RADIANS
-                val l = mod2pi((100.46457166f + 35999.37244981f * jc) * DEGREES_TO_RADIANS)
-                val w: Float = (102.93768193f + 0.32327364f * jc) * DEGREES_TO_RADIANS
-                val o = 0.0f
-                OrbitalElements(a, e, i, o, w, l)
+                val a = 1.00000261 + 0.00000562 * jc
+                val e = 0.01671123 - 0.00004392 * jc
+                val i = -0.00001531 - 0.01294668 * jc
+                val l = 100.46457166 + 35999.37244981 * jc
+                val w = 102.93768193 + 0.32327364 * jc
+                val o = 0.0
+                writeElements(out, a, e, i, o, w, l)
             }
             Mars -> {
-                val a = 1.52371034f + 0.00001847f * jc
-                val e = 0.09339410f + 0.00007882f * jc
-                val i: Float = (1.84969142f - 0.00813131f * jc) * DEGREES_TO_RADIANS
-                val l = mod2pi((-4.55343205f + 19140.30268499f * jc) * DEGREES_TO_RADIANS)
-                val w: Float = (-23.94362959f + 0.44441088f * jc) * DEGREES_TO_RADIANS
-                val o: Float = (49.55953891f - 0.29257343f * jc) * DEGREES_TO_RADIANS
-                OrbitalElements(a, e, i, o, w, l)
+                val a = 1.52371034 + 0.00001847 * jc
+                val e = 0.09339410 + 0.00007882 * jc
+                val i = 1.84969142 - 0.00813131 * jc
+                val l = -4.55343205 + 19140.30268499 * jc
+                val w = -23.94362959 + 0.44441088 * jc
+                val o = 49.55953891 - 0.29257343 * jc
+                writeElements(out, a, e, i, o, w, l)
             }
             Jupiter -> {
-                val a = 5.20288700f - 0.00011607f * jc
-                val e = 0.04838624f - 0.00013253f * jc
-                val i: Float = (1.30439695f - 0.00183714f * jc) * DEGREES_TO_RADIANS
-                val l = mod2pi((34.39644051f + 3034.74612775f * jc) * DEGREES_TO_RADIANS)
-                val w: Float = (14.72847983f + 0.21252668f * jc) * DEGREES_TO_RADIANS
-                val o: Float = (100.47390909f + 0.20469106f * jc) * DEGREES_TO_RADIANS
-                OrbitalElements(a, e, i, o, w, l)
+                val a = 5.20288700 - 0.00011607 * jc
+                val e = 0.04838624 - 0.00013253 * jc
+                val i = 1.30439695 - 0.00183714 * jc
+                val l = 34.39644051 + 3034.74612775 * jc
+                val w = 14.72847983 + 0.21252668 * jc
+                val o = 100.47390909 + 0.20469106 * jc
+                writeElements(out, a, e, i, o, w, l)
             }
             Saturn -> {
-                val a = 9.53667594f - 0.00125060f * jc
-                val e = 0.05386179f - 0.00050991f * jc
-                val i: Float = (2.48599187f + 0.00193609f * jc) * DEGREES_TO_RADIANS
-                val l = mod2pi((49.95424423f + 1222.49362201f * jc) * DEGREES_TO_RADIANS)
-                val w: Float = (92.59887831f - 0.41897216f * jc) * DEGREES_TO_RADIANS
-                val o: Float = (113.66242448f - 0.28867794f * jc) * DEGREES_TO_RADIANS
-                OrbitalElements(a, e, i, o, w, l)
+                val a = 9.53667594 - 0.00125060 * jc
+                val e = 0.05386179 - 0.00050991 * jc
+                val i = 2.48599187 + 0.00193609 * jc
+                val l = 49.95424423 + 1222.49362201 * jc
+                val w = 92.59887831 - 0.41897216 * jc
+                val o = 113.66242448 - 0.28867794 * jc
+                writeElements(out, a, e, i, o, w, l)
             }
             Uranus -> {
-                val a = 19.18916464f - 0.00196176f * jc
-                val e = 0.04725744f - 0.00004397f * jc
-                val i: Float = (0.77263783f - 0.00242939f * jc) * DEGREES_TO_RADIANS
-                val l = mod2pi((313.23810451f + 428.48202785f * jc) * DEGREES_TO_RADIANS)
-                val w: Float = (170.95427630f + 0.40805281f * jc) * DEGREES_TO_RADIANS
-                val o: Float = (74.01692503f + 0.04240589f * jc) * DEGREES_TO_RADIANS
-                OrbitalElements(a, e, i, o, w, l)
+                val a = 19.18916464 - 0.00196176 * jc
+                val e = 0.04725744 - 0.00004397 * jc
+                val i = 0.77263783 - 0.00242939 * jc
+                val l = 313.23810451 + 428.48202785 * jc
+                val w = 170.95427630 + 0.40805281 * jc
+                val o = 74.01692503 + 0.04240589 * jc
+                writeElements(out, a, e, i, o, w, l)
             }
             Neptune -> {
-                val a = 30.06992276f + 0.00026291f * jc
-                val e = 0.00859048f + 0.00005105f * jc
-                val i: Float = (1.77004347f + 0.00035372f * jc) * DEGREES_TO_RADIANS
-                val l = mod2pi((-55.12002969f + 218.45945325f * jc) * DEGREES_TO_RADIANS)
-                val w: Float = (44.96476227f - 0.32241464f * jc) * DEGREES_TO_RADIANS
-                val o: Float = (131.78422574f - 0.00508664f * jc) * DEGREES_TO_RADIANS
-                OrbitalElements(a, e, i, o, w, l)
+                val a = 30.06992276 + 0.00026291 * jc
+                val e = 0.00859048 + 0.00005105 * jc
+                val i = 1.77004347 + 0.00035372 * jc
+                val l = -55.12002969 + 218.45945325 * jc
+                val w = 44.96476227 - 0.32241464 * jc
+                val o = 131.78422574 - 0.00508664 * jc
+                writeElements(out, a, e, i, o, w, l)
             }
             Pluto -> {
-                val a = 39.48211675f - 0.00031596f * jc
-                val e = 0.24882730f + 0.00005170f * jc
-                val i: Float = (17.14001206f + 0.00004818f * jc) * DEGREES_TO_RADIANS
-                val l = mod2pi((238.92903833f + 145.20780515f * jc) * DEGREES_TO_RADIANS)
-                val w: Float = (224.06891629f - 0.04062942f * jc) * DEGREES_TO_RADIANS
-                val o: Float = (110.30393684f - 0.01183482f * jc) * DEGREES_TO_RADIANS
-                OrbitalElements(a, e, i, o, w, l)
+                val a = 39.48211675 - 0.00031596 * jc
+                val e = 0.24882730 + 0.00005170 * jc
+                val i = 17.14001206 + 0.00004818 * jc
+                val l = 238.92903833 + 145.20780515 * jc
+                val w = 224.06891629 - 0.04062942 * jc
+                val o = 110.30393684 - 0.01183482 * jc
+                writeElements(out, a, e, i, o, w, l)
             }
             else -> throw RuntimeException("Unknown orbital elements for Solar System Object: $this")
         }
@@ -196,5 +222,16 @@ enum class SolarSystemBody
 
     companion object {
         private val TAG = MiscUtil.getTag(SolarSystemBody::class.java)
+
+        // Converts the angles, in degrees as the table has them, to radians.
+        private fun writeElements(out: DoubleArray, a: Double, e: Double, i: Double, o: Double,
+                                  w: Double, l: Double) {
+            out[0] = a
+            out[1] = e
+            out[2] = Math.toRadians(i)
+            out[3] = Math.toRadians(o)
+            out[4] = Math.toRadians(w)
+            out[5] = positiveMod(Math.toRadians(l), 2 * Math.PI)
+        }
     }
 }
\ No newline at end of file
@@ -23,7 +23,6 @@ import com.google.android.stardroid.base.Lists
 import com.google.android.stardroid.control.AstronomerModel
 import com.google.android.stardroid.math.Vector3
 import com.google.android.stardroid.math.convertToEquatorialCoordinates
-import com.google.android.stardroid.math.heliocentricCoordinatesFromOrbitalElements
 import com.google.android.stardroid.math.updateFromRaDec
 import com.google.android.stardroid.renderables.*
 import com.google.android.stardroid.renderer.RendererObjectManager.UpdateType
@@ -53,7 +52,8 @@ class SolarSystemRenderable(
     private var imageId = -1
     private var lastUpdateTimeMs = 0L
     private var lastImageScale = Float.NaN
-    private val universe = Universe()
+    // Positions are asked for every frame while time travel plays, so they're stepped.
+    private val universe = Universe(stepped = true)
     override val names: List<String>
         get() = Lists.asList(name)
     override val searchLocation: Vector3
@@ -61,7 +61,7 @@ class SolarSystemRenderable(
 
     private fun updateCoords(time: Date) {
         lastUpdateTimeMs = time.time
-        earthCoords = heliocentricCoordinatesFromOrbitalElements(SolarSystemBody.Earth.getOrbitalElements(time))
+        earthCoords = SolarSystemBody.Earth.getHeliocentricCoordinates(time)
         currentCoords.updateFromRaDec(
             universe.getTopocentricRaDec(solarSystemBody, time, model.location)
         )
@@ -126,11 +126,12 @@ class SolarSystemRenderable(
 
     override fun update(): EnumSet<UpdateType> {
         val updates = EnumSet.noneOf(UpdateType::class.java)
-        val modelTime = model.time
+        val frameTime = model.frameTime
+        val modelTime = frameTime.date
         if (updateScale(modelTime)) {
             updates.add(UpdateType.UpdatePositions)
         }
-        if (Math.abs(modelTime.time - lastUpdateTimeMs) > solarSystemObject.getUpdateFrequencyMs()) {
+        if (Math.abs(frameTime.millis - lastUpdateTimeMs) > solarSystemObject.getUpdateFrequencyMs()) {
             updates.add(UpdateType.UpdatePositions)
             // update location
             updateCoords(modelTime)
@@ -164,7 +165,6 @@ class SolarSystemRenderable(
         this.model = model
         name = resources.getString(solarSystemObject.getNameResourceId())
         preferences = prefs
-        earthCoords = heliocentricCoordinatesFromOrbitalElements(
-            SolarSystemBody.Earth.getOrbitalElements(model.time))
+        earthCoords = SolarSystemBody.Earth.getHeliocentricCoordinates(model.time)
     }
 }
\ No newline at end of file
@@ -21,6 +21,8 @@ import android.content.res.AssetManager
 import android.content.res.Resources
 import android.util.Log
 import com.google.android.stardroid.renderer.RendererObjectManager.UpdateType
+import com.google.android.stardroid.renderer.util.SkyRegionMap
+import com.google.android.stardroid.renderables.AbstractPrimitive
 import com.google.android.stardroid.renderables.AstronomicalRenderable
 import com.google.android.stardroid.renderables.proto.ProtobufAstronomicalRenderable
 import com.google.android.stardroid.source.proto.SourceProto
@@ -30,7 +32,6 @@ import java.io.IOException
 import java.io.InputStream
 import java.util.*
 import java.util.concurrent.Executor
-import java.util.concurrent.Executors
 
 /**
  * Implementation of the [Layer] interface which reads its data from
@@ -43,12 +44,13 @@ abstract class AbstractFileBasedLayer(
     private val assetManager: AssetManager,
     resources: Resources,
     private val fileName: String,
-    private val prefs: SharedPreferences
+    private val prefs: SharedPreferences,
+    private val loadExecutor: Executor
 ) : AbstractRenderablesLayer(resources, false, prefs) {
     private val fileSources: MutableList<AstronomicalRenderable> = ArrayList()
     @Synchronized
     override fun initialize() {
-        BACKGROUND_EXECUTOR.execute {
+        loadExecutor.execute {
             readSourceFile(fileName)
             super@AbstractFileBasedLayer.initialize()
         }
@@ -66,11 +68,13 @@ abstract class AbstractFileBasedLayer(
             inputStream = assetManager.open(sourceFilename, AssetManager.ACCESS_BUFFER)
             val parser = SourceProto.AstronomicalSourcesProto.parser()
             val sources = parser.parseFrom(inputStream)
-            for (proto in sources.sourceList) {
+            val regions = sourceRegions(sources.regionStartList, sources.sourceCount)
+            for ((i, proto) in sources.sourceList.withIndex()) {
                 fileSources.add(
                     ProtobufAstronomicalRenderable(
                         proto,
                         resources,
+                        regions[i],
                     )
                 )
             }
@@ -90,6 +94,29 @@ abstract class AbstractFileBasedLayer(
 
     companion object {
         private val TAG = MiscUtil.getTag(AbstractFileBasedLayer::class.java)
-        private val BACKGROUND_EXECUTOR: Executor = Executors.newFixedThreadPool(1)
+
+        /**
+         * Returns the sky region of each of the sources of a catalog, from its region index.
+         * Catalogs compiled with a region index are sorted by region, with the sources spanning
+         * more than one region last; those, and all of the sources of a catalog without an
+         * index, are [AbstractPrimitive.REGION_UNKNOWN].
+         */
+        internal fun sourceRegions(regionStarts: List<Int>, numSources: Int): IntArray {
+            val regions = IntArray(numSources) { AbstractPrimitive.REGION_UNKNOWN }
+            val numRegions = SkyRegionMap.REGION_CENTERS.size
+            if (regionStarts.size != numRegions + 1) {
+                return regions
+            }
+            var region = 0
+            for (i in 0 until numSources) {
+                while (region < numRegions && i >= regionStarts[region + 1]) {
+                    region++
+                }
+                if (region < numRegions) {
+                    regions[i] = region
+                }
+            }
+            return regions
+        }
     }
 }
\ No newline at end of file
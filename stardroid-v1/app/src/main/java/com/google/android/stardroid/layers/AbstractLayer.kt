@@ -19,7 +19,9 @@ package com.google.android.stardroid.layers
 import android.content.SharedPreferences
 import android.content.res.Resources
 import com.google.android.stardroid.ApplicationConstants
+import com.google.android.stardroid.math.Matrix4x4
 import com.google.android.stardroid.renderables.*
+import com.google.android.stardroid.renderer.QualityGovernor
 import com.google.android.stardroid.renderer.RendererController
 import com.google.android.stardroid.renderer.RendererController.AtomicSection
 import com.google.android.stardroid.renderer.RendererControllerBase
@@ -44,6 +46,10 @@ abstract class AbstractLayer(protected val resources: Resources,
     // TODO(jontayler): Try to structure the code better to prevent this from being accessed
     // before initialization.
     private /*lateinit*/ var renderer: RendererController? = null
+    // Kept so that registering with another renderer doesn't add a second listener.
+    private val qualityLevelListener = QualityGovernor.Listener { onQualityLevelChanged(it) }
+    // Applied to the managers as they're created, as well as when it's set.
+    private var modelMatrix: Matrix4x4? = null
 
     protected val fontSizeScale: Double
         get() = when(preferences.getString(ApplicationConstants.FONT_SIZE,
@@ -61,11 +67,19 @@ abstract class AbstractLayer(protected val resources: Resources,
     override fun registerWithRenderer(rendererController: RendererController) {
         renderMap.clear()
         renderer = rendererController
+        rendererController.queueLabelScale(fontSizeScale.toFloat())
+        rendererController.addQualityLevelListener(qualityLevelListener)
         updateLayerForControllerChange()
     }
 
     protected abstract fun updateLayerForControllerChange()
 
+    /**
+     * Called on the GL thread when the [QualityGovernor] changes the level of detail.  Layers
+     * with geometry that can be simplified should override this.
+     */
+    protected open fun onQualityLevelChanged(level: Int) {}
+
     override fun setVisible(visible: Boolean) {
         if (renderer == null) return
         renderMapLock.lock()
@@ -80,6 +94,25 @@ abstract class AbstractLayer(protected val resources: Resources,
         }
     }
 
+    /**
+     * Places this layer's primitives, which are given in their own frame, on the sky with the
+     * given rotation from that frame to celestial coordinates.  See
+     * [com.google.android.stardroid.renderer.RendererObjectManager.setModelMatrix].
+     */
+    protected fun setModelMatrix(matrix: Matrix4x4) {
+        renderMapLock.lock()
+        try {
+            modelMatrix = matrix
+            val atomic = renderer?.createAtomic() ?: return
+            for ((_, value) in renderMap) {
+                value.queueModelMatrix(matrix, atomic)
+            }
+            renderer?.queueAtomic(atomic)
+        } finally {
+            renderMapLock.unlock()
+        }
+    }
+
     protected fun addUpdateClosure(closure: Runnable) {
         renderer?.addUpdateClosure(closure)
     }
@@ -138,6 +171,7 @@ abstract class AbstractLayer(protected val resources: Resources,
         var manager = renderMap[clazz] as RenderManager<E>?
         if (manager == null) {
             manager = createRenderManager(atomic)
+            modelMatrix?.let { manager.queueModelMatrix(it, atomic) }
             renderMap[clazz] = manager
         }
         manager.queueObjects(sources, updateType, atomic)
@@ -149,8 +183,7 @@ abstract class AbstractLayer(protected val resources: Resources,
         @Suppress("UNCHECKED_CAST")
         when (E::class) {
             ImagePrimitive::class -> controller.createImageManager(layerDepthOrder) as RenderManager<E>
-            TextPrimitive::class -> controller.createLabelManager(layerDepthOrder, fontSizeScale) as
-                RenderManager<E>
+            TextPrimitive::class -> controller.createLabelManager(layerDepthOrder) as RenderManager<E>
             LinePrimitive::class -> controller.createLineManager(layerDepthOrder) as RenderManager<E>
             PointPrimitive::class -> controller.createPointManager(layerDepthOrder) as RenderManager<E>
             HorizonGlowPrimitive::class -> controller.createHorizonGlowManager(layerDepthOrder) as
@@ -191,32 +224,14 @@ abstract class AbstractLayer(protected val resources: Resources,
 
     override fun onSharedPreferenceChanged(sharedPreferences: SharedPreferences?, key: String?) {
         if (key == ApplicationConstants.FONT_SIZE) {
-            // Font size changed - need to regenerate label textures
             onFontSizeChanged()
         }
     }
 
     protected open fun onFontSizeChanged() {
-        // Default implementation: clear render map to force recreation of managers
-        // with new font size scale
-        val localRenderer = renderer
-        if (localRenderer != null) {
-            renderMapLock.lock()
-            try {
-                // First disable all existing managers and clear their objects
-                val atomic = localRenderer.createAtomic()
-                if (atomic != null) {
-                    for ((_, value) in renderMap) {
-                        value.queueEnabled(false, atomic)
-                    }
-                    localRenderer.queueAtomic(atomic)
-                }
-                // Now clear the map so new managers will be created
-                renderMap.clear()
-            } finally {
-                renderMapLock.unlock()
-            }
-        }
+        // Labels are scaled when they're drawn, so there's nothing to rebuild.  The scale is
+        // shared by all layers, so every layer setting it is harmless.
+        renderer?.queueLabelScale(fontSizeScale.toFloat())
     }
 
     private val TAG = MiscUtil.getTag(AbstractLayer::class.java)
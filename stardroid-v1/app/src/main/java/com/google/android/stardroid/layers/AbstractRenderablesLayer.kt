@@ -46,6 +46,23 @@ abstract class AbstractRenderablesLayer(resources: Resources, private val should
 
   @Synchronized
   override fun initialize() {
+    collectSources()
+
+    // update the renderer
+    updateLayerForControllerChange()
+  }
+
+  /**
+   * Recreates the sources and redraws them, for when something they're initialized from has
+   * changed.
+   */
+  @Synchronized
+  protected fun rebuildSources() {
+    collectSources()
+    refreshSources(EnumSet.of(UpdateType.Reset))
+  }
+
+  private fun collectSources() {
     astroRenderables.clear()
     // Clear cached primitives to allow re-collection when preferences change
     textPrimitives.clear()
@@ -69,9 +86,6 @@ abstract class AbstractRenderablesLayer(resources: Resources, private val should
         }
       }
     }
-
-    // update the renderer
-    updateLayerForControllerChange()
   }
 
   override fun updateLayerForControllerChange() {
@@ -117,14 +131,6 @@ abstract class AbstractRenderablesLayer(resources: Resources, private val should
       imagePrimitives, glowPrimitives, updateTypes)
   }
 
-  override fun onFontSizeChanged() {
-    // First clear render map to force recreation of managers with new font scale
-    super.onFontSizeChanged()
-    // Redraw with existing primitives using new managers (with updated fontSizeScale)
-    // Don't call initialize() as it would clear primitive lists while GL thread is using them
-    refreshSources(EnumSet.of(UpdateType.Reset))
-  }
-
   override fun searchByObjectName(name: String): List<SearchResult> {
     Log.d(TAG, "Search $layerName layer for $name")
     val matches = ArrayList<SearchResult>()
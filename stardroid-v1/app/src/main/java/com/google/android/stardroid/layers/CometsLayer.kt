@@ -28,6 +28,7 @@ import com.google.android.stardroid.math.RaDec.Companion.raDegreesFromHMS
 import com.google.android.stardroid.math.Vector3
 import com.google.android.stardroid.math.getGeocentricCoords
 import com.google.android.stardroid.renderables.*
+import com.google.android.stardroid.renderables.AbstractPrimitive.UpdateGranularity
 import com.google.android.stardroid.renderer.RendererObjectManager.UpdateType
 import com.google.android.stardroid.util.MiscUtil
 import com.google.android.stardroid.util.dateFromUtcHmd
@@ -277,6 +278,7 @@ class CometsLayer(private val model: AstronomerModel, resources: Resources,
 
   // This is the same as the meteor layer.
   override val preferenceId = METEOR_SOURCE_PROVIDER
+  override val updateGranularity = UpdateGranularity.Hour
   override val layerName = "Comets"
   override val layerNameId = R.string.show_comet_layer_pref
 
@@ -299,9 +301,9 @@ class CometsLayer(private val model: AstronomerModel, resources: Resources,
       private set
 
     private fun updateComets() {
-      lastUpdateTimeMs = model.time.time
+      lastUpdateTimeMs = model.frameTime.millis
       // We will only show the comet between certain times.
-      val now = model.time
+      val now = model.frameTime.date
       theImage.setUpVector(UP)
       if (now.after(comet.start) && now.before(comet.end)) {
         label.text = name
@@ -327,7 +329,7 @@ class CometsLayer(private val model: AstronomerModel, resources: Resources,
 
     override fun update(): EnumSet<UpdateType> {
       val updateTypes = EnumSet.noneOf(UpdateType::class.java)
-      if (abs(model.time.time - lastUpdateTimeMs) > UPDATE_FREQ_MS) {
+      if (abs(model.frameTime.millis - lastUpdateTimeMs) > UPDATE_FREQ_MS) {
         updateComets()
         updateTypes.add(UpdateType.UpdateImages)
         updateTypes.add(UpdateType.Reset)
@@ -20,6 +20,7 @@ import android.content.SharedPreferences
 import android.content.res.AssetManager
 import android.content.res.Resources
 import com.google.android.stardroid.R
+import java.util.concurrent.Executor
 
 /**
  * An implementation of the [AbstractFileBasedLayer] to display
@@ -28,8 +29,12 @@ import com.google.android.stardroid.R
  * @author John Taylor
  * @author Brent Bryan
  */
-class ConstellationsLayer(assetManager: AssetManager, resources: Resources, preferences: SharedPreferences) :
-    AbstractFileBasedLayer(assetManager, resources, "constellations.binary", preferences) {
+class ConstellationsLayer(
+    assetManager: AssetManager,
+    resources: Resources,
+    preferences: SharedPreferences,
+    loadExecutor: Executor
+) : AbstractFileBasedLayer(assetManager, resources, "constellations.binary", preferences, loadExecutor) {
     override val layerDepthOrder = 10
 
     // TODO(johntaylor): rename this string id.
@@ -20,6 +20,7 @@ import android.content.SharedPreferences
 import android.content.res.AssetManager
 import android.content.res.Resources
 import com.google.android.stardroid.R
+import java.util.concurrent.Executor
 
 /**
  * An implementation of the [AbstractFileBasedLayer] for displaying
@@ -28,8 +29,12 @@ import com.google.android.stardroid.R
  * @author John Taylor
  * @author Brent Bryan
  */
-class DeepSkyObjectLayer(assetManager: AssetManager, resources: Resources, preferences: SharedPreferences) :
-    AbstractFileBasedLayer(assetManager, resources, "deep_sky_objects.binary", preferences) {
+class DeepSkyObjectLayer(
+    assetManager: AssetManager,
+    resources: Resources,
+    preferences: SharedPreferences,
+    loadExecutor: Executor
+) : AbstractFileBasedLayer(assetManager, resources, "deep_sky_objects.binary", preferences, loadExecutor) {
 
     override val layerDepthOrder = 20
 
@@ -49,8 +49,20 @@ class GridLayer
     preferences: SharedPreferences
 ) : AbstractRenderablesLayer(resources, false, preferences) {
 
+    @Volatile
+    private var numRaVertices = RA_VERTICES_FOR_QUALITY_LEVEL[0]
+
     override fun initializeAstroSources(sources: ArrayList<AstronomicalRenderable>) {
-        sources.add(GridRenderable(resources, numRightAscensionLines, numDeclinationLines))
+        sources.add(
+            GridRenderable(resources, numRightAscensionLines, numDeclinationLines, numRaVertices))
+    }
+
+    override fun onQualityLevelChanged(level: Int) {
+        val vertices = RA_VERTICES_FOR_QUALITY_LEVEL[level]
+        if (vertices != numRaVertices) {
+            numRaVertices = vertices
+            rebuildSources()
+        }
     }
 
     override val layerDepthOrder = 0
@@ -60,9 +72,16 @@ class GridLayer
     // TODO(brent): Remove this.
     override val preferenceId = "source_provider.4"
 
-    /** Implementation of the grid elements as an [AstronomicalRenderable]  */
-    internal class GridRenderable(resources: Resources, numRaSources: Int, numDecSources: Int) :
-        AbstractAstronomicalRenderable() {
+    /**
+     * Implementation of the grid elements as an [AstronomicalRenderable], with lines of
+     * declination made of numRaVertices segments.
+     */
+    internal class GridRenderable(
+        resources: Resources,
+        numRaSources: Int,
+        numDecSources: Int,
+        private val numRaVertices: Int
+    ) : AbstractAstronomicalRenderable() {
         override val labels: MutableList<TextPrimitive> = ArrayList()
         override val lines: MutableList<LinePrimitive> = ArrayList()
         private val lineColor = resources.getColor(R.color.grid_line, null)
@@ -88,8 +107,8 @@ class GridLayer
 
         private fun createDecLine(dec: Float): LinePrimitive {
             val line = LinePrimitive(lineColor)
-            for (i in 0 until NUM_RA_VERTICES) {
-                val ra = i * 360.0f / NUM_RA_VERTICES
+            for (i in 0 until numRaVertices) {
+                val ra = i * 360.0f / numRaVertices
                 val raDec = RaDec(ra, dec)
                 line.raDecs.add(raDec)
                 line.vertices.add(getGeocentricCoords(raDec))
@@ -103,9 +122,6 @@ class GridLayer
         companion object {
             /** These are great (semi)circles, so only need 3 points.  */
             private const val NUM_DEC_VERTICES = 3
-
-            /** every 10 degrees  */
-            private const val NUM_RA_VERTICES = 36
         }
 
         init {
@@ -162,4 +178,10 @@ class GridLayer
             }
         }
     }
-}
\ No newline at end of file
+
+    companion object {
+        // Lines of declination are small circles, so are drawn as polygons: at full detail with
+        // a vertex every 10 degrees, and with fewer as the quality level drops.
+        private val RA_VERTICES_FOR_QUALITY_LEVEL = intArrayOf(36, 24, 18, 12)
+    }
+}
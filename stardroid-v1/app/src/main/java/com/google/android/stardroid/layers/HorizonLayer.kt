@@ -22,9 +22,10 @@ import android.graphics.Color
 import com.google.android.stardroid.R
 import com.google.android.stardroid.base.TimeConstants
 import com.google.android.stardroid.control.AstronomerModel
+import com.google.android.stardroid.math.Matrix4x4
 import com.google.android.stardroid.math.Vector3
 import com.google.android.stardroid.renderables.*
-import com.google.android.stardroid.renderer.RendererObjectManager.UpdateType
+import com.google.android.stardroid.renderables.AbstractPrimitive.UpdateGranularity
 import java.util.*
 import kotlin.math.abs
 import kotlin.math.cos
@@ -38,94 +39,89 @@ import kotlin.math.sin
  * @author John Taylor
  */
 class HorizonLayer(private val model: AstronomerModel, resources: Resources, preferences: SharedPreferences) :
-    AbstractRenderablesLayer(resources, true, preferences) {
+    AbstractRenderablesLayer(resources, false, preferences) {
+    @Volatile
+    private var numGlowRings = GLOW_RINGS_FOR_QUALITY_LEVEL[0]
+    private var lastFrameUpdateTimeMs = 0L
+
     override fun initializeAstroSources(sources: ArrayList<AstronomicalRenderable>) {
-        sources.add(HorizonRenderable(model, resources))
+        sources.add(HorizonRenderable(resources, numGlowRings))
+    }
+
+    override fun updateLayerForControllerChange() {
+        super.updateLayerForControllerChange()
+        updateFrame()
+        addUpdateClosure(this::maybeUpdateFrame)
+    }
+
+    private fun maybeUpdateFrame() {
+        if (abs(model.frameTime.millis - lastFrameUpdateTimeMs) > UPDATE_FREQ_MS) {
+            updateFrame()
+        }
+    }
+
+    /**
+     * Moves the horizon to where it is now.  The geometry never changes: it's in the local frame
+     * of [HorizonRenderable], which is rotated onto the sky by the columns of the matrix.
+     */
+    private fun updateFrame() {
+        lastFrameUpdateTimeMs = model.frameTime.millis
+        val north = model.north
+        val zenith = model.zenith
+        val east = model.east
+        setModelMatrix(Matrix4x4(floatArrayOf(
+            north.x, north.y, north.z, 0f,
+            zenith.x, zenith.y, zenith.z, 0f,
+            east.x, east.y, east.z, 0f,
+            0f, 0f, 0f, 1f)))
+    }
+
+    override fun onQualityLevelChanged(level: Int) {
+        val rings = GLOW_RINGS_FOR_QUALITY_LEVEL[level]
+        if (rings != numGlowRings) {
+            numGlowRings = rings
+            rebuildSources()
+        }
     }
 
     override val layerDepthOrder = 90
 
     // TODO(brent): Remove this.
     override val preferenceId = "source_provider.5"
+    override val updateGranularity = UpdateGranularity.Second
 
     // TODO(johntaylor): i18n
     override val layerName = "Horizon"
 
     override val layerNameId = R.string.show_horizon_pref // TODO(johntaylor): rename this string id
 
-    /** Implementation of [AstronomicalRenderable] for the horizon source.  */
-    internal class HorizonRenderable(private val model: AstronomerModel, resources: Resources) :
-        AbstractAstronomicalRenderable() {
-        private val zenith = Vector3(0f, 0f, 0f)
-        private val nadir = Vector3(0f, 0f, 0f)
-        private val north = Vector3(0f, 0f, 0f)
-        private val south = Vector3(0f, 0f, 0f)
-        private val east = Vector3(0f, 0f, 0f)
-        private val west = Vector3(0f, 0f, 0f)
+    /**
+     * Implementation of [AstronomicalRenderable] for the horizon source, with the glow drawn
+     * using the given number of rings below the horizon.
+     *
+     * The geometry is in the local horizontal frame, with x to the north, y to the zenith and z
+     * to the east, so it's computed once and the layer places it on the sky.
+     */
+    internal class HorizonRenderable(
+        resources: Resources,
+        private val numGlowRings: Int
+    ) : AbstractAstronomicalRenderable() {
+        // The rings are spread over the same depth however many there are.
+        private val glowRingSpacingDeg = GLOW_DEPTH_DEG / numGlowRings
         // NUM_SEGMENTS+1 because the last vertex closes the loop back to the first.
-        private val horizonVerts: Array<Vector3> = Array(NUM_SEGMENTS + 1) { Vector3(0f, 0f, 0f) }
-        // Glow rings below the horizon, each recomputed from horizonVerts in updateCoords().
-        // Together with horizonVerts they form the concentric loops of the glow gradient mesh.
-        private val glowRings: Array<Array<Vector3>> =
-            Array(NUM_GLOW_RINGS) { Array(NUM_SEGMENTS + 1) { Vector3(0f, 0f, 0f) } }
-        // Each glow ring's tilt toward the nadir depends only on constants, so compute the
-        // sin/cos once here rather than on every (per-second) coordinate update.
-        private val cosTilts = FloatArray(NUM_GLOW_RINGS) { ringIdx ->
-            cos(Math.toRadians(((ringIdx + 1) * GLOW_RING_SPACING_DEG).toDouble())).toFloat()
-        }
-        private val sinTilts = FloatArray(NUM_GLOW_RINGS) { ringIdx ->
-            sin(Math.toRadians(((ringIdx + 1) * GLOW_RING_SPACING_DEG).toDouble())).toFloat()
-        }
-        // Likewise, the horizon circle's segment angles are fixed, so precompute their sin/cos
-        // once instead of recomputing 2·(NUM_SEGMENTS+1) trig values on every update.
-        private val cosAngles = FloatArray(NUM_SEGMENTS + 1) { i ->
-            cos(2.0 * Math.PI * i / NUM_SEGMENTS).toFloat()
+        // Horizon circle: p(θ) = north·cos(θ) + east·sin(θ)
+        private val horizonVerts: List<Vector3> = List(NUM_SEGMENTS + 1) { i ->
+            val angle = 2.0 * Math.PI * i / NUM_SEGMENTS
+            Vector3(cos(angle).toFloat(), 0f, sin(angle).toFloat())
         }
-        private val sinAngles = FloatArray(NUM_SEGMENTS + 1) { i ->
-            sin(2.0 * Math.PI * i / NUM_SEGMENTS).toFloat()
-        }
-        private var lastUpdateTimeMs = 0L
-
-        private fun updateCoords() {
-            lastUpdateTimeMs = model.time.time
-            zenith.assign(model.zenith)
-            nadir.assign(model.nadir)
-            north.assign(model.north)
-            south.assign(model.south)
-            east.assign(model.east)
-            west.assign(model.west)
-
-            // Horizon circle: p(θ) = north·cos(θ) + east·sin(θ)
-            for (i in 0..NUM_SEGMENTS) {
-                val cosA = cosAngles[i]
-                val sinA = sinAngles[i]
-                val hx = north.x * cosA + east.x * sinA
-                val hy = north.y * cosA + east.y * sinA
-                val hz = north.z * cosA + east.z * sinA
-                horizonVerts[i].assign(hx, hy, hz)
-                // Tilt each glow ring toward nadir: p_tilted = p·cos(t) + nadir·sin(t)
-                for (ringIdx in 0 until NUM_GLOW_RINGS) {
-                    glowRings[ringIdx][i].assign(
-                        hx * cosTilts[ringIdx] + nadir.x * sinTilts[ringIdx],
-                        hy * cosTilts[ringIdx] + nadir.y * sinTilts[ringIdx],
-                        hz * cosTilts[ringIdx] + nadir.z * sinTilts[ringIdx]
-                    )
-                }
-            }
-        }
-
-        override fun initialize(): Renderable {
-            updateCoords()
-            return this
-        }
-
-        override fun update(): EnumSet<UpdateType> {
-            val updateTypes = EnumSet.noneOf(UpdateType::class.java)
-            if (abs(model.time.time - lastUpdateTimeMs) > UPDATE_FREQ_MS) {
-                updateCoords()
-                updateTypes.add(UpdateType.UpdatePositions)
-            }
-            return updateTypes
+        // Glow rings below the horizon.  Together with horizonVerts they form the concentric
+        // loops of the glow gradient mesh.  Each is tilted toward the nadir:
+        // p_tilted = p·cos(t) + nadir·sin(t)
+        private val glowRings: List<List<Vector3>> = List(numGlowRings) { ringIdx ->
+            val tilt = Math.toRadians(((ringIdx + 1) * glowRingSpacingDeg).toDouble())
+            val cosTilt = cos(tilt).toFloat()
+            val sinTilt = sin(tilt).toFloat()
+            horizonVerts.map { Vector3(it.x * cosTilt, -sinTilt, it.z * cosTilt) }
         }
 
         override val labels: MutableList<TextPrimitive> = ArrayList()
@@ -133,15 +129,14 @@ class HorizonLayer(private val model: AstronomerModel, resources: Resources, pre
         override val glows: MutableList<HorizonGlowPrimitive> = ArrayList()
 
         companion object {
-            private const val UPDATE_FREQ_MS = 1L * TimeConstants.MILLISECONDS_PER_SECOND
             // 180 segments around each ring: visually smooth. Mesh vertex count is
-            // (NUM_GLOW_RINGS + 1) × (NUM_SEGMENTS + 1) — well under the signed-short index
+            // (numGlowRings + 1) × (NUM_SEGMENTS + 1) — well under the signed-short index
             // limit of 32 767 used by HorizonGlowObjectManager.
             private const val NUM_SEGMENTS = 180
             // The glow is a single gradient mesh, not a stack of translucent strips. Ring 0 is
-            // the horizon itself; NUM_GLOW_RINGS further rings are tilted toward the nadir at
-            // GLOW_RING_SPACING_DEG steps, so the glow reaches NUM_GLOW_RINGS × spacing below
-            // the horizon and never above it.
+            // the horizon itself; numGlowRings further rings are tilted toward the nadir in
+            // equal steps, so the glow reaches GLOW_DEPTH_DEG below the horizon and never above
+            // it.
             //
             // Why several rings even though the GPU interpolates color across the bands? The
             // interpolation is what makes the gradient smooth, so it is NOT the reason for the
@@ -151,20 +146,19 @@ class HorizonLayer(private val model: AstronomerModel, resources: Resources, pre
             // *exponential* falloff below (bright at the horizon with a long soft tail), so we
             // give the curve multiple stops and let the per-band linear interpolation trace it
             // piecewise. More rings = finer approximation of the curve; 8 is enough that the
-            // corners are imperceptible. Drop to 2 if a plain linear fade is ever wanted.
-            private const val NUM_GLOW_RINGS = 8
-            private const val GLOW_RING_SPACING_DEG = 1.0f
+            // corners are imperceptible, and the quality governor only takes away a few.
+            private const val GLOW_DEPTH_DEG = 8.0f
             // Additive glow intensity at the horizon, as a fraction of full (255) alpha, with
             // an exponential falloff toward the deepest ring (which is forced fully
             // transparent so the gradient fades out cleanly).
             private const val GLOW_PEAK_ALPHA = 0.7f
-            private const val GLOW_ALPHA_DECAY = 0.55f  // per ring index (natural units)
+            private const val GLOW_ALPHA_DECAY = 0.55f  // per degree below the horizon
         }
 
         init {
             val lineColor = resources.getColor(R.color.horizon_line, null)
             val labelColor = resources.getColor(R.color.horizon_label, null)
-            lines.add(LinePrimitive(lineColor, horizonVerts.toList(), 2.5f))
+            lines.add(LinePrimitive(lineColor, horizonVerts, 2.5f))
 
             // Build the glow gradient mesh: ring 0 is the horizon, the rest are the glow rings
             // descending toward the nadir. Each ring is painted in the horizon color with an
@@ -174,27 +168,36 @@ class HorizonLayer(private val model: AstronomerModel, resources: Resources, pre
             val r = Color.red(lineColor)
             val g = Color.green(lineColor)
             val b = Color.blue(lineColor)
-            val meshRings = ArrayList<List<Vector3>>(NUM_GLOW_RINGS + 1)
-            meshRings.add(horizonVerts.toList())
-            for (i in 0 until NUM_GLOW_RINGS) {
-                meshRings.add(glowRings[i].toList())
-            }
-            val ringColors = IntArray(NUM_GLOW_RINGS + 1) { ring ->
-                val alpha = if (ring == NUM_GLOW_RINGS) {
+            val meshRings = ArrayList<List<Vector3>>(numGlowRings + 1)
+            meshRings.add(horizonVerts)
+            meshRings.addAll(glowRings)
+            val ringColors = IntArray(numGlowRings + 1) { ring ->
+                val alpha = if (ring == numGlowRings) {
                     0
                 } else {
-                    (GLOW_PEAK_ALPHA * exp(-ring * GLOW_ALPHA_DECAY) * 255f)
+                    (GLOW_PEAK_ALPHA * exp(-ring * glowRingSpacingDeg * GLOW_ALPHA_DECAY) * 255f)
                         .toInt().coerceIn(0, 255)
                 }
                 Color.argb(alpha, r, g, b)
             }
             glows.add(HorizonGlowPrimitive(meshRings, ringColors))
-            labels.add(TextPrimitive(zenith, resources.getString(R.string.zenith), labelColor))
-            labels.add(TextPrimitive(nadir, resources.getString(R.string.nadir), labelColor))
-            labels.add(TextPrimitive(north, resources.getString(R.string.north), labelColor))
-            labels.add(TextPrimitive(south, resources.getString(R.string.south), labelColor))
-            labels.add(TextPrimitive(east, resources.getString(R.string.east), labelColor))
-            labels.add(TextPrimitive(west, resources.getString(R.string.west), labelColor))
+            val marks = listOf(
+                Vector3(0f, 1f, 0f) to R.string.zenith,
+                Vector3(0f, -1f, 0f) to R.string.nadir,
+                Vector3(1f, 0f, 0f) to R.string.north,
+                Vector3(-1f, 0f, 0f) to R.string.south,
+                Vector3(0f, 0f, 1f) to R.string.east,
+                Vector3(0f, 0f, -1f) to R.string.west)
+            for ((position, nameId) in marks) {
+                labels.add(TextPrimitive(position, resources.getString(nameId), labelColor))
+            }
         }
     }
+
+    companion object {
+        // How often the horizon is moved to follow the sky.
+        private const val UPDATE_FREQ_MS = 1L * TimeConstants.MILLISECONDS_PER_SECOND
+        // The number of glow rings at each quality level, from full detail down.
+        private val GLOW_RINGS_FOR_QUALITY_LEVEL = intArrayOf(8, 6, 4, 3)
+    }
 }
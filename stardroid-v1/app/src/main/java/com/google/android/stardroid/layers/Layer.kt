@@ -16,6 +16,7 @@
  */
 package com.google.android.stardroid.layers
 
+import com.google.android.stardroid.renderables.AbstractPrimitive.UpdateGranularity
 import com.google.android.stardroid.renderer.RendererController
 import com.google.android.stardroid.search.SearchResult
 import com.google.android.stardroid.renderables.AstronomicalRenderable
@@ -59,6 +60,12 @@ interface Layer {
      */
     val layerName: String
 
+    /**
+     * Returns how often this layer's objects change as time passes, or null if they don't.
+     */
+    val updateGranularity: UpdateGranularity?
+        get() = null
+
     /**
      * Sets whether the [AstronomicalRenderable]s in this layer should be shown
      * by the renderer.
@@ -19,6 +19,7 @@ package com.google.android.stardroid.layers
 import android.content.SharedPreferences
 import android.content.SharedPreferences.OnSharedPreferenceChangeListener
 import android.util.Log
+import com.google.android.stardroid.renderables.AbstractPrimitive.UpdateGranularity
 import com.google.android.stardroid.renderer.RendererController
 import com.google.android.stardroid.search.SearchResult
 import com.google.android.stardroid.search.SearchTermsProvider.SearchTerm
@@ -57,6 +58,13 @@ class LayerManager(private val sharedPreferences: SharedPreferences) : OnSharedP
         }
     }
 
+    /**
+     * The finest [UpdateGranularity] of the visible layers, or null if none of them change
+     * with time.
+     */
+    val finestUpdateGranularity: UpdateGranularity?
+        get() = layers.filter { isLayerVisible(it) }.mapNotNull { it.updateGranularity }.minOrNull()
+
     /**
      * Search all visible layers for an object with the given name.
      * @param name the name to search for
@@ -24,6 +24,7 @@ import com.google.android.stardroid.control.AstronomerModel
 import com.google.android.stardroid.math.Vector3
 import com.google.android.stardroid.math.getGeocentricCoords
 import com.google.android.stardroid.renderables.*
+import com.google.android.stardroid.renderables.AbstractPrimitive.UpdateGranularity
 import com.google.android.stardroid.renderer.RendererObjectManager.UpdateType
 import com.google.android.stardroid.util.dateFromUtcHmd
 import java.time.LocalDate
@@ -155,6 +156,7 @@ class MeteorShowerLayer(private val model: AstronomerModel, resources: Resources
 
   override val layerDepthOrder = 80
   override val preferenceId = "source_provider.6"
+  override val updateGranularity = UpdateGranularity.Day
   override val layerName = "Meteor Showers"
   override val layerNameId = R.string.show_meteors_pref
 
@@ -174,9 +176,9 @@ class MeteorShowerLayer(private val model: AstronomerModel, resources: Resources
       get() = shower.radiant
 
     private fun updateShower() {
-      lastUpdateTimeMs = model.time.time
+      lastUpdateTimeMs = model.frameTime.millis
       // We will only show the shower if it's the right time of year.
-      val localDate = model.time.toInstant()
+      val localDate = model.frameTime.date.toInstant()
         .atZone(ZoneId.of("UTC"))
         .toLocalDate();
       // Standardize on the same year as we stored for the showers.
@@ -215,7 +217,7 @@ class MeteorShowerLayer(private val model: AstronomerModel, resources: Resources
 
     override fun update(): EnumSet<UpdateType> {
       val updateTypes = EnumSet.noneOf(UpdateType::class.java)
-      if (abs(model.time.time - lastUpdateTimeMs) > UPDATE_FREQ_MS) {
+      if (abs(model.frameTime.millis - lastUpdateTimeMs) > UPDATE_FREQ_MS) {
         updateShower()
         updateTypes.add(UpdateType.Reset)
       }
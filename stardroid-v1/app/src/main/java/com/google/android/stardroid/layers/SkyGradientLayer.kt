@@ -24,6 +24,7 @@ import com.google.android.stardroid.base.TimeConstants
 import com.google.android.stardroid.control.AstronomerModel
 import com.google.android.stardroid.ephemeris.SolarSystemBody
 import com.google.android.stardroid.math.getGeocentricCoords
+import com.google.android.stardroid.renderables.AbstractPrimitive.UpdateGranularity
 import com.google.android.stardroid.renderer.RendererController
 import com.google.android.stardroid.search.SearchResult
 import com.google.android.stardroid.space.Universe
@@ -74,10 +75,11 @@ class SkyGradientLayer(private val model: AstronomerModel, resources: Resources)
     /** Redraws the sky shading gradient using the model's current time.  */
     protected fun redraw() {
         if (!isVisible) return
-        val modelTime = model.time
-        if (abs(modelTime.time - lastUpdateTimeMs) > UPDATE_FREQUENCY_MS) {
-            lastUpdateTimeMs = modelTime.time
-            val sunPosition = universe.solarSystemObjectFor(SolarSystemBody.Sun).getRaDec(modelTime)
+        val frameTime = model.frameTime
+        if (abs(frameTime.millis - lastUpdateTimeMs) > UPDATE_FREQUENCY_MS) {
+            lastUpdateTimeMs = frameTime.millis
+            val sunPosition =
+                universe.solarSystemObjectFor(SolarSystemBody.Sun).getRaDec(frameTime.date)
             // Log.d(TAG, "Enabling sky gradient with sun position " + sunPosition);
             rendererLock.lock()
             try {
@@ -90,6 +92,7 @@ class SkyGradientLayer(private val model: AstronomerModel, resources: Resources)
 
     override val layerDepthOrder = -10
     override val preferenceId = "show_sky_gradient"
+    override val updateGranularity = UpdateGranularity.Minute
     override val layerName = resources.getString(R.string.show_sky_gradient)
 
     override fun searchByObjectName(name: String): List<SearchResult> {
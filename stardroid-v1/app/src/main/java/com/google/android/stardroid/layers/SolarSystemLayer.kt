@@ -22,6 +22,7 @@ import com.google.android.stardroid.R
 import com.google.android.stardroid.control.AstronomerModel
 import com.google.android.stardroid.ephemeris.SolarSystemBody
 import com.google.android.stardroid.ephemeris.SolarSystemRenderable
+import com.google.android.stardroid.renderables.AbstractPrimitive.UpdateGranularity
 import com.google.android.stardroid.renderables.AstronomicalRenderable
 import java.util.*
 
@@ -56,6 +57,9 @@ class SolarSystemLayer(
     // TODO(brent): Remove this.
     override val preferenceId = "source_provider.3"
 
+    // The Moon moves the most quickly.
+    override val updateGranularity = UpdateGranularity.Minute
+
     // TODO(brent): refactor these to a common location.
     override val layerDepthOrder = 60
 
@@ -23,6 +23,7 @@ import com.google.android.stardroid.R
 import com.google.android.stardroid.base.TimeConstants
 import com.google.android.stardroid.control.AstronomerModel
 import com.google.android.stardroid.math.Vector3
+import com.google.android.stardroid.renderables.AbstractPrimitive.UpdateGranularity
 import com.google.android.stardroid.renderer.RendererObjectManager.UpdateType
 import com.google.android.stardroid.renderables.AbstractAstronomicalRenderable
 import com.google.android.stardroid.renderables.AstronomicalRenderable
@@ -48,6 +49,7 @@ class StarOfBethlehemLayer(private val model: AstronomerModel, resources: Resour
 
     // TODO(brent): Remove this.
     override val preferenceId = "source_provider.0"
+    override val updateGranularity = UpdateGranularity.Minute
     override val layerName = "Easter Egg"
     override val layerNameId = R.string.show_stars_pref
 
@@ -60,10 +62,10 @@ class StarOfBethlehemLayer(private val model: AstronomerModel, resources: Resour
             ImagePrimitive(coords, resources, R.drawable.blank, UP, SCALE_FACTOR)
 
         private fun updateStar() {
-            lastUpdateTimeMs = model.time.time
+            lastUpdateTimeMs = model.frameTime.millis
             // We will only show the star if it's Christmas Eve.
             val calendar = Calendar.getInstance()
-            calendar.timeInMillis = model.time.time
+            calendar.timeInMillis = model.frameTime.millis
             theImage.setUpVector(UP)
             // TODO(johntaylor): consider varying the sizes by scaling factor as time progresses.
             if (calendar[Calendar.MONTH] == Calendar.DECEMBER
@@ -91,7 +93,7 @@ class StarOfBethlehemLayer(private val model: AstronomerModel, resources: Resour
 
         override fun update(): EnumSet<UpdateType> {
             val updateTypes = EnumSet.noneOf(UpdateType::class.java)
-            if (abs(model.time.time - lastUpdateTimeMs) > UPDATE_FREQ_MS) {
+            if (abs(model.frameTime.millis - lastUpdateTimeMs) > UPDATE_FREQ_MS) {
                 updateStar()
                 updateTypes.add(UpdateType.UpdateImages)
                 updateTypes.add(UpdateType.UpdatePositions)
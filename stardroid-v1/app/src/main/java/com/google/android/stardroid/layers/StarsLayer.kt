@@ -20,6 +20,7 @@ import android.content.SharedPreferences
 import android.content.res.AssetManager
 import android.content.res.Resources
 import com.google.android.stardroid.R
+import java.util.concurrent.Executor
 
 /**
  * An implementation of the [AbstractFileBasedLayer] for displaying stars
@@ -28,8 +29,12 @@ import com.google.android.stardroid.R
  * @author John Taylor
  * @author Brent Bryan
  */
-class StarsLayer(assetManager: AssetManager, resources: Resources, preferences: SharedPreferences) :
-    AbstractFileBasedLayer(assetManager, resources, "stars.binary", preferences) {
+class StarsLayer(
+    assetManager: AssetManager,
+    resources: Resources,
+    preferences: SharedPreferences,
+    loadExecutor: Executor
+) : AbstractFileBasedLayer(assetManager, resources, "stars.binary", preferences, loadExecutor) {
     override val layerDepthOrder = 30
 
     // TODO(johntaylor): rename this Id
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2026 Penterakt LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.stardroid.math
+
+import java.util.Date
+import java.util.concurrent.atomic.AtomicReferenceArray
+import kotlin.math.cos
+import kotlin.math.sin
+
+/**
+ * The values derived from a moment that the ephemeris, the model and the layers all need: the
+ * Julian day, ΔT and sidereal time, and the horizontal frame at a location.  Everything asking
+ * about the same moment, as everything updated for a frame or each step of a rise and set search
+ * does, shares one copy from [at] rather than working them out again from a [Date].
+ *
+ * @param millis the time, in milliseconds since the epoch, UTC.
+ */
+class AstronomicalTime private constructor(val millis: Long) {
+    /** The Julian day, to the millisecond. */
+    val julianDay = millis / MILLIS_PER_DAY + JULIAN_DAY_OF_EPOCH
+
+    /** Julian centuries of UT from J2000.0. */
+    val julianCenturies = (julianDay - J2000) / DAYS_PER_CENTURY
+
+    /** ΔT, in seconds; see [deltaTSeconds]. */
+    val deltaTSeconds: Double
+
+    /** Julian centuries of Terrestrial Time from J2000.0; see [julianCenturiesTerrestrial]. */
+    val julianCenturiesTerrestrial: Double
+
+    /** The Greenwich mean sidereal time, in degrees. */
+    val greenwichSiderealTime = positiveMod(280.461 + 360.98564737 * (julianDay - J2000), 360.0)
+
+    @Volatile private var lastHorizontalFrame: HorizontalFrame? = null
+
+    init {
+        val u = (julianDay - J2000) / 365.25
+        deltaTSeconds = 62.92 + 0.32217 * u + 0.005589 * u * u
+        julianCenturiesTerrestrial =
+            (julianDay + deltaTSeconds / SECONDS_PER_DAY - J2000) / DAYS_PER_CENTURY
+    }
+
+    /**
+     * The local mean sidereal time at the given longitude, in degrees.  Longitude is negative
+     * west of Greenwich.
+     */
+    fun localSiderealTime(longitude: Float): Float =
+        positiveMod(greenwichSiderealTime + longitude, 360.0).toFloat()
+
+    /** The horizontal frame at the location.  The last one asked for is kept. */
+    fun horizontalFrame(location: LatLong): HorizontalFrame {
+        val last = lastHorizontalFrame
+        if (last != null && last.latitude == location.latitude &&
+            last.longitude == location.longitude) {
+            return last
+        }
+        return HorizontalFrame(location.latitude, location.longitude,
+            localSiderealTime(location.longitude)).also { lastHorizontalFrame = it }
+    }
+
+    /**
+     * The directions of the zenith, north and east at a place and time, in celestial coordinates.
+     * They're shared by everything asking about the same place and time, so must not be modified.
+     */
+    class HorizontalFrame internal constructor(
+        val latitude: Float,
+        val longitude: Float,
+        localSiderealTime: Float
+    ) {
+        val zenith: Vector3
+        val north: Vector3
+        val east: Vector3
+
+        /** Takes celestial coordinates to (north, up, east). */
+        val equatorialToHorizontal: Matrix3x3
+
+        init {
+            val lst = Math.toRadians(localSiderealTime.toDouble())
+            val lat = Math.toRadians(latitude.toDouble())
+            val cosLat = cos(lat)
+            val sinLat = sin(lat)
+            val cosLst = cos(lst)
+            val sinLst = sin(lst)
+            zenith = Vector3((cosLat * cosLst).toFloat(), (cosLat * sinLst).toFloat(),
+                sinLat.toFloat())
+            // The pole projected onto the horizon.  At the poles themselves, where that's
+            // undefined, it's along the meridian of the sidereal time.
+            north = Vector3((-sinLat * cosLst).toFloat(), (-sinLat * sinLst).toFloat(),
+                cosLat.toFloat())
+            east = north * zenith
+            equatorialToHorizontal = Matrix3x3(north, zenith, east, false)
+        }
+    }
+
+    companion object {
+        private const val MILLIS_PER_DAY = 86400000.0
+        private const val SECONDS_PER_DAY = 86400.0
+        private const val JULIAN_DAY_OF_EPOCH = 2440587.5
+        private const val J2000 = 2451545.0
+        private const val DAYS_PER_CENTURY = 36525.0
+        // A few, for the times a frame or a search step is asking about at once, such as now and
+        // the time travel target.
+        private const val SLOTS = 8
+
+        private val recent = AtomicReferenceArray<AstronomicalTime>(SLOTS)
+
+        /** The values for the time, shared with anything else that asked about it recently. */
+        @JvmStatic
+        fun at(millis: Long): AstronomicalTime {
+            // Spreads consecutive times, and the round seconds of a search, over the slots.
+            val slot = ((millis * -0x61c8864680b583ebL) ushr 61).toInt()
+            val cached = recent[slot]
+            if (cached != null && cached.millis == millis) {
+                return cached
+            }
+            return AstronomicalTime(millis).also { recent[slot] = it }
+        }
+
+        @JvmStatic
+        fun at(date: Date) = at(date.time)
+    }
+}
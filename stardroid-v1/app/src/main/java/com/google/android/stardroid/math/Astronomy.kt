@@ -25,7 +25,7 @@ import com.google.android.stardroid.space.Universe
  */
 fun calculateRADecOfZenith(utc: Date, location: LatLong): RaDec {
     // compute overhead RA in degrees
-    val myRa = meanSiderealTime(utc, location.longitude)
+    val myRa = AstronomicalTime.at(utc).localSiderealTime(location.longitude)
     val myDec = location.latitude
     return RaDec(myRa, myDec)
 }
@@ -120,3 +120,14 @@ fun convertToEquatorialCoordinates(earthOrbitalPlane : Vector3): Vector3 {
     )
 }
 
+/** As [convertToEquatorialCoordinates], in double precision and in place. */
+fun convertToEquatorialCoordinates(earthOrbitalPlane: DoubleArray) {
+    val y = earthOrbitalPlane[1]
+    val z = earthOrbitalPlane[2]
+    earthOrbitalPlane[1] = y * COS_OBLIQUITY - z * SIN_OBLIQUITY
+    earthOrbitalPlane[2] = y * SIN_OBLIQUITY + z * COS_OBLIQUITY
+}
+
+private val COS_OBLIQUITY = Math.cos(Math.toRadians(23.439281))
+private val SIN_OBLIQUITY = Math.sin(Math.toRadians(23.439281))
+
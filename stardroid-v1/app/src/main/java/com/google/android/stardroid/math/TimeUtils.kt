@@ -36,33 +36,13 @@ public const val HOURS_TO_DEGREES = 360.0f / 24.0f
  * Calculates the number of Julian Centuries from the epoch 2000.0
  * (equivalent to Julian Day 2451545.0).
  */
-fun julianCenturies(date: Date): Double {
-    val jd = julianDay(date)
-    val delta = jd - 2451545.0
-    return delta / 36525.0
-}
+fun julianCenturies(date: Date): Double = AstronomicalTime.at(date).julianCenturies
 
 /**
- * Calculates the Julian Day for a given date using the following formula:
- * JD = 367 * Y - INT(7 * (Y + INT((M + 9)/12))/4) + INT(275 * M / 9)
- * + D + 1721013.5 + UT/24
- *
- * Note that this is only valid for the year range 1900 - 2099.
+ * Calculates the Julian Day for a given date, to the millisecond, from the days since the Unix
+ * epoch (Julian Day 2440587.5).
  */
-fun julianDay(date: Date): Double {
-    val cal = Calendar.getInstance(TimeZone.getTimeZone("GMT"))
-    cal.time = date
-    val hour = (cal[Calendar.HOUR_OF_DAY]
-            + cal[Calendar.MINUTE] / MINUTES_PER_HOUR + cal[Calendar.SECOND] / SECONDS_PER_HOUR)
-    val year = cal[Calendar.YEAR]
-    val month = cal[Calendar.MONTH] + 1
-    val day = cal[Calendar.DAY_OF_MONTH]
-    return (367.0 * year - floor(
-        7.0 * (year
-                + floor((month + 9.0) / 12.0)) / 4.0
-    ) + floor(275.0 * month / 9.0) + day
-            + 1721013.5 + hour / 24.0)
-}
+fun julianDay(date: Date): Double = AstronomicalTime.at(date).julianDay
 
 /**
  * Delta-T (TT - UT) in seconds: the gap between the device's UT clock and the uniform Terrestrial
@@ -70,20 +50,14 @@ fun julianDay(date: Date): Double {
  * 2005-2050 (about 69 s in the app's era). It is only ~1 minute of clock time, but at the Moon's
  * ~0.5'/minute motion it is visible in eclipse timing.
  */
-fun deltaTSeconds(date: Date): Double {
-    val year = 2000.0 + (julianDay(date) - 2451545.0) / 365.25
-    val u = year - 2000.0
-    return 62.92 + 0.32217 * u + 0.005589 * u * u
-}
+fun deltaTSeconds(date: Date): Double = AstronomicalTime.at(date).deltaTSeconds
 
 /**
  * Julian centuries of Terrestrial Time (TT) from J2000.0 - the time argument the Meeus/ELP series
  * for the Sun and Moon expect. See [deltaTSeconds].
  */
-fun julianCenturiesTerrestrial(date: Date): Double {
-    val jdTt = julianDay(date) + deltaTSeconds(date) / 86400.0
-    return (jdTt - 2451545.0) / 36525.0
-}
+fun julianCenturiesTerrestrial(date: Date): Double =
+    AstronomicalTime.at(date).julianCenturiesTerrestrial
 
 /**
  * Converts the given Julian Day to Gregorian Date (in UT time zone).
@@ -116,23 +90,8 @@ fun gregorianDate(julianDay: Double): Date {
  * Calculates local mean sidereal time in degrees. Note that longitude is
  * negative for western longitude values.
  */
-fun meanSiderealTime(date: Date, longitude: Float): Float {
-    // First, calculate number of Julian days since J2000.0.
-    val jd = julianDay(date)
-    val delta = jd - 2451545.0f
-
-    // Calculate the global and local sidereal times
-    val gst = 280.461f + 360.98564737f * delta
-    val lst = normalizeAngle(gst + longitude)
-    return lst.toFloat()
-}
-
-/**
- * Normalizes the angle to the range 0 <= value < 360.
- */
-private fun normalizeAngle(angleDegrees: Double): Double {
-    return positiveMod(angleDegrees, 360.0)
-}
+fun meanSiderealTime(date: Date, longitude: Float): Float =
+    AstronomicalTime.at(date).localSiderealTime(longitude)
 
 /**
  * Normalizes the time to the range 0 <= value < 24.
@@ -36,11 +36,15 @@ public abstract class AbstractPrimitive {
     Second, Minute, Hour, Day, Year
   }
 
+  /** The region of a primitive which hasn't been assigned one, so must be located at runtime. */
+  public static final int REGION_UNKNOWN = -2;
+
   public UpdateGranularity granularity;
 
   private final int color;
   private final Vector3 xyz;
   private List<String> names;
+  private int region = REGION_UNKNOWN;
 
   @Deprecated
   AbstractPrimitive() {
@@ -71,4 +75,16 @@ public abstract class AbstractPrimitive {
   public Vector3 getLocation() {
     return xyz;
   }
+
+  /**
+   * Returns the {@link com.google.android.stardroid.renderer.util.SkyRegionMap} region that this
+   * primitive was sorted into when its catalog was compiled, or {@link #REGION_UNKNOWN}.
+   */
+  public int getRegion() {
+    return region;
+  }
+
+  public void setRegion(int region) {
+    this.region = region;
+  }
 }
\ No newline at end of file
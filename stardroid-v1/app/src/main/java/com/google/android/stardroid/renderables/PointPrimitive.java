@@ -24,8 +24,12 @@ import com.google.android.stardroid.math.Vector3;
  */
 
 public class PointPrimitive extends AbstractPrimitive {
+  /** The magnitude of a point which hasn't been given one, brighter than any that has. */
+  public static final float MAGNITUDE_UNKNOWN = Float.NEGATIVE_INFINITY;
+
   public final int size;
   private final Shape pointShape;
+  private float magnitude = MAGNITUDE_UNKNOWN;
 
   public PointPrimitive(float ra, float dec, int color, int size) {
     this(CoordinateManipulationsKt.getGeocentricCoords(ra, dec), color, size);
@@ -49,6 +53,18 @@ public class PointPrimitive extends AbstractPrimitive {
     return pointShape;
   }
 
+  /**
+   * Returns the apparent magnitude of the point, by which the faintest are left out when zoomed
+   * out, or {@link #MAGNITUDE_UNKNOWN} if it's always drawn.
+   */
+  public float getMagnitude() {
+    return magnitude;
+  }
+
+  public void setMagnitude(float magnitude) {
+    this.magnitude = magnitude;
+  }
+
   public enum Shape {
     CIRCLE(0),          // Default shape for generic points
     STAR(1),            // Stars
@@ -22,6 +22,7 @@ import com.google.android.stardroid.R
 import com.google.android.stardroid.math.Vector3
 import com.google.android.stardroid.math.getGeocentricCoords
 import com.google.android.stardroid.renderables.AbstractAstronomicalRenderable
+import com.google.android.stardroid.renderables.AbstractPrimitive
 import com.google.android.stardroid.renderables.ImagePrimitive
 import com.google.android.stardroid.renderables.LinePrimitive
 import com.google.android.stardroid.renderables.PointPrimitive
@@ -35,11 +36,15 @@ import java.util.*
  * [AstronomicalRenderable] interface
  * from objects serialized as protocol buffers.
  *
+ * If the catalog was sorted into sky regions when it was compiled, [region] is the region all of
+ * the source's points and labels lie in, which saves locating each of them when they're loaded.
+ *
  * @author Brent Bryan
  */
 class ProtobufAstronomicalRenderable(
     originalProto: SourceProto.AstronomicalSourceProto,
     private val resources: Resources,
+    private val region: Int = AbstractPrimitive.REGION_UNKNOWN,
 ) : AbstractAstronomicalRenderable() {
     companion object {
         private val TAG = MiscUtil.getTag(ProtobufAstronomicalRenderable::class.java)
@@ -155,12 +160,15 @@ class ProtobufAstronomicalRenderable(
 
             val points = ArrayList<PointPrimitive>(proto.pointCount)
             for (element in proto.pointList) {
-                points.add(
-                    PointPrimitive(
-                        getCoords(element.location),
-                        element.color, element.size, shapeMap[element.shape]
-                    )
+                val point = PointPrimitive(
+                    getCoords(element.location),
+                    element.color, element.size, shapeMap[element.shape]
                 )
+                point.region = region
+                if (element.hasMagnitude()) {
+                    point.magnitude = element.magnitude
+                }
+                points.add(point)
             }
             return points
         }
@@ -172,13 +180,13 @@ class ProtobufAstronomicalRenderable(
             val points = ArrayList<TextPrimitive>(proto.labelCount)
             for (element in proto.labelList) {
                 Log.d(TAG, "Label " + element.stringsIntId + " : " + element.stringsStrId)
-                points.add(
-                    TextPrimitive(
-                        getCoords(element.location),
-                        resources.getString(element.stringsIntId),
-                        element.color, element.offset, element.fontSize
-                    )
+                val label = TextPrimitive(
+                    getCoords(element.location),
+                    resources.getString(element.stringsIntId),
+                    element.color, element.offset, element.fontSize
                 )
+                label.region = region
+                points.add(label)
             }
             return points
         }
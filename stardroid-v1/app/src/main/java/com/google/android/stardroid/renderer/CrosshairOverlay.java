@@ -17,10 +17,13 @@ package com.google.android.stardroid.renderer;
 import static com.google.android.stardroid.math.MathUtilsKt.TWO_PI;
 
 import android.content.res.Resources;
+import android.opengl.GLES20;
+import android.opengl.Matrix;
 
 import com.google.android.stardroid.R;
 import com.google.android.stardroid.math.MathUtils;
 import com.google.android.stardroid.math.Vector3;
+import com.google.android.stardroid.renderer.util.Gles2Shaders;
 import com.google.android.stardroid.renderer.util.SearchHelper;
 import com.google.android.stardroid.renderer.util.TextureManager;
 import com.google.android.stardroid.renderer.util.TextureReference;
@@ -54,9 +57,7 @@ public class CrosshairOverlay {
     
     gl.glTranslatef(position.x, position.y, 0);
     
-    int period = 1000;
-    long time = System.currentTimeMillis();
-    float intensity = 0.7f + 0.3f * MathUtils.sin((time % period) * TWO_PI / period);
+    float intensity = getIntensity();
     if (nightVisionMode) {
       gl.glColor4f(intensity, 0, 0, 0.7f);
     } else {
@@ -72,7 +73,40 @@ public class CrosshairOverlay {
     
     gl.glPopMatrix();
   }
+
+  /** Draws the crosshair with the OpenGL ES 2.0 backend. */
+  public void draw(Gles2Shaders shaders, SearchHelper searchHelper, boolean nightVisionMode) {
+    Vector3 position = searchHelper.getTransformedPosition();
+    if (position.z < 0) {
+      return;
+    }
+
+    // Like the fixed-function path, the crosshair is positioned in normalized device coordinates.
+    Matrix.setIdentityM(mMatrix, 0);
+    Matrix.translateM(mMatrix, 0, position.x, position.y, 0);
+    shaders.beginTextured(mMatrix, -1, false);
+
+    float intensity = getIntensity();
+    if (nightVisionMode) {
+      Gles2Shaders.setColor(intensity, 0, 0, 0.7f);
+    } else {
+      Gles2Shaders.setColor(intensity, intensity, 0, 0.7f);
+    }
+
+    GLES20.glEnable(GLES20.GL_BLEND);
+    GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+    mQuad.draw();
+    GLES20.glDisable(GLES20.GL_BLEND);
+  }
+
+  // The crosshair pulses once a second.
+  private static float getIntensity() {
+    int period = 1000;
+    long time = System.currentTimeMillis();
+    return 0.7f + 0.3f * MathUtils.sin((time % period) * TWO_PI / period);
+  }
   
   private TexturedQuad mQuad = null;
   private TextureReference mTex = null;
+  private final float[] mMatrix = new float[16];
 }
@@ -1,9 +1,12 @@
 package com.google.android.stardroid.renderer;
 
+import android.opengl.GLES20;
 import com.google.android.stardroid.math.Vector3;
 import com.google.android.stardroid.renderables.HorizonGlowPrimitive;
+import com.google.android.stardroid.renderer.util.ColorBuffer;
+import com.google.android.stardroid.renderer.util.Gles2Shaders;
 import com.google.android.stardroid.renderer.util.IndexBuffer;
-import com.google.android.stardroid.renderer.util.NightVisionColorBuffer;
+import com.google.android.stardroid.renderer.util.NightVisionFilter;
 import com.google.android.stardroid.renderer.util.TextureManager;
 import com.google.android.stardroid.renderer.util.VertexBuffer;
 
@@ -27,7 +30,7 @@ import javax.microedition.khronos.opengles.GL10;
  */
 public class HorizonGlowObjectManager extends RendererObjectManager {
   private final VertexBuffer vertexBuffer = new VertexBuffer(true);
-  private final NightVisionColorBuffer colorBuffer = new NightVisionColorBuffer(true);
+  private final ColorBuffer colorBuffer = new ColorBuffer(true);
   private final IndexBuffer indexBuffer = new IndexBuffer(true);
 
   public HorizonGlowObjectManager(int layer, TextureManager textureManager) {
@@ -96,13 +99,13 @@ public class HorizonGlowObjectManager extends RendererObjectManager {
           int bottomLeft = bottomRowStart + i;
           int bottomRight = bottomLeft + 1;
 
-          indexBuffer.addIndex((short) topLeft);
-          indexBuffer.addIndex((short) bottomLeft);
-          indexBuffer.addIndex((short) bottomRight);
+          indexBuffer.addIndex(topLeft);
+          indexBuffer.addIndex(bottomLeft);
+          indexBuffer.addIndex(bottomRight);
 
-          indexBuffer.addIndex((short) topLeft);
-          indexBuffer.addIndex((short) bottomRight);
-          indexBuffer.addIndex((short) topRight);
+          indexBuffer.addIndex(topLeft);
+          indexBuffer.addIndex(bottomRight);
+          indexBuffer.addIndex(topRight);
         }
       }
       vertexIndex += rings.size() * ringLength;
@@ -140,12 +143,44 @@ public class HorizonGlowObjectManager extends RendererObjectManager {
     // Additive: the glow adds light to whatever is behind it.
     gl.glBlendFunc(GL10.GL_SRC_ALPHA, GL10.GL_ONE);
 
-    vertexBuffer.set(gl);
-    colorBuffer.set(gl, getRenderState().getNightVisionMode());
+    boolean nightVision = getRenderState().getNightVisionMode();
+    if (nightVision) {
+      getRenderState().getNightVisionFilter().begin(gl, NightVisionFilter.Source.VERTEX_COLOR);
+    }
+
+    indexBuffer.draw(gl, GL10.GL_TRIANGLES, firstVertex -> {
+      vertexBuffer.set(gl, firstVertex);
+      colorBuffer.set(gl, firstVertex);
+    });
 
-    indexBuffer.draw(gl, GL10.GL_TRIANGLES);
+    if (nightVision) {
+      getRenderState().getNightVisionFilter().end(gl, NightVisionFilter.Source.VERTEX_COLOR);
+    }
 
     gl.glDisable(GL10.GL_BLEND);
     gl.glEnable(GL10.GL_CULL_FACE);
   }
+
+  @Override
+  protected void drawInternalGles2() {
+    if (indexBuffer.size() == 0) {
+      return;
+    }
+
+    RenderStateInterface rs = getRenderState();
+    rs.getShaders().beginVertexColor(
+        rs.getTransformToDeviceMatrix().getFloatArray(), rs.getNightVisionMode());
+
+    GLES20.glDisable(GLES20.GL_CULL_FACE);
+    GLES20.glEnable(GLES20.GL_BLEND);
+    GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE);
+
+    indexBuffer.draw(GLES20.GL_TRIANGLES, firstVertex -> {
+      vertexBuffer.setAttribute(Gles2Shaders.ATTRIB_POSITION, firstVertex);
+      colorBuffer.setAttribute(Gles2Shaders.ATTRIB_COLOR, firstVertex);
+    });
+
+    GLES20.glDisable(GLES20.GL_BLEND);
+    GLES20.glEnable(GLES20.GL_CULL_FACE);
+  }
 }
@@ -14,8 +14,11 @@
 
 package com.google.android.stardroid.renderer;
 import android.graphics.Bitmap;
+import android.opengl.GLES20;
 import android.opengl.GLUtils;
 
+import com.google.android.stardroid.renderer.util.Gles2Shaders;
+import com.google.android.stardroid.renderer.util.NightVisionFilter;
 import com.google.android.stardroid.renderer.util.TexCoordBuffer;
 import com.google.android.stardroid.renderer.util.TextureManager;
 import com.google.android.stardroid.renderer.util.TextureReference;
@@ -23,9 +26,6 @@ import com.google.android.stardroid.renderer.util.VertexBuffer;
 import com.google.android.stardroid.math.Vector3;
 import com.google.android.stardroid.renderables.ImagePrimitive;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
@@ -44,7 +44,6 @@ public class ImageObjectManager extends RendererObjectManager {
   private TexCoordBuffer mTexCoordBuffer = new TexCoordBuffer(false);
   private Image[] mImages = new Image[0];
   private TextureReference[] mTextures = new TextureReference[0];
-  private TextureReference[] mRedTextures = new TextureReference[0];
 
   EnumSet<UpdateType> mUpdates = EnumSet.noneOf(UpdateType.class);
 
@@ -148,7 +147,6 @@ public class ImageObjectManager extends RendererObjectManager {
       // so drop the old references so we won't try to delete them again. They're re-sized and
       // repopulated from the image list by the reloadImages block below.
       mTextures = new TextureReference[0];
-      mRedTextures = new TextureReference[0];
     } else {
       // Process any queued updates.
       boolean reset = mUpdates.contains(UpdateType.Reset);
@@ -168,18 +166,14 @@ public class ImageObjectManager extends RendererObjectManager {
         if (mTextures[i] != null) {
           mTextures[i].delete(gl);
         }
-        if (mRedTextures[i] != null) {
-          mRedTextures[i].delete(gl);
-        }
       }
 
-      // The texture arrays are sized from the images, not left at whatever length a previous
+      // The texture array is sized from the images, not left at whatever length a previous
       // reload happened to set. A partial (non-full) reload can be processed before the first
       // full reload - or after the image count has changed - in which case these arrays would
       // otherwise still be the wrong length and the loop below would silently create no
       // textures at all, leaving the icons invisible until something forced a full reload.
       mTextures = new TextureReference[images.length];
-      mRedTextures = new TextureReference[images.length];
 
       for (int i = 0; i < images.length; i++) {
         Bitmap bmp = images[i].bitmap;
@@ -194,16 +188,6 @@ public class ImageObjectManager extends RendererObjectManager {
         gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_S, GL10.GL_CLAMP_TO_EDGE);
         gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_T, GL10.GL_CLAMP_TO_EDGE);
         GLUtils.texImage2D(GL10.GL_TEXTURE_2D, 0, bmp, 0);
-
-        IntBuffer redPixels = createRedImage(bmp);
-        mRedTextures[i] = textureManager().createTexture(gl);
-        mRedTextures[i].bind(gl);
-        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MIN_FILTER, GL10.GL_LINEAR);
-        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MAG_FILTER, GL10.GL_LINEAR);
-        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_S, GL10.GL_CLAMP_TO_EDGE);
-        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_T, GL10.GL_CLAMP_TO_EDGE);
-        gl.glTexImage2D(GL10.GL_TEXTURE_2D, 0, GL10.GL_RGBA, bmp.getWidth(), bmp.getHeight(),
-            0, GL10.GL_RGBA, GL10.GL_UNSIGNED_BYTE, redPixels);
       }
     }
   }
@@ -229,15 +213,15 @@ public class ImageObjectManager extends RendererObjectManager {
 
     boolean nightVision = getRenderState().getNightVisionMode();
     if (nightVision) {
-      // The red textures already encode the night-vision colour, so the tint is a constant
-      // white for the whole pass; set it once rather than per image.
+      // The night vision filter derives the colour from the texture alone, so the tint is a
+      // constant white for the whole pass; set it once rather than per image.
       gl.glColor4f(1f, 1f, 1f, 1f);
+      getRenderState().getNightVisionFilter().begin(gl, NightVisionFilter.Source.TEXTURE);
     }
     // Most images share a tint (e.g. every DSO icon is the same colour), so only push a new
     // glColor4f when it actually changes (always on the first image, see below).
     int lastTint = 0;
     TextureReference[] textures = mTextures;
-    TextureReference[] redTextures = mRedTextures;
     // Snapshot the image array once: updateObjects() reassigns mImages from another thread, so
     // reading the field repeatedly through the loop could race with an update. The snapshots can
     // be a generation apart from the textures (set on the GL thread), so bound the loop by the
@@ -247,7 +231,7 @@ public class ImageObjectManager extends RendererObjectManager {
     for (int i = 0; i < count; i++) {
       // A slot is null if its bitmap failed to decode, or if this frame landed between an
       // update and its reload. Skip it rather than throwing on the GL thread.
-      TextureReference texture = nightVision ? redTextures[i] : textures[i];
+      TextureReference texture = textures[i];
       if (texture == null) {
         continue;
       }
@@ -277,31 +261,57 @@ public class ImageObjectManager extends RendererObjectManager {
       }
     }
 
+    if (nightVision) {
+      getRenderState().getNightVisionFilter().end(gl, NightVisionFilter.Source.TEXTURE);
+    }
+
     // Restore the default flat colour so we don't tint other managers' geometry.
     gl.glColor4f(1f, 1f, 1f, 1f);
     gl.glDisable(GL10.GL_TEXTURE_2D);
   }
 
-  private IntBuffer createRedImage(Bitmap bmp) {
-    int width = bmp.getWidth();
-    int height = bmp.getHeight();
-    int numPixels = width * height;
-    int[] pixels = new int[numPixels];
-    bmp.getPixels(pixels, 0, width, 0, 0, width, height);
-
-    ByteBuffer redPixelsBB = ByteBuffer.allocateDirect(4 * numPixels);
-    IntBuffer redPixels = redPixelsBB.order(ByteOrder.nativeOrder()).asIntBuffer();
-    for (int j = 0; j < numPixels; j++) {
-      int r = pixels[j] & 0xff;
-      int g = (pixels[j] >> 8) & 0xff;
-      int b = (pixels[j] >> 16) & 0xff;
-      int alphaMask = pixels[j] & 0xff000000;
-
-      redPixels.put(alphaMask | ((r + g + b) / 3));
+  @Override
+  protected void drawInternalGles2() {
+    if (mVertexBuffer.size() == 0) {
+      return;
     }
 
-    redPixels.position(0);
-    return redPixels;
+    RenderStateInterface rs = getRenderState();
+    Gles2Shaders shaders = rs.getShaders();
+    boolean nightVision = rs.getNightVisionMode();
+    shaders.beginTextured(rs.getTransformToDeviceMatrix().getFloatArray(), -1, nightVision);
+
+    mVertexBuffer.setAttribute(Gles2Shaders.ATTRIB_POSITION);
+    mTexCoordBuffer.setAttribute(Gles2Shaders.ATTRIB_TEX_COORD);
+
+    // See drawInternal for why the arrays are snapshotted and the loop is bounded like this.
+    TextureReference[] textures = mTextures;
+    Image[] images = mImages;
+    int count = Math.min(textures.length, images.length);
+    for (int i = 0; i < count; i++) {
+      TextureReference texture = textures[i];
+      if (texture == null) {
+        continue;
+      }
+      if (images[i].useBlending) {
+        GLES20.glEnable(GLES20.GL_BLEND);
+        GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        shaders.setAlphaThreshold(-1);
+      } else {
+        shaders.setAlphaThreshold(0.5f);
+      }
+
+      // As with the night vision filter, the colour comes from the texture alone in night mode.
+      int tint = nightVision ? 0xffffffff : images[i].tint;
+      Gles2Shaders.setColor(((tint >> 16) & 0xff) / 255f, ((tint >> 8) & 0xff) / 255f,
+          (tint & 0xff) / 255f, ((tint >> 24) & 0xff) / 255f);
+      texture.bind();
+      GLES20.glDrawArrays(GLES20.GL_TRIANGLE_STRIP, 4 * i, 4);
+
+      if (images[i].useBlending) {
+        GLES20.glDisable(GLES20.GL_BLEND);
+      }
+    }
   }
 
   private static class Image {
@@ -17,27 +17,24 @@ package com.google.android.stardroid.renderer;
 import static com.google.android.stardroid.math.MathUtilsKt.DEGREES_TO_RADIANS;
 import static com.google.android.stardroid.math.MathUtilsKt.RADIANS_TO_DEGREES;
 
-import android.graphics.Paint;
-import android.graphics.Typeface;
+import android.opengl.GLES20;
+import android.opengl.Matrix;
 import android.util.Log;
 
 import com.google.android.stardroid.math.MathUtils;
 import com.google.android.stardroid.math.Matrix4x4;
 import com.google.android.stardroid.math.Vector3;
 import com.google.android.stardroid.renderer.util.GLBuffer;
+import com.google.android.stardroid.renderer.util.Gles2Shaders;
+import com.google.android.stardroid.renderer.util.GlyphAtlas;
 import com.google.android.stardroid.renderer.util.LabelCollisionResolver;
 import com.google.android.stardroid.renderer.util.LabelCollisionResolver.LabelPosition;
-import com.google.android.stardroid.renderer.util.LabelMaker;
 import com.google.android.stardroid.renderer.util.SkyRegionMap;
+import com.google.android.stardroid.renderer.util.TextMesher;
 import com.google.android.stardroid.renderer.util.TextureManager;
-import com.google.android.stardroid.renderer.util.TextureReference;
 import com.google.android.stardroid.renderables.TextPrimitive;
-import com.google.android.stardroid.util.FixedPoint;
 import com.google.android.stardroid.util.MiscUtil;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
@@ -47,6 +44,10 @@ import javax.microedition.khronos.opengles.GL11;
 
 /**
  * Manages rendering of text labels.
+ *
+ * <p>Labels are meshed from the glyphs in the renderer's shared {@link GlyphAtlas}, so they
+ * can be drawn at any scale.  The size of a label is its font size multiplied by the renderer's
+ * label scale, which can change without reloading anything.
  * 
  * @author James Powell
  *
@@ -55,81 +56,44 @@ public class LabelObjectManager extends RendererObjectManager {
   // Should we compute the regions for the labels?
   // If false, we just put them in the catchall region.
   private static final boolean COMPUTE_REGIONS = true;
-  private final double fontSizeScale;
   private final LabelCollisionResolver labelCollisionResolver;
 
-  private Paint mLabelPaint = null;
-  private LabelMaker mLabelMaker = null;
   private Label[] mLabels = new Label[0];
   private SkyRegionMap<ArrayList<Label>> mSkyRegions = new SkyRegionMap<ArrayList<Label>>(); 
   
-  private IntBuffer mQuadBuffer;
-  
   // These are intermediate variables set in beginDrawing() and used in
   // draw() to make the transformations more efficient
   private Vector3 mLabelOffset = new Vector3(0, 0, 0);
-  private float mDotProductThreshold;
-  
-  private TextureReference mTexture = null;
+  private float mWorldUnitsPerPixel;
+  // Converts a label's font size to the scale applied to its mesh.  Set in beginDrawing().
+  private float mFontSizeToMeshScale;
+  // Used by the OpenGL ES 2.0 backend: the projection to screen pixels, and the transform of the
+  // label being drawn.
+  private final float[] mScreenProjection = new float[16];
+  private final float[] mLabelTransform = new float[16];
   
   public LabelObjectManager(
       int layer,
       TextureManager textureManager,
-      double fontSizeScale,
       LabelCollisionResolver labelCollisionResolver) {
     super(layer, textureManager);
 
-    this.fontSizeScale = fontSizeScale;
     this.labelCollisionResolver = labelCollisionResolver;
     
-    mLabelPaint = new Paint();
-    mLabelPaint.setAntiAlias(true);
-    mLabelPaint.setTypeface(Typeface.create("Verdana", Typeface.NORMAL));
-    
-    ByteBuffer quadBuffer = ByteBuffer.allocateDirect(4*2*4);
-    quadBuffer.order(ByteOrder.nativeOrder());
-    mQuadBuffer = quadBuffer.asIntBuffer();
-    mQuadBuffer.position(0);
-    // A quad with size 1 on each size, so we just need to multiply
-    // by the label's width and height to get it to the right size for each
-    // label.
-    float[] vertices = { 
-        -0.5f, -0.5f,   // lower left
-        -0.5f,  0.5f,   // upper left
-         0.5f, -0.5f,   // lower right
-         0.5f,  0.5f};  // upper right
-    for (float f : vertices) {
-      mQuadBuffer.put(FixedPoint.floatToFixedPoint(f));
-    }
-    mQuadBuffer.position(0);
-    
     // We want to initialize the labels of a sky region to an empty list.
     mSkyRegions.setRegionDataFactory(ArrayList::new);
   }
   
   @Override
   public void reload(GL10 gl, boolean fullReload) {
-    // We need to regenerate the texture.  If we're re-creating the surface 
-    // (fullReload=true), all resources were automatically released by OpenGL,
-    // so we don't want to try to release it again.  Otherwise, we need to
-    // release it to avoid a resource leak (mLabelMaker.shutdown takes
-    // care of freeing the texture).
-    // 
-    // TODO(jpowell): This whole reload interface is horrendous, and I should
-    // make a better way of scheduling reloads.
-    //
-    // TODO(jpowell): LabelMaker and textures have gone through some changes 
-    // since they were originally created, and I feel like it might not make
-    // sense for it to own the texture anymore.  I should see if I can just
-    // let it create but not own it.
-    if (!fullReload && mLabelMaker != null) {
-      mLabelMaker.shutdown(gl);
+    // The meshes only refer to the shared glyph atlas, which the renderer re-uploads itself
+    // when the surface is recreated, so they only need building when the labels change.
+    GlyphAtlas atlas = getRenderState().getGlyphAtlas();
+    for (Label label : mLabels) {
+      if (label.mesh == null) {
+        label.mesh = TextMesher.mesh(label.text, atlas);
+      }
     }
-    
-    mLabelMaker = new LabelMaker(true);
-    mTexture = mLabelMaker.initialize(gl, mLabelPaint, mLabels,
-                                      getRenderState().getResources(),
-                                      textureManager());
   }
 
   private static final String TAG = MiscUtil.getTag(LabelObjectManager.class);
@@ -144,7 +108,7 @@ public class LabelObjectManager extends RendererObjectManager {
           Log.e(TAG, "Skipping invalid label: " + ts);
           continue;
         }
-        validLabels.add(new Label(ts, fontSizeScale));
+        validLabels.add(new Label(ts));
       }
       mLabels = validLabels.toArray(new Label[0]);
       queueForReload(false);
@@ -168,13 +132,14 @@ public class LabelObjectManager extends RendererObjectManager {
       }
     }
     
-    // Put all of the labels in their sky regions.
-    // TODO(jpowell): Get this from the label source itself once it supports
-    // this.
+    // Put all of the labels in their sky regions, using the region from the catalog if it has
+    // one.
     mSkyRegions.clear();
     for (Label l : mLabels) {
       int region;
-      if (COMPUTE_REGIONS) {
+      if (COMPUTE_REGIONS && l.region != TextPrimitive.REGION_UNKNOWN) {
+        region = l.region;
+      } else if (COMPUTE_REGIONS) {
         region = SkyRegionMap.getObjectRegion(new Vector3(l.x, l.y, l.z));
       } else {
         region = SkyRegionMap.CATCHALL_REGION_ID;
@@ -188,39 +153,64 @@ public class LabelObjectManager extends RendererObjectManager {
     gl.glTexEnvx(GL10.GL_TEXTURE_ENV, GL10.GL_TEXTURE_ENV_MODE, 
                  GL10.GL_MODULATE);
 
-    gl.glEnableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
-    gl.glEnableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
     gl.glActiveTexture(GL10.GL_TEXTURE0);
-    mTexture.bind(gl);
-    gl.glTexParameterx(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_S,
-                       GL10.GL_REPEAT);
-    gl.glTexParameterx(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_T,
-                       GL10.GL_REPEAT);
 
     beginDrawing(gl);
-    
-    // Draw the labels for the active sky regions.
+    drawLabels(gl);
+    endDrawing(gl);
+  }
+
+  @Override
+  protected void drawInternalGles2() {
+    RenderStateInterface rs = getRenderState();
+    GlyphAtlas atlas = rs.getGlyphAtlas();
+    atlas.bind();
+    Matrix.orthoM(mScreenProjection, 0, 0, rs.getScreenWidth(), 0, rs.getScreenHeight(), -1, 1);
+    // Night vision labels are drawn in plain red, as on the fixed-function pipeline.
+    rs.getShaders().beginText(mScreenProjection, atlas.getWidth(), atlas.getHeight(), false);
+    GLES20.glEnable(GLES20.GL_BLEND);
+    GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+    GLBuffer.unbind();
+
+    computeFrameConstants();
+    drawLabels(null);
+
+    GLES20.glDisable(GLES20.GL_BLEND);
+  }
+
+  // Draws the labels in the active sky regions, with the fixed-function pipeline if gl is set
+  // and otherwise with the OpenGL ES 2.0 backend.
+  private void drawLabels(GL10 gl) {
     SkyRegionMap.ActiveRegionData activeRegions = getRenderState().getActiveSkyRegions();
     ArrayList<ArrayList<Label>> allActiveLabels =
         mSkyRegions.getDataForActiveRegions(activeRegions);
 
     for (ArrayList<Label> labelsInRegion : allActiveLabels) {
       for (Label l : labelsInRegion) {
-        Vector3 screenPosition = computeScreenPosition(l);
+        if (l.mesh == null) {
+          continue;
+        }
+        if (!labelCollisionResolver.hasBudget()) {
+          return;
+        }
+        float scale = getMeshScale(l);
+        Vector3 screenPosition = computeScreenPosition(l, scale);
         if (screenPosition != null) {
           LabelPosition position =
               labelCollisionResolver.place(
                   screenPosition.x,
                   screenPosition.y,
-                  l.getWidthInPixels(),
-                  l.getHeightInPixels(),
+                  l.mesh.getWidth() * scale,
+                  l.mesh.getHeight() * scale,
                   getRenderState().getUpAngle());
-          drawLabel(gl, l, position.getX(), position.getY());
+          if (gl != null) {
+            drawLabel(gl, l, position.getX(), position.getY(), scale);
+          } else {
+            drawLabelGles2(l, position.getX(), position.getY(), scale);
+          }
         }
       }
     }
-
-    endDrawing(gl);
   }
   
   /**
@@ -229,11 +219,20 @@ public class LabelObjectManager extends RendererObjectManager {
    * @param gl
    */
   public void beginDrawing(GL10 gl) {
-    mTexture.bind(gl);
+    GlyphAtlas atlas = getRenderState().getGlyphAtlas();
+    atlas.bind(gl);
     gl.glShadeModel(GL10.GL_FLAT);
+    // The atlas holds distance fields, so the alpha test at one half is what gives the glyphs
+    // their edges.
     gl.glEnable(GL10.GL_ALPHA_TEST);
     gl.glAlphaFunc(GL10.GL_GREATER, 0.5f);
     gl.glEnable(GL10.GL_TEXTURE_2D);
+
+    // The meshes' texture coordinates are in atlas pixels.
+    gl.glMatrixMode(GL10.GL_TEXTURE);
+    gl.glPushMatrix();
+    gl.glLoadIdentity();
+    gl.glScalef(1.0f / atlas.getWidth(), 1.0f / atlas.getHeight(), 1);
     
     // We're going to do the transformation on the CPU, so set the matrices 
     // to the identity
@@ -252,19 +251,25 @@ public class LabelObjectManager extends RendererObjectManager {
     gl.glEnableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
     gl.glDisableClientState(GL10.GL_COLOR_ARRAY);
 
+    computeFrameConstants();
+  }
+
+  // Computes the values which are the same for every label in a frame.
+  private void computeFrameConstants() {
     RenderStateInterface rs = super.getRenderState();
     
-    float viewWidth = rs.getScreenWidth();
     float viewHeight = rs.getScreenHeight();
+
+    mFontSizeToMeshScale = rs.getLabelScale()
+        * rs.getResources().getDisplayMetrics().density / GlyphAtlas.BASE_SIZE;
     
     Matrix4x4 rotation = Matrix4x4.createRotation(rs.getUpAngle(), rs.getLookDir());
     mLabelOffset = Matrix4x4.multiplyMV(rotation, rs.getUpDir());
 
-    // If a label isn't within the field of view angle from the target vector, it can't
-    // be on the screen.  Compute the cosine of this angle so we can quickly identify these.
-    // TODO(jpowell): I know I can make this tighter - do so.
-    mDotProductThreshold = MathUtils.cos(rs.getRadiusOfView() * DEGREES_TO_RADIANS *
-        (1 + viewWidth / viewHeight) * 0.5f); 
+    // The size of a pixel at the centre of the screen, which is the largest it is anywhere, at the
+    // labels' distance of 1, so that a label's extent on the screen can be bounded in the world.
+    mWorldUnitsPerPixel =
+        2 * MathUtils.tan(rs.getRadiusOfView() * DEGREES_TO_RADIANS * 0.5f) / viewHeight;
   }
 
   /**
@@ -274,23 +279,27 @@ public class LabelObjectManager extends RendererObjectManager {
    */
   public void endDrawing(GL10 gl) {
     gl.glDisable(GL10.GL_ALPHA_TEST);
+    gl.glMatrixMode(GL10.GL_TEXTURE);
+    gl.glPopMatrix();
     gl.glMatrixMode(GL10.GL_PROJECTION);
     gl.glPopMatrix();
     gl.glMatrixMode(GL10.GL_MODELVIEW);
     gl.glPopMatrix();
     gl.glDisable(GL10.GL_TEXTURE_2D);
     
-    gl.glColor4x(FixedPoint.ONE, FixedPoint.ONE, FixedPoint.ONE, FixedPoint.ONE);
+    gl.glColor4f(1, 1, 1, 1);
   }
   
   /**
-   * A private class which extends the LabelMaker's label data with an xyz position and rgba color values.
-   * For the red-eye mode, it's easier to set the color in the texture to white and set the color when we render
-   * the label than to have two textures, one with red labels and one without. 
+   * A label's text and mesh, with an xyz position and rgba color values.  The glyphs in the
+   * atlas are white, and the color is set when we render the label, so that the red-eye mode
+   * doesn't need a second atlas.
    */
-  private static class Label extends LabelMaker.LabelData {
-    public Label(TextPrimitive ts, double fontSizeScale) {
-      super(ts.getText(), 0xffffffff, (int)(fontSizeScale * ts.getFontSize()));
+  private static class Label {
+    public Label(TextPrimitive ts) {
+      text = ts.getText();
+      fontSize = ts.getFontSize();
+      region = ts.getRegion();
 
       Vector3 location = ts.getLocation();
       x = location.x;
@@ -300,16 +309,18 @@ public class LabelObjectManager extends RendererObjectManager {
       offset = ts.getOffset();
       
       int rgb = ts.getColor();
-      int a = 0xff;
-      int r = (rgb >> 16) & 0xff;
-      int g = (rgb >> 8) & 0xff;
-      int b = rgb & 0xff;
-      fixedA = FixedPoint.floatToFixedPoint(a / 255.0f);
-      fixedB = FixedPoint.floatToFixedPoint(b / 255.0f);
-      fixedG = FixedPoint.floatToFixedPoint(g / 255.0f);
-      fixedR = FixedPoint.floatToFixedPoint(r / 255.0f);
+      a = 1;
+      r = ((rgb >> 16) & 0xff) / 255.0f;
+      g = ((rgb >> 8) & 0xff) / 255.0f;
+      b = (rgb & 0xff) / 255.0f;
     }
     
+    public final String text;
+    public final int fontSize;
+    public final int region;
+    // Built on reload.
+    public TextMesher.LabelMesh mesh = null;
+
     public float x;
     public float y;
     public float z;
@@ -317,17 +328,22 @@ public class LabelObjectManager extends RendererObjectManager {
     // The distance this should be rendered underneath the specified position, in world coordinates.
     public float offset;
     
-    // Fixed point color values
-    public int fixedR;
-    public int fixedG;
-    public int fixedB;
-    public int fixedA;
+    public float r;
+    public float g;
+    public float b;
+    public float a;
   }
   
 
-  private Vector3 computeScreenPosition(Label label) {
-    Vector3 lookDir = getRenderState().getLookDir();
-    if (lookDir.x * label.x + lookDir.y * label.y + lookDir.z * label.z < mDotProductThreshold) {
+  // Returns where on the screen the label drawn at the given scale goes, or null if none of it
+  // can be on the screen.
+  private Vector3 computeScreenPosition(Label label, float scale) {
+    // The label is drawn below its position, within its mesh's diagonal of where that's projected.
+    float width = label.mesh.getWidth() * scale;
+    float height = label.mesh.getHeight() * scale;
+    float extent = Math.abs(label.offset)
+        + (float) Math.sqrt(width * width + height * height) * mWorldUnitsPerPixel;
+    if (!getViewFrustum().intersectsSphere(label.x, label.y, label.z, extent)) {
       return null;
     }
 
@@ -354,22 +370,57 @@ public class LabelObjectManager extends RendererObjectManager {
     return screenPos;
   }
 
-  private void drawLabel(GL10 gl, Label label, float x, float y) {
+  // The scale from a label's mesh to screen pixels.  Labels which would be wider than the screen
+  // are shrunk to fit.
+  private float getMeshScale(Label label) {
+    float scale = label.fontSize * mFontSizeToMeshScale;
+    float maxWidth = getRenderState().getScreenWidth();
+    if (label.mesh.getWidth() * scale > maxWidth) {
+      scale = maxWidth / label.mesh.getWidth();
+    }
+    return scale;
+  }
+
+  private void drawLabel(GL10 gl, Label label, float x, float y, float scale) {
     gl.glPushMatrix();
     
     gl.glTranslatef(x, y, 0);
     gl.glRotatef(RADIANS_TO_DEGREES * getRenderState().getUpAngle(), 0, 0, -1);
-    gl.glScalef(label.getWidthInPixels(), label.getHeightInPixels(), 1);
+    gl.glScalef(scale, scale, 1);
    
-    gl.glVertexPointer(2, GL10.GL_FIXED, 0, mQuadBuffer);
-    gl.glTexCoordPointer(2, GL10.GL_FIXED, 0, label.getTexCoords());
+    gl.glVertexPointer(2, GL10.GL_FLOAT, 0, label.mesh.getPositionBuffer());
+    gl.glTexCoordPointer(2, GL10.GL_FLOAT, 0, label.mesh.getTexCoordBuffer());
     if (getRenderState().getNightVisionMode()) {
-      gl.glColor4x(FixedPoint.ONE, 0, 0, label.fixedA);
+      gl.glColor4f(1, 0, 0, label.a);
     } else {
-      gl.glColor4x(label.fixedR, label.fixedG, label.fixedB, label.fixedA);
+      gl.glColor4f(label.r, label.g, label.b, label.a);
     }
-    gl.glDrawArrays(GL10.GL_TRIANGLE_STRIP, 0, 4);
+    gl.glDrawArrays(GL10.GL_TRIANGLES, 0, label.mesh.getVertexCount());
     
     gl.glPopMatrix();
   }
+
+  private void drawLabelGles2(Label label, float x, float y, float scale) {
+    Gles2Shaders shaders = getRenderState().getShaders();
+    Matrix.translateM(mLabelTransform, 0, mScreenProjection, 0, x, y, 0);
+    Matrix.rotateM(mLabelTransform, 0, RADIANS_TO_DEGREES * getRenderState().getUpAngle(),
+        0, 0, -1);
+    Matrix.scaleM(mLabelTransform, 0, scale, scale, 1);
+    shaders.setMatrix(mLabelTransform);
+    // Antialias over one screen pixel: a base pixel of the distance field covers scale pixels.
+    shaders.setTextSmoothing(0.25f / (GlyphAtlas.SPREAD * scale));
+
+    GLES20.glEnableVertexAttribArray(Gles2Shaders.ATTRIB_POSITION);
+    GLES20.glVertexAttribPointer(Gles2Shaders.ATTRIB_POSITION, 2, GLES20.GL_FLOAT, false, 0,
+        label.mesh.getPositionBuffer());
+    GLES20.glEnableVertexAttribArray(Gles2Shaders.ATTRIB_TEX_COORD);
+    GLES20.glVertexAttribPointer(Gles2Shaders.ATTRIB_TEX_COORD, 2, GLES20.GL_FLOAT, false, 0,
+        label.mesh.getTexCoordBuffer());
+    if (getRenderState().getNightVisionMode()) {
+      Gles2Shaders.setColor(1, 0, 0, label.a);
+    } else {
+      Gles2Shaders.setColor(label.r, label.g, label.b, label.a);
+    }
+    GLES20.glDrawArrays(GLES20.GL_TRIANGLES, 0, label.mesh.getVertexCount());
+  }
 }
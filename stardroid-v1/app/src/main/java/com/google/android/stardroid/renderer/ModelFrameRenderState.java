@@ -0,0 +1,163 @@
+// Copyright 2026 Penterakt LLC.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.android.stardroid.renderer;
+
+import android.content.res.Resources;
+
+import com.google.android.stardroid.math.Matrix4x4;
+import com.google.android.stardroid.math.Vector3;
+import com.google.android.stardroid.renderer.util.Gles2Shaders;
+import com.google.android.stardroid.renderer.util.GlyphAtlas;
+import com.google.android.stardroid.renderer.util.NightVisionFilter;
+import com.google.android.stardroid.renderer.util.SkyRegionMap;
+
+/**
+ * The render state as seen by a manager whose objects are in their own frame, such as the local
+ * horizon, and are placed on the sky by a model matrix.
+ *
+ * <p>The transforms include the model matrix, and the camera and directions are moved into the
+ * model's frame, so that a manager can draw and cull its objects without knowing about the model
+ * matrix.  The derived values are recomputed only when the renderer's state or the model matrix
+ * has changed.
+ */
+class ModelFrameRenderState implements RenderStateInterface {
+  private final RenderStateInterface mBase;
+  private Matrix4x4 mModelMatrix;
+
+  // The base state from which the derived values below were computed.
+  private Matrix4x4 mBaseTransformToDevice = null;
+  private Matrix4x4 mBaseTransformToScreen = null;
+  private Vector3 mBaseLookDir = null;
+  private Vector3 mBaseUpDir = null;
+  private Vector3 mBaseCameraPos = null;
+  private SkyRegionMap.ActiveRegionData mBaseActiveSkyRegions = null;
+
+  private Matrix4x4 mTransformToDevice;
+  private Matrix4x4 mTransformToScreen;
+  private Vector3 mLookDir;
+  private Vector3 mUpDir;
+  private Vector3 mCameraPos;
+  private SkyRegionMap.ActiveRegionData mActiveSkyRegions;
+
+  /** @param modelMatrix transforms the model's frame to world coordinates.  Must be a rotation. */
+  ModelFrameRenderState(RenderStateInterface base, Matrix4x4 modelMatrix) {
+    mBase = base;
+    mModelMatrix = modelMatrix;
+  }
+
+  void setModelMatrix(Matrix4x4 modelMatrix) {
+    mModelMatrix = modelMatrix;
+    mBaseTransformToDevice = null;
+    mBaseLookDir = null;
+    mBaseUpDir = null;
+    mBaseCameraPos = null;
+    mBaseActiveSkyRegions = null;
+  }
+
+  Matrix4x4 getModelMatrix() {
+    return mModelMatrix;
+  }
+
+  @Override
+  public Matrix4x4 getTransformToDeviceMatrix() {
+    updateTransforms();
+    return mTransformToDevice;
+  }
+
+  @Override
+  public Matrix4x4 getTransformToScreenMatrix() {
+    updateTransforms();
+    return mTransformToScreen;
+  }
+
+  @Override
+  public Vector3 getLookDir() {
+    updateDirections();
+    return mLookDir;
+  }
+
+  @Override
+  public Vector3 getUpDir() {
+    updateDirections();
+    return mUpDir;
+  }
+
+  @Override
+  public Vector3 getCameraPos() {
+    updateDirections();
+    return mCameraPos;
+  }
+
+  @Override
+  public SkyRegionMap.ActiveRegionData getActiveSkyRegions() {
+    // The regions of the manager's objects are computed from their positions in the model's
+    // frame, so the active ones must be too.
+    updateDirections();
+    if (mBaseActiveSkyRegions != mBase.getActiveSkyRegions()) {
+      mBaseActiveSkyRegions = mBase.getActiveSkyRegions();
+      mActiveSkyRegions = SkyRegionMap.getActiveRegions(
+          mLookDir, getRadiusOfView(), (float) getScreenWidth() / getScreenHeight());
+    }
+    return mActiveSkyRegions;
+  }
+
+  @Override public float getRadiusOfView() { return mBase.getRadiusOfView(); }
+  @Override public float getUpAngle() { return mBase.getUpAngle(); }
+  @Override public float getCosUpAngle() { return mBase.getCosUpAngle(); }
+  @Override public float getSinUpAngle() { return mBase.getSinUpAngle(); }
+  @Override public int getScreenWidth() { return mBase.getScreenWidth(); }
+  @Override public int getScreenHeight() { return mBase.getScreenHeight(); }
+  @Override public Resources getResources() { return mBase.getResources(); }
+  @Override public boolean getNightVisionMode() { return mBase.getNightVisionMode(); }
+  @Override public NightVisionFilter getNightVisionFilter() { return mBase.getNightVisionFilter(); }
+  @Override public GlyphAtlas getGlyphAtlas() { return mBase.getGlyphAtlas(); }
+  @Override public float getLabelScale() { return mBase.getLabelScale(); }
+  @Override public Gles2Shaders getShaders() { return mBase.getShaders(); }
+  @Override public int getQualityLevel() { return mBase.getQualityLevel(); }
+
+  private void updateTransforms() {
+    if (mBaseTransformToDevice != mBase.getTransformToDeviceMatrix()
+        || mBaseTransformToScreen != mBase.getTransformToScreenMatrix()) {
+      mBaseTransformToDevice = mBase.getTransformToDeviceMatrix();
+      mBaseTransformToScreen = mBase.getTransformToScreenMatrix();
+      mTransformToDevice = Matrix4x4.times(mBaseTransformToDevice, mModelMatrix);
+      mTransformToScreen = Matrix4x4.times(mBaseTransformToScreen, mModelMatrix);
+    }
+  }
+
+  private void updateDirections() {
+    if (mBaseLookDir != mBase.getLookDir()
+        || mBaseUpDir != mBase.getUpDir()
+        || mBaseCameraPos != mBase.getCameraPos()) {
+      mBaseLookDir = mBase.getLookDir();
+      mBaseUpDir = mBase.getUpDir();
+      mBaseCameraPos = mBase.getCameraPos();
+      mLookDir = toModelFrame(mBaseLookDir);
+      mUpDir = toModelFrame(mBaseUpDir);
+      mCameraPos = toModelFrame(mBaseCameraPos);
+      // The active regions depend on the look direction.
+      mBaseActiveSkyRegions = null;
+    }
+  }
+
+  // The inverse of a rotation is its transpose.
+  private Vector3 toModelFrame(Vector3 v) {
+    float[] m = mModelMatrix.getFloatArray();
+    return new Vector3(
+        m[0] * v.x + m[1] * v.y + m[2] * v.z,
+        m[4] * v.x + m[5] * v.y + m[6] * v.z,
+        m[8] * v.x + m[9] * v.y + m[10] * v.z);
+  }
+}
@@ -16,12 +16,14 @@ package com.google.android.stardroid.renderer;
 
 import android.content.res.Resources;
 import android.opengl.GLU;
+import android.opengl.Matrix;
 import android.util.Log;
 
 import com.google.android.stardroid.math.MathUtils;
 import com.google.android.stardroid.math.Matrix4x4;
 import com.google.android.stardroid.math.Vector3;
 import com.google.android.stardroid.renderer.util.ColoredQuad;
+import com.google.android.stardroid.renderer.util.Gles2Shaders;
 import com.google.android.stardroid.renderer.util.SearchHelper;
 import com.google.android.stardroid.renderer.util.TextureManager;
 
@@ -42,6 +44,7 @@ public class OverlayManager extends RendererObjectManager {
   private ColoredQuad mDarkQuad = null;
   private SearchArrow mSearchArrow = new SearchArrow();
   private CrosshairOverlay mCrosshair = new CrosshairOverlay();
+  private final float[] mScreenTransform = new float[16];
   
   private TextureManager mTextureManager;
 
@@ -107,6 +110,30 @@ public class OverlayManager extends RendererObjectManager {
     restoreMatrices(gl);
   }
 
+  @Override
+  protected void drawInternalGles2() {
+    updateTransformedOrientationIfNecessary();
+    if (!mSearching) {
+      return;
+    }
+
+    mSearchHelper.setTransform(getRenderState().getTransformToDeviceMatrix());
+    mSearchHelper.checkState();
+
+    // The same projection as setupMatrices.
+    float left = mWidth / 2.0f;
+    float bottom = mHeight / 2.0f;
+    Matrix.orthoM(mScreenTransform, 0, left, -left, bottom, -bottom, -1, 1);
+
+    Gles2Shaders shaders = getRenderState().getShaders();
+    boolean nightVision = getRenderState().getNightVisionMode();
+    shaders.beginVertexColor(mScreenTransform, false);
+    mDarkQuad.draw();
+    mCrosshair.draw(shaders, mSearchHelper, nightVision);
+    mSearchArrow.draw(shaders, mScreenTransform, mTransformedLookDir, mTransformedUpDir,
+                      mSearchHelper, nightVision);
+  }
+
   // viewerUp MUST be normalized.
   public void setViewerUpDirection(Vector3 viewerUp) {
     // Log.d("OverlayManager", "Setting viewer up " + viewerUp);
@@ -138,6 +165,11 @@ public class OverlayManager extends RendererObjectManager {
     return mSearching && mSearchHelper.targetInFocusRadius();
   }
 
+  // The search overlay pulses, so it needs to be redrawn continuously while it's shown.
+  public boolean isAnimating() {
+    return mSearching;
+  }
+
   private void setupMatrices(GL10 gl) {
     // Save the matrix values.
     gl.glMatrixMode(GL10.GL_PROJECTION);
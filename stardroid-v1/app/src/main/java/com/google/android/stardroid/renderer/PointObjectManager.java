@@ -16,31 +16,48 @@ package com.google.android.stardroid.renderer;
 
 import static com.google.android.stardroid.math.MathUtilsKt.DEGREES_TO_RADIANS;
 
+import android.opengl.GLES20;
 import android.util.Log;
 
 import com.google.android.stardroid.R;
 import com.google.android.stardroid.math.MathUtils;
 import com.google.android.stardroid.math.Vector3;
-import com.google.android.stardroid.renderer.util.IndexBuffer;
-import com.google.android.stardroid.renderer.util.NightVisionColorBuffer;
+import com.google.android.stardroid.renderer.util.ColorBuffer;
+import com.google.android.stardroid.renderer.util.GLBuffer;
+import com.google.android.stardroid.renderer.util.Gles2Shaders;
+import com.google.android.stardroid.renderer.util.NightVisionFilter;
+import com.google.android.stardroid.renderer.util.PointSpriteBuffer;
 import com.google.android.stardroid.renderer.util.SkyRegionMap;
-import com.google.android.stardroid.renderer.util.TexCoordBuffer;
 import com.google.android.stardroid.renderer.util.TextureManager;
 import com.google.android.stardroid.renderer.util.TextureReference;
 import com.google.android.stardroid.renderer.util.VertexBuffer;
+import com.google.android.stardroid.renderer.util.ViewFrustum;
 import com.google.android.stardroid.renderables.PointPrimitive;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.List;
 
 import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
 
 public class PointObjectManager extends RendererObjectManager {
   private static final int NUM_STARS_IN_TEXTURE = 2;
   // Small sets of point aren't worth breaking up into regions.
   // Right now, I'm arbitrarily setting the threshold to 200.
   private static final int MINIMUM_NUM_POINTS_FOR_REGIONS = 200;
+  // The most stars in a chunk, which is culled against the view as a whole.  Smaller chunks cull
+  // more closely at narrow fields of view, at the cost of more draw calls.
+  private static final int MAX_CHUNK_SIZE = 64;
+  // The faintest stars drawn at the widest field of view, in degrees, and how much fainter they
+  // may be for every factor of ten narrower.  The density of stars roughly triples with each
+  // magnitude, so this keeps about as many on screen at any zoom; at the default field of view of
+  // 45 degrees, everything in the catalog is drawn.  Points without a magnitude, which are in
+  // layers other than the stars, aren't limited.
+  private static final float WIDE_FIELD_OF_VIEW = 90;
+  private static final float WIDE_FIELD_FAINTEST_MAGNITUDE = 4.5f;
+  private static final float MAGNITUDES_PER_DECADE_OF_ZOOM = 4;
 
   private class RegionData {
     // TODO(jpowell): This is a convenient hack until the catalog tells us the
@@ -48,18 +65,36 @@ public class PointObjectManager extends RendererObjectManager {
     List<PointPrimitive> sources = new ArrayList<PointPrimitive>();
 
     private VertexBuffer mVertexBuffer = new VertexBuffer(true);
-    private NightVisionColorBuffer mColorBuffer = new NightVisionColorBuffer(true);
-    private TexCoordBuffer mTexCoordBuffer = new TexCoordBuffer(true);
-    private IndexBuffer mIndexBuffer = new IndexBuffer(true);
+    private ColorBuffer mColorBuffer = new ColorBuffer(true);
+    private PointSpriteBuffer mSpriteBuffer = new PointSpriteBuffer(true);
+    // The stars are in chunks of nearby stars using the same image.  Chunk i is the vertices from
+    // mChunkStarts[i] to mChunkStarts[i + 1], brightest first, and is bounded by the sphere whose
+    // centre and radius are the four floats of mChunkBounds from 4 * i.  The chunks of image j are
+    // from mImageChunks[j] to mImageChunks[j + 1].
+    private int[] mChunkStarts = new int[1];
+    private float[] mChunkBounds = new float[0];
+    private int[] mImageChunks = new int[NUM_STARS_IN_TEXTURE + 1];
+    // The magnitude of each vertex, MAGNITUDE_UNKNOWN for those which are always drawn.
+    private float[] mMagnitudes = new float[0];
   }
   // Should we compute the regions for the points?
   // If false, we just put them in the catchall region.
   private static final boolean COMPUTE_REGIONS = true;
   private int mNumPoints = 0;
+  // Whether the points have been moved since they were set.
+  private boolean mDynamic = false;
 
   private SkyRegionMap<RegionData> mSkyRegions = new SkyRegionMap<RegionData>();
 
+  // The stars texture, for the GLES 2.0 backend, and its images as separate textures for the
+  // fixed-function pipeline.
   private TextureReference mTextureRef = null;
+  private TextureReference[] mImageTextures = null;
+
+  // The point size attenuation for the fixed-function pipeline, kept so as not to allocate every
+  // frame.  Only the constant term of the first is set.
+  private final float[] mPointAttenuation = {1, 0, 0};
+  private final float[] mNoPointAttenuation = {1, 0, 0};
 
   public PointObjectManager(int layer, TextureManager textureManager) {
     super(layer, textureManager);
@@ -73,6 +108,8 @@ public class PointObjectManager extends RendererObjectManager {
     if (updateType.contains(UpdateType.Reset)) {
       onlyUpdatePoints = false;
     } else if (updateType.contains(UpdateType.UpdatePositions)) {
+      // These points move, so from now on their buffers are updated in place.
+      mDynamic = true;
       // Sanity check: make sure the number of points is unchanged.
       if (points.size() != mNumPoints) {
         Log.e("PointObjectManager",
@@ -88,15 +125,27 @@ public class PointObjectManager extends RendererObjectManager {
 
     mNumPoints = safePoints.size();
 
-    mSkyRegions.clear();
+    if (onlyUpdatePoints) {
+      // Keep the regions' buffers, so that only what has changed is uploaded.
+      for (RegionData data : mSkyRegions.getDataForAllRegions()) {
+        data.sources = new ArrayList<>();
+      }
+    } else {
+      mSkyRegions.clear();
+    }
 
     if (COMPUTE_REGIONS) {
       // Find the region for each point, and put it in a separate list
       // for that region.
       for (PointPrimitive point : safePoints) {
-        int region = safePoints.size() < MINIMUM_NUM_POINTS_FOR_REGIONS
-            ? SkyRegionMap.CATCHALL_REGION_ID
-            : SkyRegionMap.getObjectRegion(point.getLocation());
+        int region;
+        if (safePoints.size() < MINIMUM_NUM_POINTS_FOR_REGIONS) {
+          region = SkyRegionMap.CATCHALL_REGION_ID;
+        } else if (point.getRegion() != PointPrimitive.REGION_UNKNOWN) {
+          region = point.getRegion();
+        } else {
+          region = SkyRegionMap.getObjectRegion(point.getLocation());
+        }
         mSkyRegions.getRegionData(region).sources.add(point);
       }
     } else {
@@ -105,18 +154,19 @@ public class PointObjectManager extends RendererObjectManager {
 
     // Generate the resources for all of the regions.
     for (RegionData data : mSkyRegions.getDataForAllRegions()) {
-      int numVertices = 4 * data.sources.size();
-      int numIndices = 6 * data.sources.size();
+      int numVertices = data.sources.size();
 
+      if (mDynamic) {
+        data.mVertexBuffer.setDynamic(true);
+        data.mColorBuffer.setDynamic(true);
+        data.mSpriteBuffer.setDynamic(true);
+      }
       data.mVertexBuffer.reset(numVertices);
       data.mColorBuffer.reset(numVertices);
-      data.mTexCoordBuffer.reset(numVertices);
-      data.mIndexBuffer.reset(numIndices);
-
-      Vector3 up = new Vector3(0, 1, 0);
+      data.mSpriteBuffer.reset(numVertices);
 
       // By inspecting the perspective projection matrix, you can show that,
-      // to have a quad at the center of the screen to be of size k by k
+      // to have a star at the center of the screen to be of size k by k
       // pixels, the width and height are both:
       // k * tan(fovy / 2) / screenHeight
       // This is not difficult to derive.  Look at the transformation matrix
@@ -128,107 +178,201 @@ public class PointObjectManager extends RendererObjectManager {
       float fovyInRadians = 60 * DEGREES_TO_RADIANS;
       float sizeFactor = MathUtils.tan(fovyInRadians * 0.5f) / 480;
 
-      Vector3 bottomLeftPos = new Vector3(0, 0, 0);
-      Vector3 topLeftPos = new Vector3(0, 0, 0);
-      Vector3 bottomRightPos = new Vector3(0, 0, 0);
-      Vector3 topRightPos = new Vector3(0, 0, 0);
-
-      Vector3 su = new Vector3(0, 0, 0);
-      Vector3 sv = new Vector3(0, 0, 0);
-
-      short index = 0;
-
-      float starWidthInTexels = 1.0f / NUM_STARS_IN_TEXTURE;
-
-      for (PointPrimitive p : data.sources) {
-        int color = 0xff000000 | p.getColor();  // Force alpha to 0xff
-        short bottomLeft = index++;
-        short topLeft = index++;
-        short bottomRight = index++;
-        short topRight = index++;
-
-        // First triangle
-        data.mIndexBuffer.addIndex(bottomLeft);
-        data.mIndexBuffer.addIndex(topLeft);
-        data.mIndexBuffer.addIndex(bottomRight);
-
-        // Second triangle
-        data.mIndexBuffer.addIndex(topRight);
-        data.mIndexBuffer.addIndex(bottomRight);
-        data.mIndexBuffer.addIndex(topLeft);
-
-        int starIndex = p.getPointShape().getImageIndex();
-
-        float texOffsetU = starWidthInTexels * starIndex;
-
-        data.mTexCoordBuffer.addTexCoords(texOffsetU, 1);
-        data.mTexCoordBuffer.addTexCoords(texOffsetU, 0);
-        data.mTexCoordBuffer.addTexCoords(texOffsetU + starWidthInTexels, 1);
-        data.mTexCoordBuffer.addTexCoords(texOffsetU + starWidthInTexels, 0);
-
-        Vector3 pos = p.getLocation();
-        Vector3 u = pos.times(up).normalizedCopy();
-        Vector3 v = u.times(pos);
-
-        float s = p.getSize() * sizeFactor;
+      // Each star is a single vertex, expanded to a square on the GPU.  They're grouped by image
+      // so that the fixed-function pipeline, whose point sprites always show a whole texture, can
+      // draw each group with that image's texture.  Each group is split into chunks of nearby
+      // stars which are culled against the view, and within a chunk they're sorted brightest
+      // first, so that the faintest can be left off the end when zoomed out or when the quality
+      // is reduced.
+      List<List<PointPrimitive>> chunks = new ArrayList<>();
+      for (int image = 0; image < NUM_STARS_IN_TEXTURE; image++) {
+        data.mImageChunks[image] = chunks.size();
+        List<PointPrimitive> group = new ArrayList<>();
+        for (PointPrimitive p : data.sources) {
+          if (getImageIndex(p) == image) {
+            group.add(p);
+          }
+        }
+        addChunks(group, chunks);
+      }
+      data.mImageChunks[NUM_STARS_IN_TEXTURE] = chunks.size();
+
+      data.mMagnitudes = new float[numVertices];
+      data.mChunkStarts = new int[chunks.size() + 1];
+      data.mChunkBounds = new float[4 * chunks.size()];
+      int index = 0;
+      List<Vector3> locations = new ArrayList<>();
+      for (int chunk = 0; chunk < chunks.size(); chunk++) {
+        data.mChunkStarts[chunk] = index;
+        List<PointPrimitive> group = new ArrayList<>(chunks.get(chunk));
+        group.sort(Comparator.comparingDouble(PointPrimitive::getMagnitude));
+        int image = getImageIndex(group.get(0));
+        float maxSize = 0;
+        locations.clear();
+        for (PointPrimitive p : group) {
+          int color = 0xff000000 | p.getColor();  // Force alpha to 0xff
+          data.mVertexBuffer.addPoint(p.getLocation());
+          data.mColorBuffer.addColor(color);
+          data.mSpriteBuffer.addSprite(p.getSize() * sizeFactor, image);
+          data.mMagnitudes[index] = p.getMagnitude();
+          maxSize = Math.max(maxSize, p.getSize() * sizeFactor);
+          locations.add(p.getLocation());
+          index++;
+        }
+        ViewFrustum.computeBounds(locations, maxSize / 2, data.mChunkBounds, 4 * chunk);
+      }
+      data.mChunkStarts[chunks.size()] = index;
+      data.sources = null;
+    }
+  }
 
-        su.assign(s*u.x, s*u.y, s*u.z);
-        sv.assign(s*v.x, s*v.y, s*v.z);
+  // Splits the points into chunks of at most MAX_CHUNK_SIZE nearby points, by halving them across
+  // their widest extent until they're small enough, and adds them to chunks.
+  private static void addChunks(List<PointPrimitive> points, List<List<PointPrimitive>> chunks) {
+    if (points.size() <= MAX_CHUNK_SIZE) {
+      if (!points.isEmpty()) {
+        chunks.add(points);
+      }
+      return;
+    }
+    float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+    float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+    for (PointPrimitive p : points) {
+      for (int axis = 0; axis < 3; axis++) {
+        float value = getCoordinate(p.getLocation(), axis);
+        min[axis] = Math.min(min[axis], value);
+        max[axis] = Math.max(max[axis], value);
+      }
+    }
+    int widest = 0;
+    for (int axis = 1; axis < 3; axis++) {
+      if (max[axis] - min[axis] > max[widest] - min[widest]) {
+        widest = axis;
+      }
+    }
+    final int splitAxis = widest;
+    List<PointPrimitive> sorted = new ArrayList<>(points);
+    sorted.sort(Comparator.comparingDouble(p -> getCoordinate(p.getLocation(), splitAxis)));
+    int half = sorted.size() / 2;
+    addChunks(sorted.subList(0, half), chunks);
+    addChunks(sorted.subList(half, sorted.size()), chunks);
+  }
 
-        bottomLeftPos.assign(pos.x - su.x - sv.x, pos.y - su.y - sv.y, pos.z - su.z - sv.z);
-        topLeftPos.assign(pos.x - su.x + sv.x, pos.y - su.y + sv.y, pos.z - su.z + sv.z);
-        bottomRightPos.assign(pos.x + su.x - sv.x, pos.y + su.y - sv.y, pos.z + su.z - sv.z);
-        topRightPos.assign(pos.x + su.x + sv.x, pos.y + su.y + sv.y, pos.z + su.z + sv.z);
+  private static float getCoordinate(Vector3 v, int axis) {
+    return axis == 0 ? v.x : axis == 1 ? v.y : v.z;
+  }
 
-        // Add the vertices
-        data.mVertexBuffer.addPoint(bottomLeftPos);
-        data.mColorBuffer.addColor(color);
+  // Shapes without their own image in the stars texture use its last one.
+  private static int getImageIndex(PointPrimitive p) {
+    return Math.min(p.getPointShape().getImageIndex(), NUM_STARS_IN_TEXTURE - 1);
+  }
 
-        data.mVertexBuffer.addPoint(topLeftPos);
-        data.mColorBuffer.addColor(color);
+  // The magnitude of the faintest stars to draw at the given field of view, in degrees.
+  static float getFaintestMagnitudeForFieldOfView(float radiusOfView) {
+    return WIDE_FIELD_FAINTEST_MAGNITUDE + MAGNITUDES_PER_DECADE_OF_ZOOM
+        * (float) Math.log10(WIDE_FIELD_OF_VIEW / Math.max(radiusOfView, 1e-3f));
+  }
 
-        data.mVertexBuffer.addPoint(bottomRightPos);
-        data.mColorBuffer.addColor(color);
+  // Returns the end of the stars of the given chunk which are no fainter than faintest.
+  private static int getVisibleEnd(RegionData data, int chunk, float faintest) {
+    int low = data.mChunkStarts[chunk];
+    int high = data.mChunkStarts[chunk + 1];
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (data.mMagnitudes[mid] <= faintest) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
 
-        data.mVertexBuffer.addPoint(topRightPos);
-        data.mColorBuffer.addColor(color);
+  // Draws the stars of the region using the given image which may be on screen and are no fainter
+  // than the field of view and the quality level allow, with the fixed-function pipeline if gl is
+  // set and otherwise with the OpenGL ES 2.0 backend.  Runs of adjacent chunks are drawn together.
+  private void drawVisibleStars(GL10 gl, RegionData data, int image) {
+    RenderStateInterface rs = getRenderState();
+    float faintest = Math.min(QualityGovernor.getFaintestMagnitude(rs.getQualityLevel()),
+        getFaintestMagnitudeForFieldOfView(rs.getRadiusOfView()));
+    ViewFrustum frustum = getViewFrustum();
+    float[] bounds = data.mChunkBounds;
+    int rangeStart = 0;
+    int rangeEnd = 0;
+    for (int chunk = data.mImageChunks[image]; chunk < data.mImageChunks[image + 1]; chunk++) {
+      int b = 4 * chunk;
+      if (!frustum.intersectsSphere(bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3])) {
+        continue;
       }
-      //Log.i("PointObjectManager",
-      //      "Vertices: " + data.mVertexBuffer.size() + ", Indices: " + data.mIndexBuffer.size());
-      data.sources = null;
+      int start = data.mChunkStarts[chunk];
+      int end = getVisibleEnd(data, chunk, faintest);
+      if (end == start) {
+        continue;
+      }
+      if (start != rangeEnd) {
+        drawStars(gl, rangeStart, rangeEnd - rangeStart);
+        rangeStart = start;
+      }
+      rangeEnd = end;
+    }
+    drawStars(gl, rangeStart, rangeEnd - rangeStart);
+  }
+
+  private static void drawStars(GL10 gl, int first, int count) {
+    if (count == 0) {
+      return;
+    }
+    if (gl != null) {
+      gl.glDrawArrays(GL10.GL_POINTS, first, count);
+    } else {
+      GLES20.glDrawArrays(GLES20.GL_POINTS, first, count);
     }
   }
 
   @Override
   public void reload(GL10 gl, boolean fullReload) {
-    mTextureRef = textureManager().getTextureFromResource(gl, R.drawable.stars_texture);
+    if (getRenderState().getShaders() != null) {
+      mTextureRef = textureManager().getTextureFromResource(gl, R.drawable.stars_texture);
+    } else {
+      mImageTextures = textureManager().getTexturesFromResourceStrip(
+          gl, R.drawable.stars_texture, NUM_STARS_IN_TEXTURE);
+    }
     for (RegionData data : mSkyRegions.getDataForAllRegions()) {
       data.mVertexBuffer.reload();
       data.mColorBuffer.reload();
-      data.mTexCoordBuffer.reload();
-      data.mIndexBuffer.reload();
+      data.mSpriteBuffer.reload();
     }
   }
 
   @Override
   protected void drawInternal(GL10 gl) {
+    GL11 gl11 = (GL11) gl;
     gl.glEnableClientState(GL10.GL_VERTEX_ARRAY);
     gl.glEnableClientState(GL10.GL_COLOR_ARRAY);
-    gl.glEnableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
-
-    gl.glEnable(GL10.GL_CULL_FACE);
-    gl.glFrontFace(GL10.GL_CW);
-    gl.glCullFace(GL10.GL_BACK);
+    gl.glDisableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
+    gl.glEnableClientState(GL11.GL_POINT_SIZE_ARRAY_OES);
 
     gl.glEnable(GL10.GL_ALPHA_TEST);
     gl.glAlphaFunc(GL10.GL_GREATER, 0.5f);
 
     gl.glEnable(GL10.GL_TEXTURE_2D);
-
-    mTextureRef.bind(gl);
-
     gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL10.GL_TEXTURE_ENV_MODE, GL10.GL_MODULATE);
 
+    gl.glEnable(GL11.GL_POINT_SPRITE_OES);
+    gl.glTexEnvf(GL11.GL_POINT_SPRITE_OES, GL11.GL_COORD_REPLACE_OES, GL10.GL_TRUE);
+    // Every star is at distance 1 from the eye, so the constant attenuation term scales sizes in
+    // world units to pixels.
+    float pixelsPerUnit = PointSpriteBuffer.getPixelsPerWorldUnit(
+        getRenderState().getRadiusOfView(), getRenderState().getScreenHeight());
+    mPointAttenuation[0] = 1 / (pixelsPerUnit * pixelsPerUnit);
+    gl11.glPointParameterfv(GL11.GL_POINT_DISTANCE_ATTENUATION, mPointAttenuation, 0);
+
+    boolean nightVision = getRenderState().getNightVisionMode();
+    if (nightVision) {
+      getRenderState().getNightVisionFilter().begin(
+          gl, NightVisionFilter.Source.TEXTURED_VERTEX_COLOR);
+    }
+
     // Render all of the active sky regions.
     SkyRegionMap.ActiveRegionData activeRegions = getRenderState().getActiveSkyRegions();
     ArrayList<RegionData> activeRegionData = mSkyRegions.getDataForActiveRegions(activeRegions);
@@ -238,13 +382,54 @@ public class PointObjectManager extends RendererObjectManager {
       }
 
       data.mVertexBuffer.set(gl);
-      data.mColorBuffer.set(gl, getRenderState().getNightVisionMode());
-      data.mTexCoordBuffer.set(gl);
-      data.mIndexBuffer.draw(gl, GL10.GL_TRIANGLES);
+      data.mColorBuffer.set(gl);
+      data.mSpriteBuffer.set(gl);
+      for (int image = 0; image < NUM_STARS_IN_TEXTURE; image++) {
+        if (data.mImageChunks[image] < data.mImageChunks[image + 1]) {
+          mImageTextures[image].bind(gl);
+          drawVisibleStars(gl, data, image);
+        }
+      }
     }
+    GLBuffer.unbind(gl11);
 
-    gl.glDisableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
+    if (nightVision) {
+      getRenderState().getNightVisionFilter().end(
+          gl, NightVisionFilter.Source.TEXTURED_VERTEX_COLOR);
+    }
+
+    gl11.glPointParameterfv(GL11.GL_POINT_DISTANCE_ATTENUATION, mNoPointAttenuation, 0);
+    gl.glTexEnvf(GL11.GL_POINT_SPRITE_OES, GL11.GL_COORD_REPLACE_OES, GL10.GL_FALSE);
+    gl.glDisable(GL11.GL_POINT_SPRITE_OES);
+    gl.glDisableClientState(GL11.GL_POINT_SIZE_ARRAY_OES);
     gl.glDisable(GL10.GL_TEXTURE_2D);
     gl.glDisable(GL10.GL_ALPHA_TEST);
   }
+
+  @Override
+  protected void drawInternalGles2() {
+    RenderStateInterface rs = getRenderState();
+    float pixelsPerUnit =
+        PointSpriteBuffer.getPixelsPerWorldUnit(rs.getRadiusOfView(), rs.getScreenHeight());
+    rs.getShaders().beginPointSprites(rs.getTransformToDeviceMatrix().getFloatArray(),
+        pixelsPerUnit, NUM_STARS_IN_TEXTURE, 0.5f, rs.getNightVisionMode());
+
+    mTextureRef.bind();
+
+    ArrayList<RegionData> activeRegionData =
+        mSkyRegions.getDataForActiveRegions(rs.getActiveSkyRegions());
+    for (RegionData data : activeRegionData) {
+      if (data.mVertexBuffer.size() == 0) {
+        continue;
+      }
+
+      data.mVertexBuffer.setAttribute(Gles2Shaders.ATTRIB_POSITION);
+      data.mColorBuffer.setAttribute(Gles2Shaders.ATTRIB_COLOR);
+      data.mSpriteBuffer.setAttribute(Gles2Shaders.ATTRIB_SPRITE);
+      for (int image = 0; image < NUM_STARS_IN_TEXTURE; image++) {
+        drawVisibleStars(null, data, image);
+      }
+    }
+    GLBuffer.unbind();
+  }
 }
@@ -16,11 +16,15 @@ package com.google.android.stardroid.renderer;
 
 import static com.google.android.stardroid.math.MathUtilsKt.DEGREES_TO_RADIANS;
 
+import android.opengl.GLES20;
+
 import com.google.android.stardroid.R;
 import com.google.android.stardroid.math.MathUtils;
 import com.google.android.stardroid.math.Vector3;
+import com.google.android.stardroid.renderer.util.ColorBuffer;
+import com.google.android.stardroid.renderer.util.Gles2Shaders;
 import com.google.android.stardroid.renderer.util.IndexBuffer;
-import com.google.android.stardroid.renderer.util.NightVisionColorBuffer;
+import com.google.android.stardroid.renderer.util.NightVisionFilter;
 import com.google.android.stardroid.renderer.util.TexCoordBuffer;
 import com.google.android.stardroid.renderer.util.TextureManager;
 import com.google.android.stardroid.renderer.util.TextureReference;
@@ -35,7 +39,7 @@ import javax.microedition.khronos.opengles.GL10;
 
 public class PolyLineObjectManager extends RendererObjectManager {
   private VertexBuffer mVertexBuffer = new VertexBuffer(true);
-  private NightVisionColorBuffer mColorBuffer = new NightVisionColorBuffer(true);
+  private ColorBuffer mColorBuffer = new ColorBuffer(true);
   private TexCoordBuffer mTexCoordBuffer = new TexCoordBuffer(true);
   private IndexBuffer mIndexBuffer = new IndexBuffer(true);
   private TextureReference mTexRef = null;
@@ -64,14 +68,24 @@ public class PolyLineObjectManager extends RendererObjectManager {
     int numVertices = 4 * numLineSegments;
     int numIndices = 6 * numLineSegments;
     
+    // When only the positions of the same lines have changed, the colors, texture coordinates and
+    // indices are left as they are, and the vertices are updated in place.
+    boolean onlyUpdatePositions = !updateType.contains(UpdateType.Reset)
+        && mVertexBuffer.size() == numVertices;
+    if (onlyUpdatePositions) {
+      mVertexBuffer.setDynamic(true);
+    }
+
     VertexBuffer vb = mVertexBuffer;
     vb.reset(4 * numLineSegments);
-    NightVisionColorBuffer cb = mColorBuffer;
-    cb.reset(4 * numLineSegments);
+    ColorBuffer cb = mColorBuffer;
     TexCoordBuffer tb = mTexCoordBuffer;
-    tb.reset(numVertices);
     IndexBuffer ib = mIndexBuffer;
-    ib.reset(numIndices);
+    if (!onlyUpdatePositions) {
+      cb.reset(4 * numLineSegments);
+      tb.reset(numVertices);
+      ib.reset(numIndices);
+    }
     
     // See comment in PointObjectManager for justification of this calculation.
     float fovyInRadians = 60 * DEGREES_TO_RADIANS;
@@ -79,7 +93,7 @@ public class PolyLineObjectManager extends RendererObjectManager {
     
     boolean opaque = true;
 
-    short vertexIndex = 0;
+    int vertexIndex = 0;
     for (LinePrimitive l : lines) {
       List<Vector3> coords = l.getVertices();
       if (coords.size() < 2)
@@ -107,30 +121,30 @@ public class PolyLineObjectManager extends RendererObjectManager {
         
         // Lower left corner
         vb.addPoint(p1.minus(v));
-        cb.addColor(color);
-        tb.addTexCoords(0, 1);
-        
         // Upper left corner
         vb.addPoint(p1.plus(v));
-        cb.addColor(color);
-        tb.addTexCoords(0, 0);
-        
         // Lower left corner
         vb.addPoint(p2.minus(v));
-        cb.addColor(color);
-        tb.addTexCoords(1, 1);
-        
         // Upper left corner
         vb.addPoint(p2.plus(v));
+        if (onlyUpdatePositions) {
+          continue;
+        }
+
+        cb.addColor(color);
+        cb.addColor(color);
         cb.addColor(color);
+        cb.addColor(color);
+        tb.addTexCoords(0, 1);
+        tb.addTexCoords(0, 0);
+        tb.addTexCoords(1, 1);
         tb.addTexCoords(1, 0);
-        
-        
+
         // Add the indices
-        short bottomLeft = vertexIndex++;
-        short topLeft = vertexIndex++;
-        short bottomRight = vertexIndex++;
-        short topRight = vertexIndex++;
+        int bottomLeft = vertexIndex++;
+        int topLeft = vertexIndex++;
+        int bottomRight = vertexIndex++;
+        int topRight = vertexIndex++;
         
         // First triangle
         ib.addIndex(bottomLeft);
@@ -173,7 +187,6 @@ public class PolyLineObjectManager extends RendererObjectManager {
       gl.glEnable(GL10.GL_TEXTURE_2D);
       mTexRef.bind(gl);
       gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL10.GL_TEXTURE_ENV_MODE, GL10.GL_MODULATE);
-      mTexCoordBuffer.set(gl);
     } else {
       // Explicitly clear texturing state on the non-opaque path: a previously drawn manager
       // may have left GL_TEXTURE_2D / GL_TEXTURE_COORD_ARRAY enabled, which would otherwise
@@ -191,10 +204,26 @@ public class PolyLineObjectManager extends RendererObjectManager {
       gl.glBlendFunc(GL10.GL_SRC_ALPHA, GL10.GL_ONE_MINUS_SRC_ALPHA);
     }
 
-    mVertexBuffer.set(gl);
-    mColorBuffer.set(gl, getRenderState().getNightVisionMode());
+    boolean nightVision = getRenderState().getNightVisionMode();
+    NightVisionFilter.Source nightVisionSource = mOpaque
+        ? NightVisionFilter.Source.TEXTURED_VERTEX_COLOR
+        : NightVisionFilter.Source.VERTEX_COLOR;
+    if (nightVision) {
+      getRenderState().getNightVisionFilter().begin(gl, nightVisionSource);
+    }
+
+    // Large line sets are drawn in several batches, each with the arrays moved to its start.
+    mIndexBuffer.draw(gl, GL10.GL_TRIANGLES, firstVertex -> {
+      mVertexBuffer.set(gl, firstVertex);
+      mColorBuffer.set(gl, firstVertex);
+      if (mOpaque) {
+        mTexCoordBuffer.set(gl, firstVertex);
+      }
+    });
 
-    mIndexBuffer.draw(gl, GL10.GL_TRIANGLES);
+    if (nightVision) {
+      getRenderState().getNightVisionFilter().end(gl, nightVisionSource);
+    }
 
     if (!mOpaque) {
       gl.glDisable(GL10.GL_BLEND);
@@ -205,4 +234,38 @@ public class PolyLineObjectManager extends RendererObjectManager {
       gl.glDisableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
     }
   }
+
+  @Override
+  protected void drawInternalGles2() {
+    if (mIndexBuffer.size() == 0)
+      return;
+
+    RenderStateInterface rs = getRenderState();
+    float[] matrix = rs.getTransformToDeviceMatrix().getFloatArray();
+    // As above, only fully-opaque lines use the line texture.
+    if (mOpaque) {
+      rs.getShaders().beginTextured(matrix, -1, rs.getNightVisionMode());
+      mTexRef.bind();
+    } else {
+      rs.getShaders().beginVertexColor(matrix, rs.getNightVisionMode());
+      GLES20.glEnable(GLES20.GL_BLEND);
+      GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+    }
+
+    GLES20.glEnable(GLES20.GL_CULL_FACE);
+    GLES20.glFrontFace(GLES20.GL_CW);
+    GLES20.glCullFace(GLES20.GL_BACK);
+
+    mIndexBuffer.draw(GLES20.GL_TRIANGLES, firstVertex -> {
+      mVertexBuffer.setAttribute(Gles2Shaders.ATTRIB_POSITION, firstVertex);
+      mColorBuffer.setAttribute(Gles2Shaders.ATTRIB_COLOR, firstVertex);
+      if (mOpaque) {
+        mTexCoordBuffer.setAttribute(Gles2Shaders.ATTRIB_TEX_COORD, firstVertex);
+      }
+    });
+
+    if (!mOpaque) {
+      GLES20.glDisable(GLES20.GL_BLEND);
+    }
+  }
 }
@@ -0,0 +1,134 @@
+// Copyright 2026 Penterakt LLC.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.android.stardroid.renderer;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Trades detail for frame rate on devices which can't draw everything in time.
+ *
+ * <p>The renderer reports how long it took to draw each frame, and the governor averages that over
+ * windows of {@link #WINDOW_FRAMES}.  The time between frames isn't used, since frames are only
+ * drawn when something changes and the display may run at less than 60Hz.  A window well over the
+ * frame budget lowers the quality by a level; a run of windows within it raises the quality again.
+ * Levels run from 0, full detail, to {@link #MAX_LEVEL}, and each consumer decides what a level
+ * means for it: the renderer drops faint stars and limits the number of labels, and layers listen
+ * for changes to simplify their geometry.
+ *
+ * <p>To avoid oscillating between two levels, there is a dead band between the thresholds for
+ * lowering and raising the quality, and each time a raise is followed quickly by a drop, the run
+ * of good windows needed for the next raise doubles.
+ */
+public class QualityGovernor {
+  /** The lowest quality level. */
+  public static final int MAX_LEVEL = 3;
+
+  /** Notified on the GL thread when the level changes. */
+  public interface Listener {
+    void onQualityLevelChanged(int level);
+  }
+
+  private static final long TARGET_FRAME_NANOS = 1_000_000_000L / 60;
+  // A window whose mean draw time is above this lowers the level...
+  private static final long SLOW_FRAME_NANOS = TARGET_FRAME_NANOS * 5 / 4;
+  // ...and one below this counts toward raising it.
+  private static final long FAST_FRAME_NANOS = TARGET_FRAME_NANOS * 21 / 20;
+  static final int WINDOW_FRAMES = 30;
+  // Longer frames are one-off stalls, such as loading textures, rather than what drawing costs.
+  private static final long MAX_FRAME_NANOS = 250_000_000L;
+  static final int MIN_WINDOWS_TO_RAISE = 4;
+  private static final int MAX_WINDOWS_TO_RAISE = 64;
+
+  private static final float[] FAINTEST_MAGNITUDES = {Float.MAX_VALUE, 5.0f, 4.5f, 4.0f};
+  private static final int[] LABEL_BUDGETS = {Integer.MAX_VALUE, 120, 60, 30};
+
+  private final Set<Listener> mListeners = new CopyOnWriteArraySet<>();
+  private volatile int mLevel = 0;
+
+  // Only accessed on the GL thread.
+  private long mWindowNanos = 0;
+  private int mWindowFrames = 0;
+  private int mFastWindows = 0;
+  private int mWindowsToRaise = MIN_WINDOWS_TO_RAISE;
+  private int mWindowsSinceRaise = Integer.MAX_VALUE;
+
+  /** The current level, from 0 (full detail) to {@link #MAX_LEVEL}.  May be read on any thread. */
+  public int getLevel() {
+    return mLevel;
+  }
+
+  /** Adds a listener, unless it's already been added. */
+  public void addListener(Listener listener) {
+    mListeners.add(listener);
+  }
+
+  public void removeListener(Listener listener) {
+    mListeners.remove(listener);
+  }
+
+  /** Records that a frame took the given time to draw, from the start to the end of drawing it. */
+  public void onFrameDrawn(long drawNanos) {
+    if (drawNanos > MAX_FRAME_NANOS) {
+      return;
+    }
+    mWindowNanos += drawNanos;
+    if (++mWindowFrames < WINDOW_FRAMES) {
+      return;
+    }
+    long meanNanos = mWindowNanos / mWindowFrames;
+    mWindowNanos = 0;
+    mWindowFrames = 0;
+    if (mWindowsSinceRaise < Integer.MAX_VALUE) {
+      mWindowsSinceRaise++;
+    }
+
+    if (meanNanos > SLOW_FRAME_NANOS) {
+      mFastWindows = 0;
+      if (mWindowsSinceRaise <= mWindowsToRaise) {
+        // The last raise didn't stick, so be more cautious about the next one.
+        mWindowsToRaise = Math.min(2 * mWindowsToRaise, MAX_WINDOWS_TO_RAISE);
+      }
+      if (mLevel < MAX_LEVEL) {
+        setLevel(mLevel + 1);
+      }
+    } else if (meanNanos < FAST_FRAME_NANOS) {
+      if (++mFastWindows >= mWindowsToRaise && mLevel > 0) {
+        mFastWindows = 0;
+        mWindowsSinceRaise = 0;
+        setLevel(mLevel - 1);
+      }
+    } else {
+      mFastWindows = 0;
+    }
+  }
+
+  private void setLevel(int level) {
+    mLevel = level;
+    for (Listener listener : mListeners) {
+      listener.onQualityLevelChanged(level);
+    }
+  }
+
+  /** The magnitude of the faintest stars to draw at the given level. */
+  public static float getFaintestMagnitude(int level) {
+    return FAINTEST_MAGNITUDES[level];
+  }
+
+  /** The most labels to draw in a frame at the given level. */
+  public static int getLabelBudget(int level) {
+    return LABEL_BUDGETS[level];
+  }
+}
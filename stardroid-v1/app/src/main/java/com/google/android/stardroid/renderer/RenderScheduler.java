@@ -0,0 +1,185 @@
+// Copyright 2026 Penterakt LLC.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.android.stardroid.renderer;
+
+import android.opengl.GLSurfaceView;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.android.stardroid.base.TimeConstants;
+import com.google.android.stardroid.control.AstronomerModel;
+import com.google.android.stardroid.renderables.AbstractPrimitive.UpdateGranularity;
+
+import javax.annotation.Nullable;
+
+/**
+ * Draws frames on demand rather than continuously.
+ *
+ * <p>The view is put into {@link GLSurfaceView#RENDERMODE_WHEN_DIRTY}, and a frame is requested
+ * only when something on screen would change:
+ * <ul>
+ *   <li>the pointing or field of view from the {@link AstronomerModel} has moved by more than a
+ *   pixel,</li>
+ *   <li>the model's time has crossed a boundary of the update granularity, so that layers get
+ *   the chance to update their sources, or</li>
+ *   <li>the renderer is animating, as it does while searching.</li>
+ * </ul>
+ * Changes to what is rendered - layers, preferences and so on - request their own frames through
+ * the {@link RendererController}.
+ *
+ * <p>The model is polled on the GL thread, since that's where the per-frame view update reads it.
+ * While nothing changes, the poll is a small event every {@link #POLL_INTERVAL_MS}; once
+ * something does, it is repeated after every frame so that movement is drawn at the full frame
+ * rate.
+ */
+public class RenderScheduler {
+  // How long it can take to notice the first change after the view has been still.
+  private static final long POLL_INTERVAL_MS = 50;
+
+  private final GLSurfaceView mView;
+  private final SkyRenderer mRenderer;
+  private final AstronomerModel mModel;
+  private final Runnable mViewUpdate;
+  private final Handler mHandler = new Handler(Looper.getMainLooper());
+  private final Runnable mPoll = this::poll;
+  // Set on the UI thread and read on the GL thread.
+  private volatile long mTimePeriodMillis = getPeriodMillis(UpdateGranularity.Second);
+  private boolean mStarted = false;
+
+  // The view as of the last frame requested.  Only accessed on the GL thread.
+  private final float[] mLastPointing = new float[6];
+  // The view being checked, kept so as not to allocate every poll and frame.
+  private final float[] mPointing = new float[6];
+  private float mLastFieldOfView = -1;
+  private long mLastTimePeriod = Long.MIN_VALUE;
+
+  /**
+   * @param viewUpdate queues the model's view with the renderer.  It's run after every frame and
+   *     before any frame requested because the view has changed, in place of being added as an
+   *     update closure.
+   */
+  public RenderScheduler(GLSurfaceView view, SkyRenderer renderer, RendererController controller,
+                         AstronomerModel model, Runnable viewUpdate) {
+    mView = view;
+    mRenderer = renderer;
+    mModel = model;
+    mViewUpdate = viewUpdate;
+    view.setRenderMode(GLSurfaceView.RENDERMODE_WHEN_DIRTY);
+    // Every layer's update for a frame reads the time from the same snapshot.
+    controller.addPreUpdateClosure(model::beginFrame);
+    controller.addUpdateClosure(this::onFrameDrawn);
+  }
+
+  /**
+   * Sets the finest granularity at which any layer's sources change with time.  A frame is
+   * requested each time the model's time passes a multiple of it, or never for the passing of
+   * time if it's null.
+   */
+  public void setTimeGranularity(@Nullable UpdateGranularity granularity) {
+    mTimePeriodMillis = granularity == null ? Long.MAX_VALUE : getPeriodMillis(granularity);
+  }
+
+  /** Starts polling the model.  Call after resuming the view. */
+  public void start() {
+    mStarted = true;
+    mView.requestRender();
+    mHandler.post(mPoll);
+  }
+
+  /** Stops polling the model.  Call before pausing the view. */
+  public void stop() {
+    mStarted = false;
+    mHandler.removeCallbacks(mPoll);
+  }
+
+  /** Requests a frame, for changes that the scheduler can't see for itself. */
+  public void requestRender() {
+    mView.requestRender();
+  }
+
+  private void poll() {
+    if (!mStarted) {
+      return;
+    }
+    mView.queueEvent(() -> {
+      if (hasViewChanged()) {
+        mViewUpdate.run();
+        mView.requestRender();
+      }
+    });
+    mHandler.postDelayed(mPoll, POLL_INTERVAL_MS);
+  }
+
+  // Runs on the GL thread after each frame.
+  private void onFrameDrawn() {
+    mViewUpdate.run();
+    if (hasViewChanged()) {
+      mView.requestRender();
+    }
+  }
+
+  // Returns whether another frame is needed, and if so records the view it will show.
+  private boolean hasViewChanged() {
+    AstronomerModel.Pointing pointing = mModel.getPointing();
+    float fieldOfView = mModel.getFieldOfView();
+    long timePeriod = mModel.getTimeMillis() / mTimePeriodMillis;
+    float[] current = mPointing;
+    current[0] = pointing.getLineOfSightX();
+    current[1] = pointing.getLineOfSightY();
+    current[2] = pointing.getLineOfSightZ();
+    current[3] = pointing.getPerpendicularX();
+    current[4] = pointing.getPerpendicularY();
+    current[5] = pointing.getPerpendicularZ();
+
+    // For small angles the distance between unit vectors is the angle between them, which we
+    // compare with the angle covered by a pixel at the centre of the screen.
+    float pixelAngle = (float) Math.toRadians(fieldOfView) / Math.max(1, mView.getHeight());
+    float maxDistanceSquared = pixelAngle * pixelAngle;
+    boolean changed = mRenderer.isAnimating()
+        || timePeriod != mLastTimePeriod
+        || Math.abs(fieldOfView - mLastFieldOfView) * Math.max(1, mView.getHeight())
+            > fieldOfView
+        || distanceSquared(current, mLastPointing, 0) > maxDistanceSquared
+        || distanceSquared(current, mLastPointing, 3) > maxDistanceSquared;
+    if (changed) {
+      System.arraycopy(current, 0, mLastPointing, 0, current.length);
+      mLastFieldOfView = fieldOfView;
+      mLastTimePeriod = timePeriod;
+    }
+    return changed;
+  }
+
+  private static float distanceSquared(float[] a, float[] b, int offset) {
+    float dx = a[offset] - b[offset];
+    float dy = a[offset + 1] - b[offset + 1];
+    float dz = a[offset + 2] - b[offset + 2];
+    return dx * dx + dy * dy + dz * dz;
+  }
+
+  private static long getPeriodMillis(UpdateGranularity granularity) {
+    switch (granularity) {
+      case Second:
+        return TimeConstants.MILLISECONDS_PER_SECOND;
+      case Minute:
+        return TimeConstants.MILLISECONDS_PER_MINUTE;
+      case Hour:
+        return TimeConstants.MILLISECONDS_PER_HOUR;
+      case Day:
+        return TimeConstants.MILLISECONDS_PER_DAY;
+      default:
+        return 365 * TimeConstants.MILLISECONDS_PER_DAY;
+    }
+  }
+}
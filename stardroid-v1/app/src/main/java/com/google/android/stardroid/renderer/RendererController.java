@@ -65,6 +65,7 @@ public class RendererController extends RendererControllerBase {
   }
 
   private final EventQueuer mQueuer;
+  private final GLSurfaceView mView;
 
   @Override
   protected EventQueuer getQueuer() {
@@ -74,6 +75,17 @@ public class RendererController extends RendererControllerBase {
   public RendererController(SkyRenderer renderer, final GLSurfaceView view) {
     super(renderer);
     mQueuer = view::queueEvent;
+    mView = view;
+  }
+
+  @Override
+  protected void queueRunnable(String msg, CommandType type, Runnable r) {
+    super.queueRunnable(msg, type, r);
+    // Changes to the view are drawn when the RenderScheduler sees the model change, but anything
+    // else needs a frame of its own.
+    if (type != CommandType.View) {
+      mView.requestRender();
+    }
   }
 
   @Override
@@ -99,4 +111,9 @@ public class RendererController extends RendererControllerBase {
   public boolean isSearchTargetInFocus() {
     return mRenderer.isSearchTargetInFocus();
   }
+
+  /** Adds a listener for changes to the quality level, which is called on the GL thread. */
+  public void addQualityLevelListener(QualityGovernor.Listener listener) {
+    mRenderer.getQualityGovernor().addListener(listener);
+  }
 }
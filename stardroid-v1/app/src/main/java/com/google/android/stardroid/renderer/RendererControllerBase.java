@@ -14,6 +14,7 @@
 
 package com.google.android.stardroid.renderer;
 
+import com.google.android.stardroid.math.Matrix4x4;
 import com.google.android.stardroid.math.Vector3;
 import com.google.android.stardroid.renderables.HorizonGlowPrimitive;
 import com.google.android.stardroid.renderables.ImagePrimitive;
@@ -52,6 +53,14 @@ public abstract class RendererControllerBase {
       }});
     }
 
+    /** See {@link RendererObjectManager#setModelMatrix}. */
+    public void queueModelMatrix(final Matrix4x4 matrix, RendererControllerBase controller) {
+      final String msg = "Setting manager model matrix";
+      controller.queueRunnable(msg, CommandType.Data, new Runnable() { public void run() {
+        mManager.setModelMatrix(matrix);
+      }});
+    }
+
     public abstract void queueObjects(
         final List<E> objects,
         final EnumSet<RendererObjectManager.UpdateType> updateType,
@@ -192,9 +201,8 @@ public abstract class RendererControllerBase {
     return manager;
   }
 
-  public LabelManager createLabelManager(int layer, double fontSizeScale) {
-    LabelManager manager = new LabelManager(mRenderer.createLabelManager(layer,
-        fontSizeScale));
+  public LabelManager createLabelManager(int layer) {
+    LabelManager manager = new LabelManager(mRenderer.createLabelManager(layer));
     queueAddManager(manager);
     return manager;
   }
@@ -213,11 +221,18 @@ public abstract class RendererControllerBase {
 
   public void queueNightVisionMode(final boolean enable) {
     final String msg = "Setting night vision mode: " + enable;
-    queueRunnable(msg, CommandType.View, new Runnable() { public void run() {
+    queueRunnable(msg, CommandType.Data, new Runnable() { public void run() {
       mRenderer.setNightVisionMode(enable);
     }});
   }
 
+  public void queueLabelScale(final float scale) {
+    final String msg = "Setting label scale: " + scale;
+    queueRunnable(msg, CommandType.Data, new Runnable() { public void run() {
+      mRenderer.setLabelScale(scale);
+    }});
+  }
+
   public void queueFieldOfView(final float fov) {
     final String msg = "Setting fov: " + fov;
     queueRunnable(msg, CommandType.View, new Runnable() { public void run() {
@@ -242,7 +257,7 @@ public abstract class RendererControllerBase {
   public void queueSetViewOrientation(final float dirX, final float dirY, final float dirZ,
                                       final float upX, final float upY, final float upZ) {
     final String msg = "Setting view orientation";
-    queueRunnable(msg, CommandType.Data, new Runnable() { public void run() {
+    queueRunnable(msg, CommandType.View, new Runnable() { public void run() {
     mRenderer.setViewOrientation(dirX, dirY, dirZ, upX, upY, upZ);
     }});
   }
@@ -282,6 +297,11 @@ public abstract class RendererControllerBase {
     });
   }
 
+  public void addPreUpdateClosure(final Runnable runnable) {
+    final String msg = "Setting pre-update callback";
+    queueRunnable(msg, CommandType.Data, () -> mRenderer.addPreUpdateClosure(runnable));
+  }
+
   /**
    * Must be called once to register an object manager to the renderer.
    * @param rom
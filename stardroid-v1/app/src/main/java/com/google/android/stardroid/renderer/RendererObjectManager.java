@@ -16,7 +16,9 @@ package com.google.android.stardroid.renderer;
 
 import android.util.Log;
 
+import com.google.android.stardroid.math.Matrix4x4;
 import com.google.android.stardroid.renderer.util.TextureManager;
+import com.google.android.stardroid.renderer.util.ViewFrustum;
 
 import java.util.EnumSet;
 
@@ -47,6 +49,23 @@ public abstract class RendererObjectManager implements Comparable<RendererObject
     mMaxRadiusOfView = radiusOfView;
   }
 
+  /**
+   * Places the objects, which are in their own frame, on the sky with the given rotation from
+   * that frame to world coordinates, or in world coordinates if it's null.  Objects which move
+   * together, like those fixed to the horizon, can then be set once and moved by changing the
+   * matrix, rather than recomputing every vertex.
+   */
+  public void setModelMatrix(Matrix4x4 modelMatrix) {
+    if (modelMatrix == null) {
+      mModelFrameState = null;
+    } else if (mModelFrameState == null) {
+      mModelFrameState = new ModelFrameRenderState(mBaseRenderState, modelMatrix);
+    } else {
+      mModelFrameState.setModelMatrix(modelMatrix);
+    }
+    mRenderState = mModelFrameState != null ? mModelFrameState : mBaseRenderState;
+  }
+
   public int compareTo(RendererObjectManager rom) {
     if (getClass() != rom.getClass()) {
       return getClass().getName().compareTo(rom.getClass().getName());
@@ -60,17 +79,38 @@ public abstract class RendererObjectManager implements Comparable<RendererObject
 
   final void draw(GL10 gl) {
     if (mEnabled && mRenderState.getRadiusOfView() <= mMaxRadiusOfView) {
-      drawInternal(gl);
+      if (mRenderState.getShaders() != null) {
+        // The transforms from the render state already include the model matrix.
+        drawInternalGles2();
+      } else if (mModelFrameState != null) {
+        gl.glMatrixMode(GL10.GL_MODELVIEW);
+        gl.glPushMatrix();
+        gl.glMultMatrixf(mModelFrameState.getModelMatrix().getFloatArray(), 0);
+        drawInternal(gl);
+        gl.glMatrixMode(GL10.GL_MODELVIEW);
+        gl.glPopMatrix();
+      } else {
+        drawInternal(gl);
+      }
     }
   }
   final void setRenderState(RenderStateInterface state) {
-    mRenderState = state;
+    mBaseRenderState = state;
+    mModelFrameState = mModelFrameState != null
+        ? new ModelFrameRenderState(state, mModelFrameState.getModelMatrix()) : null;
+    mRenderState = mModelFrameState != null ? mModelFrameState : state;
   }
 
   final RenderStateInterface getRenderState() {
     return mRenderState;
   }
 
+  // The sides of the view, in the frame of the manager's objects.
+  final ViewFrustum getViewFrustum() {
+    mViewFrustum.setTransform(mRenderState.getTransformToDeviceMatrix());
+    return mViewFrustum;
+  }
+
   interface UpdateListener {
     void queueForReload(RendererObjectManager rom, boolean fullReload);
   }
@@ -109,8 +149,18 @@ public abstract class RendererObjectManager implements Comparable<RendererObject
 
   protected abstract void drawInternal(GL10 gl);
 
+  // Draws the objects with the OpenGL ES 2.0 backend, using the shaders from the render state.
+  // Reloading is shared with the fixed-function backend: textures and buffers are created in the
+  // same way in both.
+  protected abstract void drawInternalGles2();
+
   private boolean mEnabled = true;
+  // The state from the renderer, and what the manager sees of it: the same unless there's a
+  // model matrix.
+  private RenderStateInterface mBaseRenderState = null;
+  private ModelFrameRenderState mModelFrameState = null;
   private RenderStateInterface mRenderState = null;
+  private final ViewFrustum mViewFrustum = new ViewFrustum();
   private UpdateListener mListener = null;
   private float mMaxRadiusOfView = 360;  // in degrees
   private int mLayer;
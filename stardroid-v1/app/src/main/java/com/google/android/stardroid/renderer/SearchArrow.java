@@ -18,10 +18,13 @@ import static com.google.android.stardroid.math.MathUtilsKt.PI;
 import static com.google.android.stardroid.math.MathUtilsKt.TWO_PI;
 
 import android.content.res.Resources;
+import android.opengl.GLES20;
+import android.opengl.Matrix;
 
 import com.google.android.stardroid.R;
 import com.google.android.stardroid.math.MathUtils;
 import com.google.android.stardroid.math.Vector3;
+import com.google.android.stardroid.renderer.util.Gles2Shaders;
 import com.google.android.stardroid.renderer.util.SearchHelper;
 import com.google.android.stardroid.renderer.util.TextureManager;
 import com.google.android.stardroid.renderer.util.TextureReference;
@@ -48,6 +51,14 @@ public class SearchArrow {
   
   private TextureReference mArrowTex = null;
   private TextureReference mCircleTex = null;
+
+  // The direction of the arrow and the normalized distance to the target, set by
+  // updateDirection().
+  private float mAngle = 0;
+  private float mDistance = 0;
+  // Used by the OpenGL ES 2.0 backend.
+  private final float[] mRotated = new float[16];
+  private final float[] mMatrix = new float[16];
   
   public void reloadTextures(GL10 gl, Resources res, TextureManager textureManager) {
     gl.glEnable(GL10.GL_TEXTURE_2D);
@@ -77,38 +88,10 @@ public class SearchArrow {
   
   public void draw(GL10 gl, Vector3 lookDir, Vector3 upDir, SearchHelper searchHelper,
                    boolean nightVisionMode) {
-    float lookPhi = MathUtils.acos(lookDir.y);
-    float lookTheta = MathUtils.atan2(lookDir.z, lookDir.x);
-    
-    // Positive diffPhi means you need to look up.
-    float diffPhi = lookPhi - mTargetPhi;
-    
-    // Positive diffTheta means you need to look right.
-    float diffTheta = lookTheta - mTargetTheta;
-    
-    // diffTheta could potentially be in the range from (-2*Pi, 2*Pi), but we need it
-    // in the range (-Pi, Pi).
-    if (diffTheta > PI) {
-      diffTheta -= TWO_PI;
-    } else if (diffTheta < -PI) {
-      diffTheta += TWO_PI;
-    }
-    
-    // The image I'm using is an arrow pointing right, so an angle of 0 corresponds to that. 
-    // This is why we're taking arctan(diffPhi / diffTheta), because diffTheta corresponds to
-    // the amount we need to rotate in the xz plane and diffPhi in the up direction.
-    float angle = MathUtils.atan2(diffPhi, diffTheta);
-    
-    // Need to add on the camera roll, which is the amount you need to rotate the vector (0, 1, 0)
-    // about the look direction in order to get it in the same plane as the up direction.
-    float roll = angleBetweenVectorsWithRespectToAxis(new Vector3(0, 1, 0), upDir, lookDir);
-    
-    angle += roll;
-    
-    // Distance is a normalized value of the distance.
-    float distance = 1.0f / (1.414f * PI) *
-        MathUtils.sqrt(diffTheta * diffTheta + diffPhi * diffPhi);
-   
+    updateDirection(lookDir, upDir);
+    float angle = mAngle;
+    float distance = mDistance;
+
     gl.glEnable(GL10.GL_BLEND);
     gl.glBlendFunc(GL10.GL_SRC_ALPHA, GL10.GL_ONE_MINUS_SRC_ALPHA);
     
@@ -167,7 +150,84 @@ public class SearchArrow {
     
     gl.glDisable(GL10.GL_BLEND);
   }
+
+  /**
+   * Draws the arrow with the OpenGL ES 2.0 backend, on top of the given transform to screen
+   * coordinates.
+   */
+  public void draw(Gles2Shaders shaders, float[] screenTransform, Vector3 lookDir, Vector3 upDir,
+                   SearchHelper searchHelper, boolean nightVisionMode) {
+    updateDirection(lookDir, upDir);
+
+    GLES20.glEnable(GLES20.GL_BLEND);
+    GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+    Matrix.rotateM(mRotated, 0, screenTransform, 0, mAngle * 180.0f / PI, 0, 0, -1);
+    shaders.beginTextured(mRotated, -1, false);
+
+    float expandFactor = searchHelper.getTransitionFactor();
+    if (expandFactor == 0) {
+      Gles2Shaders.setColor(1, 1, 1, 1);
+      if (nightVisionMode) {
+        shaders.setTextureBlendColor(0.6f, 0, 0);
+      } else {
+        shaders.setTextureBlendColor(1.0f - mDistance, 0, mDistance);
+      }
+
+      drawScaled(shaders, mCircleQuad, 0, mCircleSizeFactor);
+      drawScaled(shaders, mArrowQuad, mArrowOffset * 0.5f, mArrowSizeFactor);
+    } else {
+      Gles2Shaders.setColor(1, 1, 1, 0.7f);
+      shaders.setTextureBlendColor(1, nightVisionMode ? 0 : 0.5f, 0);
+
+      float circleScale = mFullCircleScaleFactor * expandFactor +
+          mCircleSizeFactor * (1 - expandFactor);
+      drawScaled(shaders, mCircleQuad, 0, circleScale);
+    }
+
+    GLES20.glDisable(GLES20.GL_BLEND);
+  }
+
+  private void drawScaled(Gles2Shaders shaders, TexturedQuad quad, float offset, float scale) {
+    Matrix.translateM(mMatrix, 0, mRotated, 0, offset, 0, 0);
+    Matrix.scaleM(mMatrix, 0, scale, scale, scale);
+    shaders.setMatrix(mMatrix);
+    quad.draw();
+  }
   
+  private void updateDirection(Vector3 lookDir, Vector3 upDir) {
+    float lookPhi = MathUtils.acos(lookDir.y);
+    float lookTheta = MathUtils.atan2(lookDir.z, lookDir.x);
+    
+    // Positive diffPhi means you need to look up.
+    float diffPhi = lookPhi - mTargetPhi;
+    
+    // Positive diffTheta means you need to look right.
+    float diffTheta = lookTheta - mTargetTheta;
+    
+    // diffTheta could potentially be in the range from (-2*Pi, 2*Pi), but we need it
+    // in the range (-Pi, Pi).
+    if (diffTheta > PI) {
+      diffTheta -= TWO_PI;
+    } else if (diffTheta < -PI) {
+      diffTheta += TWO_PI;
+    }
+    
+    // The image I'm using is an arrow pointing right, so an angle of 0 corresponds to that. 
+    // This is why we're taking arctan(diffPhi / diffTheta), because diffTheta corresponds to
+    // the amount we need to rotate in the xz plane and diffPhi in the up direction.
+    float angle = MathUtils.atan2(diffPhi, diffTheta);
+    
+    // Need to add on the camera roll, which is the amount you need to rotate the vector (0, 1, 0)
+    // about the look direction in order to get it in the same plane as the up direction.
+    float roll = angleBetweenVectorsWithRespectToAxis(new Vector3(0, 1, 0), upDir, lookDir);
+    
+    mAngle = angle + roll;
+    
+    // Distance is a normalized value of the distance.
+    mDistance = 1.0f / (1.414f * PI) *
+        MathUtils.sqrt(diffTheta * diffTheta + diffPhi * diffPhi);
+  }
+
   public void setTarget(Vector3 position) {
     position = position.normalizedCopy();
     mTargetPhi = MathUtils.acos(position.y);
@@ -17,11 +17,14 @@ package com.google.android.stardroid.renderer;
 import static com.google.android.stardroid.math.MathUtilsKt.RADIANS_TO_DEGREES;
 import static com.google.android.stardroid.math.MathUtilsKt.TWO_PI;
 
+import android.opengl.GLES20;
 import android.util.Log;
 
 import com.google.android.stardroid.math.MathUtils;
+import com.google.android.stardroid.math.Matrix4x4;
 import com.google.android.stardroid.math.Vector3;
 import com.google.android.stardroid.renderer.util.ColorBuffer;
+import com.google.android.stardroid.renderer.util.Gles2Shaders;
 import com.google.android.stardroid.renderer.util.IndexBuffer;
 import com.google.android.stardroid.renderer.util.TextureManager;
 import com.google.android.stardroid.renderer.util.VertexBuffer;
@@ -164,6 +167,29 @@ public class SkyBox extends RendererObjectManager {
     
     gl.glPopMatrix();
   }
+
+  @Override
+  protected void drawInternalGles2() {
+    if (getRenderState().getNightVisionMode()) {
+      return;
+    }
+
+    GLES20.glEnable(GLES20.GL_CULL_FACE);
+    GLES20.glFrontFace(GLES20.GL_CW);
+    GLES20.glCullFace(GLES20.GL_BACK);
+
+    // Rotate the sky box to the position of the sun.
+    Vector3 cp = new Vector3(0, 1, 0).times(mSunPos);
+    cp = cp.normalizedCopy();
+    Matrix4x4 rotation = Matrix4x4.createRotation(MathUtils.acos(mSunPos.y), cp);
+    Matrix4x4 transform =
+        Matrix4x4.times(getRenderState().getTransformToDeviceMatrix(), rotation);
+    getRenderState().getShaders().beginVertexColor(transform.getFloatArray(), false);
+
+    mVertexBuffer.setAttribute(Gles2Shaders.ATTRIB_POSITION);
+    mColorBuffer.setAttribute(Gles2Shaders.ATTRIB_COLOR);
+    mIndexBuffer.draw(GLES20.GL_TRIANGLES);
+  }
   
   private static final short NUM_VERTEX_BANDS = 8;
   // This number MUST be even
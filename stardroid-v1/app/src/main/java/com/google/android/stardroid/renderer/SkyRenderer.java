@@ -15,6 +15,7 @@
 package com.google.android.stardroid.renderer;
 
 import android.content.res.Resources;
+import android.opengl.GLES20;
 import android.opengl.GLSurfaceView;
 import android.opengl.GLU;
 import android.os.Build;
@@ -24,27 +25,46 @@ import com.google.android.stardroid.math.MathUtils;
 import com.google.android.stardroid.math.Matrix4x4;
 import com.google.android.stardroid.math.Vector3;
 import com.google.android.stardroid.renderer.util.GLBuffer;
+import com.google.android.stardroid.renderer.util.Gles2Shaders;
 import com.google.android.stardroid.renderer.util.LabelCollisionResolver;
+import com.google.android.stardroid.renderer.util.GlyphAtlas;
+import com.google.android.stardroid.renderer.util.IndexBuffer;
+import com.google.android.stardroid.renderer.util.NightVisionFilter;
 import com.google.android.stardroid.renderer.util.SkyRegionMap;
 import com.google.android.stardroid.renderer.util.TextureManager;
 
+import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ScheduledExecutorService;
 
 import javax.microedition.khronos.egl.EGLConfig;
 import javax.microedition.khronos.opengles.GL10;
 
+/**
+ * Renders the sky with one of two backends: the OpenGL ES 1.x fixed-function pipeline, or
+ * OpenGL ES 2.0 shaders with float vertex buffers and the transforms passed as uniforms.  The
+ * backend is chosen when the renderer is created, and the {@link GLSurfaceView} must be given a
+ * context of the matching version.  Calls which exist unchanged in both versions, such as
+ * creating textures and setting the viewport, go through the {@link GL10} interface either way.
+ */
 public class SkyRenderer implements GLSurfaceView.Renderer {
   private SkyBox mSkyBox = null;
   private OverlayManager mOverlayManager = null;
 
   private RenderState mRenderState = new RenderState();
   private final LabelCollisionResolver labelCollisionResolver = new LabelCollisionResolver();
+  private final NightVisionFilter mNightVisionFilter = new NightVisionFilter();
+  private final GlyphAtlas mGlyphAtlas = new GlyphAtlas();
+  // Null when using the fixed-function backend.
+  private final Gles2Shaders mShaders;
+  private final QualityGovernor mQualityGovernor;
 
   private Matrix4x4 mProjectionMatrix;
   private Matrix4x4 mViewMatrix;
@@ -55,6 +75,8 @@ public class SkyRenderer implements GLSurfaceView.Renderer {
   private boolean mMustUpdateProjection = true;
 
   private Set<Runnable> mUpdateClosures = new HashSet<>();
+  // Run before the update closures, in order.
+  private List<Runnable> mPreUpdateClosures = new ArrayList<>();
 
   private RendererObjectManager.UpdateListener mUpdateListener =
       new RendererObjectManager.UpdateListener() {
@@ -86,7 +108,25 @@ public class SkyRenderer implements GLSurfaceView.Renderer {
   private TreeMap<Integer, Set<RendererObjectManager>> mLayersToManagersMap = null;
 
   public SkyRenderer(Resources res) {
+    this(res, false);
+  }
+
+  public SkyRenderer(Resources res, boolean useGles2) {
+    this(res, useGles2, new QualityGovernor());
+  }
+
+  /**
+   * @param useGles2 whether to draw with the OpenGL ES 2.0 backend, in which case the surface
+   *     must have an OpenGL ES 2.0 context
+   * @param qualityGovernor told the time of each frame, and sets the level of detail drawn
+   */
+  public SkyRenderer(Resources res, boolean useGles2, QualityGovernor qualityGovernor) {
+    mShaders = useGles2 ? new Gles2Shaders() : null;
+    mQualityGovernor = qualityGovernor;
+    mRenderState.setShaders(mShaders);
     mRenderState.setResources(res);
+    mRenderState.setNightVisionFilter(mNightVisionFilter);
+    mRenderState.setGlyphAtlas(mGlyphAtlas);
 
     mLayersToManagersMap = new TreeMap<Integer, Set<RendererObjectManager>>();
 
@@ -104,13 +144,31 @@ public class SkyRenderer implements GLSurfaceView.Renderer {
     Log.d("SkyRenderer", "SkyRenderer::SkyRenderer()");
   }
 
+  /**
+   * Keeps the glyphs drawn for labels in the given directory, so they needn't be drawn again at
+   * the next launch.  Must be called before the surface is created.
+   *
+   * @see GlyphAtlas#setCache
+   */
+  public void setGlyphAtlasCache(File directory, String environment,
+                                 ScheduledExecutorService saveExecutor) {
+    mGlyphAtlas.setCache(directory, environment, saveExecutor);
+  }
+
   // Returns true if the buffers should be swapped, false otherwise.
   public void onDrawFrame(GL10 gl) {
+    long startNanos = System.nanoTime();
+    int qualityLevel = mQualityGovernor.getLevel();
+    mRenderState.setQualityLevel(qualityLevel);
+    labelCollisionResolver.setBudget(QualityGovernor.getLabelBudget(qualityLevel));
+
     // Initialize any of the unloaded managers.
     for (ManagerReloadData data : mManagersToReload) {
       data.manager.reload(gl, data.fullReload);
     }
     mManagersToReload.clear();
+    // Reloading label managers may have added glyphs.
+    mGlyphAtlas.uploadIfDirty(gl);
 
     maybeUpdateMatrices(gl);
 
@@ -132,14 +190,23 @@ public class SkyRenderer implements GLSurfaceView.Renderer {
     checkForErrors(gl);
 
     // Queue updates for the next frame.
+    for (Runnable snapshot : mPreUpdateClosures) {
+      snapshot.run();
+    }
     for (Runnable update : mUpdateClosures) {
       update.run();
     }
+    mQualityGovernor.onFrameDrawn(System.nanoTime() - startNanos);
   }
 
   public void onSurfaceCreated(GL10 gl, EGLConfig config) {
     Log.d("SkyRenderer", "surfaceCreated");
 
+    if (mShaders != null) {
+      onGles2SurfaceCreated(gl);
+      return;
+    }
+
     gl.glEnable(GL10.GL_DITHER);
 
     /*
@@ -157,6 +224,8 @@ public class SkyRenderer implements GLSurfaceView.Renderer {
 
     // Release references to all of the old textures.
     mTextureManager.reset();
+    mNightVisionFilter.reload(gl, mTextureManager);
+    mGlyphAtlas.reload(gl, mTextureManager);
 
     String extensions = gl.glGetString(GL10.GL_EXTENSIONS);
     Log.i("SkyRenderer", "GL extensions: " + extensions);
@@ -189,6 +258,7 @@ public class SkyRenderer implements GLSurfaceView.Renderer {
     Log.i("SkyRenderer", "Model: " + Build.MODEL);
     Log.i("SkyRenderer", canUseVBO ? "VBOs enabled" : "VBOs disabled");
     GLBuffer.setCanUseVBO(canUseVBO);
+    IndexBuffer.setCanUseIntIndices(extensions.contains("GL_OES_element_index_uint"));
 
     // Reload all of the managers.
     for (RendererObjectManager rom : mAllManagers) {
@@ -196,6 +266,26 @@ public class SkyRenderer implements GLSurfaceView.Renderer {
     }
   }
 
+  private void onGles2SurfaceCreated(GL10 gl) {
+    GLES20.glEnable(GLES20.GL_DITHER);
+    GLES20.glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
+    GLES20.glEnable(GLES20.GL_CULL_FACE);
+    GLES20.glDisable(GLES20.GL_DEPTH_TEST);
+
+    mTextureManager.reset();
+    mShaders.reload();
+    mGlyphAtlas.reload(gl, mTextureManager);
+    // Buffer objects are part of OpenGL ES 2.0.
+    GLBuffer.setCanUseVBO(true);
+    IndexBuffer.setCanUseIntIndices(
+        GLES20.glGetString(GLES20.GL_EXTENSIONS).contains("GL_OES_element_index_uint"));
+    Log.i("SkyRenderer", "Using the OpenGL ES 2.0 renderer");
+
+    for (RendererObjectManager rom : mAllManagers) {
+      rom.reload(gl, true);
+    }
+  }
+
   public void onSurfaceChanged(GL10 gl, int width, int height) {
     Log.d("SkyRenderer", "Starting sizeChanged, size = (" + width + ", " + height + ")");
 
@@ -223,6 +313,14 @@ public class SkyRenderer implements GLSurfaceView.Renderer {
     mUpdateClosures.add(update);
   }
 
+  /**
+   * Adds a closure which is run each frame before any of the update closures, to capture state
+   * which they all share, such as the time.
+   */
+  public void addPreUpdateClosure(Runnable snapshot) {
+    mPreUpdateClosures.add(snapshot);
+  }
+
   // Sets up from the perspective of the viewer.
   // ie, the zenith in celestial coordinates.
   public void setViewerUpDirection(Vector3 up) {
@@ -276,10 +374,27 @@ public class SkyRenderer implements GLSurfaceView.Renderer {
     return mOverlayManager.isSearchTargetInFocus();
   }
 
+  public QualityGovernor getQualityGovernor() {
+    return mQualityGovernor;
+  }
+
+  /** Returns whether the frame changes with the wall clock time, even if nothing else changes. */
+  public boolean isAnimating() {
+    return mOverlayManager.isAnimating();
+  }
+
   public void setNightVisionMode(boolean enabled) {
     mRenderState.setNightVisionMode(enabled);
   }
 
+  /**
+   * Sets the factor by which all labels are scaled from their font size.  Labels are drawn from
+   * a distance field atlas, so this takes effect on the next frame without reloading them.
+   */
+  public void setLabelScale(float scale) {
+    mRenderState.setLabelScale(scale);
+  }
+
   // Used to set the orientation of the text.  The angle parameter is the roll
   // of the phone.  This angle is rounded to the nearest multiple of 90 degrees
   // to keep the text readable.
@@ -354,6 +469,10 @@ public class SkyRenderer implements GLSurfaceView.Renderer {
 
     mViewMatrix = Matrix4x4.createView(lookDir, upDir, right);
 
+    if (mShaders != null) {
+      // The managers take the combined transform from the render state.
+      return;
+    }
     gl.glMatrixMode(GL10.GL_MODELVIEW);
     gl.glLoadMatrixf(mViewMatrix.getFloatArray(), 0);
   }
@@ -364,6 +483,9 @@ public class SkyRenderer implements GLSurfaceView.Renderer {
         mRenderState.getScreenHeight(),
         mRenderState.getRadiusOfView() * 3.141593f / 360.0f);
 
+    if (mShaders != null) {
+      return;
+    }
     gl.glMatrixMode(GL10.GL_PROJECTION);
     gl.glLoadMatrixf(mProjectionMatrix.getFloatArray(), 0);
 
@@ -415,9 +537,8 @@ public class SkyRenderer implements GLSurfaceView.Renderer {
     return new PolyLineObjectManager(layer, mTextureManager);
   }
 
-  public LabelObjectManager createLabelManager(int layer, double fontSizeScale) {
-    return new LabelObjectManager(
-        layer, mTextureManager, fontSizeScale, labelCollisionResolver);
+  public LabelObjectManager createLabelManager(int layer) {
+    return new LabelObjectManager(layer, mTextureManager, labelCollisionResolver);
   }
 
   public ImageObjectManager createImageManager(int layer) {
@@ -443,7 +564,14 @@ interface RenderStateInterface {
   Matrix4x4 getTransformToScreenMatrix();
   Resources getResources();
   boolean getNightVisionMode();
+  NightVisionFilter getNightVisionFilter();
+  GlyphAtlas getGlyphAtlas();
+  float getLabelScale();
   SkyRegionMap.ActiveRegionData getActiveSkyRegions();
+  // The programs of the OpenGL ES 2.0 backend, or null when using the fixed-function backend.
+  Gles2Shaders getShaders();
+  // From the QualityGovernor: 0 for full detail, up to QualityGovernor.MAX_LEVEL.
+  int getQualityLevel();
 }
 
 // TODO(jpowell): RenderState is a bad name.  This class is a grab-bag of
@@ -463,7 +591,12 @@ class RenderState implements RenderStateInterface {
   public Matrix4x4 getTransformToScreenMatrix() { return mTransformToScreen; }
   public Resources getResources() { return mRes; }
   public boolean getNightVisionMode() { return mNightVisionMode; }
+  public NightVisionFilter getNightVisionFilter() { return mNightVisionFilter; }
+  public GlyphAtlas getGlyphAtlas() { return mGlyphAtlas; }
+  public float getLabelScale() { return mLabelScale; }
   public SkyRegionMap.ActiveRegionData getActiveSkyRegions() { return mActiveSkyRegionSet; }
+  public Gles2Shaders getShaders() { return mShaders; }
+  public int getQualityLevel() { return mQualityLevel; }
 
   public void setCameraPos(Vector3 pos) { mCameraPos = pos.copyForJ(); }
   public void setLookDir(Vector3 dir) { mLookDir = dir.copyForJ(); }
@@ -485,9 +618,14 @@ class RenderState implements RenderStateInterface {
   }
   public void setResources(Resources res) { mRes = res; }
   public void setNightVisionMode(boolean enabled) { mNightVisionMode = enabled; }
+  public void setNightVisionFilter(NightVisionFilter filter) { mNightVisionFilter = filter; }
+  public void setGlyphAtlas(GlyphAtlas atlas) { mGlyphAtlas = atlas; }
+  public void setLabelScale(float scale) { mLabelScale = scale; }
   public void setActiveSkyRegions(SkyRegionMap.ActiveRegionData set) {
     mActiveSkyRegionSet = set;
   }
+  public void setShaders(Gles2Shaders shaders) { mShaders = shaders; }
+  public void setQualityLevel(int level) { mQualityLevel = level; }
 
   private Vector3 mCameraPos = new Vector3(0, 0, 0);
   private Vector3 mLookDir = new Vector3(1, 0, 0);
@@ -502,5 +640,10 @@ class RenderState implements RenderStateInterface {
   private Matrix4x4 mTransformToScreen = Matrix4x4.createIdentity();
   private Resources mRes;
   private boolean mNightVisionMode = false;
+  private NightVisionFilter mNightVisionFilter = null;
+  private GlyphAtlas mGlyphAtlas = null;
+  private float mLabelScale = 1;
   private SkyRegionMap.ActiveRegionData mActiveSkyRegionSet = null;
+  private Gles2Shaders mShaders = null;
+  private int mQualityLevel = 0;
 }
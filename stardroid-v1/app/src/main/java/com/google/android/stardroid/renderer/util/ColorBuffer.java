@@ -14,6 +14,8 @@
 
 package com.google.android.stardroid.renderer.util;
 
+import android.opengl.GLES20;
+
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.IntBuffer;
@@ -40,7 +42,18 @@ public class ColorBuffer {
     return mNumVertices;
   }
 
+  // For colors which are updated often: resetting to the same number of vertices then rewrites
+  // them in place, and only the values which change are uploaded.
+  public void setDynamic(boolean dynamic) {
+    mDynamic = dynamic;
+    mGLBuffer.setDynamic(dynamic);
+  }
+
   public void reset(int numVertices) {
+    if (mDynamic && numVertices == mNumVertices && mColorBuffer != null) {
+      mColorBuffer.position(0);
+      return;
+    }
     mNumVertices = numVertices;
     regenerateBuffer();
   }
@@ -53,7 +66,12 @@ public class ColorBuffer {
   public void addColor(int a, int r, int g, int b) {
     // GL reads this IntBuffer as 4 GL_UNSIGNED_BYTE in RGBA order; in native (little-endian)
     // byte order the int's low byte becomes R, then G, B, and the high byte A.
-    mColorBuffer.put(((a & 0xff) << 24) | ((b & 0xff) << 16) | ((g & 0xff) << 8) | (r & 0xff));
+    int color = ((a & 0xff) << 24) | ((b & 0xff) << 16) | ((g & 0xff) << 8) | (r & 0xff);
+    int index = mColorBuffer.position();
+    if (mDynamic && mColorBuffer.get(index) != color) {
+      mGLBuffer.invalidate(index, 1);
+    }
+    mColorBuffer.put(color);
   }
 
   public void addColor(int argb) {
@@ -61,6 +79,11 @@ public class ColorBuffer {
   }
 
   public void set(GL10 gl) {
+    set(gl, 0);
+  }
+
+  // Sets the array to start at the given vertex.
+  public void set(GL10 gl, int firstVertex) {
     if (mNumVertices == 0) {
       return;
     }
@@ -69,12 +92,36 @@ public class ColorBuffer {
     if (mUseVBO && GLBuffer.canUseVBO()) {
       GL11 gl11 = (GL11)gl;
       mGLBuffer.bind(gl11, mColorBuffer, 4 * mColorBuffer.capacity());
-      gl11.glColorPointer(4, GL10.GL_UNSIGNED_BYTE, 0, 0);
+      gl11.glColorPointer(4, GL10.GL_UNSIGNED_BYTE, 0, 4 * firstVertex);
     } else {
+      mColorBuffer.position(firstVertex);
       gl.glColorPointer(4, GL10.GL_UNSIGNED_BYTE, 0, mColorBuffer);
     }
   }
 
+  // Sets the colors as the given vertex attribute of the GLES 2.0 backend.
+  public void setAttribute(int location) {
+    setAttribute(location, 0);
+  }
+
+  // Sets the attribute to start at the given vertex.
+  public void setAttribute(int location, int firstVertex) {
+    if (mNumVertices == 0) {
+      return;
+    }
+    mColorBuffer.position(0);
+
+    GLES20.glEnableVertexAttribArray(location);
+    if (mUseVBO && GLBuffer.canUseVBO()) {
+      mGLBuffer.bind(mColorBuffer, 4 * mColorBuffer.capacity());
+      GLES20.glVertexAttribPointer(location, 4, GLES20.GL_UNSIGNED_BYTE, true, 0, 4 * firstVertex);
+    } else {
+      GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+      mColorBuffer.position(firstVertex);
+      GLES20.glVertexAttribPointer(location, 4, GLES20.GL_UNSIGNED_BYTE, true, 0, mColorBuffer);
+    }
+  }
+
   private void regenerateBuffer() {
     if (mNumVertices == 0) {
       return;
@@ -91,4 +138,5 @@ public class ColorBuffer {
   private int mNumVertices;
   private GLBuffer mGLBuffer = new GLBuffer(GL11.GL_ARRAY_BUFFER);
   private boolean mUseVBO;
+  private boolean mDynamic = false;
 }
@@ -14,6 +14,8 @@
 
 package com.google.android.stardroid.renderer.util;
 
+import android.opengl.GLES20;
+
 import javax.microedition.khronos.opengles.GL10;
 
 public class ColoredQuad {
@@ -67,6 +69,22 @@ public class ColoredQuad {
       gl.glDisable(GL10.GL_BLEND);
     }    
   }
+
+  /** Draws the quad with the OpenGL ES 2.0 backend, using the current program and transform. */
+  public void draw() {
+    if (mA != 1) {
+      GLES20.glEnable(GLES20.GL_BLEND);
+      GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+    }
+
+    mPosition.setAttribute(Gles2Shaders.ATTRIB_POSITION);
+    Gles2Shaders.setColor(mR, mG, mB, mA);
+    GLES20.glDrawArrays(GLES20.GL_TRIANGLE_STRIP, 0, 4);
+
+    if (mA != 1) {
+      GLES20.glDisable(GLES20.GL_BLEND);
+    }
+  }
   
   private VertexBuffer mPosition = null;
   private float mR, mG, mB, mA;
@@ -14,11 +14,13 @@
 
 package com.google.android.stardroid.renderer.util;
 
+import android.opengl.GLES20;
 import android.util.Log;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.nio.Buffer;
+import java.util.Arrays;
 
 import javax.microedition.khronos.opengles.GL11;
 
@@ -27,6 +29,13 @@ import javax.microedition.khronos.opengles.GL11;
  * need to be able to lazily create OpenGL buffers, so this class takes care of the work of lazily
  * creating and updating them.
  *
+ * <p>By default the data is uploaded whole, as GL_STATIC_DRAW, whenever the buffer or its size
+ * changes.  A dynamic buffer is for data which is rewritten in place: the writer reports which
+ * elements have changed with {@link #invalidate}, and only those are uploaded, with
+ * glBufferSubData, into GL_DYNAMIC_DRAW buffers.  Each update goes to the next of
+ * {@link #NUM_DYNAMIC_BUFFERS} GL buffers in turn, so that it never has to wait for the GPU to
+ * finish drawing from the one in use.
+ *
  * @author jpowell
  *
  */
@@ -36,14 +45,27 @@ public class GLBuffer {
   // when I get a chance.
   private static boolean sCanUseVBO = false;
 
+  private static final int NUM_DYNAMIC_BUFFERS = 2;
+
   private Buffer mBuffer = null;
   private int mBufferSize = 0;
-  private int mGLBufferID = -1;
   private int mBufferType;
+  private boolean mDynamic = false;
   private boolean mHasLoggedStackTraceOnError = false;
 
+  // The GL buffers: only the first is used unless the buffer is dynamic.  For each, the size of
+  // the data store, and the range of elements which have changed since it was last uploaded.
+  private final int[] mGLBufferIDs = new int[NUM_DYNAMIC_BUFFERS];
+  private final int[] mAllocatedSizes = new int[NUM_DYNAMIC_BUFFERS];
+  private final int[] mDirtyStarts = new int[NUM_DYNAMIC_BUFFERS];
+  private final int[] mDirtyEnds = new int[NUM_DYNAMIC_BUFFERS];
+  private int mCurrent = 0;
+  // Whether anything has changed since the last upload.
+  private boolean mChanged = false;
+
   GLBuffer(int bufferType) {
     mBufferType = bufferType;
+    reload();
   }
 
   public static void setCanUseVBO(boolean canUseVBO) {
@@ -65,10 +87,44 @@ public class GLBuffer {
     }
   }
 
+  // The GLES 2.0 equivalent of unbind(GL11).
+  public static void unbind() {
+    if (canUseVBO()) {
+      GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+      GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+  }
+
+  /** Sets whether the data is rewritten in place and uploaded in parts.  See the class comment. */
+  public void setDynamic(boolean dynamic) {
+    if (dynamic != mDynamic) {
+      mDynamic = dynamic;
+      // Reallocate the data stores with the new usage.
+      Arrays.fill(mAllocatedSizes, 0);
+      mChanged = true;
+    }
+  }
+
+  public boolean isDynamic() {
+    return mDynamic;
+  }
+
+  /**
+   * Records that elements of the buffer last bound have been changed in place, so must be uploaded
+   * the next time it's bound.
+   */
+  public void invalidate(int firstElement, int numElements) {
+    for (int i = 0; i < NUM_DYNAMIC_BUFFERS; i++) {
+      mDirtyStarts[i] = Math.min(mDirtyStarts[i], firstElement);
+      mDirtyEnds[i] = Math.max(mDirtyEnds[i], firstElement + numElements);
+    }
+    mChanged = true;
+  }
+
   public void bind(GL11 gl, Buffer buffer, int bufferSize) {
     if (canUseVBO()) {
       maybeRegenerateBuffer(gl, buffer, bufferSize);
-      gl.glBindBuffer(mBufferType, mGLBufferID);
+      gl.glBindBuffer(mBufferType, mGLBufferIDs[mCurrent]);
     } else {
       Log.e("GLBuffer", "Trying to use a VBO, but they are unsupported");
       // Log a stack trace the first time we see this for any given buffer.
@@ -81,28 +137,90 @@ public class GLBuffer {
     }
   }
 
+  // The GLES 2.0 equivalent of bind(GL11, Buffer, int).
+  public void bind(Buffer buffer, int bufferSize) {
+    if (canUseVBO()) {
+      maybeRegenerateBuffer(null, buffer, bufferSize);
+      GLES20.glBindBuffer(mBufferType, mGLBufferIDs[mCurrent]);
+    } else {
+      Log.e("GLBuffer", "Trying to use a VBO, but they are unsupported");
+    }
+  }
+
   public void reload() {
     // Just reset all of the values so we'll reload on the next call
     // to maybeRegenerateBuffer.
     mBuffer = null;
     mBufferSize = 0;
-    mGLBufferID = -1;
+    Arrays.fill(mGLBufferIDs, -1);
+    Arrays.fill(mAllocatedSizes, 0);
+    clearDirty();
   }
 
+  // Uploads whatever has changed.  With a null gl, uses GLES 2.0.
   private void maybeRegenerateBuffer(GL11 gl, Buffer buffer, int bufferSize) {
     if (buffer != mBuffer || bufferSize != mBufferSize) {
       mBuffer = buffer;
       mBufferSize = bufferSize;
+      invalidate(0, buffer.capacity());
+    }
+    if (!mChanged) {
+      return;
+    }
+    mChanged = false;
+    if (mDynamic) {
+      mCurrent = (mCurrent + 1) % NUM_DYNAMIC_BUFFERS;
+    }
+    int i = mCurrent;
 
-      // Allocate the buffer ID if we don't already have one.
-      if (mGLBufferID == -1) {
-        int[] buffers = new int[1];
+    // Allocate the buffer ID if we don't already have one.
+    if (mGLBufferIDs[i] == -1) {
+      int[] buffers = new int[1];
+      if (gl != null) {
         gl.glGenBuffers(1, buffers, 0);
-        mGLBufferID = buffers[0];
+      } else {
+        GLES20.glGenBuffers(1, buffers, 0);
       }
+      mGLBufferIDs[i] = buffers[0];
+    }
 
-      gl.glBindBuffer(mBufferType, mGLBufferID);
-      gl.glBufferData(mBufferType, bufferSize, buffer, GL11.GL_STATIC_DRAW);
+    int elementSize = bufferSize / Math.max(1, buffer.capacity());
+    boolean whole = mAllocatedSizes[i] != bufferSize
+        || (mDirtyStarts[i] == 0 && mDirtyEnds[i] >= buffer.capacity());
+    int usage = mDynamic ? GL11.GL_DYNAMIC_DRAW : GL11.GL_STATIC_DRAW;
+    if (gl != null) {
+      gl.glBindBuffer(mBufferType, mGLBufferIDs[i]);
+    } else {
+      GLES20.glBindBuffer(mBufferType, mGLBufferIDs[i]);
     }
+    if (whole) {
+      // Replacing the whole data store also lets the driver orphan the old one rather than wait
+      // for the GPU to finish with it.
+      if (gl != null) {
+        gl.glBufferData(mBufferType, bufferSize, buffer, usage);
+      } else {
+        GLES20.glBufferData(mBufferType, bufferSize, buffer, usage);
+      }
+      mAllocatedSizes[i] = bufferSize;
+    } else if (mDirtyStarts[i] < mDirtyEnds[i]) {
+      int position = buffer.position();
+      buffer.position(mDirtyStarts[i]);
+      int offset = mDirtyStarts[i] * elementSize;
+      int size = (mDirtyEnds[i] - mDirtyStarts[i]) * elementSize;
+      if (gl != null) {
+        gl.glBufferSubData(mBufferType, offset, size, buffer);
+      } else {
+        GLES20.glBufferSubData(mBufferType, offset, size, buffer);
+      }
+      buffer.position(position);
+    }
+    mDirtyStarts[i] = Integer.MAX_VALUE;
+    mDirtyEnds[i] = 0;
+  }
+
+  private void clearDirty() {
+    Arrays.fill(mDirtyStarts, Integer.MAX_VALUE);
+    Arrays.fill(mDirtyEnds, 0);
+    mChanged = false;
   }
 }
@@ -0,0 +1,257 @@
+// Copyright 2026 Penterakt LLC.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.android.stardroid.renderer.util;
+
+import android.opengl.GLES20;
+
+/**
+ * The shader programs used by the OpenGL ES 2.0 backend, one for each kind of primitive.
+ *
+ * <ul>
+ *   <li>Vertex colour: the sky gradient, horizon glow, translucent lines and plain quads.</li>
+ *   <li>Textured: stars, opaque lines and images, with the fixed-function texture environment
+ *   and alpha test done in the fragment shader.</li>
+ *   <li>Text: labels drawn from the {@link GlyphAtlas}, with antialiased distance field edges.</li>
+ *   <li>Point sprites: stars, one vertex each, expanded to squares by the rasterizer and
+ *   textured with one of a horizontal strip of images.</li>
+ * </ul>
+ *
+ * <p>The transform is a uniform rather than the fixed-function matrix stack, and night vision is
+ * applied in the fragment shader with the same transform as {@link NightVisionFilter}.  All of
+ * the programs bind the same attribute locations, so a buffer set up with
+ * {@link #ATTRIB_POSITION} works with any of them.  When the colour attribute isn't set, every
+ * vertex gets the colour from {@link #setColor}.
+ */
+public class Gles2Shaders {
+  public static final int ATTRIB_POSITION = 0;
+  public static final int ATTRIB_COLOR = 1;
+  public static final int ATTRIB_TEX_COORD = 2;
+  /** A point sprite's size in world units and image index, from a {@link PointSpriteBuffer}. */
+  public static final int ATTRIB_SPRITE = 3;
+  private static final String[] ATTRIBUTES = {"aPosition", "aColor", "aTexCoord", "aSprite"};
+
+  private static final String VERTEX_COLOR_VERTEX_SHADER =
+      "uniform mat4 uMatrix;\n"
+      + "attribute vec4 aPosition;\n"
+      + "attribute vec4 aColor;\n"
+      + "varying vec4 vColor;\n"
+      + "void main() {\n"
+      + "  vColor = aColor;\n"
+      + "  gl_Position = uMatrix * aPosition;\n"
+      + "}\n";
+
+  private static final String TEXTURED_VERTEX_SHADER =
+      "uniform mat4 uMatrix;\n"
+      + "uniform vec2 uTexScale;\n"
+      + "attribute vec4 aPosition;\n"
+      + "attribute vec4 aColor;\n"
+      + "attribute vec2 aTexCoord;\n"
+      + "varying vec4 vColor;\n"
+      + "varying vec2 vTexCoord;\n"
+      + "void main() {\n"
+      + "  vColor = aColor;\n"
+      + "  vTexCoord = aTexCoord * uTexScale;\n"
+      + "  gl_Position = uMatrix * aPosition;\n"
+      + "}\n";
+
+  // uPointScale converts sizes to pixels, and uImageWidth is the width of one image in the strip.
+  // The image's offset and width are passed on to the fragment shader in vImage.
+  private static final String POINT_SPRITE_VERTEX_SHADER =
+      "uniform mat4 uMatrix;\n"
+      + "uniform float uPointScale;\n"
+      + "uniform float uImageWidth;\n"
+      + "attribute vec4 aPosition;\n"
+      + "attribute vec4 aColor;\n"
+      + "attribute vec2 aSprite;\n"
+      + "varying vec4 vColor;\n"
+      + "varying vec2 vImage;\n"
+      + "void main() {\n"
+      + "  vColor = aColor;\n"
+      + "  vImage = vec2(aSprite.y * uImageWidth, uImageWidth);\n"
+      + "  gl_PointSize = aSprite.x * uPointScale;\n"
+      + "  gl_Position = uMatrix * aPosition;\n"
+      + "}\n";
+
+  // The red channel becomes the average of red, green and blue, as in NightVisionFilter.
+  private static final String FRAGMENT_HEADER =
+      "precision mediump float;\n"
+      + "uniform bool uNightVision;\n"
+      + "varying vec4 vColor;\n"
+      + "vec4 nightVision(vec4 c) {\n"
+      + "  return uNightVision ? vec4((c.r + c.g + c.b) / 3.0, 0.0, 0.0, c.a) : c;\n"
+      + "}\n";
+
+  private static final String VERTEX_COLOR_FRAGMENT_SHADER =
+      FRAGMENT_HEADER
+      + "void main() {\n"
+      + "  gl_FragColor = nightVision(vColor);\n"
+      + "}\n";
+
+  // uBlendEnvColor selects the equivalent of the GL_BLEND texture environment rather than
+  // GL_MODULATE.  Fragments with alpha at or below uAlphaThreshold are discarded, like an alpha
+  // test with GL_GREATER.
+  private static final String TEXTURED_FRAGMENT_SHADER =
+      FRAGMENT_HEADER
+      + "uniform sampler2D uTexture;\n"
+      + "uniform float uAlphaThreshold;\n"
+      + "uniform bool uBlendEnvColor;\n"
+      + "uniform vec4 uEnvColor;\n"
+      + "varying vec2 vTexCoord;\n"
+      + "void main() {\n"
+      + "  vec4 t = texture2D(uTexture, vTexCoord);\n"
+      + "  vec4 c = uBlendEnvColor\n"
+      + "      ? vec4(mix(vColor.rgb, uEnvColor.rgb, t.rgb), vColor.a * t.a)\n"
+      + "      : vColor * t;\n"
+      + "  if (c.a <= uAlphaThreshold) {\n"
+      + "    discard;\n"
+      + "  }\n"
+      + "  gl_FragColor = nightVision(c);\n"
+      + "}\n";
+
+  // The texture's alpha is a distance field with the edge at one half.  uSmoothing is half the
+  // width of the antialiased edge, in the same units.
+  private static final String TEXT_FRAGMENT_SHADER =
+      FRAGMENT_HEADER
+      + "uniform sampler2D uTexture;\n"
+      + "uniform float uSmoothing;\n"
+      + "varying vec2 vTexCoord;\n"
+      + "void main() {\n"
+      + "  float d = texture2D(uTexture, vTexCoord).a;\n"
+      + "  float a = smoothstep(0.5 - uSmoothing, 0.5 + uSmoothing, d);\n"
+      + "  if (a <= 0.0) {\n"
+      + "    discard;\n"
+      + "  }\n"
+      + "  gl_FragColor = nightVision(vec4(vColor.rgb, vColor.a * a));\n"
+      + "}\n";
+
+  private static final String POINT_SPRITE_FRAGMENT_SHADER =
+      FRAGMENT_HEADER
+      + "uniform sampler2D uTexture;\n"
+      + "uniform float uAlphaThreshold;\n"
+      + "varying vec2 vImage;\n"
+      + "void main() {\n"
+      + "  vec2 uv = vec2(vImage.x + gl_PointCoord.x * vImage.y, gl_PointCoord.y);\n"
+      + "  vec4 c = vColor * texture2D(uTexture, uv);\n"
+      + "  if (c.a <= uAlphaThreshold) {\n"
+      + "    discard;\n"
+      + "  }\n"
+      + "  gl_FragColor = nightVision(c);\n"
+      + "}\n";
+
+  private final ShaderProgram mVertexColor = new ShaderProgram(
+      VERTEX_COLOR_VERTEX_SHADER, VERTEX_COLOR_FRAGMENT_SHADER, ATTRIBUTES);
+  private final ShaderProgram mTextured = new ShaderProgram(
+      TEXTURED_VERTEX_SHADER, TEXTURED_FRAGMENT_SHADER, ATTRIBUTES);
+  private final ShaderProgram mText = new ShaderProgram(
+      TEXTURED_VERTEX_SHADER, TEXT_FRAGMENT_SHADER, ATTRIBUTES);
+  private final ShaderProgram mPointSprite = new ShaderProgram(
+      POINT_SPRITE_VERTEX_SHADER, POINT_SPRITE_FRAGMENT_SHADER, ATTRIBUTES);
+  private ShaderProgram mCurrent = null;
+
+  /** Recreates the programs.  Must be called whenever the surface is created. */
+  public void reload() {
+    mVertexColor.reload();
+    mTextured.reload();
+    mText.reload();
+    mPointSprite.reload();
+    mCurrent = null;
+  }
+
+  /** Starts drawing geometry coloured by its vertex colours. */
+  public void beginVertexColor(float[] matrix, boolean nightVision) {
+    begin(mVertexColor, matrix, nightVision);
+  }
+
+  /**
+   * Starts drawing geometry coloured by its vertex colours modulated by the texture bound to
+   * unit 0.  Fragments whose alpha is at most {@code alphaThreshold} are discarded; pass -1 to
+   * keep them all.
+   */
+  public void beginTextured(float[] matrix, float alphaThreshold, boolean nightVision) {
+    begin(mTextured, matrix, nightVision);
+    GLES20.glUniform1i(mTextured.getUniformLocation("uTexture"), 0);
+    GLES20.glUniform2f(mTextured.getUniformLocation("uTexScale"), 1, 1);
+    GLES20.glUniform1i(mTextured.getUniformLocation("uBlendEnvColor"), 0);
+    setAlphaThreshold(alphaThreshold);
+  }
+
+  /**
+   * Starts drawing text from a distance field in the alpha of the texture bound to unit 0, in the
+   * colour from {@link #setColor}.  Texture coordinates are in texels of a texture of the given
+   * size.
+   */
+  public void beginText(float[] matrix, int textureWidth, int textureHeight, boolean nightVision) {
+    begin(mText, matrix, nightVision);
+    GLES20.glUniform1i(mText.getUniformLocation("uTexture"), 0);
+    GLES20.glUniform2f(mText.getUniformLocation("uTexScale"),
+        1.0f / textureWidth, 1.0f / textureHeight);
+  }
+
+  /**
+   * Starts drawing point sprites coloured by their vertex colours modulated by one of
+   * {@code numImages} images side by side in the texture bound to unit 0.  Sizes are multiplied
+   * by {@code pointScale} to get the diameter in pixels.  Fragments whose alpha is at most
+   * {@code alphaThreshold} are discarded.
+   */
+  public void beginPointSprites(float[] matrix, float pointScale, int numImages,
+                                float alphaThreshold, boolean nightVision) {
+    begin(mPointSprite, matrix, nightVision);
+    GLES20.glUniform1i(mPointSprite.getUniformLocation("uTexture"), 0);
+    GLES20.glUniform1f(mPointSprite.getUniformLocation("uPointScale"), pointScale);
+    GLES20.glUniform1f(mPointSprite.getUniformLocation("uImageWidth"), 1.0f / numImages);
+    GLES20.glUniform1f(mPointSprite.getUniformLocation("uAlphaThreshold"), alphaThreshold);
+  }
+
+  /** Changes the transform of the current program. */
+  public void setMatrix(float[] matrix) {
+    GLES20.glUniformMatrix4fv(mCurrent.getUniformLocation("uMatrix"), 1, false, matrix, 0);
+  }
+
+  /** Changes the alpha threshold while drawing textured geometry. */
+  public void setAlphaThreshold(float alphaThreshold) {
+    GLES20.glUniform1f(mTextured.getUniformLocation("uAlphaThreshold"), alphaThreshold);
+  }
+
+  /**
+   * While drawing textured geometry, mixes from the vertex colour to the given colour by the
+   * texture's colour, like the fixed-function GL_BLEND texture environment.
+   */
+  public void setTextureBlendColor(float r, float g, float b) {
+    GLES20.glUniform1i(mTextured.getUniformLocation("uBlendEnvColor"), 1);
+    GLES20.glUniform4f(mTextured.getUniformLocation("uEnvColor"), r, g, b, 1);
+  }
+
+  /** Sets half the width of the antialiased edge of text, in distance field units. */
+  public void setTextSmoothing(float smoothing) {
+    GLES20.glUniform1f(mText.getUniformLocation("uSmoothing"), smoothing);
+  }
+
+  /** Sets the colour of every vertex while the colour attribute isn't set from a buffer. */
+  public static void setColor(float r, float g, float b, float a) {
+    GLES20.glVertexAttrib4f(ATTRIB_COLOR, r, g, b, a);
+  }
+
+  private void begin(ShaderProgram program, float[] matrix, boolean nightVision) {
+    mCurrent = program;
+    program.use();
+    setMatrix(matrix);
+    GLES20.glUniform1i(program.getUniformLocation("uNightVision"), nightVision ? 1 : 0);
+    // Attributes are only read from buffers when the caller sets them.
+    GLES20.glDisableVertexAttribArray(ATTRIB_COLOR);
+    GLES20.glDisableVertexAttribArray(ATTRIB_TEX_COORD);
+    GLES20.glDisableVertexAttribArray(ATTRIB_SPRITE);
+    setColor(1, 1, 1, 1);
+  }
+}
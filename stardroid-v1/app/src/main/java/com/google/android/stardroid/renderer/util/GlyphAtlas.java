@@ -0,0 +1,406 @@
+// Copyright 2026 Penterakt LLC.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.android.stardroid.renderer.util;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.util.Log;
+
+import com.google.android.stardroid.base.VisibleForTesting;
+import com.google.android.stardroid.util.MiscUtil;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.microedition.khronos.opengles.GL10;
+
+/**
+ * A texture atlas of signed distance field glyphs, shared by all of the label managers.
+ *
+ * <p>Each glyph is rasterized once at {@link #BASE_SIZE}, so the atlas grows with the set of
+ * characters in use rather than with the number of labels, and labels can be drawn at any size
+ * from the same atlas.  Drawing with linear filtering and an alpha test at one half gives sharp
+ * edges at any scale.
+ *
+ * <p>Glyphs are added on the GL thread as labels are meshed, and the texture is updated by
+ * {@link #uploadIfDirty} before the frame is drawn.  A copy of the atlas is kept in memory so that
+ * it can be uploaded again when the surface is recreated.
+ *
+ * <p>If it's given a cache directory with {@link #setCache}, the atlas is also saved there a
+ * little while after glyphs are added, and loaded from there when the texture is first created,
+ * so that the glyphs needn't be rasterized again at every launch.  The file is keyed by
+ * everything that affects the glyphs: the locale, the typeface, the display density and the app
+ * and OS builds.
+ */
+public class GlyphAtlas implements TextMesher.GlyphSource {
+  private static final String TAG = MiscUtil.getTag(GlyphAtlas.class);
+
+  /** The text size, in pixels, at which glyphs are stored. */
+  public static final float BASE_SIZE = 32;
+  /** How far, in base pixels, the distance field extends beyond the edge of a glyph. */
+  public static final int SPREAD = 4;
+  // Glyphs are rasterized this many times larger than they're stored, to get accurate distances.
+  private static final int SUPERSAMPLE = 4;
+
+  private static final int WIDTH = 1024;
+  private static final int INITIAL_HEIGHT = 128;
+  private static final int MAX_HEIGHT = 2048;
+
+  private static final String TYPEFACE = "Verdana";
+  // Bump this whenever the file layout or the way glyphs are rasterized changes.
+  private static final int FORMAT_VERSION = 1;
+  private static final int MAGIC = 0x474c5941;  // "GLYA"
+  private static final String CACHE_PREFIX = "glyphs-";
+  // Glyphs come in bursts as labels are meshed, so wait for a burst to end before saving.
+  private static final long SAVE_DELAY_MILLIS = 2000;
+
+  private final Paint mPaint = new Paint();
+  private final Map<String, TextMesher.Glyph> mGlyphs = new HashMap<>();
+  private final float mAscent;
+  private final float mDescent;
+
+  private byte[] mPixels = new byte[WIDTH * INITIAL_HEIGHT];
+  private int mHeight = INITIAL_HEIGHT;
+  // Shelf packing: glyphs are placed left to right along rows of the height of the tallest glyph.
+  private int mShelfX = 0;
+  private int mShelfY = 0;
+  private int mShelfHeight = 0;
+
+  private TextureReference mTexture = null;
+  // The height of the texture as last allocated in GL, or 0 if it needs to be allocated.
+  private int mUploadedHeight = 0;
+  // The rows changed since the last upload.
+  private int mDirtyTop = Integer.MAX_VALUE;
+  private int mDirtyBottom = 0;
+
+  // Where the atlas is saved, or null if it isn't.
+  private File mCacheFile = null;
+  private ScheduledExecutorService mSaveExecutor = null;
+  // Whether the cache file has been read, or there's nothing to read.
+  private boolean mCacheLoaded = true;
+  private boolean mSaveScheduled = false;
+
+  public GlyphAtlas() {
+    mPaint.setAntiAlias(true);
+    mPaint.setTypeface(Typeface.create(TYPEFACE, Typeface.NORMAL));
+    mPaint.setColor(0xffffffff);
+    mPaint.setTextSize(BASE_SIZE * SUPERSAMPLE);
+    mAscent = -mPaint.ascent() / SUPERSAMPLE;
+    mDescent = mPaint.descent() / SUPERSAMPLE;
+  }
+
+  @Override
+  public float getAscent() {
+    return mAscent;
+  }
+
+  @Override
+  public float getDescent() {
+    return mDescent;
+  }
+
+  public int getWidth() {
+    return WIDTH;
+  }
+
+  public int getHeight() {
+    return mHeight;
+  }
+
+  /**
+   * Keeps the atlas in the given directory across launches.  Must be called before the first
+   * {@link #reload}.
+   *
+   * @param environment identifies everything outside the atlas that affects the glyphs, such as
+   *     the locale, the display density and the app and OS builds
+   * @param saveExecutor where the atlas is written
+   */
+  public synchronized void setCache(File directory, String environment,
+                                    ScheduledExecutorService saveExecutor) {
+    long key = 0xcbf29ce484222325L;
+    for (String part : new String[] {Integer.toString(FORMAT_VERSION), TYPEFACE, environment}) {
+      for (int i = 0; i < part.length(); i++) {
+        key = (key ^ part.charAt(i)) * 0x100000001b3L;
+      }
+      key = (key ^ 0xffff) * 0x100000001b3L;
+    }
+    mCacheFile = new File(directory, CACHE_PREFIX + Long.toHexString(key));
+    mSaveExecutor = saveExecutor;
+    mCacheLoaded = false;
+  }
+
+  @Override
+  public synchronized TextMesher.Glyph getGlyph(String cluster) {
+    TextMesher.Glyph glyph = mGlyphs.get(cluster);
+    if (glyph == null) {
+      glyph = addGlyph(cluster);
+      mGlyphs.put(cluster, glyph);
+      scheduleSave();
+    }
+    return glyph;
+  }
+
+  private TextMesher.Glyph addGlyph(String cluster) {
+    float advance = mPaint.measureText(cluster) / SUPERSAMPLE;
+    Rect bounds = new Rect();
+    mPaint.getTextBounds(cluster, 0, cluster.length(), bounds);
+    if (bounds.isEmpty()) {
+      // Whitespace.
+      return new TextMesher.Glyph(advance, 0, 0, 0, 0, 0, 0);
+    }
+
+    int left = Math.floorDiv(bounds.left, SUPERSAMPLE) - SPREAD;
+    int top = Math.floorDiv(bounds.top, SUPERSAMPLE) - SPREAD;
+    int width = -Math.floorDiv(-bounds.right, SUPERSAMPLE) + SPREAD - left;
+    int height = -Math.floorDiv(-bounds.bottom, SUPERSAMPLE) + SPREAD - top;
+    if (width > WIDTH || !allocate(width, height)) {
+      Log.w(TAG, "No room in the glyph atlas for '" + cluster + "'");
+      return new TextMesher.Glyph(advance, 0, 0, 0, 0, 0, 0);
+    }
+    int u = mShelfX - width;
+    int v = mShelfY;
+
+    // Rasterize at high resolution, then sample the distance field at the centre of each base
+    // pixel by averaging the SUPERSAMPLE x SUPERSAMPLE block around it.
+    int hiWidth = width * SUPERSAMPLE;
+    int hiHeight = height * SUPERSAMPLE;
+    Bitmap bitmap = Bitmap.createBitmap(hiWidth, hiHeight, Bitmap.Config.ALPHA_8);
+    new Canvas(bitmap).drawText(cluster, -left * SUPERSAMPLE, -top * SUPERSAMPLE, mPaint);
+    ByteBuffer coverage = ByteBuffer.allocate(bitmap.getRowBytes() * hiHeight);
+    bitmap.copyPixelsToBuffer(coverage);
+    int stride = bitmap.getRowBytes();
+    bitmap.recycle();
+
+    float[] distances =
+        SignedDistanceField.compute(coverage.array(), hiWidth, hiHeight, stride);
+    float scale = 1f / (SUPERSAMPLE * SUPERSAMPLE * SUPERSAMPLE);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        float sum = 0;
+        for (int dy = 0; dy < SUPERSAMPLE; dy++) {
+          int row = (y * SUPERSAMPLE + dy) * hiWidth + x * SUPERSAMPLE;
+          for (int dx = 0; dx < SUPERSAMPLE; dx++) {
+            sum += distances[row + dx];
+          }
+        }
+        mPixels[(v + y) * WIDTH + u + x] = SignedDistanceField.encode(sum * scale, SPREAD);
+      }
+    }
+    mDirtyTop = Math.min(mDirtyTop, v);
+    mDirtyBottom = Math.max(mDirtyBottom, v + height);
+    return new TextMesher.Glyph(advance, left, top, width, height, u, v);
+  }
+
+  // Reserves space for a glyph at the end of the current shelf, growing the atlas if necessary.
+  // On success, the glyph's top right corner is at (mShelfX, mShelfY).
+  private boolean allocate(int width, int height) {
+    if (mShelfX + width > WIDTH) {
+      mShelfY += mShelfHeight;
+      mShelfX = 0;
+      mShelfHeight = 0;
+    }
+    while (mShelfY + height > mHeight) {
+      if (mHeight * 2 > MAX_HEIGHT) {
+        return false;
+      }
+      mPixels = Arrays.copyOf(mPixels, WIDTH * mHeight * 2);
+      mHeight *= 2;
+    }
+    mShelfX += width;
+    mShelfHeight = Math.max(mShelfHeight, height);
+    return true;
+  }
+
+  /**
+   * Recreates the texture.  Must be called whenever the surface is created, after the texture
+   * manager has been reset.
+   */
+  public void reload(GL10 gl, TextureManager textureManager) {
+    loadCache();
+    mTexture = textureManager.createTexture(gl);
+    mTexture.bind(gl);
+    gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MIN_FILTER, GL10.GL_LINEAR);
+    gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MAG_FILTER, GL10.GL_LINEAR);
+    gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_S, GL10.GL_CLAMP_TO_EDGE);
+    gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_T, GL10.GL_CLAMP_TO_EDGE);
+    mUploadedHeight = 0;
+  }
+
+  /** Copies any glyphs added since the last call to the texture. */
+  public void uploadIfDirty(GL10 gl) {
+    if (mTexture == null) {
+      return;
+    }
+    if (mUploadedHeight != mHeight) {
+      mTexture.bind(gl);
+      gl.glPixelStorei(GL10.GL_UNPACK_ALIGNMENT, 1);
+      gl.glTexImage2D(GL10.GL_TEXTURE_2D, 0, GL10.GL_ALPHA, WIDTH, mHeight, 0,
+                      GL10.GL_ALPHA, GL10.GL_UNSIGNED_BYTE, ByteBuffer.wrap(mPixels));
+      mUploadedHeight = mHeight;
+    } else if (mDirtyTop < mDirtyBottom) {
+      mTexture.bind(gl);
+      gl.glPixelStorei(GL10.GL_UNPACK_ALIGNMENT, 1);
+      ByteBuffer rows = ByteBuffer.wrap(
+          mPixels, mDirtyTop * WIDTH, (mDirtyBottom - mDirtyTop) * WIDTH).slice();
+      gl.glTexSubImage2D(GL10.GL_TEXTURE_2D, 0, 0, mDirtyTop, WIDTH, mDirtyBottom - mDirtyTop,
+                         GL10.GL_ALPHA, GL10.GL_UNSIGNED_BYTE, rows);
+    }
+    mDirtyTop = Integer.MAX_VALUE;
+    mDirtyBottom = 0;
+  }
+
+  @VisibleForTesting
+  synchronized void loadCache() {
+    if (mCacheLoaded) {
+      return;
+    }
+    mCacheLoaded = true;
+    if (!mGlyphs.isEmpty() || !mCacheFile.exists()) {
+      return;
+    }
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(mCacheFile)))) {
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+        throw new IOException("Bad header");
+      }
+      int height = in.readInt();
+      int shelfX = in.readInt();
+      int shelfY = in.readInt();
+      int shelfHeight = in.readInt();
+      if (height < INITIAL_HEIGHT || height > MAX_HEIGHT || shelfY + shelfHeight > height) {
+        throw new IOException("Bad size");
+      }
+      int count = in.readInt();
+      Map<String, TextMesher.Glyph> glyphs = new HashMap<>();
+      for (int i = 0; i < count; i++) {
+        String cluster = in.readUTF();
+        glyphs.put(cluster, new TextMesher.Glyph(in.readFloat(), in.readInt(), in.readInt(),
+            in.readInt(), in.readInt(), in.readInt(), in.readInt()));
+      }
+      byte[] pixels = new byte[WIDTH * height];
+      in.readFully(pixels);
+      if (in.read() != -1) {
+        throw new IOException("Trailing data");
+      }
+      mGlyphs.putAll(glyphs);
+      mPixels = pixels;
+      mHeight = height;
+      mShelfX = shelfX;
+      mShelfY = shelfY;
+      mShelfHeight = shelfHeight;
+      Log.d(TAG, "Loaded " + count + " glyphs from " + mCacheFile);
+    } catch (IOException | RuntimeException e) {
+      Log.w(TAG, "Discarding unreadable glyph atlas " + mCacheFile + ": " + e);
+      mCacheFile.delete();
+    }
+  }
+
+  private void scheduleSave() {
+    if (mSaveExecutor == null || mSaveScheduled) {
+      return;
+    }
+    mSaveScheduled = true;
+    mSaveExecutor.schedule(this::save, SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  private void save() {
+    int height;
+    int shelfX;
+    int shelfY;
+    int shelfHeight;
+    byte[] pixels;
+    List<Map.Entry<String, TextMesher.Glyph>> glyphs;
+    // Copied, so that glyphs can go on being added while the file is written.
+    synchronized (this) {
+      mSaveScheduled = false;
+      height = mHeight;
+      shelfX = mShelfX;
+      shelfY = mShelfY;
+      shelfHeight = mShelfHeight;
+      pixels = Arrays.copyOf(mPixels, WIDTH * mHeight);
+      glyphs = new ArrayList<>(mGlyphs.entrySet());
+    }
+    File directory = mCacheFile.getParentFile();
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      Log.w(TAG, "Unable to create glyph atlas cache " + directory);
+      return;
+    }
+    File tmp = new File(directory, mCacheFile.getName() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(tmp)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(height);
+      out.writeInt(shelfX);
+      out.writeInt(shelfY);
+      out.writeInt(shelfHeight);
+      out.writeInt(glyphs.size());
+      for (Map.Entry<String, TextMesher.Glyph> entry : glyphs) {
+        TextMesher.Glyph glyph = entry.getValue();
+        out.writeUTF(entry.getKey());
+        out.writeFloat(glyph.advance);
+        out.writeInt(glyph.left);
+        out.writeInt(glyph.top);
+        out.writeInt(glyph.width);
+        out.writeInt(glyph.height);
+        out.writeInt(glyph.u);
+        out.writeInt(glyph.v);
+      }
+      out.write(pixels);
+    } catch (IOException e) {
+      Log.w(TAG, "Unable to write glyph atlas " + mCacheFile + ": " + e);
+      tmp.delete();
+      return;
+    }
+    // Rename so that a reader never sees a partially written file.
+    if (!tmp.renameTo(mCacheFile)) {
+      tmp.delete();
+      return;
+    }
+    // Only the current atlas is kept; the others were for another locale or build.
+    File[] stale = directory.listFiles(
+        (dir, name) -> name.startsWith(CACHE_PREFIX) && !name.equals(mCacheFile.getName()));
+    if (stale != null) {
+      for (File file : stale) {
+        file.delete();
+      }
+    }
+  }
+
+  public void bind(GL10 gl) {
+    mTexture.bind(gl);
+  }
+
+  public void bind() {
+    mTexture.bind();
+  }
+}
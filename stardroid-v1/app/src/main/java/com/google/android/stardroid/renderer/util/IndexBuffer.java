@@ -14,14 +14,44 @@
 
 package com.google.android.stardroid.renderer.util;
 
+import android.opengl.GLES20;
+import android.util.Log;
+
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
+import java.util.Arrays;
 
 import javax.microedition.khronos.opengles.GL10;
 import javax.microedition.khronos.opengles.GL11;
 
+/**
+ * Triangle indices, added a triangle at a time.
+ *
+ * <p>Where the device supports GL_OES_element_index_uint, indices are 32 bit and any number of
+ * vertices can be drawn at once.  Otherwise they are 16 bit, and the triangles are split into
+ * batches which each use at most {@link #MAX_VERTICES_PER_BATCH} consecutive vertices.  A batch
+ * starts at its lowest vertex; its indices are relative to it, and the caller moves the start of
+ * its vertex arrays to it through {@link VertexArrays} before it's drawn.  Triangles whose
+ * vertices are close together in the vertex arrays - as when each primitive adds its own
+ * vertices - batch well.
+ */
 public class IndexBuffer {
+  private static final String TAG = "IndexBuffer";
+
+  /** The most vertices a batch of 16 bit indices can refer to. */
+  public static final int MAX_VERTICES_PER_BATCH = 1 << 16;
+
+  // Set from the extensions of the current surface, like GLBuffer.canUseVBO().
+  private static boolean sCanUseIntIndices = false;
+
+  /** Sets the start of the vertex arrays to the given vertex, for the batch about to be drawn. */
+  public interface VertexArrays {
+    void set(int firstVertex);
+  }
+
   public IndexBuffer(int numVertices) {
     this(numVertices, false);
   }
@@ -40,10 +70,38 @@ public class IndexBuffer {
     reset(numVertices);
   }
 
+  public static void setCanUseIntIndices(boolean canUseIntIndices) {
+    sCanUseIntIndices = canUseIntIndices;
+  }
+
+  public static boolean canUseIntIndices() {
+    return sCanUseIntIndices;
+  }
+
   public int size() {
     return mNumIndices;
   }
 
+  /** The number of draw calls the indices are split into. */
+  public int getNumBatches() {
+    return mNumBatches;
+  }
+
+  /** The first vertex used by the given batch, which its indices are relative to. */
+  public int getBatchFirstVertex(int batch) {
+    return mBatchFirstVertex[batch];
+  }
+
+  /** The index, relative to the batch's first vertex, at the given position in the buffer. */
+  public int getIndex(int position) {
+    return mIntIndices != null ? mIntIndices.get(position) : mShortIndices.get(position) & 0xffff;
+  }
+
+  /** The position in the buffer of the first index of the given batch. */
+  public int getBatchStart(int batch) {
+    return mBatchStart[batch];
+  }
+
   public void reset(int numVertices) {
     mNumIndices = numVertices;
     regenerateBuffer();
@@ -55,38 +113,195 @@ public class IndexBuffer {
   }
 
   private void regenerateBuffer() {
+    mShortIndices = null;
+    mIntIndices = null;
+    mNumBatches = 0;
+    mNumPending = 0;
+    mAdded = 0;
     if (mNumIndices == 0) {
       return;
     }
 
-    ByteBuffer bb = ByteBuffer.allocateDirect(2 * mNumIndices);
-    bb.order(ByteOrder.nativeOrder());
-    ShortBuffer ib = bb.asShortBuffer();
-    ib.position(0);
-    mIndexBuffer = ib;
+    if (sCanUseIntIndices) {
+      ByteBuffer bb = ByteBuffer.allocateDirect(4 * mNumIndices);
+      bb.order(ByteOrder.nativeOrder());
+      mIntIndices = bb.asIntBuffer();
+      mIntIndices.position(0);
+      // Everything is drawn as one batch from vertex 0.
+      addBatch(0, 0);
+    } else {
+      ByteBuffer bb = ByteBuffer.allocateDirect(2 * mNumIndices);
+      bb.order(ByteOrder.nativeOrder());
+      mShortIndices = bb.asShortBuffer();
+      mShortIndices.position(0);
+    }
+  }
+
+  /**
+   * Adds the next index of a triangle.  With 16 bit indices, a triangle's vertices must be fewer
+   * than {@link #MAX_VERTICES_PER_BATCH} apart, or an {@link IllegalArgumentException} is thrown.
+   */
+  public void addIndex(int index) {
+    mPending[mNumPending++] = index;
+    if (mNumPending == 3) {
+      addTriangle(mPending[0], mPending[1], mPending[2]);
+      mNumPending = 0;
+    }
   }
 
-  public void addIndex(short index) {
-    mIndexBuffer.put(index);
+  private void addTriangle(int a, int b, int c) {
+    if (mIntIndices != null) {
+      mIntIndices.put(a);
+      mIntIndices.put(b);
+      mIntIndices.put(c);
+      mAdded += 3;
+      return;
+    }
+
+    int min = Math.min(a, Math.min(b, c));
+    int max = Math.max(a, Math.max(b, c));
+    if (max - min >= MAX_VERTICES_PER_BATCH) {
+      // No batch can hold it, and leaving it out would leave a hole in what's drawn.
+      throw new IllegalArgumentException(
+          "Triangle spans too many vertices to draw: " + min + " to " + max);
+    }
+    int first = mNumBatches == 0 ? -1 : mBatchFirstVertex[mNumBatches - 1];
+    if (mNumBatches == 0 || min < first || max - first >= MAX_VERTICES_PER_BATCH) {
+      // Start from vertex 0 when possible, so that small buffers don't need to move the arrays.
+      first = max < MAX_VERTICES_PER_BATCH ? 0 : min;
+      addBatch(first, mAdded);
+    }
+    mShortIndices.put((short) (a - first));
+    mShortIndices.put((short) (b - first));
+    mShortIndices.put((short) (c - first));
+    mAdded += 3;
   }
 
+  private void addBatch(int firstVertex, int start) {
+    if (mNumBatches == mBatchFirstVertex.length) {
+      mBatchFirstVertex = Arrays.copyOf(mBatchFirstVertex, 2 * mNumBatches);
+      mBatchStart = Arrays.copyOf(mBatchStart, 2 * mNumBatches);
+    }
+    mBatchFirstVertex[mNumBatches] = firstVertex;
+    mBatchStart[mNumBatches] = start;
+    mNumBatches++;
+  }
+
+  // The number of indices in the given batch.
+  private int getBatchSize(int batch) {
+    return (batch + 1 < mNumBatches ? mBatchStart[batch + 1] : mAdded) - mBatchStart[batch];
+  }
+
+  private Buffer getIndices() {
+    return mIntIndices != null ? mIntIndices : mShortIndices;
+  }
+
+  private int getIndexType() {
+    return mIntIndices != null ? GLES20.GL_UNSIGNED_INT : GLES20.GL_UNSIGNED_SHORT;
+  }
+
+  private int getIndexSize() {
+    return mIntIndices != null ? 4 : 2;
+  }
+
+  /**
+   * Draws indices which all refer to vertices in the first batch, so the vertex arrays which have
+   * been set are used as they are.
+   */
   public void draw(GL10 gl, int primitiveType) {
-    if (mNumIndices == 0) {
+    draw(gl, primitiveType, null);
+  }
+
+  /**
+   * Draws every batch, calling {@code arrays} to move the start of the vertex arrays before each
+   * one.
+   */
+  public void draw(GL10 gl, int primitiveType, VertexArrays arrays) {
+    if (mAdded == 0) {
+      return;
+    }
+    Buffer indices = getIndices();
+    boolean useVbo = mUseVbo && GLBuffer.canUseVBO();
+    if (useVbo) {
+      mGLBuffer.bind((GL11) gl, indices.position(0), getIndexSize() * indices.capacity());
+    }
+    for (int batch = 0; batch < mNumBatches; batch++) {
+      if (!prepareBatch(batch, arrays)) {
+        break;
+      }
+      int start = mBatchStart[batch];
+      if (useVbo) {
+        ((GL11) gl).glDrawElements(
+            primitiveType, getBatchSize(batch), getIndexType(), start * getIndexSize());
+      } else {
+        gl.glDrawElements(
+            primitiveType, getBatchSize(batch), getIndexType(), indices.position(start));
+      }
+    }
+    if (useVbo) {
+      GLBuffer.unbind((GL11) gl);
+    }
+  }
+
+  // Draws with the GLES 2.0 backend, using the vertex attributes which have been set.
+  public void draw(int primitiveType) {
+    draw(primitiveType, null);
+  }
+
+  // The GLES 2.0 equivalent of draw(GL10, int, VertexArrays).
+  public void draw(int primitiveType, VertexArrays arrays) {
+    if (mAdded == 0) {
       return;
     }
-    mIndexBuffer.position(0);
-    if (mUseVbo && GLBuffer.canUseVBO()) {
-      GL11 gl11 = (GL11)gl;
-      mGLBuffer.bind(gl11, mIndexBuffer, 2 * mIndexBuffer.capacity());
-      gl11.glDrawElements(primitiveType, size(), GL10.GL_UNSIGNED_SHORT, 0);
-      GLBuffer.unbind(gl11);
+    Buffer indices = getIndices();
+    boolean useVbo = mUseVbo && GLBuffer.canUseVBO();
+    if (useVbo) {
+      mGLBuffer.bind(indices.position(0), getIndexSize() * indices.capacity());
     } else {
-      gl.glDrawElements(primitiveType, size(), GL10.GL_UNSIGNED_SHORT, mIndexBuffer);
+      GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+    for (int batch = 0; batch < mNumBatches; batch++) {
+      if (!prepareBatch(batch, arrays)) {
+        break;
+      }
+      int start = mBatchStart[batch];
+      if (useVbo) {
+        GLES20.glDrawElements(
+            primitiveType, getBatchSize(batch), getIndexType(), start * getIndexSize());
+      } else {
+        GLES20.glDrawElements(
+            primitiveType, getBatchSize(batch), getIndexType(), indices.position(start));
+      }
+    }
+    if (useVbo) {
+      GLBuffer.unbind();
+    }
+  }
+
+  // Moves the vertex arrays to the start of the batch, returning false if that isn't possible.
+  private boolean prepareBatch(int batch, VertexArrays arrays) {
+    if (arrays != null) {
+      arrays.set(mBatchFirstVertex[batch]);
+      return true;
+    }
+    if (mBatchFirstVertex[batch] != 0) {
+      Log.e(TAG, "Drawing batches which don't start at vertex 0 needs the vertex arrays");
+      return false;
     }
+    return true;
   }
 
-  private ShortBuffer mIndexBuffer = null;
+  private ShortBuffer mShortIndices = null;
+  private IntBuffer mIntIndices = null;
   private int mNumIndices = 0;
+  // The number of indices added so far, and the vertices of a partly added triangle.
+  private int mAdded = 0;
+  private final int[] mPending = new int[3];
+  private int mNumPending = 0;
+  // For each batch, the vertex its indices are relative to and the position of its first index.
+  private int[] mBatchFirstVertex = new int[1];
+  private int[] mBatchStart = new int[1];
+  private int mNumBatches = 0;
   private GLBuffer mGLBuffer = new GLBuffer(GL11.GL_ELEMENT_ARRAY_BUFFER);
   private boolean mUseVbo = false;
 }
@@ -8,10 +8,15 @@ class LabelCollisionResolver {
     private val positions = ArrayList<LabelPosition>()
     private var placedCount = 0
 
+    /** The most labels to place in a frame; later labels aren't drawn once it's used up. */
+    var budget = Int.MAX_VALUE
+
     fun beginFrame() {
         placedCount = 0
     }
 
+    fun hasBudget(): Boolean = placedCount < budget
+
     @JvmOverloads
     fun place(
         x: Float,
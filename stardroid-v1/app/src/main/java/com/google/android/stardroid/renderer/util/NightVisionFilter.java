@@ -0,0 +1,151 @@
+// Copyright 2026 Penterakt LLC.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.android.stardroid.renderer.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+
+/**
+ * Applies the night vision (red) colour transform at draw time, so that managers only need to
+ * keep one copy of their colours and textures.
+ *
+ * <p>The transform is the one the renderer has always used: the output red channel is the
+ * average of the source's red, green and blue channels, and green and blue are dropped.  (A plain
+ * luminance weighting made bluish objects hard to see.)  On the fixed-function pipeline this is
+ * done with two texture combiner stages:
+ * <ol>
+ *   <li>Unit 0 biases the source colour into [0.5, 1] by interpolating it halfway to white.</li>
+ *   <li>Unit 1 takes a DOT3 of the biased colour with a constant of 2/3, which works out to
+ *   exactly (r + g + b) / 3 in every channel.</li>
+ * </ol>
+ * A colour mask then keeps only the red channel.  Alpha is passed through untouched, so alpha
+ * tests and blending behave exactly as they do in normal mode.
+ *
+ * <p>Because the DOT3 stage has to follow the bias stage, a texture's RGB cannot also be
+ * modulated into a vertex colour in the same pass: for {@link Source#TEXTURED_VERTEX_COLOR} the
+ * texture only contributes its alpha.  The star and line textures carry their shape in alpha,
+ * so this isn't visible in practice.
+ */
+public class NightVisionFilter {
+  /** Where the colour being transformed comes from. */
+  public enum Source {
+    /** Untextured geometry coloured by its vertex colours. */
+    VERTEX_COLOR,
+    /** Geometry coloured by its vertex colours and shaped by the alpha of the bound texture. */
+    TEXTURED_VERTEX_COLOR,
+    /** Geometry coloured by the bound texture. */
+    TEXTURE,
+  }
+
+  private static final float[] HALFWAY_TO_WHITE = {1, 1, 1, 0.5f};
+  private static final float[] ONE_THIRD_DOT3 = {2 / 3f, 2 / 3f, 2 / 3f, 1};
+
+  // A 1x1 white texture.  A texture unit with no complete texture bound is treated as disabled,
+  // which would silently skip its combiner stage, so stages that don't otherwise sample a
+  // texture bind this one.
+  private TextureReference mWhiteTexture = null;
+
+  /**
+   * Recreates the GL resources used by the filter.  Must be called whenever the surface is
+   * created, after the texture manager has been reset.
+   */
+  public void reload(GL10 gl, TextureManager textureManager) {
+    mWhiteTexture = textureManager.createTexture(gl);
+    mWhiteTexture.bind(gl);
+    gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MIN_FILTER, GL10.GL_NEAREST);
+    gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MAG_FILTER, GL10.GL_NEAREST);
+    ByteBuffer white = ByteBuffer.allocateDirect(4).order(ByteOrder.nativeOrder());
+    white.put(new byte[] {(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff});
+    white.position(0);
+    gl.glTexImage2D(GL10.GL_TEXTURE_2D, 0, GL10.GL_RGBA, 1, 1, 0,
+        GL10.GL_RGBA, GL10.GL_UNSIGNED_BYTE, white);
+  }
+
+  /**
+   * Sets up the GL state so that everything drawn until {@link #end} is transformed to night
+   * vision colours.  Must be called after the manager has bound its own texture (if any) and set
+   * its texture environment, since this overrides the environment of texture unit 0.
+   */
+  public void begin(GL10 gl, Source source) {
+    if (!(gl instanceof GL11) || mWhiteTexture == null) {
+      // Without combiners the best we can do is to keep the red channel.
+      gl.glColorMask(true, false, false, true);
+      return;
+    }
+
+    // Stage 0: rgb = 0.5 * source + 0.5, alpha as it would be in normal mode.
+    gl.glActiveTexture(GL10.GL_TEXTURE0);
+    if (source == Source.VERTEX_COLOR) {
+      gl.glEnable(GL10.GL_TEXTURE_2D);
+      mWhiteTexture.bind(gl);
+    }
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL10.GL_TEXTURE_ENV_MODE, GL11.GL_COMBINE);
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_COMBINE_RGB, GL11.GL_INTERPOLATE);
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_SRC0_RGB,
+        source == Source.TEXTURE ? GL10.GL_TEXTURE : GL11.GL_PRIMARY_COLOR);
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_OPERAND0_RGB, GL10.GL_SRC_COLOR);
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_SRC1_RGB, GL11.GL_CONSTANT);
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_OPERAND1_RGB, GL10.GL_SRC_COLOR);
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_SRC2_RGB, GL11.GL_CONSTANT);
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_OPERAND2_RGB, GL10.GL_SRC_ALPHA);
+    gl.glTexEnvfv(GL10.GL_TEXTURE_ENV, GL10.GL_TEXTURE_ENV_COLOR, HALFWAY_TO_WHITE, 0);
+    if (source == Source.VERTEX_COLOR) {
+      gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_COMBINE_ALPHA, GL10.GL_REPLACE);
+      gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_SRC0_ALPHA, GL11.GL_PRIMARY_COLOR);
+    } else {
+      gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_COMBINE_ALPHA, GL10.GL_MODULATE);
+      gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_SRC0_ALPHA, GL10.GL_TEXTURE);
+      gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_SRC1_ALPHA, GL11.GL_PRIMARY_COLOR);
+      gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_OPERAND1_ALPHA, GL10.GL_SRC_ALPHA);
+    }
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_OPERAND0_ALPHA, GL10.GL_SRC_ALPHA);
+
+    // Stage 1: rgb = 4 * dot(previous - 0.5, 2/3 - 0.5) = (r + g + b) / 3.
+    gl.glActiveTexture(GL10.GL_TEXTURE1);
+    gl.glEnable(GL10.GL_TEXTURE_2D);
+    mWhiteTexture.bind(gl);
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL10.GL_TEXTURE_ENV_MODE, GL11.GL_COMBINE);
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_COMBINE_RGB, GL11.GL_DOT3_RGB);
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_SRC0_RGB, GL11.GL_PREVIOUS);
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_OPERAND0_RGB, GL10.GL_SRC_COLOR);
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_SRC1_RGB, GL11.GL_CONSTANT);
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_OPERAND1_RGB, GL10.GL_SRC_COLOR);
+    gl.glTexEnvfv(GL10.GL_TEXTURE_ENV, GL10.GL_TEXTURE_ENV_COLOR, ONE_THIRD_DOT3, 0);
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_COMBINE_ALPHA, GL10.GL_REPLACE);
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_SRC0_ALPHA, GL11.GL_PREVIOUS);
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL11.GL_OPERAND0_ALPHA, GL10.GL_SRC_ALPHA);
+    gl.glActiveTexture(GL10.GL_TEXTURE0);
+
+    gl.glColorMask(true, false, false, true);
+  }
+
+  /** Restores the GL state changed by {@link #begin}. */
+  public void end(GL10 gl, Source source) {
+    gl.glColorMask(true, true, true, true);
+    if (!(gl instanceof GL11) || mWhiteTexture == null) {
+      return;
+    }
+    gl.glActiveTexture(GL10.GL_TEXTURE1);
+    gl.glDisable(GL10.GL_TEXTURE_2D);
+    gl.glActiveTexture(GL10.GL_TEXTURE0);
+    gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL10.GL_TEXTURE_ENV_MODE, GL10.GL_MODULATE);
+    if (source == Source.VERTEX_COLOR) {
+      gl.glDisable(GL10.GL_TEXTURE_2D);
+    }
+  }
+}
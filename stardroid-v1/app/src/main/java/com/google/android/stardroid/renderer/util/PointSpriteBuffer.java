@@ -0,0 +1,147 @@
+// Copyright 2026 Penterakt LLC.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.android.stardroid.renderer.util;
+
+import android.opengl.GLES20;
+import android.util.Log;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+
+/**
+ * The per-vertex sprite attributes of points drawn as point sprites: a size and the index of an
+ * image in the sprite texture.
+ *
+ * <p>Sizes are in world units rather than pixels, so that they don't depend on the field of view;
+ * see {@link #getPixelsPerWorldUnit}.
+ */
+public class PointSpriteBuffer {
+  // The fixed-function pipeline reads sizes from the interleaved pairs.
+  private static final int STRIDE = 2 * 4;
+
+  public PointSpriteBuffer(boolean useVBO) {
+    mNumVertices = 0;
+    mUseVBO = useVBO;
+  }
+
+  public int size() {
+    return mNumVertices;
+  }
+
+  // For sprites which are updated often: resetting to the same number of vertices then rewrites
+  // them in place, and only the values which change are uploaded.
+  public void setDynamic(boolean dynamic) {
+    mDynamic = dynamic;
+    mGLBuffer.setDynamic(dynamic);
+  }
+
+  public void reset(int numVertices) {
+    if (numVertices < 0) {
+      Log.e("PointSpriteBuffer", "reset attempting to set numVertices to " + numVertices);
+      numVertices = 0;
+    }
+    if (mDynamic && numVertices == mNumVertices && mSpriteBuffer != null) {
+      mSpriteBuffer.position(0);
+      return;
+    }
+    mNumVertices = numVertices;
+    regenerateBuffer();
+  }
+
+  // Call this when we have to re-create the surface and reloading all OpenGL resources.
+  public void reload() {
+    mGLBuffer.reload();
+  }
+
+  public void addSprite(float size, int imageIndex) {
+    put(size);
+    put(imageIndex);
+  }
+
+  private void put(float value) {
+    int index = mSpriteBuffer.position();
+    if (mDynamic && mSpriteBuffer.get(index) != value) {
+      mGLBuffer.invalidate(index, 1);
+    }
+    mSpriteBuffer.put(value);
+  }
+
+  /**
+   * Sets the sizes as the point size array of the fixed-function pipeline.  The image indices
+   * aren't used: point sprites there always cover the whole texture.
+   */
+  public void set(GL10 gl) {
+    if (mNumVertices == 0) {
+      return;
+    }
+    mSpriteBuffer.position(0);
+
+    GL11 gl11 = (GL11) gl;
+    if (mUseVBO && GLBuffer.canUseVBO()) {
+      mGLBuffer.bind(gl11, mSpriteBuffer, 4 * mSpriteBuffer.capacity());
+      gl11.glPointSizePointerOES(GL10.GL_FLOAT, STRIDE, 0);
+    } else {
+      gl11.glPointSizePointerOES(GL10.GL_FLOAT, STRIDE, mSpriteBuffer);
+    }
+  }
+
+  // Sets the sizes and image indices as the given vertex attribute of the GLES 2.0 backend.
+  public void setAttribute(int location) {
+    if (mNumVertices == 0) {
+      return;
+    }
+    mSpriteBuffer.position(0);
+
+    GLES20.glEnableVertexAttribArray(location);
+    if (mUseVBO && GLBuffer.canUseVBO()) {
+      mGLBuffer.bind(mSpriteBuffer, 4 * mSpriteBuffer.capacity());
+      GLES20.glVertexAttribPointer(location, 2, GLES20.GL_FLOAT, false, 0, 0);
+    } else {
+      GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+      GLES20.glVertexAttribPointer(location, 2, GLES20.GL_FLOAT, false, 0, mSpriteBuffer);
+    }
+  }
+
+  /**
+   * Returns the diameter in pixels of a point of size 1 at the centre of the screen, for a field
+   * of view of radiusOfView degrees across the given screen height.
+   */
+  public static float getPixelsPerWorldUnit(float radiusOfView, int screenHeight) {
+    // Matches the projection built in SkyRenderer: a size is half the width of the point.
+    return 2 * (screenHeight * 0.5f) / (float) Math.tan(radiusOfView * Math.PI / 360);
+  }
+
+  private void regenerateBuffer() {
+    if (mNumVertices == 0) {
+      return;
+    }
+
+    ByteBuffer bb = ByteBuffer.allocateDirect(4 * 2 * mNumVertices);
+    bb.order(ByteOrder.nativeOrder());
+    FloatBuffer fb = bb.asFloatBuffer();
+    fb.position(0);
+    mSpriteBuffer = fb;
+  }
+
+  private FloatBuffer mSpriteBuffer = null;
+  private int mNumVertices = 0;
+  private GLBuffer mGLBuffer = new GLBuffer(GL11.GL_ARRAY_BUFFER);
+  private boolean mUseVBO = false;
+  private boolean mDynamic = false;
+}
@@ -14,6 +14,8 @@
 
 package com.google.android.stardroid.renderer.util;
 
+import android.os.SystemClock;
+
 import com.google.android.stardroid.math.MathUtils;
 import com.google.android.stardroid.math.Matrix4x4;
 import com.google.android.stardroid.math.Vector3;
@@ -28,7 +30,7 @@ public class SearchHelper {
     mTargetName = targetName;
     mTarget = target.copyForJ();
     mTransformedPosition = null;
-    mLastUpdateTime = System.currentTimeMillis();
+    mLastUpdateTime = SystemClock.elapsedRealtime();
     mTransitionFactor = targetInFocusRadiusImpl() ? 1 : 0;
   }
   
@@ -65,7 +67,7 @@ public class SearchHelper {
   public void checkState() {
     boolean inFocus = targetInFocusRadiusImpl();
     mWasInFocusLastCheck = inFocus;
-    long time = System.currentTimeMillis();
+    long time = SystemClock.elapsedRealtime();
     float delta = 0.001f * (time - mLastUpdateTime);
     mTransitionFactor += delta * (inFocus ? 1 : -1);
     mTransitionFactor = Math.min(1, Math.max(0, mTransitionFactor));
@@ -0,0 +1,112 @@
+// Copyright 2026 Penterakt LLC.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.android.stardroid.renderer.util;
+
+import android.opengl.GLES20;
+import android.util.Log;
+
+import com.google.android.stardroid.util.MiscUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A GLSL program for the OpenGL ES 2.0 backend.
+ *
+ * <p>Vertex attributes are bound to fixed locations - the index of each name passed to the
+ * constructor - so buffers can be set up without knowing which program will draw them.  Like
+ * textures, programs are lost with the surface, so {@link #reload} must be called whenever the
+ * surface is created.
+ */
+public class ShaderProgram {
+  private static final String TAG = MiscUtil.getTag(ShaderProgram.class);
+
+  private final String mVertexSource;
+  private final String mFragmentSource;
+  private final String[] mAttributes;
+  private final Map<String, Integer> mUniforms = new HashMap<>();
+  private int mProgram = 0;
+
+  public ShaderProgram(String vertexSource, String fragmentSource, String... attributes) {
+    mVertexSource = vertexSource;
+    mFragmentSource = fragmentSource;
+    mAttributes = attributes;
+  }
+
+  /** Compiles and links the program.  If that fails, the error is logged and nothing is drawn. */
+  public void reload() {
+    mUniforms.clear();
+    mProgram = 0;
+    int vertexShader = compile(GLES20.GL_VERTEX_SHADER, mVertexSource);
+    int fragmentShader = compile(GLES20.GL_FRAGMENT_SHADER, mFragmentSource);
+    if (vertexShader == 0 || fragmentShader == 0) {
+      // Free whichever one did compile.
+      if (vertexShader != 0) {
+        GLES20.glDeleteShader(vertexShader);
+      }
+      if (fragmentShader != 0) {
+        GLES20.glDeleteShader(fragmentShader);
+      }
+      return;
+    }
+
+    int program = GLES20.glCreateProgram();
+    GLES20.glAttachShader(program, vertexShader);
+    GLES20.glAttachShader(program, fragmentShader);
+    for (int i = 0; i < mAttributes.length; i++) {
+      GLES20.glBindAttribLocation(program, i, mAttributes[i]);
+    }
+    GLES20.glLinkProgram(program);
+    // The shaders are freed with the program once they're linked.
+    GLES20.glDeleteShader(vertexShader);
+    GLES20.glDeleteShader(fragmentShader);
+
+    int[] status = new int[1];
+    GLES20.glGetProgramiv(program, GLES20.GL_LINK_STATUS, status, 0);
+    if (status[0] == 0) {
+      Log.e(TAG, "Failed to link program: " + GLES20.glGetProgramInfoLog(program));
+      GLES20.glDeleteProgram(program);
+      return;
+    }
+    mProgram = program;
+  }
+
+  public void use() {
+    GLES20.glUseProgram(mProgram);
+  }
+
+  public int getUniformLocation(String name) {
+    Integer location = mUniforms.get(name);
+    if (location == null) {
+      location = GLES20.glGetUniformLocation(mProgram, name);
+      mUniforms.put(name, location);
+    }
+    return location;
+  }
+
+  private static int compile(int type, String source) {
+    int shader = GLES20.glCreateShader(type);
+    GLES20.glShaderSource(shader, source);
+    GLES20.glCompileShader(shader);
+    int[] status = new int[1];
+    GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, status, 0);
+    if (status[0] == 0) {
+      Log.e(TAG, "Failed to compile shader: " + GLES20.glGetShaderInfoLog(shader));
+      GLES20.glDeleteShader(shader);
+      return 0;
+    }
+    return shader;
+  }
+}
@@ -0,0 +1,124 @@
+// Copyright 2026 Penterakt LLC.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.android.stardroid.renderer.util;
+
+/**
+ * Computes signed distance fields from coverage bitmaps, for rendering text that stays sharp at
+ * any scale.  A pixel is inside the shape if its coverage is at least half.  The distances are
+ * exact Euclidean distances between pixel centres, computed with the separable algorithm of
+ * Felzenszwalb and Huttenlocher, so the cost is linear in the number of pixels.
+ */
+public class SignedDistanceField {
+  private static final float INF = 1e20f;
+
+  private SignedDistanceField() {}
+
+  /**
+   * Returns the signed distance, in pixels, from each pixel to the edge of the shape: positive
+   * inside the shape and negative outside.  The edge is taken to be half way between an inside
+   * pixel and its nearest outside pixel.
+   *
+   * @param coverage one byte per pixel, treated as unsigned
+   * @param stride the number of bytes between the start of successive rows
+   */
+  public static float[] compute(byte[] coverage, int width, int height, int stride) {
+    int n = width * height;
+    float[] toInside = new float[n];
+    float[] toOutside = new float[n];
+    boolean[] inside = new boolean[n];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        int i = y * width + x;
+        inside[i] = (coverage[y * stride + x] & 0xff) >= 128;
+        toInside[i] = inside[i] ? 0 : INF;
+        toOutside[i] = inside[i] ? INF : 0;
+      }
+    }
+    squaredDistanceTransform(toInside, width, height);
+    squaredDistanceTransform(toOutside, width, height);
+
+    float[] result = new float[n];
+    for (int i = 0; i < n; i++) {
+      result[i] = inside[i]
+          ? (float) Math.sqrt(toOutside[i]) - 0.5f
+          : 0.5f - (float) Math.sqrt(toInside[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Encodes a signed distance as an unsigned byte, so that the edge of the shape maps to the
+   * middle of the range and distances of {@code spread} pixels either side map to the ends.
+   */
+  public static byte encode(float distance, float spread) {
+    int value = Math.round(127.5f + distance * 127.5f / spread);
+    return (byte) Math.max(0, Math.min(255, value));
+  }
+
+  // Replaces each value with the squared distance to the nearest zero, in place.
+  private static void squaredDistanceTransform(float[] grid, int width, int height) {
+    int maxDim = Math.max(width, height);
+    float[] f = new float[maxDim];
+    float[] d = new float[maxDim];
+    int[] v = new int[maxDim];
+    float[] z = new float[maxDim + 1];
+
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        f[y] = grid[y * width + x];
+      }
+      transform1d(f, height, d, v, z);
+      for (int y = 0; y < height; y++) {
+        grid[y * width + x] = d[y];
+      }
+    }
+    for (int y = 0; y < height; y++) {
+      System.arraycopy(grid, y * width, f, 0, width);
+      transform1d(f, width, d, v, z);
+      System.arraycopy(d, 0, grid, y * width, width);
+    }
+  }
+
+  // The lower envelope of the parabolas rooted at each sample.
+  private static void transform1d(float[] f, int n, float[] d, int[] v, float[] z) {
+    int k = 0;
+    v[0] = 0;
+    z[0] = -INF;
+    z[1] = INF;
+    for (int q = 1; q < n; q++) {
+      float s = intersection(f, q, v[k]);
+      while (s <= z[k]) {
+        k--;
+        s = intersection(f, q, v[k]);
+      }
+      k++;
+      v[k] = q;
+      z[k] = s;
+      z[k + 1] = INF;
+    }
+    k = 0;
+    for (int q = 0; q < n; q++) {
+      while (z[k + 1] < q) {
+        k++;
+      }
+      float dq = q - v[k];
+      d[q] = dq * dq + f[v[k]];
+    }
+  }
+
+  private static float intersection(float[] f, int q, int p) {
+    return ((f[q] + q * q) - (f[p] + p * p)) / (2 * q - 2 * p);
+  }
+}
@@ -14,13 +14,12 @@
 
 package com.google.android.stardroid.renderer.util;
 
+import android.opengl.GLES20;
 import android.util.Log;
 
-import com.google.android.stardroid.util.FixedPoint;
-
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.IntBuffer;
+import java.nio.FloatBuffer;
 
 import javax.microedition.khronos.opengles.GL10;
 import javax.microedition.khronos.opengles.GL11;
@@ -58,11 +57,16 @@ public class TexCoordBuffer {
   }
   
   public void addTexCoords(float u, float v) {
-    mTexCoordBuffer.put(FixedPoint.floatToFixedPoint(u));
-    mTexCoordBuffer.put(FixedPoint.floatToFixedPoint(v));
+    mTexCoordBuffer.put(u);
+    mTexCoordBuffer.put(v);
   }
   
   public void set(GL10 gl) {
+    set(gl, 0);
+  }
+
+  // Sets the array to start at the given vertex.
+  public void set(GL10 gl, int firstVertex) {
     if (mNumVertices == 0) {
       return;
     }
@@ -71,9 +75,33 @@ public class TexCoordBuffer {
     if (mUseVBO && GLBuffer.canUseVBO()) {
       GL11 gl11 = (GL11)gl;
       mGLBuffer.bind(gl11, mTexCoordBuffer, 4 * mTexCoordBuffer.capacity());
-      gl11.glTexCoordPointer(2, GL10.GL_FIXED, 0, 0);
+      gl11.glTexCoordPointer(2, GL10.GL_FLOAT, 0, 8 * firstVertex);
+    } else {
+      mTexCoordBuffer.position(2 * firstVertex);
+      gl.glTexCoordPointer(2, GL10.GL_FLOAT, 0, mTexCoordBuffer);
+    }
+  }
+
+  // Sets the texture coordinates as the given vertex attribute of the GLES 2.0 backend.
+  public void setAttribute(int location) {
+    setAttribute(location, 0);
+  }
+
+  // Sets the attribute to start at the given vertex.
+  public void setAttribute(int location, int firstVertex) {
+    if (mNumVertices == 0) {
+      return;
+    }
+    mTexCoordBuffer.position(0);
+
+    GLES20.glEnableVertexAttribArray(location);
+    if (mUseVBO && GLBuffer.canUseVBO()) {
+      mGLBuffer.bind(mTexCoordBuffer, 4 * mTexCoordBuffer.capacity());
+      GLES20.glVertexAttribPointer(location, 2, GLES20.GL_FLOAT, false, 0, 8 * firstVertex);
     } else {
-      gl.glTexCoordPointer(2, GL10.GL_FIXED, 0, mTexCoordBuffer);
+      GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+      mTexCoordBuffer.position(2 * firstVertex);
+      GLES20.glVertexAttribPointer(location, 2, GLES20.GL_FLOAT, false, 0, mTexCoordBuffer);
     }
   }
   
@@ -84,12 +112,12 @@ public class TexCoordBuffer {
     
     ByteBuffer bb = ByteBuffer.allocateDirect(4 * 2 * mNumVertices);
     bb.order(ByteOrder.nativeOrder());
-    IntBuffer ib = bb.asIntBuffer();
-    ib.position(0);
-    mTexCoordBuffer = ib;
+    FloatBuffer fb = bb.asFloatBuffer();
+    fb.position(0);
+    mTexCoordBuffer = fb;
   }
 
-  private IntBuffer mTexCoordBuffer = null;
+  private FloatBuffer mTexCoordBuffer = null;
   private int mNumVertices = 0;
   private GLBuffer mGLBuffer = new GLBuffer(GL11.GL_ARRAY_BUFFER);
   private boolean mUseVBO = false;
@@ -0,0 +1,220 @@
+// Copyright 2026 Penterakt LLC.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.android.stardroid.renderer.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the quads for a label out of the glyphs in a glyph atlas.
+ *
+ * <p>Text is split into clusters, each of which is drawn from a single image in the atlas.
+ * Usually a cluster is a single character, so the atlas only needs one entry per character
+ * however many labels use it.  Text which can't be drawn a character at a time - right to left
+ * scripts, scripts whose letters change shape depending on their neighbours, and anything with
+ * combining marks - is kept as a single cluster so that the platform lays it out as a whole.
+ *
+ * <p>Meshes are in the atlas' base pixel units, centred on the label, with y up.  Texture
+ * coordinates are in atlas pixels rather than normalized, so that meshes stay valid when the
+ * atlas grows; scale them with the texture matrix when drawing.
+ */
+public class TextMesher {
+  /** The placement of a cluster's image, in base pixels.  */
+  public static class Glyph {
+    /** How far to move the pen after this glyph. */
+    public final float advance;
+    /** The left of the image relative to the pen. */
+    public final int left;
+    /** The top of the image relative to the baseline, with y down (so usually negative). */
+    public final int top;
+    public final int width;
+    public final int height;
+    /** The top left of the image in the atlas. */
+    public final int u;
+    public final int v;
+
+    public Glyph(float advance, int left, int top, int width, int height, int u, int v) {
+      this.advance = advance;
+      this.left = left;
+      this.top = top;
+      this.width = width;
+      this.height = height;
+      this.u = u;
+      this.v = v;
+    }
+
+    public boolean isEmpty() {
+      return width == 0 || height == 0;
+    }
+  }
+
+  /** Somewhere to get glyphs from, normally a {@link GlyphAtlas}. */
+  public interface GlyphSource {
+    Glyph getGlyph(String cluster);
+    /** The distance from the baseline to the top of the line, in base pixels. */
+    float getAscent();
+    /** The distance from the baseline to the bottom of the line, in base pixels. */
+    float getDescent();
+  }
+
+  /** The triangles for one label. */
+  public static class LabelMesh {
+    private final float[] mPositions;
+    private final float[] mTexCoords;
+    private final float mWidth;
+    private final float mHeight;
+    private final FloatBuffer mPositionBuffer;
+    private final FloatBuffer mTexCoordBuffer;
+
+    LabelMesh(float[] positions, float[] texCoords, float width, float height) {
+      mPositions = positions;
+      mTexCoords = texCoords;
+      mWidth = width;
+      mHeight = height;
+      mPositionBuffer = toBuffer(positions);
+      mTexCoordBuffer = toBuffer(texCoords);
+    }
+
+    /** x, y pairs, three vertices per triangle. */
+    public float[] getPositions() {
+      return mPositions;
+    }
+
+    /** u, v pairs in atlas pixels. */
+    public float[] getTexCoords() {
+      return mTexCoords;
+    }
+
+    public FloatBuffer getPositionBuffer() {
+      return mPositionBuffer;
+    }
+
+    public FloatBuffer getTexCoordBuffer() {
+      return mTexCoordBuffer;
+    }
+
+    public int getVertexCount() {
+      return mPositions.length / 2;
+    }
+
+    /** The advance width of the text. */
+    public float getWidth() {
+      return mWidth;
+    }
+
+    /** The line height of the text. */
+    public float getHeight() {
+      return mHeight;
+    }
+
+    private static FloatBuffer toBuffer(float[] values) {
+      FloatBuffer buffer = ByteBuffer.allocateDirect(Math.max(1, values.length) * 4)
+          .order(ByteOrder.nativeOrder()).asFloatBuffer();
+      buffer.put(values);
+      buffer.position(0);
+      return buffer;
+    }
+  }
+
+  private TextMesher() {}
+
+  /** Splits text into the clusters which are each drawn from a single atlas image. */
+  public static List<String> splitClusters(String text) {
+    List<String> clusters = new ArrayList<>();
+    if (needsLayoutAsWhole(text)) {
+      clusters.add(text);
+      return clusters;
+    }
+    for (int i = 0; i < text.length(); ) {
+      int next = text.offsetByCodePoints(i, 1);
+      clusters.add(text.substring(i, next));
+      i = next;
+    }
+    return clusters;
+  }
+
+  static boolean needsLayoutAsWhole(String text) {
+    for (int i = 0; i < text.length(); ) {
+      int c = text.codePointAt(i);
+      i += Character.charCount(c);
+
+      byte direction = Character.getDirectionality(c);
+      if (direction == Character.DIRECTIONALITY_RIGHT_TO_LEFT
+          || direction == Character.DIRECTIONALITY_RIGHT_TO_LEFT_ARABIC) {
+        return true;
+      }
+      int type = Character.getType(c);
+      if (type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK
+          || type == Character.ENCLOSING_MARK || type == Character.FORMAT) {
+        return true;
+      }
+      switch (Character.UnicodeScript.of(c)) {
+        case DEVANAGARI: case BENGALI: case GURMUKHI: case GUJARATI: case ORIYA: case TAMIL:
+        case TELUGU: case KANNADA: case MALAYALAM: case SINHALA: case THAI: case LAO:
+        case TIBETAN: case MYANMAR: case KHMER: case MONGOLIAN:
+          return true;
+        default:
+          break;
+      }
+    }
+    return false;
+  }
+
+  /** Lays out the given text on a single line. */
+  public static LabelMesh mesh(String text, GlyphSource glyphs) {
+    List<Glyph> placed = new ArrayList<>();
+    List<Float> pens = new ArrayList<>();
+    float pen = 0;
+    for (String cluster : splitClusters(text)) {
+      Glyph glyph = glyphs.getGlyph(cluster);
+      if (!glyph.isEmpty()) {
+        placed.add(glyph);
+        pens.add(pen);
+      }
+      pen += glyph.advance;
+    }
+
+    float width = pen;
+    float ascent = glyphs.getAscent();
+    float descent = glyphs.getDescent();
+    // Centre the line box on the origin.
+    float xOffset = -width / 2;
+    float baseline = (descent - ascent) / 2;
+
+    float[] positions = new float[placed.size() * 12];
+    float[] texCoords = new float[placed.size() * 12];
+    for (int i = 0; i < placed.size(); i++) {
+      Glyph g = placed.get(i);
+      float x0 = xOffset + pens.get(i) + g.left;
+      float x1 = x0 + g.width;
+      float y1 = baseline - g.top;
+      float y0 = y1 - g.height;
+      // The top of the quad (y1) shows the top row of the image (v).
+      putQuad(positions, i * 12, x0, y0, x1, y1);
+      putQuad(texCoords, i * 12, g.u, g.v + g.height, g.u + g.width, g.v);
+    }
+    return new LabelMesh(positions, texCoords, width, ascent + descent);
+  }
+
+  // Two clockwise triangles, matching the front face the other managers use: lower left, upper
+  // left, lower right and lower right, upper left, upper right.
+  private static void putQuad(float[] out, int offset, float x0, float y0, float x1, float y1) {
+    float[] quad = {x0, y0, x0, y1, x1, y0, x1, y0, x0, y1, x1, y1};
+    System.arraycopy(quad, 0, out, offset, quad.length);
+  }
+}
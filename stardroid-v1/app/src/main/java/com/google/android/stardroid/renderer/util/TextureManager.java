@@ -18,6 +18,7 @@ import android.content.res.Resources;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.graphics.BitmapFactory.Options;
+import android.opengl.GLES20;
 import android.opengl.GLUtils;
 import android.util.Log;
 
@@ -44,6 +45,8 @@ public final class TextureManager {
   private final Resources mRes;
   private Map<Integer, TextureData> mResourceIdToTextureMap = 
       new HashMap<Integer, TextureData>();
+  private Map<Integer, TextureReference[]> mResourceIdToStripMap =
+      new HashMap<Integer, TextureReference[]>();
   private ArrayList<TextureReferenceImpl> mAllTextures =
       new ArrayList<TextureReferenceImpl>();
   
@@ -76,8 +79,35 @@ public final class TextureManager {
     return tex;
   }
   
+  /**
+   * Splits an image made of numImages equally sized images side by side into a texture for each
+   * of them.  Like textures from {@link #getTextureFromResource}, they're shared by every caller
+   * until the manager is reset.
+   */
+  public TextureReference[] getTexturesFromResourceStrip(GL10 gl, int resourceID, int numImages) {
+    TextureReference[] textures = mResourceIdToStripMap.get(resourceID);
+    if (textures != null && textures.length == numImages) {
+      return textures;
+    }
+
+    Options opts = new Options();
+    opts.inScaled = false;
+    Bitmap strip = BitmapFactory.decodeResource(mRes, resourceID, opts);
+    int width = strip.getWidth() / numImages;
+    textures = new TextureReference[numImages];
+    for (int i = 0; i < numImages; i++) {
+      Bitmap bmp = Bitmap.createBitmap(strip, i * width, 0, width, strip.getHeight());
+      textures[i] = uploadBitmap(gl, bmp);
+      bmp.recycle();
+    }
+    strip.recycle();
+    mResourceIdToStripMap.put(resourceID, textures);
+    return textures;
+  }
+
   public void reset() {
     mResourceIdToTextureMap.clear();
+    mResourceIdToStripMap.clear();
     for (TextureReferenceImpl ref : mAllTextures) {
       ref.invalidate();
     }
@@ -93,6 +123,11 @@ public final class TextureManager {
       checkValid();
       gl.glBindTexture(GL10.GL_TEXTURE_2D, mTextureID);
     }
+
+    public void bind() {
+      checkValid();
+      GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mTextureID);
+    }
     
     public void delete(GL10 gl) {
       checkValid();
@@ -128,10 +163,16 @@ public final class TextureManager {
   
   private TextureReferenceImpl createTextureFromResource(GL10 gl, int resourceID) {
     // The texture hasn't been loaded yet, so load it.
-    TextureReferenceImpl tex = createTextureInternal(gl);
     Options opts = new Options();
     opts.inScaled = false;
     Bitmap bmp = BitmapFactory.decodeResource(mRes, resourceID, opts);
+    TextureReferenceImpl tex = uploadBitmap(gl, bmp);
+    bmp.recycle();
+    return tex;
+  }
+
+  private TextureReferenceImpl uploadBitmap(GL10 gl, Bitmap bmp) {
+    TextureReferenceImpl tex = createTextureInternal(gl);
     tex.bind(gl);
     gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MIN_FILTER, GL10.GL_LINEAR);
     gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MAG_FILTER, GL10.GL_LINEAR);
@@ -139,8 +180,6 @@ public final class TextureManager {
     gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_T, GL10.GL_CLAMP_TO_EDGE);
     
     GLUtils.texImage2D(GL10.GL_TEXTURE_2D, 0, bmp, 0);
-    
-    bmp.recycle();
     return tex;
   }
   
@@ -33,6 +33,11 @@ public interface TextureReference {
    */
   void bind(GL10 gl);
 
+  /**
+   * Sets this as the active texture when drawing with the OpenGL ES 2.0 backend.
+   */
+  void bind();
+
   /**
    * Deletes the texture resource.  This should not be called multiple times.
    * Note that when the OpenGL surface is being re-created, all resources
@@ -14,6 +14,8 @@
 
 package com.google.android.stardroid.renderer.util;
 
+import android.opengl.GLES20;
+
 import javax.microedition.khronos.opengles.GL10;
 
 /**
@@ -92,4 +94,15 @@ public class TexturedQuad {
 
     gl.glDisable(GL10.GL_TEXTURE_2D);
   }
+
+  /**
+   * Draws the quad with the OpenGL ES 2.0 backend, using the current program, transform and
+   * colour.
+   */
+  public void draw() {
+    mTexture.bind();
+    mPosition.setAttribute(Gles2Shaders.ATTRIB_POSITION);
+    mTexCoords.setAttribute(Gles2Shaders.ATTRIB_TEX_COORD);
+    GLES20.glDrawArrays(GLES20.GL_TRIANGLE_STRIP, 0, 4);
+  }
 }
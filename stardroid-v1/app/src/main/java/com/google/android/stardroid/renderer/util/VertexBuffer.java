@@ -14,15 +14,16 @@
 
 package com.google.android.stardroid.renderer.util;
 
+import android.opengl.GLES20;
+
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.IntBuffer;
+import java.nio.FloatBuffer;
 
 import javax.microedition.khronos.opengles.GL10;
 import javax.microedition.khronos.opengles.GL11;
 
 import com.google.android.stardroid.math.Vector3;
-import com.google.android.stardroid.util.FixedPoint;
 
 public class VertexBuffer {
 
@@ -50,7 +51,18 @@ public class VertexBuffer {
     return mNumVertices;
   }
 
+  // For positions which are updated often: resetting to the same number of vertices then rewrites
+  // them in place, and only the values which change are uploaded.
+  public void setDynamic(boolean dynamic) {
+    mDynamic = dynamic;
+    mGLBuffer.setDynamic(dynamic);
+  }
+
   public void reset(int numVertices) {
+    if (mDynamic && numVertices == mNumVertices && mPositionBuffer != null) {
+      mPositionBuffer.position(0);
+      return;
+    }
     mNumVertices = numVertices;
     regenerateBuffer();
   }
@@ -66,12 +78,25 @@ public class VertexBuffer {
 
   public void addPoint(float x, float y, float z) {
     if (mPositionBuffer == null) return;
-    mPositionBuffer.put(FixedPoint.floatToFixedPoint(x));
-    mPositionBuffer.put(FixedPoint.floatToFixedPoint(y));
-    mPositionBuffer.put(FixedPoint.floatToFixedPoint(z));
+    put(x);
+    put(y);
+    put(z);
+  }
+
+  private void put(float value) {
+    int index = mPositionBuffer.position();
+    if (mDynamic && mPositionBuffer.get(index) != value) {
+      mGLBuffer.invalidate(index, 1);
+    }
+    mPositionBuffer.put(value);
   }
 
   public void set(GL10 gl) {
+    set(gl, 0);
+  }
+
+  // Sets the array to start at the given vertex.
+  public void set(GL10 gl, int firstVertex) {
     if (mNumVertices == 0) {
       return;
     }
@@ -81,9 +106,34 @@ public class VertexBuffer {
     if (mUseVBO && GLBuffer.canUseVBO()) {
       GL11 gl11 = (GL11)gl;
       mGLBuffer.bind(gl11, mPositionBuffer, 4 * mPositionBuffer.capacity());
-      gl11.glVertexPointer(3, GL10.GL_FIXED, 0, 0);
+      gl11.glVertexPointer(3, GL10.GL_FLOAT, 0, 12 * firstVertex);
+    } else {
+      mPositionBuffer.position(3 * firstVertex);
+      gl.glVertexPointer(3, GL10.GL_FLOAT, 0, mPositionBuffer);
+    }
+  }
+
+  // Sets the positions as the given vertex attribute of the GLES 2.0 backend.
+  public void setAttribute(int location) {
+    setAttribute(location, 0);
+  }
+
+  // Sets the attribute to start at the given vertex.
+  public void setAttribute(int location, int firstVertex) {
+    if (mNumVertices == 0) {
+      return;
+    }
+
+    mPositionBuffer.position(0);
+
+    GLES20.glEnableVertexAttribArray(location);
+    if (mUseVBO && GLBuffer.canUseVBO()) {
+      mGLBuffer.bind(mPositionBuffer, 4 * mPositionBuffer.capacity());
+      GLES20.glVertexAttribPointer(location, 3, GLES20.GL_FLOAT, false, 0, 12 * firstVertex);
     } else {
-      gl.glVertexPointer(3, GL10.GL_FIXED, 0, mPositionBuffer);
+      GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+      mPositionBuffer.position(3 * firstVertex);
+      GLES20.glVertexAttribPointer(location, 3, GLES20.GL_FLOAT, false, 0, mPositionBuffer);
     }
   }
 
@@ -94,13 +144,14 @@ public class VertexBuffer {
 
     ByteBuffer bb = ByteBuffer.allocateDirect(4 * 3 * mNumVertices);
     bb.order(ByteOrder.nativeOrder());
-    IntBuffer ib = bb.asIntBuffer();
-    ib.position(0);
-    mPositionBuffer = ib;
+    FloatBuffer fb = bb.asFloatBuffer();
+    fb.position(0);
+    mPositionBuffer = fb;
   }
 
-  private IntBuffer mPositionBuffer = null;
+  private FloatBuffer mPositionBuffer = null;
   private int mNumVertices = 0;
   private GLBuffer mGLBuffer = new GLBuffer(GL11.GL_ARRAY_BUFFER);
   private boolean mUseVBO = false;
+  private boolean mDynamic = false;
 }
@@ -0,0 +1,113 @@
+// Copyright 2026 Penterakt LLC.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.android.stardroid.renderer.util;
+
+import com.google.android.stardroid.math.Matrix4x4;
+import com.google.android.stardroid.math.Vector3;
+
+import java.util.List;
+
+/**
+ * The sides of the view, for culling objects on the CPU before they're submitted.
+ *
+ * <p>The planes are taken from the transform to device coordinates, so they're in whichever frame
+ * that transform starts from, and they bound exactly what is on the screen.  Everything in the sky
+ * is on the unit sphere around the eye, so only the four sides are tested: the near and far
+ * planes never cut it.
+ */
+public class ViewFrustum {
+  // The left, right, bottom and top planes, each as (a, b, c, d) with ax + by + cz + d the
+  // distance of (x, y, z) inside the plane.
+  private final float[] mPlanes = new float[16];
+  private Matrix4x4 mTransform = null;
+
+  /** Takes the planes from the given transform, unless it's the one they were last taken from. */
+  public void setTransform(Matrix4x4 transformToDevice) {
+    if (transformToDevice == mTransform) {
+      return;
+    }
+    mTransform = transformToDevice;
+    float[] m = transformToDevice.getFloatArray();
+    // A point is on screen when -w <= x <= w and -w <= y <= w in clip coordinates, so each plane
+    // is the matrix's last row plus or minus its first or second.  The matrix is column major.
+    for (int i = 0; i < 4; i++) {
+      int row = i / 2;
+      float sign = i % 2 == 0 ? 1 : -1;
+      float a = m[3] + sign * m[row];
+      float b = m[7] + sign * m[4 + row];
+      float c = m[11] + sign * m[8 + row];
+      float d = m[15] + sign * m[12 + row];
+      float scale = 1 / (float) Math.sqrt(a * a + b * b + c * c);
+      mPlanes[4 * i] = a * scale;
+      mPlanes[4 * i + 1] = b * scale;
+      mPlanes[4 * i + 2] = c * scale;
+      mPlanes[4 * i + 3] = d * scale;
+    }
+  }
+
+  /** Whether any of the sphere with the given centre and radius may be on screen. */
+  public boolean intersectsSphere(float x, float y, float z, float radius) {
+    for (int i = 0; i < 16; i += 4) {
+      if (mPlanes[i] * x + mPlanes[i + 1] * y + mPlanes[i + 2] * z + mPlanes[i + 3] < -radius) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Computes a sphere bounding the given points, each grown by the given radius, and stores it as
+   * x, y, z and radius in bounds, from the given offset.  The points should be near the unit
+   * sphere: the centre is that of the cap around their mean direction which holds them all.
+   */
+  public static void computeBounds(List<Vector3> points, float pointRadius,
+                                   float[] bounds, int offset) {
+    float x = 0;
+    float y = 0;
+    float z = 0;
+    for (Vector3 p : points) {
+      x += p.x;
+      y += p.y;
+      z += p.z;
+    }
+    float length = (float) Math.sqrt(x * x + y * y + z * z);
+    float minCos = 0;
+    if (length > 1e-6f) {
+      x /= length;
+      y /= length;
+      z /= length;
+      minCos = 1;
+      for (Vector3 p : points) {
+        minCos = Math.min(minCos, (x * p.x + y * p.y + z * p.z) / Math.max(p.getLength(), 1e-6f));
+      }
+    }
+    // A cap of a hemisphere or more is bounded no better by its rim than by the whole sphere.
+    float scale = Math.max(0, minCos);
+    float cx = x * scale;
+    float cy = y * scale;
+    float cz = z * scale;
+    float maxDistanceSquared = 0;
+    for (Vector3 p : points) {
+      float dx = p.x - cx;
+      float dy = p.y - cy;
+      float dz = p.z - cz;
+      maxDistanceSquared = Math.max(maxDistanceSquared, dx * dx + dy * dy + dz * dz);
+    }
+    bounds[offset] = cx;
+    bounds[offset + 1] = cy;
+    bounds[offset + 2] = cz;
+    bounds[offset + 3] = (float) Math.sqrt(maxDistanceSquared) + pointRadius;
+  }
+}
@@ -15,7 +15,6 @@ import com.google.android.stardroid.base.TimeConstants
 import com.google.android.stardroid.math.*
 import kotlin.math.acos
 import kotlin.math.cos
-import kotlin.math.floor
 import kotlin.math.sin
 
 
@@ -62,8 +61,7 @@ abstract class CelestialObject {
         // formulation looks weird, it's using the properties of int arithmetic
         // so that (a / b) is really floor(a / b).
         val dayStart = now.timeInMillis / TimeConstants.MILLISECONDS_PER_DAY * TimeConstants.MILLISECONDS_PER_DAY - riseSetTime[Calendar.ZONE_OFFSET]
-        val riseSetUtMillis = (calcRiseSetTime(now.time, loc, indicator)
-                * TimeConstants.MILLISECONDS_PER_HOUR).toLong()
+        val riseSetUtMillis = (riseSetUt * TimeConstants.MILLISECONDS_PER_HOUR).toLong()
         var newTime = dayStart + riseSetUtMillis + riseSetTime[Calendar.ZONE_OFFSET]
         // If the newTime is before the current time, go forward 1 day.
         if (newTime < now.timeInMillis) {
@@ -85,50 +83,48 @@ abstract class CelestialObject {
 
     // Internally calculate the rise and set time of an object.
     // Returns a double, the number of hours through the day in UT.
+    // It's all in double precision, from the millisecond, so it converges in as few iterations
+    // as the motion of the body allows.
     private fun calcRiseSetTime(
         d: Date, loc: LatLong,
         indicator: RiseSetIndicator
     ): Double {
-        val cal = Calendar.getInstance(TimeZone.getTimeZone("UT"))
-        cal.time = d
-        val sign = if (indicator == RiseSetIndicator.RISE) 1.0f else -1.0f
-        var delta = 5.0f
-        var ut = 12.0f
+        val dayStart = Math.floorDiv(d.time, TimeConstants.MILLISECONDS_PER_DAY) *
+                TimeConstants.MILLISECONDS_PER_DAY
+        val sign = if (indicator == RiseSetIndicator.RISE) 1.0 else -1.0
+        var delta = 5.0
+        var ut = 12.0
         var counter = 0
         while (Math.abs(delta) > 0.008 && counter < MAX_ITERATIONS) {
-            cal[Calendar.HOUR_OF_DAY] = floor(ut).toInt()
-            val minutes: Float = (ut - floor(ut)) * 60.0f
-            cal[Calendar.MINUTE] = minutes.toInt()
-            cal[Calendar.SECOND] = ((minutes - floor(minutes)) * 60f).toInt()
+            val millis = dayStart + (ut * TimeConstants.MILLISECONDS_PER_HOUR).toLong()
 
             // Calculate the hour angle and declination of the planet.
             // TODO(serafini): Need to fix this for arbitrary RA/Dec locations.
-            val tmp = cal.time
-            val (ra, dec) = getRaDec(tmp)
+            val (ra, dec) = getRaDec(Date(millis))
 
             // GHA = GST - RA. (In degrees.)
-            val gst: Float = meanSiderealTime(tmp, 0f)
+            val gst = AstronomicalTime.at(millis).greenwichSiderealTime
             val gha = gst - ra
 
             // The value of -0.83 works for the diameter of the Sun and Moon. We
             // assume that other objects are simply points.
-            val bodySize = bodySize
-            val hourAngle = calculateHourAngle(bodySize, loc.latitude, dec)
-            delta = (gha + loc.longitude + sign * hourAngle) / 15.0f
-            while (delta < -24.0f) {
-                delta = delta + 24.0f
+            val hourAngle = calculateHourAngle(
+                bodySize.toDouble(), loc.latitude.toDouble(), dec.toDouble())
+            delta = (gha + loc.longitude + sign * hourAngle) / 15.0
+            while (delta < -24.0) {
+                delta = delta + 24.0
             }
-            while (delta > 24.0f) {
-                delta = delta - 24.0f
+            while (delta > 24.0) {
+                delta = delta - 24.0
             }
             ut = ut - delta
 
             // I think we need to normalize UT
-            while (ut < 0.0f) {
-                ut = ut + 24.0f
+            while (ut < 0.0) {
+                ut = ut + 24.0
             }
-            while (ut > 24.0f) {
-                ut = ut - 24.0f
+            while (ut > 24.0) {
+                ut = ut - 24.0
             }
             ++counter
         }
@@ -136,16 +132,15 @@ abstract class CelestialObject {
         // Return failure if we didn't converge.
         if (counter == MAX_ITERATIONS) {
             //Log.d(TAG, "Rise/Set calculation didn't converge.")
-            return (-1.0f).toDouble()
+            return -1.0
         }
 
         // TODO(serafini): Need to handle latitudes above 60
         // At latitudes above 60, we need to calculate the following:
         // sin h = sin phi sin delta + cos phi cos delta cos (gha + lambda)
-        return ut.toDouble()
+        return ut
     }
 
-
     // Calculates the hour angle of a given declination for the given location.
     // This is a helper application for the rise and set calculations. Its
     // probably not worth using as a general purpose method.
@@ -157,13 +152,19 @@ abstract class CelestialObject {
     open fun calculateHourAngle(
         altitude: Float, latitude: Float,
         declination: Float
-    ): Float {
-        val altRads: Float = altitude * DEGREES_TO_RADIANS
-        val latRads: Float = latitude * DEGREES_TO_RADIANS
-        val decRads: Float = declination * DEGREES_TO_RADIANS
-        val cosHa: Float =
+    ): Float = calculateHourAngle(
+        altitude.toDouble(), latitude.toDouble(), declination.toDouble()).toFloat()
+
+    private fun calculateHourAngle(
+        altitude: Double, latitude: Double,
+        declination: Double
+    ): Double {
+        val altRads = Math.toRadians(altitude)
+        val latRads = Math.toRadians(latitude)
+        val decRads = Math.toRadians(declination)
+        val cosHa =
             (sin(altRads) - sin(latRads) * sin(decRads)) /
                     (cos(latRads) * cos(decRads))
-        return RADIANS_TO_DEGREES * acos(cosHa)
+        return Math.toDegrees(acos(cosHa))
     }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026 Penterakt LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.stardroid.space
+
+/**
+ * Steps a body's position through time, as when time travel plays through days or weeks a second,
+ * by interpolating between full evaluations of its ephemeris rather than evaluating it afresh for
+ * every frame.
+ *
+ * The full evaluations, or anchors, are on a grid of [stepMillis], and a time is interpolated
+ * quadratically from the anchors at the start and end of its cell and the one before.  Moving on
+ * a cell evaluates only one new anchor, and since every anchor is a full evaluation the error
+ * never builds up.  A time far from the recent ones, as after a jump, is evaluated directly; a
+ * scrub on from there is stepped from the next time.
+ *
+ * Like the bodies, it isn't thread safe.
+ *
+ * @param stepMillis the grid spacing, short enough that the position is close to quadratic over
+ * three steps.
+ * @param evaluate writes the position at the given time, in milliseconds since the epoch.
+ */
+internal class EphemerisStepper(
+    private val stepMillis: Long,
+    private val evaluate: (Long, DoubleArray) -> Unit
+) {
+    private val anchorCells = LongArray(MAX_ANCHORS) { NO_CELL }
+    private val anchors = Array(MAX_ANCHORS) { DoubleArray(3) }
+    // When each anchor was last used, to replace the least recently used.
+    private val anchorUses = LongArray(MAX_ANCHORS)
+    private var uses = 0L
+    // The cells last evaluated directly, in case they're the start of a scrub.
+    private val recentCells = LongArray(MAX_RECENT) { NO_CELL }
+    private var nextRecent = 0
+
+    /** Writes the position at the given time into [out]. */
+    fun positionAt(millis: Long, out: DoubleArray) {
+        val cell = Math.floorDiv(millis, stepMillis)
+        var missing = 0
+        for (offset in -1..1) {
+            if (indexOf(cell + offset) < 0) {
+                missing++
+            }
+        }
+        if (missing > 1 && !isRecent(cell)) {
+            recentCells[nextRecent] = cell
+            nextRecent = (nextRecent + 1) % MAX_RECENT
+            evaluate(millis, out)
+            return
+        }
+        val before = anchor(cell - 1)
+        val at = anchor(cell)
+        val after = anchor(cell + 1)
+        val u = Math.floorMod(millis, stepMillis).toDouble() / stepMillis
+        for (i in 0..2) {
+            out[i] = at[i] + u * (after[i] - before[i]) / 2 +
+                u * u * (before[i] - 2 * at[i] + after[i]) / 2
+        }
+    }
+
+    private fun isRecent(cell: Long): Boolean {
+        for (recent in recentCells) {
+            if (recent != NO_CELL && Math.abs(recent - cell) <= 2) {
+                return true
+            }
+        }
+        return false
+    }
+
+    private fun indexOf(cell: Long): Int {
+        for (i in 0 until MAX_ANCHORS) {
+            if (anchorCells[i] == cell) {
+                return i
+            }
+        }
+        return -1
+    }
+
+    private fun anchor(cell: Long): DoubleArray {
+        var index = indexOf(cell)
+        if (index < 0) {
+            index = 0
+            for (i in 1 until MAX_ANCHORS) {
+                if (anchorUses[i] < anchorUses[index]) {
+                    index = i
+                }
+            }
+            anchorCells[index] = cell
+            evaluate(cell * stepMillis, anchors[index])
+        }
+        anchorUses[index] = ++uses
+        return anchors[index]
+    }
+
+    private companion object {
+        // Enough for a couple of scrubs at once, such as the Moon's phase now and a day on.
+        const val MAX_ANCHORS = 8
+        const val MAX_RECENT = 4
+        const val NO_CELL = Long.MIN_VALUE
+    }
+}
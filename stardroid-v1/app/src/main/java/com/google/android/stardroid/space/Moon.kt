@@ -10,18 +10,24 @@
 package com.google.android.stardroid.space
 
 import com.google.android.stardroid.R
+import com.google.android.stardroid.base.TimeConstants
 import com.google.android.stardroid.ephemeris.SolarSystemBody
 import com.google.android.stardroid.math.*
 import com.google.android.stardroid.math.MathUtils.asin
 import com.google.android.stardroid.math.MathUtils.atan2
-import com.google.android.stardroid.math.MathUtils.cos
-import com.google.android.stardroid.math.MathUtils.sin
 import java.util.*
 
 /**
  * A likely temporary class to represent the Moon.
+ *
+ * @param stepped whether to step the position through time with an [EphemerisStepper], for
+ * drawing it frame after frame, rather than evaluate the lunar series every time.
  */
-class Moon : EarthOrbitingObject(SolarSystemBody.Moon) {
+class Moon(stepped: Boolean = false) : EarthOrbitingObject(SolarSystemBody.Moon) {
+    private val stepper =
+        if (stepped) EphemerisStepper(STEP_MILLIS, ::evaluateGeocentricPosition) else null
+    private val geocentric = DoubleArray(3)
+
     override fun getRaDec(date: Date): RaDec {
         val (l, m, n) = geocentricDirectionCosines(date)
         val ra: Float = mod2pi(atan2(m, l)) * RADIANS_TO_DEGREES
@@ -36,19 +42,13 @@ class Moon : EarthOrbitingObject(SolarSystemBody.Moon) {
      *
      * The geocentric position and Earth-Moon distance both come from [geocentricEclipticPosition]
      * (Meeus, *Astronomical Algorithms*, 2nd ed., ch. 47); the observer sits one Earth radius out
-     * at `(cos(lat) cos(lst), cos(lat) sin(lst), sin(lat))` in the same equatorial frame, with
-     * local sidereal time from [meanSiderealTime].
+     * at `(cos(lat) cos(lst), cos(lat) sin(lst), sin(lat))` in the same equatorial frame, the
+     * zenith of [AstronomicalTime.horizontalFrame].
      */
     fun getTopocentricRaDec(date: Date, location: LatLong): RaDec {
-        val position = geocentricEclipticPosition(date)
-        val geocentric = eclipticToEquatorialCosines(position)
-        val distanceEarthRadii = (position.distanceKm / EARTH_EQUATORIAL_RADIUS_KM).toFloat()
-        val lstRad = meanSiderealTime(date, location.longitude) * DEGREES_TO_RADIANS
-        val latRad = location.latitude * DEGREES_TO_RADIANS
-        val observerFromGeocenter = Vector3(
-            cos(latRad) * cos(lstRad), cos(latRad) * sin(lstRad), sin(latRad)
-        )
-        val topocentric = geocentric * distanceEarthRadii - observerFromGeocenter
+        val (x, y, z) = geocentricPosition(date)
+        val observerFromGeocenter = AstronomicalTime.at(date).horizontalFrame(location).zenith
+        val topocentric = Vector3(x.toFloat(), y.toFloat(), z.toFloat()) - observerFromGeocenter
         return RaDec.fromGeocentricCoords(topocentric)
     }
 
@@ -56,8 +56,34 @@ class Moon : EarthOrbitingObject(SolarSystemBody.Moon) {
      * The geocentric equatorial direction cosines (l, m, n) as a [Vector3], derived from the
      * apparent ecliptic longitude/latitude of [geocentricEclipticPosition].
      */
-    private fun geocentricDirectionCosines(date: Date): Vector3 =
-        eclipticToEquatorialCosines(geocentricEclipticPosition(date))
+    private fun geocentricDirectionCosines(date: Date): Vector3 {
+        val (x, y, z) = geocentricPosition(date)
+        val distance = Math.sqrt(x * x + y * y + z * z)
+        return Vector3((x / distance).toFloat(), (y / distance).toFloat(),
+            (z / distance).toFloat())
+    }
+
+    /**
+     * The geocentric equatorial position in Earth radii, from the stepper if there is one.  The
+     * returned array is reused.
+     */
+    private fun geocentricPosition(date: Date): DoubleArray {
+        if (stepper != null) {
+            stepper.positionAt(date.time, geocentric)
+        } else {
+            evaluateGeocentricPosition(date.time, geocentric)
+        }
+        return geocentric
+    }
+
+    private fun evaluateGeocentricPosition(millis: Long, out: DoubleArray) {
+        val position = geocentricEclipticPosition(Date(millis))
+        val (l, m, n) = eclipticToEquatorialCosines(position)
+        val distanceEarthRadii = position.distanceKm / EARTH_EQUATORIAL_RADIUS_KM
+        out[0] = l * distanceEarthRadii
+        out[1] = m * distanceEarthRadii
+        out[2] = n * distanceEarthRadii
+    }
 
     /**
      * Geocentric apparent ecliptic longitude, latitude and Earth-Moon distance of the Moon,
@@ -171,7 +197,8 @@ class Moon : EarthOrbitingObject(SolarSystemBody.Moon) {
      * [geocentricEclipticPosition].
      */
     override fun getTrueAngularRadius(time: Date): Float {
-        val distanceKm = geocentricEclipticPosition(time).distanceKm
+        val (x, y, z) = geocentricPosition(time)
+        val distanceKm = Math.sqrt(x * x + y * y + z * z) * EARTH_EQUATORIAL_RADIUS_KM
         val ratio = (SolarSystemBody.Moon.meanRadiusKm / distanceKm).toFloat().coerceIn(-1f, 1f)
         return asin(ratio)
     }
@@ -234,6 +261,12 @@ class Moon : EarthOrbitingObject(SolarSystemBody.Moon) {
         /** Mean equatorial radius of the Earth in km, matching the horizontal-parallax convention. */
         const val EARTH_EQUATORIAL_RADIUS_KM = 6378.14
 
+        /**
+         * The stepper's grid.  The Moon's position is so close to quadratic over it that stepping
+         * is good to half an arcsecond, well within the accuracy of the series.
+         */
+        const val STEP_MILLIS = 3 * TimeConstants.MILLISECONDS_PER_HOUR
+
         /**
          * Meeus table 47.A: multiples of (D, M, M', F), then the longitude coefficient
          * (1e-6 degrees) and the distance coefficient (1e-3 km).
@@ -69,7 +69,7 @@ abstract class SolarSystemObject(protected val solarSystemBody : SolarSystemBody
             val moonRaDec: RaDec = this.getRaDec(time)
             val moon: Vector3 = getGeocentricCoords(moonRaDec)
             val sunCoords: Vector3 =
-                heliocentricCoordinatesFromOrbitalElements(SolarSystemBody.Earth.getOrbitalElements(time))
+                SolarSystemBody.Earth.getHeliocentricCoordinates(time)
             val sunRaDec = fromGeocentricCoords(sunCoords)
             val (x, y, z) = getGeocentricCoords(sunRaDec)
             return 180.0f -
@@ -78,11 +78,11 @@ abstract class SolarSystemObject(protected val solarSystemBody : SolarSystemBody
 
         // First, determine position in the solar system.
         val planetCoords: Vector3 =
-            heliocentricCoordinatesFromOrbitalElements(solarSystemBody.getOrbitalElements(time))
+            solarSystemBody.getHeliocentricCoordinates(time)
 
         // Second, determine position relative to Earth
         val earthCoords: Vector3 =
-            heliocentricCoordinatesFromOrbitalElements(SolarSystemBody.Earth.getOrbitalElements(time))
+            SolarSystemBody.Earth.getHeliocentricCoordinates(time)
         val earthDistance = planetCoords.distanceFrom(earthCoords)
 
         // Finally, calculate the phase of the body.
@@ -115,9 +115,9 @@ abstract class SolarSystemObject(protected val solarSystemBody : SolarSystemBody
      */
     open fun getTrueAngularRadius(time: Date): Float {
         val planetCoords =
-            heliocentricCoordinatesFromOrbitalElements(solarSystemBody.getOrbitalElements(time))
+            solarSystemBody.getHeliocentricCoordinates(time)
         val earthCoords =
-            heliocentricCoordinatesFromOrbitalElements(SolarSystemBody.Earth.getOrbitalElements(time))
+            SolarSystemBody.Earth.getHeliocentricCoordinates(time)
         val earthDistanceKm = planetCoords.distanceFrom(earthCoords) * KM_PER_AU
         return MathUtils.asin((solarSystemBody.meanRadiusKm / earthDistanceKm).coerceIn(-1f, 1f))
     }
@@ -131,11 +131,11 @@ abstract class SolarSystemObject(protected val solarSystemBody : SolarSystemBody
      */
     open fun getMagnitude(time: Date): Float {
         // First, determine position in the solar system.
-        val planetCoords = heliocentricCoordinatesFromOrbitalElements(solarSystemBody.getOrbitalElements(time))
+        val planetCoords = solarSystemBody.getHeliocentricCoordinates(time)
 
         // Second, determine position relative to Earth
         val earthCoords =
-            heliocentricCoordinatesFromOrbitalElements(SolarSystemBody.Earth.getOrbitalElements(time))
+            SolarSystemBody.Earth.getHeliocentricCoordinates(time)
         val earthDistance = planetCoords.distanceFrom(earthCoords)
 
         // Third, calculate the phase of the body.
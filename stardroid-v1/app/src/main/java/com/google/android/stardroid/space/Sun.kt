@@ -11,9 +11,7 @@ package com.google.android.stardroid.space
 
 import com.google.android.stardroid.ephemeris.SolarSystemBody
 import com.google.android.stardroid.math.RaDec
-import com.google.android.stardroid.math.Vector3
 import com.google.android.stardroid.math.MathUtils
-import com.google.android.stardroid.math.heliocentricCoordinatesFromOrbitalElements
 import com.google.android.stardroid.math.julianCenturiesTerrestrial
 import java.util.*
 
@@ -57,9 +55,6 @@ class Sun : SunOrbitingObject(SolarSystemBody.Sun) {
         return RaDec(((ra + 360.0) % 360.0).toFloat(), dec.toFloat())
     }
 
-    override fun getMyHeliocentricCoordinates(date: Date) =
-        Vector3(0.0f, 0.0f, 0.0f)
-
     // TODO(serafini): For now, return semi-reasonable values for the Sun and
     // Moon. We shouldn't call this method for those bodies, but we want to do
     // something sane if we do.
@@ -69,7 +64,7 @@ class Sun : SunOrbitingObject(SolarSystemBody.Sun) {
     // the base SolarSystemObject calculation; use Earth's distance from the Sun instead.
     override fun getTrueAngularRadius(time: Date): Float {
         val earthCoords =
-            heliocentricCoordinatesFromOrbitalElements(SolarSystemBody.Earth.getOrbitalElements(time))
+            SolarSystemBody.Earth.getHeliocentricCoordinates(time)
         val earthDistanceKm = earthCoords.length * KM_PER_AU
         return MathUtils.asin((SolarSystemBody.Sun.meanRadiusKm / earthDistanceKm).coerceIn(-1f, 1f))
     }
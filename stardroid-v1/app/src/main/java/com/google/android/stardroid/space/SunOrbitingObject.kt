@@ -10,26 +10,46 @@
 package com.google.android.stardroid.space
 
 import com.google.android.stardroid.ephemeris.SolarSystemBody
+import com.google.android.stardroid.ephemeris.heliocentricPositions
+import com.google.android.stardroid.base.TimeConstants
+import com.google.android.stardroid.math.AstronomicalTime
 import com.google.android.stardroid.math.RaDec
+import com.google.android.stardroid.math.Vector3
 import com.google.android.stardroid.math.convertToEquatorialCoordinates
-import com.google.android.stardroid.math.heliocentricCoordinatesFromOrbitalElements
 import java.util.*
 
 /**
  * An object that orbits the sun.
  */
-open class SunOrbitingObject(solarSystemBody : SolarSystemBody) : SolarSystemObject(solarSystemBody) {
+open class SunOrbitingObject(solarSystemBody : SolarSystemBody, stepped: Boolean = false) :
+    SolarSystemObject(solarSystemBody) {
+    private val stepper =
+        if (stepped) EphemerisStepper(STEP_MILLIS, ::evaluateGeocentricPosition) else null
+    private val geocentric = DoubleArray(3)
+    // The Earth's and this body's heliocentric positions, worked out together.
+    private val bodies = arrayOf(SolarSystemBody.Earth, solarSystemBody)
+    private val julianCenturies = DoubleArray(1)
+    private val heliocentric = DoubleArray(6)
+
     override fun getRaDec(date: Date): RaDec {
-        val earthCoords =
-            heliocentricCoordinatesFromOrbitalElements(SolarSystemBody.Earth.getOrbitalElements(date))
-        val myCoords = getMyHeliocentricCoordinates(date)
-        myCoords -= earthCoords
-        val equ = convertToEquatorialCoordinates(myCoords)
-        return RaDec.fromGeocentricCoords(equ)
+        if (stepper != null) {
+            stepper.positionAt(date.time, geocentric)
+        } else {
+            evaluateGeocentricPosition(date.time, geocentric)
+        }
+        val (x, y, z) = geocentric
+        return RaDec.fromGeocentricCoords(Vector3(x.toFloat(), y.toFloat(), z.toFloat()))
     }
 
-    protected open fun getMyHeliocentricCoordinates(date: Date) =
-        heliocentricCoordinatesFromOrbitalElements(solarSystemBody.getOrbitalElements(date))
+    /** Writes the geocentric equatorial position, in AU. */
+    private fun evaluateGeocentricPosition(millis: Long, out: DoubleArray) {
+        julianCenturies[0] = AstronomicalTime.at(millis).julianCenturies
+        heliocentricPositions(bodies, julianCenturies, heliocentric)
+        for (i in 0..2) {
+            out[i] = heliocentric[i + 3] - heliocentric[i]
+        }
+        convertToEquatorialCoordinates(out)
+    }
 
     /////////////////////
 
@@ -44,4 +64,12 @@ open class SunOrbitingObject(solarSystemBody : SolarSystemBody) : SolarSystemObj
     override fun getImageResourceId(time: Date): Int {
         return solarSystemBody.imageResourceId
     }
-}
\ No newline at end of file
+
+    private companion object {
+        /**
+         * The stepper's grid.  Seen from the Earth, even Mercury's position is so close to
+         * quadratic over it that stepping is good to a few arcseconds.
+         */
+        const val STEP_MILLIS = 12 * TimeConstants.MILLISECONDS_PER_HOUR
+    }
+}
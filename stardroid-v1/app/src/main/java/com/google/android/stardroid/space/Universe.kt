@@ -19,20 +19,23 @@ import java.util.*
  *
  * Initially this is going to be a facade to calculating positions etc of objects - akin to
  * the functions that are in the RaDec class at the moment. Might be a temporary shim.
+ *
+ * @param stepped whether the Moon and planets step their positions through time, for a caller
+ * that asks for them frame after frame; see [EphemerisStepper].
  */
-class Universe {
+class Universe(stepped: Boolean = false) {
     /**
      * A map from the planet enum to the corresponding CelestialObject. Possibly just
      * a temporary shim.
      */
     private val solarSystemObjectMap: MutableMap<SolarSystemBody, SolarSystemObject> = HashMap()
     private val sun = Sun()
-    private val moon = Moon()
+    private val moon = Moon(stepped)
 
     init {
         for (planet in SolarSystemBody.values()) {
             if (planet != SolarSystemBody.Moon && planet != SolarSystemBody.Sun) {
-                solarSystemObjectMap.put(planet, SunOrbitingObject(planet))
+                solarSystemObjectMap.put(planet, SunOrbitingObject(planet, stepped))
             }
         }
         solarSystemObjectMap.put(SolarSystemBody.Moon, moon)
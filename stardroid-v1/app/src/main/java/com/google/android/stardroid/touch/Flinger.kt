@@ -18,65 +18,52 @@ package com.google.android.stardroid.touch
 
 import android.util.Log
 import com.google.android.stardroid.util.MiscUtil.getTag
-import java.util.concurrent.Executors
-import java.util.concurrent.ScheduledExecutorService
-import java.util.concurrent.ScheduledFuture
-import java.util.concurrent.TimeUnit
+import kotlin.math.exp
+import kotlin.math.ln
 
 /**
  * Given a flung motion event, this class pumps new Motion events out
  * to simulate an underlying object with some inertia.
  */
-class Flinger(private val listener: (Float, Float) -> Unit) {
-  private val updatesPerSecond = 20
-  private val timeIntervalMillis = 1000 / updatesPerSecond
-  private val executor: ScheduledExecutorService
-  private var flingTask: ScheduledFuture<*>? = null
+class Flinger(
+  private val animator: FrameAnimator,
+  private val listener: (Float, Float) -> Unit
+) : FrameAnimator.Animation {
+  private var velocityX = 0f
+  private var velocityY = 0f
+
   fun fling(velocityX: Float, velocityY: Float) {
     Log.d(TAG, "Doing the fling")
-    class PositionUpdater(private var myVelocityX: Float, private var myVelocityY: Float) :
-      Runnable {
-      private val decelFactor = 1.1f
-      private val TOL = 10f
-      override fun run() {
-        if (myVelocityX * myVelocityX + myVelocityY * myVelocityY < TOL) {
-          stop()
-        }
-        listener(
-          myVelocityX / updatesPerSecond,
-          myVelocityY / updatesPerSecond
-        )
-        myVelocityX /= decelFactor
-        myVelocityY /= decelFactor
-      }
-    }
-    flingTask = executor.scheduleAtFixedRate(
-      PositionUpdater(velocityX, velocityY),
-      0, timeIntervalMillis.toLong(), TimeUnit.MILLISECONDS
-    )
+    this.velocityX = velocityX
+    this.velocityY = velocityY
+    animator.start(this)
   }
 
   /**
    * Brings the flinger to a dead stop.
    */
   fun stop() {
-    flingTask?.cancel(true)
+    animator.stop(this)
     Log.d(TAG, "Fling stopped")
   }
 
-  /**
-   * Shuts down the executor. Call from the owning component's destroy/cleanup.
-   */
-  fun shutdown() {
-    stop()
-    executor.shutdown()
+  override fun step(elapsedSeconds: Float): Boolean {
+    if (velocityX * velocityX + velocityY * velocityY < TOL) {
+      return false
+    }
+    // The velocity decays exponentially, so the distance covered is what it loses over the rate.
+    val decay = exp(-DECELERATION_RATE * elapsedSeconds)
+    val distanceFactor = (1 - decay) / DECELERATION_RATE
+    listener(velocityX * distanceFactor, velocityY * distanceFactor)
+    velocityX *= decay
+    velocityY *= decay
+    return true
   }
 
   companion object {
     private val TAG = getTag(Flinger::class.java)
+    // Per second: as when the velocity was divided by 1.1 at each of 20 steps a second.
+    private val DECELERATION_RATE = 20 * ln(1.1f)
+    private const val TOL = 10f
   }
-
-  init {
-    executor = Executors.newScheduledThreadPool(1)
-  }
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026 Penterakt LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.stardroid.touch
+
+import android.view.Choreographer
+import com.google.android.stardroid.base.VisibleForTesting
+import dagger.hilt.android.scopes.ActivityScoped
+import javax.inject.Inject
+
+/**
+ * Advances time-based animations once per display frame, by the time since the last one, so that
+ * they move smoothly at whatever rate the display refreshes.  They run on the main thread, where
+ * the gestures they continue are handled, and frames are only asked for while something is
+ * animating.
+ */
+@ActivityScoped
+class FrameAnimator @Inject constructor() : Choreographer.FrameCallback {
+    /** Something that changes over time. */
+    fun interface Animation {
+        /** Advances by the given number of seconds, and returns whether there's more to do. */
+        fun step(elapsedSeconds: Float): Boolean
+    }
+
+    private val animations = ArrayList<Animation>()
+    // The animations being stepped, so that they can start and stop each other meanwhile.
+    private val stepping = ArrayList<Animation>()
+    private var lastFrameNanos = 0L
+    private var frameRequested = false
+
+    /** Starts the animation from the next frame, unless it's already running. */
+    fun start(animation: Animation) {
+        if (animation in animations) {
+            return
+        }
+        if (animations.isEmpty()) {
+            // Choreographer's frame times are on this clock.
+            lastFrameNanos = System.nanoTime()
+        }
+        animations.add(animation)
+        if (!frameRequested) {
+            frameRequested = true
+            Choreographer.getInstance().postFrameCallback(this)
+        }
+    }
+
+    /** Stops the animation where it is. */
+    fun stop(animation: Animation) {
+        animations.remove(animation)
+    }
+
+    /** Whether the animation has been started and not yet finished or been stopped. */
+    fun isRunning(animation: Animation) = animation in animations
+
+    /** Stops all the animations, as when the activity is destroyed. */
+    fun stopAll() {
+        animations.clear()
+        if (frameRequested) {
+            frameRequested = false
+            Choreographer.getInstance().removeFrameCallback(this)
+        }
+    }
+
+    override fun doFrame(frameTimeNanos: Long) {
+        frameRequested = false
+        advance(frameTimeNanos)
+        if (animations.isNotEmpty()) {
+            frameRequested = true
+            Choreographer.getInstance().postFrameCallback(this)
+        }
+    }
+
+    /** Steps the animations to the given frame time, on the same clock as [System.nanoTime]. */
+    @VisibleForTesting
+    fun advance(frameTimeNanos: Long) {
+        // The frame's time is when its vsync was, which can be a little before an animation started.
+        val elapsedSeconds =
+            ((frameTimeNanos - lastFrameNanos) * 1e-9f).coerceIn(0f, MAX_STEP_SECONDS)
+        lastFrameNanos = maxOf(lastFrameNanos, frameTimeNanos)
+        stepping.addAll(animations)
+        for (animation in stepping) {
+            if (animation in animations && !animation.step(elapsedSeconds)) {
+                animations.remove(animation)
+            }
+        }
+        stepping.clear()
+    }
+
+    companion object {
+        // After a long stall, animations jump on by no more than this rather than all at once.
+        private const val MAX_STEP_SECONDS = 0.1f
+    }
+}
@@ -41,6 +41,7 @@ import com.google.android.stardroid.util.AnalyticsInterface
  */
 class GestureInterpreter(
   private val mapMover: MapMover,
+  private val frameAnimator: FrameAnimator,
   private val objectInfoTapHandler: ObjectInfoTapHandler? = null,
   private val preferences: SharedPreferences,
   private val toaster: Toaster,
@@ -57,7 +58,7 @@ class GestureInterpreter(
     val screenHeight: Int
   }
 
-  private val flinger = Flinger { distanceX: Float, distanceY: Float ->
+  private val flinger = Flinger(frameAnimator) { distanceX: Float, distanceY: Float ->
     mapMover.onDrag(
       distanceX,
       distanceY
@@ -126,7 +127,7 @@ class GestureInterpreter(
   }
 
   fun destroy() {
-    flinger.shutdown()
+    frameAnimator.stopAll()
     mapMover.destroy()
   }
 
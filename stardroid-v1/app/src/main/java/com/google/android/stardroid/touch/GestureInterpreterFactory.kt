@@ -20,6 +20,7 @@ import javax.inject.Inject
 @ActivityScoped
 class GestureInterpreterFactory @Inject constructor(
     val mapMover: MapMover,
+    val frameAnimator: FrameAnimator,
     val objectInfoTapHandler: ObjectInfoTapHandler?,
     val preferences: SharedPreferences,
     val toaster: Toaster,
@@ -31,6 +32,7 @@ class GestureInterpreterFactory @Inject constructor(
     ): GestureInterpreter {
         return GestureInterpreter(
             mapMover,
+            frameAnimator,
             objectInfoTapHandler,
             preferences,
             toaster,
@@ -14,10 +14,8 @@ import com.google.android.stardroid.control.AstronomerModel
 import com.google.android.stardroid.math.RADIANS_TO_DEGREES
 import com.google.android.stardroid.math.calculateRotationMatrix
 import com.google.android.stardroid.util.MiscUtil.getTag
-import java.util.concurrent.Executors
-import java.util.concurrent.ScheduledExecutorService
-import java.util.concurrent.ScheduledFuture
-import java.util.concurrent.TimeUnit
+import kotlin.math.exp
+import kotlin.math.ln
 
 /**
  * After a one-finger drag gesture, gently springs the horizon back to
@@ -25,47 +23,31 @@ import java.util.concurrent.TimeUnit
  */
 class HorizonLeveler(
     private val model: AstronomerModel,
+    private val animator: FrameAnimator,
     private val rotationCallback: (Float) -> Unit
-) {
-    private val updatesPerSecond = 20
-    private val timeIntervalMillis = 1000L / updatesPerSecond
-    private val springFactor = 0.20f
-    private val executor: ScheduledExecutorService = Executors.newScheduledThreadPool(1)
-    private var levelTask: ScheduledFuture<*>? = null
+) : FrameAnimator.Animation {
 
     fun start() {
-        stop()
         Log.d(TAG, "Starting horizon leveler")
-        levelTask = executor.scheduleAtFixedRate(
-            ::step, 0, timeIntervalMillis, TimeUnit.MILLISECONDS
-        )
+        animator.start(this)
     }
 
     fun stop() {
-        levelTask?.cancel(true)
-        levelTask = null
+        animator.stop(this)
     }
 
-    /**
-     * Shuts down the executor. Call from the owning component's destroy/cleanup.
-     */
-    fun shutdown() {
-        stop()
-        executor.shutdown()
-    }
-
-    private fun step() {
+    override fun step(elapsedSeconds: Float): Boolean {
         val angle = computeMisalignmentDegrees()
         if (kotlin.math.abs(angle) < 0.1f) {
             Log.d(TAG, "Horizon level reached, stopping leveler")
-            stop()
-            return
+            return false
         }
         // Negate: calculateRotationMatrix uses a transposed (CW) convention, so a positive
         // angle here would rotate *away* from the target.  The sign flip mirrors what
         // MapMover.onRotate already does when forwarding gesture rotations.
-        val delta = -angle * springFactor
+        val delta = -angle * (1 - exp(-SPRING_RATE * elapsedSeconds))
         rotationCallback(delta)
+        return true
     }
 
     /**
@@ -105,5 +87,8 @@ class HorizonLeveler(
 
     companion object {
         private val TAG = getTag(HorizonLeveler::class.java)
+        // Per second: as when a fifth of the misalignment was taken out at each of 20 steps a
+        // second.
+        private val SPRING_RATE = -20 * ln(0.8f)
     }
 }
@@ -40,10 +40,12 @@ class MapMover @Inject constructor(
   private val model: AstronomerModel,
   private val controllerGroup: ControllerGroup,
   @ActivityContext context: Context,
-  private val sharedPreferences: SharedPreferences
+  private val sharedPreferences: SharedPreferences,
+  frameAnimator: FrameAnimator
 ) : DragRotateZoomGestureDetectorListener {
   private val sizeTimesRadiansToDegrees: Float
-  private val horizonLeveler = HorizonLeveler(model) { deg -> controllerGroup.rotate(deg) }
+  private val horizonLeveler =
+    HorizonLeveler(model, frameAnimator) { deg -> controllerGroup.rotate(deg) }
 
   override fun onDrag(xPixels: Float, yPixels: Float): Boolean {
     // Log.d(TAG, "Dragging by " + xPixels + ", " + yPixels);
@@ -76,7 +78,7 @@ class MapMover @Inject constructor(
   }
 
   fun destroy() {
-    horizonLeveler.shutdown()
+    horizonLeveler.stop()
   }
 
   companion object {
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026 Penterakt LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.stardroid.util
+
+import android.os.Process
+import java.util.Collections
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Delayed
+import java.util.concurrent.Future
+import java.util.concurrent.FutureTask
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledThreadPoolExecutor
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import javax.inject.Inject
+import javax.inject.Singleton
+
+/**
+ * The app's background threads, shared in named lanes of bounded size.  Each lane's threads
+ * are started as they're first needed and then kept, so they don't churn, and run at a priority
+ * below the GL and main threads'.  Every lane keeps count of its queue and how long its tasks
+ * waited to start, for the diagnostics.
+ */
+@Singleton
+class AppExecutors @Inject constructor() {
+    /** A kind of background work, with its own threads. */
+    enum class Lane(internal val threadName: String, internal val threads: Int,
+                    internal val priority: Int) {
+        /** Loading from assets, files and the network, which mostly waits. */
+        IO("io", 2, Process.THREAD_PRIORITY_BACKGROUND)
+    }
+
+    /** A snapshot of a lane's load. */
+    class LaneStats(
+        /** Tasks waiting for a thread, not counting those scheduled for later. */
+        val queued: Int,
+        val completed: Long,
+        val meanWaitMillis: Float,
+        val maxWaitMillis: Float
+    )
+
+    private val executors = Lane.values().map { LaneExecutor(it) }
+    private val pausable = Collections.newSetFromMap(ConcurrentHashMap<Future<*>, Boolean>())
+
+    /** The lane's executor, for work that should run to completion. */
+    operator fun get(lane: Lane): ScheduledExecutorService = executors[lane.ordinal]
+
+    /**
+     * Runs the task on the lane, unless [cancelPausable] is called first, as when the activity is
+     * paused and its result would no longer be wanted.
+     */
+    fun executeUntilPause(lane: Lane, task: Runnable): Future<*> {
+        val future = object : FutureTask<Unit>(task, Unit) {
+            override fun done() {
+                pausable.remove(this)
+            }
+        }
+        pausable.add(future)
+        executors[lane.ordinal].execute(future)
+        return future
+    }
+
+    /** Cancels the tasks started with [executeUntilPause] that haven't finished. */
+    fun cancelPausable() {
+        for (future in pausable) {
+            future.cancel(true)
+        }
+    }
+
+    fun stats(lane: Lane) = executors[lane.ordinal].stats()
+
+    private class LaneExecutor(lane: Lane) :
+        ScheduledThreadPoolExecutor(lane.threads, LaneThreadFactory(lane)) {
+        private var waits = 0L
+        private var totalWaitNanos = 0L
+        private var maxWaitNanos = 0L
+
+        init {
+            removeOnCancelPolicy = true
+        }
+
+        override fun beforeExecute(t: Thread, r: Runnable) {
+            super.beforeExecute(t, r)
+            // How long after it was due the task started, which for one to run straight away is
+            // how long it was queued.
+            val waitNanos = maxOf(0L, -(r as Delayed).getDelay(TimeUnit.NANOSECONDS))
+            synchronized(this) {
+                waits++
+                totalWaitNanos += waitNanos
+                maxWaitNanos = maxOf(maxWaitNanos, waitNanos)
+            }
+        }
+
+        @Synchronized
+        fun stats(): LaneStats {
+            val due = queue.count { (it as Delayed).getDelay(TimeUnit.NANOSECONDS) <= 0 }
+            return LaneStats(
+                due,
+                completedTaskCount,
+                if (waits == 0L) 0f else totalWaitNanos * 1e-6f / waits,
+                maxWaitNanos * 1e-6f
+            )
+        }
+    }
+
+    private class LaneThreadFactory(private val lane: Lane) : ThreadFactory {
+        private val count = AtomicInteger()
+
+        override fun newThread(r: Runnable) =
+            Thread({
+                Process.setThreadPriority(lane.priority)
+                r.run()
+            }, "stardroid-${lane.threadName}-${count.incrementAndGet()}")
+    }
+}
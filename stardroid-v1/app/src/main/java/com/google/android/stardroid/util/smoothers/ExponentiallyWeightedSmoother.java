@@ -13,7 +13,6 @@
 // limitations under the License.
 package com.google.android.stardroid.util.smoothers;
 
-import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
 import android.util.Log;
@@ -42,10 +41,12 @@ public class ExponentiallyWeightedSmoother extends SensorSmoother {
 
   @Override
   public void onSensorChanged(SensorEvent sensorEvent) {
-    Sensor sensor = sensorEvent.sensor;
-    float[] values = sensorEvent.values;
-
+    smooth(sensorEvent.values);
+    listener.onSensorChanged(sensorEvent);
+  }
 
+  /** Smooths the first three values in place. */
+  void smooth(float[] values) {
     for (int i = 0; i < 3; ++i) {
       last[i] = current[i];
       float diff = values[i] - last[i];
@@ -56,9 +57,7 @@ public class ExponentiallyWeightedSmoother extends SensorSmoother {
       if (correction > MathUtils.abs(diff) ||
           correction < -MathUtils.abs(diff)) correction = diff;
       current[i] = last[i] + correction;
-      sensorEvent.values[i] = current[i];
+      values[i] = current[i];
     }
-
-    listener.onSensorChanged(sensorEvent);
   }
 }
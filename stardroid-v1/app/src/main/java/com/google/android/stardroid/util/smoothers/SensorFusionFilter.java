@@ -0,0 +1,289 @@
+// Copyright 2026 Penterakt LLC.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.android.stardroid.util.smoothers;
+
+/**
+ * Fuses the accelerometer and magnetometer, and the gyroscope if there is one, into steady
+ * estimates of the acceleration and magnetic field in the phone's frame.
+ *
+ * <p>Each vector has its own Kalman filter.  When the gyroscope is used it turns the estimates with
+ * the phone between measurements, and the measurements only correct its drift and, through its
+ * bias, learn how to drift less.  Otherwise each vector is modelled as moving with a velocity that
+ * changes at random, more so while the innovations show the phone being turned.  The measurement
+ * noise isn't fixed but learnt from the second differences of the readings, which a steady turn
+ * hardly changes, so how hard the readings are smoothed follows how noisy the sensors actually
+ * are.
+ *
+ * <p>Nothing is allocated per sample.
+ */
+public class SensorFusionFilter {
+  // Gaps between samples longer than this are treated as this long.
+  private static final double MAX_SAMPLE_INTERVAL_SECONDS = 0.5;
+  // How much of each correction's implied turn rate is put down to the gyroscope's bias.
+  private static final double GYRO_BIAS_GAIN = 0.1;
+
+  private final VectorFilter acceleration;
+  private final VectorFilter magneticField;
+  private long lastGyroNanos;
+  private boolean hasGyro = false;
+  // The gyroscope's estimated bias, in radians per second, subtracted from its readings.
+  private double biasX;
+  private double biasY;
+  private double biasZ;
+
+  /**
+   * @param measurementNoiseScale how much more noisy than it seems each measurement is taken to
+   *     be.  1 follows the learnt noise; more trades lag for steadiness.
+   */
+  public SensorFusionFilter(float measurementNoiseScale) {
+    // Initial noises of about a twentieth of a g and half a microtesla.
+    acceleration = new VectorFilter(2.5e-3, 1e-6, measurementNoiseScale);
+    magneticField = new VectorFilter(0.25, 1e-4, measurementNoiseScale);
+  }
+
+  /** Adds an accelerometer reading, in m/s^2, taken at the given time in nanoseconds. */
+  public void onAcceleration(long timestampNanos, float x, float y, float z) {
+    acceleration.update(timestampNanos, x, y, z, hasGyro);
+    estimateGyroBias(acceleration);
+  }
+
+  /** Adds a magnetometer reading, in microtesla, taken at the given time in nanoseconds. */
+  public void onMagneticField(long timestampNanos, float x, float y, float z) {
+    magneticField.update(timestampNanos, x, y, z, hasGyro);
+    estimateGyroBias(magneticField);
+  }
+
+  /**
+   * Adds a gyroscope reading, in radians per second about the phone's axes, taken at the given
+   * time in nanoseconds.  The estimates are turned by it for the time since the previous one.
+   */
+  public void onGyroscope(long timestampNanos, float x, float y, float z) {
+    if (hasGyro) {
+      double dt = (timestampNanos - lastGyroNanos) * 1e-9;
+      if (dt > 0 && dt <= MAX_SAMPLE_INTERVAL_SECONDS) {
+        float wx = (float) (x - biasX);
+        float wy = (float) (y - biasY);
+        float wz = (float) (z - biasZ);
+        acceleration.rotate(wx, wy, wz, dt);
+        magneticField.rotate(wx, wy, wz, dt);
+      }
+    }
+    lastGyroNanos = timestampNanos;
+    hasGyro = true;
+  }
+
+  /**
+   * A gyroscope reading too fast leaves the estimates turned too far, and each measurement turns
+   * them back a little.  Those turns, as rates, are added up into the bias, as the integral term of
+   * a complementary filter.  Each vector only shows turns about the axes across it.
+   */
+  private void estimateGyroBias(VectorFilter filter) {
+    if (hasGyro && filter.correctionSeconds > 0) {
+      double gain = GYRO_BIAS_GAIN / filter.correctionSeconds;
+      biasX += gain * filter.correctionX;
+      biasY += gain * filter.correctionY;
+      biasZ += gain * filter.correctionZ;
+    }
+  }
+
+  /** Writes the estimated acceleration into the first three elements of out. */
+  public void getAcceleration(float[] out) {
+    acceleration.get(out);
+  }
+
+  /** Writes the estimated magnetic field into the first three elements of out. */
+  public void getMagneticField(float[] out) {
+    magneticField.get(out);
+  }
+
+  /**
+   * A Kalman filter for one vector, with the same error in every direction.  Without the gyroscope
+   * it tracks the vector's velocity too, so that a steady turn is followed without lag; with it,
+   * the gyroscope moves the vector and the filter only corrects its drift.
+   */
+  private static class VectorFilter {
+    // How quickly the measurement noise estimate and the mean innovation follow new evidence, per
+    // sample.
+    private static final double MEASUREMENT_NOISE_RATE = 0.02;
+    private static final double INNOVATION_RATE = 0.1;
+    // The mean innovation's squared length, relative to the innovation's variance, expected of
+    // noise alone: rate / (2 - rate).
+    private static final double STILL_INNOVATION_BIAS = INNOVATION_RATE / (2 - INNOVATION_RATE);
+    // The random angular acceleration, in radians per second squared, modelled while the phone is
+    // held still.  The process noise is raised from it, by up to the given factor, while the
+    // innovations show the phone turning.
+    private static final double STILL_ANGULAR_ACCELERATION = 0.01;
+    private static final double MAX_PROCESS_NOISE_SCALE = 10000;
+    // How quickly, in radians per root second, the gyroscope's estimate is taken to wander.
+    private static final double GYRO_DRIFT = 0.0005;
+
+    private final double minMeasurementNoise;
+    private final double measurementNoiseScale;
+
+    private double x;
+    private double y;
+    private double z;
+    private double vx;
+    private double vy;
+    private double vz;
+    // Per component: the covariance of the estimate and its velocity, and the measurement noise.
+    private double p00;
+    private double p01;
+    private double p11;
+    private double measurementNoise;
+    // The innovations, averaged: near zero while the model keeps up, even if they're noisy.
+    private double meanEx;
+    private double meanEy;
+    private double meanEz;
+
+    // The turn, as a rotation vector, by which the last measurement corrected the vector, and over
+    // how long since the one before.
+    double correctionX;
+    double correctionY;
+    double correctionZ;
+    double correctionSeconds;
+
+    private long lastNanos;
+    private int samples = 0;
+    // The last two readings, for their second differences.
+    private double x1;
+    private double y1;
+    private double z1;
+    private double x2;
+    private double y2;
+    private double z2;
+
+    VectorFilter(double initialMeasurementNoise, double minMeasurementNoise,
+                 double measurementNoiseScale) {
+      this.measurementNoise = initialMeasurementNoise;
+      this.minMeasurementNoise = minMeasurementNoise;
+      this.measurementNoiseScale = measurementNoiseScale;
+    }
+
+    void update(long timestampNanos, float mx, float my, float mz, boolean turnedByGyro) {
+      if (samples == 0) {
+        x = mx;
+        y = my;
+        z = mz;
+        p00 = measurementNoise * measurementNoiseScale;
+        p11 = p00;
+      } else {
+        double dt = Math.min(Math.max((timestampNanos - lastNanos) * 1e-9, 0),
+            MAX_SAMPLE_INTERVAL_SECONDS);
+        if (samples >= 2) {
+          // For white noise of variance r, each component of the second difference has variance
+          // 6r, and a steady turn hardly adds to it.
+          double dx = mx - 2 * x1 + x2;
+          double dy = my - 2 * y1 + y2;
+          double dz = mz - 2 * z1 + z2;
+          double noiseSample = (dx * dx + dy * dy + dz * dz) / 18;
+          measurementNoise += MEASUREMENT_NOISE_RATE * (noiseSample - measurementNoise);
+          measurementNoise = Math.max(measurementNoise, minMeasurementNoise);
+        }
+        // The process noises are angular, so scale with the vector's length.
+        double length2 = x * x + y * y + z * z;
+        if (turnedByGyro) {
+          vx = 0;
+          vy = 0;
+          vz = 0;
+          p00 += GYRO_DRIFT * GYRO_DRIFT * length2 * dt;
+          p01 = 0;
+          p11 = 0;
+        } else {
+          x += vx * dt;
+          y += vy * dt;
+          z += vz * dt;
+          // The process noise is raised when the innovations stop averaging out, as the phone
+          // starts or stops turning, and lowered while they do, so that it's steady when still.
+          double innovationVariance = p00 + measurementNoise * measurementNoiseScale;
+          double bias = (meanEx * meanEx + meanEy * meanEy + meanEz * meanEz)
+              / (3 * innovationVariance);
+          double ratio = bias / STILL_INNOVATION_BIAS;
+          double scale = Math.min(Math.max(ratio * ratio, 1), MAX_PROCESS_NOISE_SCALE);
+          double q = STILL_ANGULAR_ACCELERATION * STILL_ANGULAR_ACCELERATION * length2 * scale;
+          p00 += dt * (2 * p01 + dt * p11) + q * dt * dt * dt / 3;
+          p01 += dt * p11 + q * dt * dt / 2;
+          p11 += q * dt;
+        }
+        double s = p00 + measurementNoise * measurementNoiseScale;
+        double k0 = p00 / s;
+        double k1 = p01 / s;
+        double ex = mx - x;
+        double ey = my - y;
+        double ez = mz - z;
+        meanEx += INNOVATION_RATE * (ex - meanEx);
+        meanEy += INNOVATION_RATE * (ey - meanEy);
+        meanEz += INNOVATION_RATE * (ez - meanEz);
+        x += k0 * ex;
+        y += k0 * ey;
+        z += k0 * ez;
+        vx += k1 * ex;
+        vy += k1 * ey;
+        vz += k1 * ez;
+        p11 -= k1 * p01;
+        p00 -= k0 * p00;
+        p01 -= k0 * p01;
+        // For a small correction, the turn is the vector crossed with its change, over its length
+        // squared.
+        double turnScale = k0 / length2;
+        correctionX = turnScale * (y * ez - z * ey);
+        correctionY = turnScale * (z * ex - x * ez);
+        correctionZ = turnScale * (x * ey - y * ex);
+        correctionSeconds = dt;
+      }
+      x2 = x1;
+      y2 = y1;
+      z2 = z1;
+      x1 = mx;
+      y1 = my;
+      z1 = mz;
+      lastNanos = timestampNanos;
+      if (samples < 2) {
+        samples++;
+      }
+    }
+
+    /**
+     * Turns the vector as it's seen from a phone turning at the given angular velocity for the
+     * given time: the opposite way to the phone.
+     */
+    void rotate(float wx, float wy, float wz, double dt) {
+      double rate = Math.sqrt(wx * wx + wy * wy + wz * wz);
+      double angle = -rate * dt;
+      if (rate < 1e-9 || samples == 0) {
+        return;
+      }
+      double kx = wx / rate;
+      double ky = wy / rate;
+      double kz = wz / rate;
+      double cos = Math.cos(angle);
+      double sin = Math.sin(angle);
+      double dot = (kx * x + ky * y + kz * z) * (1 - cos);
+      // Rodrigues' formula.
+      double rx = x * cos + (ky * z - kz * y) * sin + kx * dot;
+      double ry = y * cos + (kz * x - kx * z) * sin + ky * dot;
+      double rz = z * cos + (kx * y - ky * x) * sin + kz * dot;
+      x = rx;
+      y = ry;
+      z = rz;
+    }
+
+    void get(float[] out) {
+      out[0] = (float) x;
+      out[1] = (float) y;
+      out[2] = (float) z;
+    }
+  }
+}
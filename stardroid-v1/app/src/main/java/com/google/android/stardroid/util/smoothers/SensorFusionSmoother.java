@@ -0,0 +1,54 @@
+// Copyright 2026 Penterakt LLC.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.android.stardroid.util.smoothers;
+
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+
+/**
+ * Smooths the accelerometer and magnetometer together with a {@link SensorFusionFilter}, which the
+ * gyroscope also feeds if it's registered for.  Only the smoothed accelerometer and magnetometer
+ * events are passed on.
+ */
+public class SensorFusionSmoother extends SensorSmoother {
+  private final SensorFusionFilter filter;
+
+  public SensorFusionSmoother(SensorEventListener listener, float measurementNoiseScale) {
+    super(listener);
+    filter = new SensorFusionFilter(measurementNoiseScale);
+  }
+
+  @Override
+  public void onSensorChanged(SensorEvent sensorEvent) {
+    float[] values = sensorEvent.values;
+    switch (sensorEvent.sensor.getType()) {
+      case Sensor.TYPE_ACCELEROMETER:
+        filter.onAcceleration(sensorEvent.timestamp, values[0], values[1], values[2]);
+        filter.getAcceleration(values);
+        break;
+      case Sensor.TYPE_MAGNETIC_FIELD:
+        filter.onMagneticField(sensorEvent.timestamp, values[0], values[1], values[2]);
+        filter.getMagneticField(values);
+        break;
+      case Sensor.TYPE_GYROSCOPE:
+        filter.onGyroscope(sensorEvent.timestamp, values[0], values[1], values[2]);
+        return;
+      default:
+        return;
+    }
+    listener.onSensorChanged(sensorEvent);
+  }
+}
@@ -0,0 +1,88 @@
+package com.google.android.stardroid.control
+
+import android.hardware.GeomagneticField
+import com.google.android.stardroid.math.LatLong
+import com.google.common.truth.Truth.assertThat
+import java.util.Random
+import kotlin.math.abs
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class CachedMagneticDeclinationCalculatorTest {
+    @Test
+    fun getDeclination_matchesDirectEvaluation() {
+        val calculator = CachedMagneticDeclinationCalculator()
+        val random = Random(1)
+        var worst = 0f
+        repeat(500) {
+            // Away from the magnetic poles, where the declination swings wildly over a cell.
+            val latitude = random.nextFloat() * 140f - 70f
+            val longitude = random.nextFloat() * 360f - 180f
+            val time = JAN_2020 + (random.nextDouble() * 5 * YEAR_MILLIS).toLong()
+
+            calculator.setLocationAndTime(LatLong(latitude, longitude), time)
+
+            val direct = GeomagneticField(latitude, longitude, 0f, time).declination
+            worst = maxOf(worst, angleBetween(calculator.declination, direct))
+        }
+        assertThat(worst).isLessThan(0.25f)
+    }
+
+    @Test
+    fun setLocationAndTime_scrubbingThroughTime_reusesSamples() {
+        val model = CountingModel()
+        val calculator = CachedMagneticDeclinationCalculator(model)
+        val location = LatLong(51.5f, -0.1f)
+
+        // An hour at a time, for a year and back again.
+        for (hour in 0..365 * 24) {
+            calculator.setLocationAndTime(location, JAN_2020 + hour * HOUR_MILLIS)
+        }
+        for (hour in 365 * 24 downTo 0) {
+            calculator.setLocationAndTime(location, JAN_2020 + hour * HOUR_MILLIS)
+        }
+
+        // The four corners at each of the cell boundaries the year spans.
+        assertThat(model.evaluations).isAtMost(4 * 6)
+    }
+
+    @Test
+    fun setLocationAndTime_acrossAWrapInDeclination_interpolatesTheShortWay() {
+        // East of the meridian the declination is 179 degrees, west of it -179.
+        val calculator = CachedMagneticDeclinationCalculator { _, longitude, _ ->
+            if (longitude > 0) 179f else -179f
+        }
+
+        calculator.setLocationAndTime(LatLong(80f, 0.5f), JAN_2020)
+
+        assertThat(abs(calculator.declination)).isWithin(1e-3f).of(180f)
+    }
+
+    @Test
+    fun getDeclination_beforeLocationAndTimeAreSet_isZero() {
+        assertThat(CachedMagneticDeclinationCalculator(CountingModel()).declination)
+            .isEqualTo(0f)
+    }
+
+    private class CountingModel : CachedMagneticDeclinationCalculator.DeclinationModel {
+        var evaluations = 0
+
+        override fun getDeclination(latitude: Float, longitude: Float, timeInMillis: Long): Float {
+            evaluations++
+            return latitude / 10 + longitude / 20 + timeInMillis / YEAR_MILLIS.toFloat()
+        }
+    }
+
+    companion object {
+        private const val HOUR_MILLIS = 60 * 60 * 1000L
+        private const val YEAR_MILLIS = 365 * 24 * HOUR_MILLIS
+        private const val JAN_2020 = 1577836800000L
+
+        private fun angleBetween(a: Float, b: Float): Float {
+            val difference = abs(a - b) % 360f
+            return minOf(difference, 360f - difference)
+        }
+    }
+}
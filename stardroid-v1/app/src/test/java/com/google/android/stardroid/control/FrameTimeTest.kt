@@ -0,0 +1,93 @@
+package com.google.android.stardroid.control
+
+import com.google.android.stardroid.math.LatLong
+import com.google.android.stardroid.math.Vector3
+import com.google.android.stardroid.math.julianDay
+import com.google.common.truth.Truth.assertThat
+import java.util.GregorianCalendar
+import java.util.TimeZone
+import org.junit.Test
+
+class FrameTimeTest {
+    private fun utc(year: Int, month: Int, day: Int, hour: Int, minute: Int, second: Int) =
+        GregorianCalendar(TimeZone.getTimeZone("UTC")).apply {
+            set(year, month, day, hour, minute, second)
+            set(GregorianCalendar.MILLISECOND, 0)
+        }.time
+
+    @Test
+    fun julianDay_agreesWithCalendarCalculation() {
+        val date = utc(2009, 2, 20, 12, 7, 24)
+        assertThat(FrameTime(date.time).julianDay).isWithin(1e-8).of(julianDay(date))
+    }
+
+    // The same cases as SiderealTimeRegressionTest.
+    @Test
+    fun siderealTime_matchesReferenceValues() {
+        val zero = FrameTime(utc(2009, 2, 20, 12, 7, 24).time)
+        assertThat(zero.greenwichSiderealTime).isWithin(ANGULAR_TOL).of(0f)
+        assertThat(zero.localSiderealTime(90f)).isWithin(ANGULAR_TOL).of(90f)
+
+        val j2000 = FrameTime(utc(2000, 0, 1, 0, 0, 0).time)
+        // 6:39:51.
+        val expected = (6f + 39f / 60 + 51f / 60 / 60) / 24 * 360
+        assertThat(j2000.greenwichSiderealTime).isWithin(ANGULAR_TOL).of(expected)
+    }
+
+    @Test
+    fun localSiderealTime_westOfGreenwich_isNormalized() {
+        val zero = FrameTime(utc(2009, 2, 20, 12, 7, 24).time)
+        assertThat(zero.localSiderealTime(-90f)).isWithin(ANGULAR_TOL).of(270f)
+    }
+
+    @Test
+    fun date_isSharedAndMatchesMillis() {
+        val frameTime = FrameTime(1234567890123L)
+        assertThat(frameTime.date.time).isEqualTo(1234567890123L)
+        assertThat(frameTime.date).isSameInstanceAs(frameTime.date)
+    }
+
+    @Test
+    fun beginFrame_snapshotsClockUntilNextFrame() {
+        var now = 1000L
+        val model = AstronomerModelImpl(ZeroMagneticDeclinationCalculator())
+        model.setClock { now }
+
+        now = 2000L
+        assertThat(model.frameTime.millis).isEqualTo(1000L)
+
+        model.beginFrame()
+        assertThat(model.frameTime.millis).isEqualTo(2000L)
+    }
+
+    @Test
+    fun setLocation_offFrame_readsClock() {
+        var now = 1000L
+        val model = AstronomerModelImpl(ZeroMagneticDeclinationCalculator())
+        model.setClock { now }
+
+        now = 2000L
+        model.location = LatLong(51.5f, 0f)
+
+        assertThat(model.frameTime.millis).isEqualTo(2000L)
+    }
+
+    @Test
+    fun getPointing_manual_doesNotDependOnTime() {
+        var now = 1000L
+        val model = AstronomerModelImpl(ZeroMagneticDeclinationCalculator())
+        model.setClock { now }
+        model.setAutoUpdatePointing(false)
+        model.setPointing(Vector3(1f, 0f, 0f), Vector3(0f, 0f, 1f))
+
+        now += 6 * 60 * 60 * 1000L
+        model.beginFrame()
+
+        assertThat(model.pointing.lineOfSight).isEqualTo(Vector3(1f, 0f, 0f))
+        assertThat(model.pointing.perpendicular).isEqualTo(Vector3(0f, 0f, 1f))
+    }
+
+    companion object {
+        private const val ANGULAR_TOL = 1e-1f
+    }
+}
@@ -13,6 +13,7 @@ import android.app.Activity
 import android.content.SharedPreferences
 import com.google.android.stardroid.ApplicationConstants
 import com.google.android.stardroid.math.LatLong
+import com.google.android.stardroid.util.AppExecutors
 import com.google.common.truth.Truth.assertThat
 import org.junit.Before
 import org.junit.Test
@@ -27,7 +28,6 @@ import org.mockito.Mockito.`when`
 import org.mockito.MockitoAnnotations
 import org.robolectric.RobolectricTestRunner
 import org.robolectric.RuntimeEnvironment
-import java.util.concurrent.ScheduledExecutorService
 
 @RunWith(RobolectricTestRunner::class)
 class LocationControllerTest {
@@ -37,7 +37,7 @@ class LocationControllerTest {
     @Mock private lateinit var activity: Activity
     @Mock private lateinit var preferences: SharedPreferences
     @Mock private lateinit var prefEditor: SharedPreferences.Editor
-    @Mock private lateinit var backgroundExecutor: ScheduledExecutorService
+    @Mock private lateinit var executors: AppExecutors
 
     private lateinit var controller: LocationController
 
@@ -56,7 +56,7 @@ class LocationControllerTest {
         `when`(locationProvider.isAvailable()).thenReturn(true)
 
         controller = LocationController(
-            locationProvider, astronomerModel, preferences, backgroundExecutor, activity)
+            locationProvider, astronomerModel, preferences, executors, activity)
         controller.setModel(astronomerModel)
     }
 
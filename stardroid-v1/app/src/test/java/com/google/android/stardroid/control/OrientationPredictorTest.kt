@@ -0,0 +1,194 @@
+package com.google.android.stardroid.control
+
+import com.google.common.truth.Truth.assertThat
+import java.util.Random
+import kotlin.math.abs
+import kotlin.math.acos
+import kotlin.math.cos
+import kotlin.math.min
+import kotlin.math.sin
+import org.junit.Test
+
+/**
+ * Replays synthetic rotation vector traces through the predictor and compares what it predicts for
+ * each frame with where the phone actually is when the frame is seen.
+ */
+class OrientationPredictorTest {
+    @Test
+    fun predict_noSamples_leavesOutputAlone() {
+        val out = floatArrayOf(1f, 2f, 3f, 4f)
+        OrientationPredictor().predict(0L, out)
+        assertThat(out.toList()).containsExactly(1f, 2f, 3f, 4f).inOrder()
+    }
+
+    @Test
+    fun predict_stationary_isLatestSample() {
+        val predictor = OrientationPredictor()
+        val q = orientation(0.3, 0.0)
+        predictor.addSample(0L, q)
+        predictor.addSample(SAMPLE_INTERVAL_NANOS, q)
+
+        val out = FloatArray(4)
+        predictor.predict(SAMPLE_INTERVAL_NANOS, out)
+
+        assertThat(angleBetween(out, q)).isWithin(1e-5).of(0.0)
+    }
+
+    @Test
+    fun replay_steadyPan_beatsLatestSample() {
+        val errors = replay(OrientationPredictor()) { t -> orientation(1.5 * t, 0.2) }
+        assertThat(errors.predicted).isLessThan(errors.latest / 10)
+    }
+
+    @Test
+    fun replay_noisyJitteryPan_beatsLatestSample() {
+        val random = Random(42)
+        val errors = replay(OrientationPredictor(), random, jitterNanos = 3_000_000L,
+            noiseRadians = 0.002) { t -> orientation(1.0 * t, 0.4 * t) }
+        assertThat(errors.predicted).isLessThan(errors.latest / 2)
+    }
+
+    @Test
+    fun replay_panThatReverses_stillBeatsLatestSample() {
+        // Sweeping back and forth across 30 degrees about once a second.
+        val errors = replay(OrientationPredictor()) { t -> orientation(0.25 * sin(6.0 * t), 0.0) }
+        assertThat(errors.predicted).isLessThan(errors.latest)
+    }
+
+    @Test
+    fun predict_sensorStopped_leadIsClamped() {
+        val predictor = OrientationPredictor()
+        val rate = 2.0
+        for (i in 0..10) {
+            val t = i * SAMPLE_INTERVAL_NANOS
+            predictor.addSample(t, orientation(rate * t * 1e-9, 0.0))
+        }
+        val latestNanos = 10 * SAMPLE_INTERVAL_NANOS
+        val out = FloatArray(4)
+
+        // A second after the last sample, it's only extrapolated as far as the lead allows.
+        predictor.predict(latestNanos + 1_000_000_000L, out)
+
+        val expected = orientation(rate * (latestNanos + predictor.maxLeadNanos) * 1e-9, 0.0)
+        assertThat(angleBetween(out, expected)).isLessThan(1e-3)
+    }
+
+    @Test
+    fun addSample_longGap_forgetsAngularVelocity() {
+        val predictor = OrientationPredictor()
+        predictor.addSample(0L, orientation(0.0, 0.0))
+        predictor.addSample(SAMPLE_INTERVAL_NANOS, orientation(0.05, 0.0))
+        val q = orientation(0.5, 0.0)
+        predictor.addSample(SAMPLE_INTERVAL_NANOS + 1_000_000_000L, q)
+
+        val out = FloatArray(4)
+        predictor.predict(SAMPLE_INTERVAL_NANOS + 1_000_000_000L, out)
+
+        assertThat(angleBetween(out, q)).isWithin(1e-5).of(0.0)
+    }
+
+    @Test
+    fun addSample_oppositeHemisphere_isTheSameOrientation() {
+        val predictor = OrientationPredictor()
+        for (i in 0..10) {
+            val q = orientation(0.5 * i * SAMPLE_INTERVAL_NANOS * 1e-9, 0.0)
+            if (i % 2 == 1) {
+                for (j in q.indices) q[j] = -q[j]
+            }
+            predictor.addSample(i * SAMPLE_INTERVAL_NANOS, q)
+        }
+        val out = FloatArray(4)
+        predictor.predict(10 * SAMPLE_INTERVAL_NANOS, out)
+
+        // Turning slowly, not flipping by nearly a whole turn every sample.
+        val expected = orientation(0.5 * (10 * SAMPLE_INTERVAL_NANOS + DEFAULT_LEAD) * 1e-9, 0.0)
+        assertThat(angleBetween(out, expected)).isLessThan(1e-3)
+    }
+
+    private class Errors(val predicted: Double, val latest: Double)
+
+    /**
+     * Feeds the predictor samples of the given motion, a function of time in seconds, and at each
+     * frame compares the prediction and the latest sample with the true orientation when the frame
+     * is seen.  Returns the mean angular errors.
+     */
+    private fun replay(
+        predictor: OrientationPredictor,
+        random: Random? = null,
+        jitterNanos: Long = 0,
+        noiseRadians: Double = 0.0,
+        motion: (Double) -> FloatArray
+    ): Errors {
+        var nextSampleNanos = 0L
+        var latest: FloatArray? = null
+        var predictedError = 0.0
+        var latestError = 0.0
+        var frames = 0
+        val out = FloatArray(4)
+        var frameNanos = 0L
+        while (frameNanos < 2_000_000_000L) {
+            while (nextSampleNanos <= frameNanos) {
+                val sample = motion(nextSampleNanos * 1e-9)
+                if (random != null) {
+                    addNoise(sample, random, noiseRadians)
+                }
+                predictor.addSample(nextSampleNanos, sample)
+                latest = sample
+                val jitter = if (random != null && jitterNanos > 0) {
+                    (random.nextDouble() * 2 - 1) * jitterNanos
+                } else {
+                    0.0
+                }
+                nextSampleNanos += SAMPLE_INTERVAL_NANOS + jitter.toLong()
+            }
+            // Skip the first frames, while the angular velocity settles.
+            if (frameNanos >= 200_000_000L) {
+                val seen = motion((frameNanos + predictor.horizonNanos) * 1e-9)
+                predictor.predict(frameNanos, out)
+                predictedError += angleBetween(out, seen)
+                latestError += angleBetween(latest!!, seen)
+                frames++
+            }
+            frameNanos += FRAME_INTERVAL_NANOS
+        }
+        return Errors(predictedError / frames, latestError / frames)
+    }
+
+    private fun addNoise(q: FloatArray, random: Random, radians: Double) {
+        for (i in 0..2) {
+            q[i] += (random.nextGaussian() * radians / 2).toFloat()
+        }
+    }
+
+    companion object {
+        private const val SAMPLE_INTERVAL_NANOS = 20_000_000L
+        private const val FRAME_INTERVAL_NANOS = 16_666_667L
+        private const val DEFAULT_LEAD = OrientationPredictor.DEFAULT_HORIZON_NANOS
+
+        /** Yaw about the phone's z axis, then pitch about its x axis, as x, y, z, w. */
+        private fun orientation(yaw: Double, pitch: Double): FloatArray {
+            val cy = cos(yaw / 2)
+            val sy = sin(yaw / 2)
+            val cp = cos(pitch / 2)
+            val sp = sin(pitch / 2)
+            // (0, 0, sy, cy) * (sp, 0, 0, cp).
+            return floatArrayOf(
+                (cy * sp).toFloat(),
+                (sy * sp).toFloat(),
+                (sy * cp).toFloat(),
+                (cy * cp).toFloat())
+        }
+
+        private fun angleBetween(a: FloatArray, b: FloatArray): Double {
+            var dot = 0.0
+            var na = 0.0
+            var nb = 0.0
+            for (i in 0..3) {
+                dot += a[i].toDouble() * b[i]
+                na += a[i].toDouble() * a[i]
+                nb += b[i].toDouble() * b[i]
+            }
+            return 2 * acos(min(1.0, abs(dot) / Math.sqrt(na * nb)))
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.google.android.stardroid.control
+
+import com.google.common.truth.Truth.assertThat
+import java.util.Random
+import kotlin.math.cos
+import kotlin.math.sin
+import org.junit.Test
+
+class StillnessDetectorTest {
+    private val detector = StillnessDetector()
+    private var nanos = 0L
+
+    @Test
+    fun addSample_steadyForLongEnough_becomesStill() {
+        feed(1.9) { 0.0 }
+        assertThat(detector.isStill).isFalse()
+
+        feed(0.2) { 0.0 }
+        assertThat(detector.isStill).isTrue()
+    }
+
+    @Test
+    fun addSample_sensorNoiseOnTripod_staysStill() {
+        val random = Random(3)
+        // About a fiftieth of a degree of noise.
+        feed(5.0) { random.nextGaussian() * 0.0003 }
+        assertThat(detector.isStill).isTrue()
+    }
+
+    @Test
+    fun addSample_slowPan_isNotStill() {
+        // About 6 degrees a second, as when following the sky by hand.
+        feed(5.0) { t -> 0.1 * t }
+        assertThat(detector.isStill).isFalse()
+    }
+
+    @Test
+    fun addSample_pickedUp_movesOnFirstFastSample() {
+        feed(3.0) { 0.0 }
+        assertThat(detector.isStill).isTrue()
+
+        val changed = detector.addSample(nanos, yaw(0.02))
+
+        assertThat(changed).isTrue()
+        assertThat(detector.isStill).isFalse()
+    }
+
+    @Test
+    fun addSample_reportsOnlyChanges() {
+        var changes = 0
+        feed(3.0, onChange = { changes++ }) { 0.0 }
+        feed(1.0, onChange = { changes++ }) { t -> 1.0 * t }
+        assertThat(changes).isEqualTo(2)
+    }
+
+    @Test
+    fun reset_forgetsStillness() {
+        feed(3.0) { 0.0 }
+        detector.reset()
+        assertThat(detector.isStill).isFalse()
+    }
+
+    /** Feeds samples at 50 Hz for the given time, yawed by the angle, a function of the time. */
+    private fun feed(seconds: Double, onChange: () -> Unit = {}, angle: (Double) -> Double) {
+        val end = nanos + (seconds * 1e9).toLong()
+        while (nanos < end) {
+            if (detector.addSample(nanos, yaw(angle(nanos * 1e-9)))) {
+                onChange()
+            }
+            nanos += SAMPLE_INTERVAL_NANOS
+        }
+    }
+
+    companion object {
+        private const val SAMPLE_INTERVAL_NANOS = 20_000_000L
+
+        /** A rotation vector, with its w component, for a turn about the phone's z axis. */
+        private fun yaw(radians: Double) =
+            floatArrayOf(0f, 0f, sin(radians / 2).toFloat(), cos(radians / 2).toFloat())
+    }
+}
@@ -0,0 +1,57 @@
+package com.google.android.stardroid.ephemeris
+
+import com.google.common.truth.Truth.assertThat
+import kotlin.math.atan
+import kotlin.math.sin
+import kotlin.math.sqrt
+import kotlin.math.tan
+import org.junit.Test
+
+class HeliocentricPositionsTest {
+    @Test
+    fun heliocentricPositions_batch_matchesOneAtATime() {
+        val bodies = arrayOf(SolarSystemBody.Earth, SolarSystemBody.Mars, SolarSystemBody.Jupiter)
+        val times = doubleArrayOf(-0.5, 0.0, 0.24, 0.5)
+        val batch = DoubleArray(3 * bodies.size * times.size)
+
+        heliocentricPositions(bodies, times, batch)
+
+        val single = DoubleArray(3)
+        for ((t, time) in times.withIndex()) {
+            for ((b, body) in bodies.withIndex()) {
+                heliocentricPositions(arrayOf(body), doubleArrayOf(time), single)
+                for (i in 0..2) {
+                    assertThat(batch[3 * (t * bodies.size + b) + i]).isEqualTo(single[i])
+                }
+            }
+        }
+    }
+
+    @Test
+    fun heliocentricPositions_earth_isAboutAnAuFromTheSun() {
+        val position = DoubleArray(3)
+
+        heliocentricPositions(arrayOf(SolarSystemBody.Earth), doubleArrayOf(0.24), position)
+
+        val (x, y, z) = position
+        assertThat(sqrt(x * x + y * y + z * z)).isWithin(0.02).of(1.0)
+        // It's the ecliptic frame of J2000, which the Earth has barely drifted from.
+        assertThat(z).isWithin(1e-4).of(0.0)
+    }
+
+    @Test
+    fun trueAnomaly_solvesKeplersEquation() {
+        for (e in doubleArrayOf(0.0, 0.0167, 0.2488, 0.9)) {
+            for (degrees in 0 until 360 step 15) {
+                val m = Math.toRadians(degrees.toDouble())
+
+                val v = trueAnomaly(m, e)
+
+                // Back to the eccentric anomaly, and through Kepler's equation to the mean.
+                val eccentric = 2 * atan(sqrt((1 - e) / (1 + e)) * tan(v / 2))
+                val residual = Math.IEEEremainder(eccentric - e * sin(eccentric) - m, 2 * Math.PI)
+                assertThat(residual).isWithin(1e-11).of(0.0)
+            }
+        }
+    }
+}
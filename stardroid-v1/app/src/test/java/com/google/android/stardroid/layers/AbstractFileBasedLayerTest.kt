@@ -0,0 +1,82 @@
+package com.google.android.stardroid.layers
+
+import com.google.android.stardroid.renderables.AbstractPrimitive.REGION_UNKNOWN
+import com.google.android.stardroid.renderer.util.SkyRegionMap
+import com.google.android.stardroid.source.proto.SourceProto.AstronomicalSourceProto
+import com.google.android.stardroid.source.proto.SourceProto.AstronomicalSourcesProto
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(manifest = Config.NONE)
+class AbstractFileBasedLayerTest {
+    private val numRegions = SkyRegionMap.REGION_CENTERS.size
+
+    /** Writes and reads back a catalog with the given number of sources in each bucket. */
+    private fun catalog(counts: IntArray): AstronomicalSourcesProto {
+        val builder = AstronomicalSourcesProto.newBuilder()
+        for (count in counts) {
+            builder.addRegionStart(builder.sourceCount)
+            repeat(count) { builder.addSource(AstronomicalSourceProto.getDefaultInstance()) }
+        }
+        return AstronomicalSourcesProto.parseFrom(builder.build().toByteArray())
+    }
+
+    private fun regionsOf(catalog: AstronomicalSourcesProto) =
+        AbstractFileBasedLayer.sourceRegions(catalog.regionStartList, catalog.sourceCount)
+
+    @Test
+    fun sourceRegions_indexed_followsRegionStarts() {
+        // Two in the first region, none in the next, one in the third and the last, and two
+        // spanning several regions.
+        val counts = IntArray(numRegions + 1)
+        counts[0] = 2
+        counts[2] = 1
+        counts[numRegions - 1] = 1
+        counts[numRegions] = 2
+
+        val regions = regionsOf(catalog(counts))
+
+        assertThat(regions.toList()).containsExactly(
+            0, 0, 2, numRegions - 1, REGION_UNKNOWN, REGION_UNKNOWN).inOrder()
+    }
+
+    @Test
+    fun sourceRegions_onlyMixed_areAllUnknown() {
+        val counts = IntArray(numRegions + 1)
+        counts[numRegions] = 3
+
+        assertThat(regionsOf(catalog(counts)).toList())
+            .containsExactly(REGION_UNKNOWN, REGION_UNKNOWN, REGION_UNKNOWN)
+    }
+
+    @Test
+    fun sourceRegions_noMixed_fillsEveryRegion() {
+        val counts = IntArray(numRegions + 1) { if (it < numRegions) 1 else 0 }
+
+        assertThat(regionsOf(catalog(counts)).toList())
+            .containsExactlyElementsIn(0 until numRegions).inOrder()
+    }
+
+    @Test
+    fun sourceRegions_noIndex_areAllUnknown() {
+        val catalog = AstronomicalSourcesProto.newBuilder()
+            .addSource(AstronomicalSourceProto.getDefaultInstance())
+            .addSource(AstronomicalSourceProto.getDefaultInstance())
+            .build()
+
+        assertThat(regionsOf(catalog).toList()).containsExactly(REGION_UNKNOWN, REGION_UNKNOWN)
+    }
+
+    @Test
+    fun sourceRegions_indexForOtherRegions_isIgnored() {
+        // An index written for a different set of regions can't be trusted.
+        val catalog = catalog(intArrayOf(1, 1, 1))
+
+        assertThat(regionsOf(catalog).toList())
+            .containsExactly(REGION_UNKNOWN, REGION_UNKNOWN, REGION_UNKNOWN)
+    }
+}
@@ -0,0 +1,62 @@
+package com.google.android.stardroid.layers
+
+import android.content.Context
+import com.google.android.stardroid.renderables.AbstractPrimitive.UpdateGranularity
+import com.google.android.stardroid.renderer.RendererController
+import com.google.android.stardroid.search.SearchResult
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(manifest = Config.NONE)
+class LayerManagerTest {
+    private val preferences = RuntimeEnvironment.getApplication()
+        .getSharedPreferences("LayerManagerTest", Context.MODE_PRIVATE)
+    private val layerManager = LayerManager(preferences).apply {
+        addLayer(FakeLayer("static", null))
+        addLayer(FakeLayer("planets", UpdateGranularity.Minute))
+        addLayer(FakeLayer("horizon", UpdateGranularity.Second))
+        addLayer(FakeLayer("meteors", UpdateGranularity.Day))
+    }
+
+    @Test
+    fun finestUpdateGranularity_allVisible_isFinestOfAll() {
+        assertThat(layerManager.finestUpdateGranularity).isEqualTo(UpdateGranularity.Second)
+    }
+
+    @Test
+    fun finestUpdateGranularity_layerHidden_ignoresIt() {
+        preferences.edit().putBoolean("horizon", false).commit()
+        assertThat(layerManager.finestUpdateGranularity).isEqualTo(UpdateGranularity.Minute)
+
+        preferences.edit().putBoolean("horizon", true).commit()
+        assertThat(layerManager.finestUpdateGranularity).isEqualTo(UpdateGranularity.Second)
+    }
+
+    @Test
+    fun finestUpdateGranularity_noTimedLayersVisible_isNull() {
+        preferences.edit()
+            .putBoolean("planets", false)
+            .putBoolean("horizon", false)
+            .putBoolean("meteors", false)
+            .commit()
+        assertThat(layerManager.finestUpdateGranularity).isNull()
+    }
+
+    private class FakeLayer(
+        override val preferenceId: String,
+        override val updateGranularity: UpdateGranularity?
+    ) : Layer {
+        override val layerDepthOrder = 0
+        override val layerName = preferenceId
+        override fun initialize() {}
+        override fun registerWithRenderer(rendererController: RendererController) {}
+        override fun setVisible(visible: Boolean) {}
+        override fun searchByObjectName(name: String) = emptyList<SearchResult>()
+        override fun getObjectNamesMatchingPrefix(prefix: String) = emptySet<String>()
+    }
+}
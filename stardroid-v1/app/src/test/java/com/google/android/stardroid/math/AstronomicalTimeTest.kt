@@ -0,0 +1,77 @@
+package com.google.android.stardroid.math
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+
+class AstronomicalTimeTest {
+    @Test
+    fun at_sameTime_isShared() {
+        assertThat(AstronomicalTime.at(JAN_2024)).isSameInstanceAs(AstronomicalTime.at(JAN_2024))
+    }
+
+    @Test
+    fun at_consecutiveTimes_areKeptTogether() {
+        val times = (0L until 4L).map { AstronomicalTime.at(JAN_2024 + it) }
+
+        for (i in times.indices) {
+            assertThat(AstronomicalTime.at(JAN_2024 + i)).isSameInstanceAs(times[i])
+        }
+    }
+
+    @Test
+    fun julianDay_keepsMilliseconds() {
+        val time = AstronomicalTime.at(JAN_2024 + 500)
+
+        assertThat(time.julianDay).isWithin(1e-9).of(2460310.5 + 500 / 86400000.0)
+    }
+
+    @Test
+    fun julianCenturiesTerrestrial_isAheadByDeltaT() {
+        val time = AstronomicalTime.at(JAN_2024)
+
+        assertThat(time.deltaTSeconds).isWithin(10.0).of(70.0)
+        assertThat((time.julianCenturiesTerrestrial - time.julianCenturies) * 36525 * 86400)
+            .isWithin(1e-3).of(time.deltaTSeconds)
+    }
+
+    @Test
+    fun horizontalFrame_zenithMatchesLocalSiderealTime() {
+        val time = AstronomicalTime.at(JAN_2024)
+        val location = LatLong(51.5f, -0.1f)
+
+        val zenith = time.horizontalFrame(location).zenith
+        val expected = getGeocentricCoords(
+            RaDec(time.localSiderealTime(location.longitude), location.latitude))
+
+        assertThat(zenith.x).isWithin(1e-6f).of(expected.x)
+        assertThat(zenith.y).isWithin(1e-6f).of(expected.y)
+        assertThat(zenith.z).isWithin(1e-6f).of(expected.z)
+    }
+
+    @Test
+    fun horizontalFrame_takesZenithAndPoleToUpAndNorth() {
+        val frame = AstronomicalTime.at(JAN_2024).horizontalFrame(LatLong(-33.9f, 18.4f))
+
+        val up = frame.equatorialToHorizontal * frame.zenith
+        assertThat(up.x).isWithin(1e-6f).of(0f)
+        assertThat(up.y).isWithin(1e-6f).of(1f)
+        assertThat(up.z).isWithin(1e-6f).of(0f)
+        // South of the equator the celestial pole is below the northern horizon.
+        val pole = frame.equatorialToHorizontal * Vector3.unitZ()
+        assertThat(pole.x).isGreaterThan(0f)
+        assertThat(pole.y).isLessThan(0f)
+        assertThat(pole.z).isWithin(1e-6f).of(0f)
+    }
+
+    @Test
+    fun horizontalFrame_sameLocation_isShared() {
+        val time = AstronomicalTime.at(JAN_2024)
+
+        assertThat(time.horizontalFrame(LatLong(10f, 20f)))
+            .isSameInstanceAs(time.horizontalFrame(LatLong(10f, 20f)))
+    }
+
+    companion object {
+        private const val JAN_2024 = 1704067200000L
+    }
+}
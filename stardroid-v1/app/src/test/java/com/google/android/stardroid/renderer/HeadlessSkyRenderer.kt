@@ -0,0 +1,43 @@
+package com.google.android.stardroid.renderer
+
+import android.content.res.Resources
+import com.google.android.stardroid.math.Vector3
+
+/**
+ * Runs a [SkyRenderer] on the JVM, drawing with the fixed-function path into a [RecordingGl], so
+ * that tests can check what it draws and how long a frame takes to build from a fixed view.
+ */
+class HeadlessSkyRenderer(
+    resources: Resources,
+    val width: Int = 480,
+    val height: Int = 800,
+    rasterize: Boolean = false
+) {
+    val recording = RecordingGl(width, height, rasterize)
+    val renderer = SkyRenderer(resources)
+
+    init {
+        renderer.onSurfaceCreated(recording.gl, null)
+        renderer.onSurfaceChanged(recording.gl, width, height)
+    }
+
+    /** Looks in the given direction with the given field of view, in degrees. */
+    fun setView(lookDir: Vector3, up: Vector3, fieldOfView: Float) {
+        renderer.setViewOrientation(lookDir.x, lookDir.y, lookDir.z, up.x, up.y, up.z)
+        renderer.setRadiusOfView(fieldOfView)
+    }
+
+    fun <T : RendererObjectManager> add(manager: T): T {
+        renderer.addObjectManager(manager)
+        return manager
+    }
+
+    /** Draws a frame, and returns what it took. */
+    fun drawFrame(): RecordingGl.FrameStats {
+        recording.beginFrame()
+        val start = System.nanoTime()
+        renderer.onDrawFrame(recording.gl)
+        recording.stats.buildNanos = System.nanoTime() - start
+        return recording.stats
+    }
+}
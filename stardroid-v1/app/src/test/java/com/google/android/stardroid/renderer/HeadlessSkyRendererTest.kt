@@ -0,0 +1,246 @@
+package com.google.android.stardroid.renderer
+
+import android.app.Application
+import com.google.android.stardroid.R
+import com.google.android.stardroid.math.AstronomicalTime
+import com.google.android.stardroid.math.LatLong
+import com.google.android.stardroid.math.Vector3
+import com.google.android.stardroid.renderables.ImagePrimitive
+import com.google.android.stardroid.renderables.LinePrimitive
+import com.google.android.stardroid.renderables.PointPrimitive
+import com.google.android.stardroid.renderer.RendererObjectManager.UpdateType
+import com.google.common.truth.Truth.assertThat
+import java.util.EnumSet
+import java.util.Random
+import kotlin.math.cos
+import kotlin.math.sin
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(application = Application::class)
+class HeadlessSkyRendererTest {
+    private val headless by lazy {
+        HeadlessSkyRenderer(RuntimeEnvironment.getApplication().resources, rasterize = true)
+    }
+
+    @Test
+    fun drawFrame_pointAhead_drawnAtCentre() {
+        addPoints(listOf(Vector3(1f, 0f, 0f)))
+        headless.setView(Vector3(1f, 0f, 0f), Vector3(0f, 1f, 0f), 45f)
+
+        headless.drawFrame()
+
+        val cx = headless.width / 2
+        val cy = headless.height / 2
+        val nearCentre = (cy - 1..cy + 1).flatMap { y ->
+            (cx - 1..cx + 1).map { x -> headless.recording.pixel(x, y) }
+        }
+        assertThat(nearCentre.any { it != 0 }).isTrue()
+        assertThat(headless.recording.pixel(0, 0)).isEqualTo(0)
+    }
+
+    @Test
+    fun drawFrame_sameView_sameWork() {
+        addPoints(randomPoints(2000))
+        headless.setView(Vector3(1f, 0f, 0f), Vector3(0f, 1f, 0f), 45f)
+        headless.drawFrame()
+
+        val first = headless.drawFrame().let { Triple(it.drawCalls, it.vertices, it.stateChanges) }
+        val second = headless.drawFrame().let { Triple(it.drawCalls, it.vertices, it.stateChanges) }
+        assertThat(second).isEqualTo(first)
+    }
+
+    @Test
+    fun drawFrame_narrowerView_submitsFewerVertices() {
+        addPoints(randomPoints(2000))
+        headless.setView(Vector3(1f, 0f, 0f), Vector3(0f, 1f, 0f), 90f)
+        headless.drawFrame()
+        val wide = headless.drawFrame().vertices
+
+        headless.setView(Vector3(1f, 0f, 0f), Vector3(0f, 1f, 0f), 10f)
+        headless.drawFrame()
+        val narrow = headless.drawFrame().vertices
+
+        assertThat(wide).isLessThan(2000)
+        assertThat(narrow).isLessThan(wide)
+    }
+
+    @Test
+    fun drawFrame_unchangedScene_uploadsOnlyOnce() {
+        addPoints(randomPoints(2000))
+        headless.setView(Vector3(1f, 0f, 0f), Vector3(0f, 1f, 0f), 45f)
+
+        assertThat(headless.drawFrame().uploadedBytes).isGreaterThan(0)
+        assertThat(headless.drawFrame().uploadedBytes).isEqualTo(0)
+    }
+
+    @Test
+    fun drawFrame_onePointMoved_uploadsOnlyThatPoint() {
+        val points = ArrayList(randomPoints(100))
+        val manager = addPoints(points)
+        headless.setView(Vector3(1f, 0f, 0f), Vector3(0f, 1f, 0f), 180f)
+        headless.drawFrame()
+
+        // The first moves fill each of the buffer's dynamic copies...
+        movePoint(manager, points, 7, Vector3(0f, 0f, 1f))
+        movePoint(manager, points, 7, Vector3(0f, 1f, 0f))
+
+        // ...after which a move uploads at most the three floats of the point's position.
+        val uploaded = movePoint(manager, points, 7, Vector3(0f, 0f, 1f))
+        assertThat(uploaded).isGreaterThan(0)
+        assertThat(uploaded).isAtMost(3 * 4)
+    }
+
+    // The exact work each kind of manager does for the pinned view, looking at the zenith of
+    // Greenwich at the March equinox of 2024.  Labels are left out, as their size depends on the
+    // platform's text metrics.
+
+    @Test
+    fun drawFrame_pinnedView_pointsOverheadDrawnInOneCall() {
+        // Two chunks of stars, of which the one below the horizon is culled.
+        val overhead = List(64) { horizontal(85f + (it % 5), 360f * it / 64) }
+        val underfoot = List(64) { horizontal(-85f - (it % 5), 360f * it / 64) }
+        addPoints(overhead + underfoot)
+        setPinnedView()
+
+        val stats = headless.drawFrame()
+
+        assertThat(stats.drawCalls).isEqualTo(1)
+        assertThat(stats.vertices).isEqualTo(64)
+    }
+
+    @Test
+    fun drawFrame_pinnedWideView_dropsFaintStarsByMagnitude() {
+        // Coloured alike, so that only their magnitudes tell them apart.
+        val stars = List(10) { i ->
+            PointPrimitive(horizontal(85f, 36f * i), WHITE, 3).apply {
+                magnitude = if (i < 4) 1f else 6f
+            }
+        }
+        addPoints(stars)
+        setPinnedView(90f)
+
+        val stats = headless.drawFrame()
+
+        assertThat(stats.drawCalls).isEqualTo(1)
+        assertThat(stats.vertices).isEqualTo(4)
+    }
+
+    @Test
+    fun drawFrame_pinnedWideView_keepsDimPointsWithoutMagnitudes() {
+        // Such as the planets or meteor radiants, however dim their colour.
+        val dim = 0xff202020.toInt()
+        addPoints(List(10) { PointPrimitive(horizontal(85f, 36f * it), dim, 3) })
+        setPinnedView(90f)
+
+        val stats = headless.drawFrame()
+
+        assertThat(stats.drawCalls).isEqualTo(1)
+        assertThat(stats.vertices).isEqualTo(10)
+    }
+
+    @Test
+    fun drawFrame_pinnedView_linesDrawnInOneCall() {
+        // A ring of 36 segments around the sky and a line of 2 up to the zenith, each segment
+        // drawn as two triangles.
+        val ring = List(37) { horizontal(30f, 10f * it) }
+        val meridian = listOf(horizontal(60f, 0f), horizontal(75f, 0f), horizontal(90f, 0f))
+        val manager = headless.add(headless.renderer.createPolyLineManager(0))
+        manager.updateObjects(
+            listOf(LinePrimitive(WHITE, ring, 1.5f), LinePrimitive(WHITE, meridian, 1.5f)),
+            EnumSet.of(UpdateType.Reset))
+        setPinnedView()
+
+        val stats = headless.drawFrame()
+
+        assertThat(stats.drawCalls).isEqualTo(1)
+        assertThat(stats.vertices).isEqualTo(6 * (36 + 2))
+    }
+
+    @Test
+    fun drawFrame_pinnedView_imagesDrawnOneCallEach() {
+        val resources = RuntimeEnvironment.getApplication().resources
+        val north = pinnedFrame.north
+        val manager = headless.add(headless.renderer.createImageManager(0))
+        manager.updateObjects(
+            listOf(
+                ImagePrimitive(horizontal(80f, 0f), resources, R.drawable.sun, north, 1f),
+                ImagePrimitive(horizontal(80f, 180f), resources, R.drawable.moon0, north, 1f)),
+            EnumSet.of(UpdateType.Reset))
+        setPinnedView()
+
+        val stats = headless.drawFrame()
+
+        assertThat(stats.drawCalls).isEqualTo(2)
+        assertThat(stats.vertices).isEqualTo(2 * 4)
+    }
+
+    @Test
+    fun drawFrame_cheapFramesFarApart_keepsFullQuality() {
+        // As with on demand rendering, which draws at most every 50ms when the view changes.
+        addPoints(randomPoints(100))
+        setPinnedView()
+
+        repeat(2 * QualityGovernor.WINDOW_FRAMES) {
+            headless.drawFrame()
+            Thread.sleep(50)
+        }
+
+        assertThat(headless.renderer.qualityGovernor.level).isEqualTo(0)
+    }
+
+    private fun setPinnedView(fieldOfView: Float = 45f) {
+        headless.setView(pinnedFrame.zenith, pinnedFrame.north, fieldOfView)
+    }
+
+    private fun movePoint(
+        manager: PointObjectManager,
+        points: MutableList<PointPrimitive>,
+        index: Int,
+        position: Vector3
+    ): Int {
+        points[index] = PointPrimitive(position, WHITE, 3)
+        manager.updateObjects(points, EnumSet.of(UpdateType.UpdatePositions))
+        return headless.drawFrame().uploadedBytes
+    }
+
+    private fun addPoints(points: List<PointPrimitive>): PointObjectManager {
+        val manager = headless.add(headless.renderer.createPointManager(0))
+        manager.updateObjects(points, EnumSet.of(UpdateType.Reset))
+        return manager
+    }
+
+    private fun addPoints(positions: Iterable<Vector3>) =
+        addPoints(positions.map { PointPrimitive(it, WHITE, 3) })
+
+    private companion object {
+        const val WHITE = 0xffffffff.toInt()
+
+        // Noon on 20 March 2024, UTC, at Greenwich.
+        val pinnedFrame = AstronomicalTime.at(1710936000000L).horizontalFrame(LatLong(51.48f, 0f))
+
+        /** The direction at the given altitude and azimuth, in degrees, in the pinned frame. */
+        fun horizontal(altitude: Float, azimuth: Float): Vector3 {
+            val alt = Math.toRadians(altitude.toDouble())
+            val az = Math.toRadians(azimuth.toDouble())
+            return pinnedFrame.north * (cos(alt) * cos(az)).toFloat() +
+                pinnedFrame.zenith * sin(alt).toFloat() +
+                pinnedFrame.east * (cos(alt) * sin(az)).toFloat()
+        }
+
+        fun randomPoints(count: Int): List<PointPrimitive> {
+            val random = Random(42)
+            return List(count) {
+                val v = Vector3(
+                    random.nextGaussian().toFloat(),
+                    random.nextGaussian().toFloat(),
+                    random.nextGaussian().toFloat())
+                PointPrimitive(v.normalizedCopy(), WHITE, 3)
+            }
+        }
+    }
+}
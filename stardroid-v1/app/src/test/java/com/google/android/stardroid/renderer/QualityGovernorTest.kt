@@ -0,0 +1,86 @@
+package com.google.android.stardroid.renderer
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+
+class QualityGovernorTest {
+    private val governor = QualityGovernor()
+
+    @Test
+    fun onFrameDrawn_fastFrames_keepsFullQuality() {
+        frames(10 * QualityGovernor.WINDOW_FRAMES, FAST)
+        assertThat(governor.level).isEqualTo(0)
+    }
+
+    @Test
+    fun onFrameDrawn_slowFrames_lowersLevelOncePerWindow() {
+        frames(QualityGovernor.WINDOW_FRAMES, SLOW)
+        assertThat(governor.level).isEqualTo(1)
+        frames(QualityGovernor.WINDOW_FRAMES, SLOW)
+        assertThat(governor.level).isEqualTo(2)
+    }
+
+    @Test
+    fun onFrameDrawn_slowFrames_stopsAtMaxLevel() {
+        frames(20 * QualityGovernor.WINDOW_FRAMES, SLOW)
+        assertThat(governor.level).isEqualTo(QualityGovernor.MAX_LEVEL)
+    }
+
+    @Test
+    fun onFrameDrawn_stalls_ignored() {
+        frames(QualityGovernor.WINDOW_FRAMES - 1, FAST)
+        frames(1, 1_000_000_000L)
+        frames(1, FAST)
+        assertThat(governor.level).isEqualTo(0)
+    }
+
+    @Test
+    fun onFrameDrawn_marginalFrames_holdLevel() {
+        frames(QualityGovernor.WINDOW_FRAMES, SLOW)
+        frames(20 * QualityGovernor.WINDOW_FRAMES, MARGINAL)
+        assertThat(governor.level).isEqualTo(1)
+    }
+
+    @Test
+    fun onFrameDrawn_fastAfterSlow_raisesAfterRunOfWindows() {
+        frames(QualityGovernor.WINDOW_FRAMES, SLOW)
+        frames((QualityGovernor.MIN_WINDOWS_TO_RAISE - 1) * QualityGovernor.WINDOW_FRAMES, FAST)
+        assertThat(governor.level).isEqualTo(1)
+        frames(QualityGovernor.WINDOW_FRAMES, FAST)
+        assertThat(governor.level).isEqualTo(0)
+    }
+
+    @Test
+    fun onFrameDrawn_raiseThatDoesNotStick_waitsLongerNextTime() {
+        frames(QualityGovernor.WINDOW_FRAMES, SLOW)
+        frames(QualityGovernor.MIN_WINDOWS_TO_RAISE * QualityGovernor.WINDOW_FRAMES, FAST)
+        assertThat(governor.level).isEqualTo(0)
+        // Full quality is too slow after all.
+        frames(QualityGovernor.WINDOW_FRAMES, SLOW)
+        assertThat(governor.level).isEqualTo(1)
+        frames(QualityGovernor.MIN_WINDOWS_TO_RAISE * QualityGovernor.WINDOW_FRAMES, FAST)
+        assertThat(governor.level).isEqualTo(1)
+        frames(QualityGovernor.MIN_WINDOWS_TO_RAISE * QualityGovernor.WINDOW_FRAMES, FAST)
+        assertThat(governor.level).isEqualTo(0)
+    }
+
+    @Test
+    fun addListener_notifiedOfChangesOnce() {
+        val levels = ArrayList<Int>()
+        val listener = QualityGovernor.Listener { levels.add(it) }
+        governor.addListener(listener)
+        governor.addListener(listener)
+        frames(2 * QualityGovernor.WINDOW_FRAMES, SLOW)
+        assertThat(levels).containsExactly(1, 2).inOrder()
+    }
+
+    private fun frames(count: Int, drawNanos: Long) {
+        repeat(count) { governor.onFrameDrawn(drawNanos) }
+    }
+
+    private companion object {
+        const val FAST = 16_000_000L
+        const val MARGINAL = 18_000_000L
+        const val SLOW = 33_000_000L
+    }
+}
@@ -0,0 +1,330 @@
+package com.google.android.stardroid.renderer
+
+import java.lang.reflect.Method
+import java.lang.reflect.Proxy
+import java.nio.Buffer
+import java.nio.ByteBuffer
+import java.nio.FloatBuffer
+import java.nio.IntBuffer
+import java.nio.ShortBuffer
+import javax.microedition.khronos.opengles.GL10
+import javax.microedition.khronos.opengles.GL11
+import kotlin.math.max
+import kotlin.math.min
+
+/**
+ * A fake OpenGL ES 1.1 context, for running the renderer's fixed-function path on the JVM.
+ *
+ * Each call is counted in [stats]: draw calls, the vertices they submit, changes to GL state and
+ * the bytes uploaded to buffer objects.  When [image] is requested, draws are also rasterized
+ * into it, flat shaded and untextured, which is enough to see where geometry lands.
+ */
+class RecordingGl(private val width: Int, private val height: Int, rasterize: Boolean = false) {
+    class FrameStats {
+        var drawCalls = 0
+        var vertices = 0
+        var stateChanges = 0
+        var uploadedBytes = 0
+        var buildNanos = 0L
+
+        override fun toString() = "$drawCalls draw calls, $vertices vertices, " +
+            "$stateChanges state changes, $uploadedBytes bytes uploaded, ${buildNanos / 1000} us"
+    }
+
+    var stats = FrameStats()
+        private set
+
+    /** The rasterized frame as ARGB pixels, top row first, or null if not requested. */
+    val image: IntArray? = if (rasterize) IntArray(width * height) else null
+
+    val gl: GL11 = Proxy.newProxyInstance(
+        GL11::class.java.classLoader, arrayOf(GL11::class.java)
+    ) { proxy, method, args -> handle(proxy, method, args ?: emptyArray()) } as GL11
+
+    // Where an attribute's data comes from: a client array, or an offset into a buffer object.
+    private class Pointer(val size: Int, val stride: Int, val data: Buffer?, val start: Int)
+
+    private var nextName = 1
+    private val bufferData = HashMap<Int, Buffer>()
+    private var arrayBuffer = 0
+    private var elementBuffer = 0
+    private var vertexPointer: Pointer? = null
+    private var colorPointer: Pointer? = null
+    private val clientStates = HashSet<Int>()
+    private var color = 0xffffffff.toInt()
+
+    private var matrixMode = GL10.GL_MODELVIEW
+    private val matrices = HashMap<Int, FloatArray>()
+    private val stacks = HashMap<Int, ArrayDeque<FloatArray>>()
+
+    /** Starts counting a new frame. */
+    fun beginFrame() {
+        stats = FrameStats()
+    }
+
+    /** The pixel at the given position of [image]. */
+    fun pixel(x: Int, y: Int) = image!![y * width + x]
+
+    private fun handle(proxy: Any, method: Method, args: Array<out Any?>): Any? {
+        when (method.name) {
+            "equals" -> return proxy === args[0]
+            "hashCode" -> return System.identityHashCode(proxy)
+            "toString" -> return "RecordingGl"
+            "glGetString" -> return EXTENSIONS
+            "glGetError" -> return GL10.GL_NO_ERROR
+            "glGenBuffers", "glGenTextures" -> generate(args)
+            "glBindBuffer" -> {
+                stats.stateChanges++
+                if (args[0] == GL11.GL_ARRAY_BUFFER) {
+                    arrayBuffer = args[1] as Int
+                } else {
+                    elementBuffer = args[1] as Int
+                }
+            }
+            "glBufferData" -> {
+                stats.uploadedBytes += args[1] as Int
+                (args[2] as Buffer?)?.let { bufferData[boundBuffer(args[0] as Int)] = it }
+            }
+            "glBufferSubData" -> stats.uploadedBytes += args[2] as Int
+            "glVertexPointer" -> vertexPointer = pointer(args)
+            "glColorPointer" -> colorPointer = pointer(args)
+            "glTexCoordPointer", "glPointSizePointerOES" -> {}
+            "glEnableClientState" -> {
+                stats.stateChanges++
+                clientStates.add(args[0] as Int)
+            }
+            "glDisableClientState" -> {
+                stats.stateChanges++
+                clientStates.remove(args[0] as Int)
+            }
+            "glColor4f" -> {
+                stats.stateChanges++
+                color = argb(args[3] as Float, args[0] as Float, args[1] as Float, args[2] as Float)
+            }
+            "glClear" -> image?.fill(0)
+            "glDrawArrays" -> {
+                val first = args[1] as Int
+                draw(args[0] as Int, IntArray(args[2] as Int) { first + it })
+            }
+            "glDrawElements" -> draw(args[0] as Int, indices(args))
+            else -> {
+                stats.stateChanges++
+                trackMatrix(method.name, args)
+            }
+        }
+        return defaultValue(method.returnType)
+    }
+
+    private fun generate(args: Array<out Any?>) {
+        val names = args[1] as IntArray
+        val offset = args[2] as Int
+        for (i in 0 until args[0] as Int) {
+            names[offset + i] = nextName++
+        }
+    }
+
+    private fun boundBuffer(target: Int) =
+        if (target == GL11.GL_ARRAY_BUFFER) arrayBuffer else elementBuffer
+
+    // Both glXxxPointer(size, type, stride, Buffer) and glXxxPointer(size, type, stride, offset).
+    private fun pointer(args: Array<out Any?>): Pointer {
+        val size = args[0] as Int
+        val elementStride = (args[2] as Int) / 4
+        val stride = if (elementStride == 0) size else elementStride
+        return when (val data = args[3]) {
+            is Buffer -> Pointer(size, stride, data, data.position())
+            else -> Pointer(size, stride, bufferData[arrayBuffer], (data as Int) / 4)
+        }
+    }
+
+    // Both glDrawElements(mode, count, type, Buffer) and glDrawElements(mode, count, type, offset).
+    private fun indices(args: Array<out Any?>): IntArray {
+        val count = args[1] as Int
+        val type = args[2] as Int
+        val indexSize = when (type) {
+            GL10.GL_UNSIGNED_BYTE -> 1
+            GL10.GL_UNSIGNED_SHORT -> 2
+            else -> 4
+        }
+        val (data, start) = when (val indices = args[3]) {
+            is Buffer -> indices to indices.position()
+            else -> bufferData[elementBuffer] to (indices as Int) / indexSize
+        }
+        return IntArray(count) {
+            when (data) {
+                is ShortBuffer -> data.get(start + it).toInt() and 0xffff
+                is IntBuffer -> data.get(start + it)
+                is ByteBuffer -> data.get(start + it).toInt() and 0xff
+                else -> 0
+            }
+        }
+    }
+
+    private fun draw(mode: Int, indices: IntArray) {
+        stats.drawCalls++
+        stats.vertices += indices.size
+        val image = image ?: return
+        val positions = vertexPointer ?: return
+        val transform = multiply(matrix(GL10.GL_PROJECTION), matrix(GL10.GL_MODELVIEW))
+        val points = indices.map { window(transform, read(positions, it)) }
+        val colors = indices.map { vertexColor(it) }
+        when (mode) {
+            GL10.GL_TRIANGLES -> for (i in 0 until points.size - 2 step 3) {
+                fill(image, points[i], points[i + 1], points[i + 2], colors[i])
+            }
+            GL10.GL_TRIANGLE_STRIP -> for (i in 0 until points.size - 2) {
+                fill(image, points[i], points[i + 1], points[i + 2], colors[i])
+            }
+            GL10.GL_TRIANGLE_FAN -> for (i in 1 until points.size - 1) {
+                fill(image, points[0], points[i], points[i + 1], colors[0])
+            }
+            else -> points.forEachIndexed { i, p -> p?.let { plot(image, it[0], it[1], colors[i]) } }
+        }
+    }
+
+    private fun read(pointer: Pointer, vertex: Int): FloatArray {
+        val data = pointer.data as? FloatBuffer ?: return FloatArray(3)
+        val base = pointer.start + vertex * pointer.stride
+        return FloatArray(3) { if (it < pointer.size) data.get(base + it) else 0f }
+    }
+
+    private fun vertexColor(vertex: Int): Int {
+        val pointer = colorPointer
+        if (GL10.GL_COLOR_ARRAY !in clientStates || pointer == null) return color
+        val rgba = (pointer.data as? IntBuffer)?.get(pointer.start + vertex) ?: return color
+        // Bytes in RGBA order, read as a little endian int.
+        return (rgba and 0xff00ff00.toInt()) or
+            ((rgba and 0xff) shl 16) or ((rgba shr 16) and 0xff)
+    }
+
+    // Window coordinates, with y down, or null if the point is behind the eye.
+    private fun window(m: FloatArray, v: FloatArray): FloatArray? {
+        val x = m[0] * v[0] + m[4] * v[1] + m[8] * v[2] + m[12]
+        val y = m[1] * v[0] + m[5] * v[1] + m[9] * v[2] + m[13]
+        val w = m[3] * v[0] + m[7] * v[1] + m[11] * v[2] + m[15]
+        if (w <= 0) return null
+        return floatArrayOf((x / w + 1) / 2 * width, (1 - y / w) / 2 * height)
+    }
+
+    private fun plot(image: IntArray, x: Float, y: Float, argb: Int) {
+        val px = x.toInt()
+        val py = y.toInt()
+        if (px in 0 until width && py in 0 until height && (argb ushr 24) != 0) {
+            image[py * width + px] = argb or 0xff000000.toInt()
+        }
+    }
+
+    private fun fill(image: IntArray, a: FloatArray?, b: FloatArray?, c: FloatArray?, argb: Int) {
+        if (a == null || b == null || c == null) return
+        val minX = max(0, min(a[0], min(b[0], c[0])).toInt())
+        val maxX = min(width - 1, max(a[0], max(b[0], c[0])).toInt())
+        val minY = max(0, min(a[1], min(b[1], c[1])).toInt())
+        val maxY = min(height - 1, max(a[1], max(b[1], c[1])).toInt())
+        val area = edge(a, b, c[0], c[1])
+        if (area == 0f) return
+        for (y in minY..maxY) {
+            for (x in minX..maxX) {
+                val px = x + 0.5f
+                val py = y + 0.5f
+                val w0 = edge(b, c, px, py) / area
+                val w1 = edge(c, a, px, py) / area
+                val w2 = edge(a, b, px, py) / area
+                if (w0 >= 0 && w1 >= 0 && w2 >= 0) {
+                    plot(image, px, py, argb)
+                }
+            }
+        }
+    }
+
+    private fun edge(a: FloatArray, b: FloatArray, x: Float, y: Float) =
+        (b[0] - a[0]) * (y - a[1]) - (b[1] - a[1]) * (x - a[0])
+
+    private fun matrix(mode: Int) = matrices.getOrPut(mode) { identity() }
+
+    private fun trackMatrix(name: String, args: Array<out Any?>) {
+        when (name) {
+            "glMatrixMode" -> matrixMode = args[0] as Int
+            "glLoadIdentity" -> matrices[matrixMode] = identity()
+            "glLoadMatrixf" -> matrices[matrixMode] = copy(args[0] as FloatArray, args[1] as Int)
+            "glMultMatrixf" -> multiplyCurrent(copy(args[0] as FloatArray, args[1] as Int))
+            "glPushMatrix" ->
+                stacks.getOrPut(matrixMode) { ArrayDeque() }.addLast(matrix(matrixMode).clone())
+            "glPopMatrix" -> matrices[matrixMode] = stacks.getValue(matrixMode).removeLast()
+            "glTranslatef" -> multiplyCurrent(identity().also {
+                it[12] = args[0] as Float
+                it[13] = args[1] as Float
+                it[14] = args[2] as Float
+            })
+            "glScalef" -> multiplyCurrent(identity().also {
+                it[0] = args[0] as Float
+                it[5] = args[1] as Float
+                it[10] = args[2] as Float
+            })
+            "glRotatef" -> multiplyCurrent(rotation(
+                args[0] as Float, args[1] as Float, args[2] as Float, args[3] as Float))
+            "glOrthof" -> multiplyCurrent(ortho(
+                args[0] as Float, args[1] as Float, args[2] as Float,
+                args[3] as Float, args[4] as Float, args[5] as Float))
+        }
+    }
+
+    private fun multiplyCurrent(m: FloatArray) {
+        matrices[matrixMode] = multiply(matrix(matrixMode), m)
+    }
+
+    companion object {
+        // Enough for the renderer to use buffer objects, 32 bit indices and point sprites.
+        private const val EXTENSIONS =
+            "GL_OES_vertex_buffer_object GL_OES_element_index_uint GL_OES_point_sprite"
+
+        private fun defaultValue(type: Class<*>): Any? = when (type) {
+            java.lang.Boolean.TYPE -> false
+            java.lang.Integer.TYPE -> 0
+            java.lang.Float.TYPE -> 0f
+            else -> null
+        }
+
+        private fun argb(a: Float, r: Float, g: Float, b: Float) =
+            ((a * 255).toInt() shl 24) or ((r * 255).toInt() shl 16) or
+                ((g * 255).toInt() shl 8) or (b * 255).toInt()
+
+        private fun identity() = FloatArray(16).also {
+            it[0] = 1f
+            it[5] = 1f
+            it[10] = 1f
+            it[15] = 1f
+        }
+
+        private fun copy(m: FloatArray, offset: Int) = m.copyOfRange(offset, offset + 16)
+
+        // Column major, like OpenGL.
+        private fun multiply(a: FloatArray, b: FloatArray) = FloatArray(16) {
+            val column = it / 4
+            val row = it % 4
+            (0 until 4).fold(0f) { sum, k -> sum + a[k * 4 + row] * b[column * 4 + k] }
+        }
+
+        private fun rotation(degrees: Float, x: Float, y: Float, z: Float): FloatArray {
+            val length = kotlin.math.sqrt(x * x + y * y + z * z)
+            val ux = x / length
+            val uy = y / length
+            val uz = z / length
+            val radians = Math.toRadians(degrees.toDouble())
+            val c = kotlin.math.cos(radians).toFloat()
+            val s = kotlin.math.sin(radians).toFloat()
+            val t = 1 - c
+            return floatArrayOf(
+                t * ux * ux + c, t * ux * uy + s * uz, t * ux * uz - s * uy, 0f,
+                t * ux * uy - s * uz, t * uy * uy + c, t * uy * uz + s * ux, 0f,
+                t * ux * uz + s * uy, t * uy * uz - s * ux, t * uz * uz + c, 0f,
+                0f, 0f, 0f, 1f)
+        }
+
+        private fun ortho(l: Float, r: Float, b: Float, t: Float, n: Float, f: Float) =
+            floatArrayOf(
+                2 / (r - l), 0f, 0f, 0f,
+                0f, 2 / (t - b), 0f, 0f,
+                0f, 0f, -2 / (f - n), 0f,
+                -(r + l) / (r - l), -(t + b) / (t - b), -(f + n) / (f - n), 1f)
+    }
+}
@@ -0,0 +1,91 @@
+package com.google.android.stardroid.renderer.util
+
+import com.google.common.truth.Truth.assertThat
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(manifest = Config.NONE)
+class GlyphAtlasTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    /** Makes an atlas holding the glyphs of [text], and waits for it to be saved. */
+    private fun saveAtlas(environment: String, text: String): GlyphAtlas {
+        val executor = Executors.newSingleThreadScheduledExecutor()
+        val atlas = GlyphAtlas()
+        atlas.setCache(folder.root, environment, executor)
+        atlas.loadCache()
+        for (cluster in TextMesher.splitClusters(text)) atlas.getGlyph(cluster)
+        // Delayed tasks still run after shutdown.
+        executor.shutdown()
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue()
+        return atlas
+    }
+
+    private fun assertSameGlyph(actual: TextMesher.Glyph, expected: TextMesher.Glyph) {
+        assertThat(actual.advance).isEqualTo(expected.advance)
+        assertThat(actual.left).isEqualTo(expected.left)
+        assertThat(actual.top).isEqualTo(expected.top)
+        assertThat(actual.width).isEqualTo(expected.width)
+        assertThat(actual.height).isEqualTo(expected.height)
+        assertThat(actual.u).isEqualTo(expected.u)
+        assertThat(actual.v).isEqualTo(expected.v)
+    }
+
+    @Test
+    fun loadCache_sameEnvironment_restoresGlyphs() {
+        val saved = saveAtlas("en_US/2.0", "Vega")
+
+        val loaded = GlyphAtlas()
+        loaded.setCache(folder.root, "en_US/2.0", null)
+        loaded.loadCache()
+
+        assertThat(loaded.height).isEqualTo(saved.height)
+        for (cluster in listOf("V", "e", "g", "a")) {
+            assertSameGlyph(loaded.getGlyph(cluster), saved.getGlyph(cluster))
+        }
+    }
+
+    @Test
+    fun loadCache_otherEnvironment_startsEmpty() {
+        saveAtlas("en_US/2.0", "Vega")
+
+        val loaded = GlyphAtlas()
+        loaded.setCache(folder.root, "fr_FR/2.0", null)
+        loaded.loadCache()
+
+        // Drawn afresh, at the start of the atlas rather than after "Veg".
+        val glyph = loaded.getGlyph("a")
+        assertThat(glyph.u).isEqualTo(0)
+        assertThat(glyph.v).isEqualTo(0)
+    }
+
+    @Test
+    fun save_keepsOnlyTheCurrentAtlas() {
+        saveAtlas("en_US/2.0", "Vega")
+        saveAtlas("fr_FR/2.0", "Véga")
+
+        assertThat(folder.root.list()!!.toList()).hasSize(1)
+    }
+
+    @Test
+    fun loadCache_corruptFile_isDiscarded() {
+        saveAtlas("en_US/2.0", "Vega")
+        val file = folder.root.listFiles()!!.single()
+        file.writeBytes(file.readBytes().copyOf(100))
+
+        val loaded = GlyphAtlas()
+        loaded.setCache(folder.root, "en_US/2.0", null)
+        loaded.loadCache()
+
+        assertThat(loaded.height).isEqualTo(GlyphAtlas().height)
+        assertThat(file.exists()).isFalse()
+    }
+}
@@ -0,0 +1,116 @@
+package com.google.android.stardroid.renderer.util
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.After
+import org.junit.Test
+
+class IndexBufferTest {
+    @After
+    fun tearDown() {
+        IndexBuffer.setCanUseIntIndices(false)
+    }
+
+    // Adds two triangles per point, over four vertices of its own, as the billboard managers do.
+    private fun buildRegion(numPoints: Int): IndexBuffer {
+        val buffer = IndexBuffer(6 * numPoints)
+        for (point in 0 until numPoints) {
+            val bottomLeft = 4 * point
+            val topLeft = bottomLeft + 1
+            val bottomRight = bottomLeft + 2
+            val topRight = bottomLeft + 3
+            buffer.addIndex(bottomLeft)
+            buffer.addIndex(topLeft)
+            buffer.addIndex(bottomRight)
+            buffer.addIndex(bottomRight)
+            buffer.addIndex(topLeft)
+            buffer.addIndex(topRight)
+        }
+        return buffer
+    }
+
+    private fun expectedIndex(position: Int): Int {
+        val quadOffsets = intArrayOf(0, 1, 2, 2, 1, 3)
+        return 4 * (position / 6) + quadOffsets[position % 6]
+    }
+
+    @Test
+    fun shortIndices_largeRegion_isSplitIntoBatchesThatEachFit() {
+        val numPoints = 100_000
+        val buffer = buildRegion(numPoints)
+
+        // 400,000 vertices at 65,536 per batch.
+        assertThat(buffer.numBatches).isEqualTo(7)
+        for (batch in 0 until buffer.numBatches) {
+            val start = buffer.getBatchStart(batch)
+            val end =
+                if (batch + 1 < buffer.numBatches) buffer.getBatchStart(batch + 1) else buffer.size()
+            assertThat((end - start) % 3).isEqualTo(0)
+            val first = buffer.getBatchFirstVertex(batch)
+            for (position in start until end) {
+                val index = buffer.getIndex(position)
+                assertThat(index).isLessThan(IndexBuffer.MAX_VERTICES_PER_BATCH)
+                assertThat(first + index).isEqualTo(expectedIndex(position))
+            }
+        }
+        assertThat(buffer.getBatchStart(0)).isEqualTo(0)
+        assertThat(buffer.size()).isEqualTo(6 * numPoints)
+    }
+
+    @Test
+    fun intIndices_largeRegion_isDrawnInOneBatch() {
+        IndexBuffer.setCanUseIntIndices(true)
+        val numPoints = 100_000
+        val buffer = buildRegion(numPoints)
+
+        assertThat(buffer.numBatches).isEqualTo(1)
+        assertThat(buffer.getBatchFirstVertex(0)).isEqualTo(0)
+        assertThat(buffer.getIndex(6 * numPoints - 1)).isEqualTo(4 * numPoints - 1)
+    }
+
+    @Test
+    fun shortIndices_smallBuffer_startsAtVertexZero() {
+        val buffer = IndexBuffer(3)
+        buffer.addIndex(10)
+        buffer.addIndex(11)
+        buffer.addIndex(12)
+
+        assertThat(buffer.numBatches).isEqualTo(1)
+        assertThat(buffer.getBatchFirstVertex(0)).isEqualTo(0)
+        assertThat(buffer.getIndex(0)).isEqualTo(10)
+    }
+
+    @Test
+    fun shortIndices_triangleStraddlingBatch_startsBatchAtItsLowestVertex() {
+        val buffer = IndexBuffer(6)
+        buffer.addIndex(0)
+        buffer.addIndex(1)
+        buffer.addIndex(2)
+        // Past the end of the first batch, which starts at vertex 0.
+        buffer.addIndex(65_534)
+        buffer.addIndex(65_535)
+        buffer.addIndex(65_536)
+
+        assertThat(buffer.numBatches).isEqualTo(2)
+        assertThat(buffer.getBatchStart(1)).isEqualTo(3)
+        assertThat(buffer.getBatchFirstVertex(1)).isEqualTo(65_534)
+        assertThat((3 until 6).map { buffer.getIndex(it) }).containsExactly(0, 1, 2).inOrder()
+        assertThat(buffer.size()).isEqualTo(6)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun shortIndices_triangleTooWideForABatch_throws() {
+        val buffer = IndexBuffer(3)
+        buffer.addIndex(0)
+        buffer.addIndex(1)
+        buffer.addIndex(IndexBuffer.MAX_VERTICES_PER_BATCH)
+    }
+
+    @Test
+    fun reset_clearsBatches() {
+        val buffer = buildRegion(20_000)
+        assertThat(buffer.numBatches).isEqualTo(2)
+
+        buffer.reset(0)
+        assertThat(buffer.numBatches).isEqualTo(0)
+    }
+}
@@ -46,6 +46,17 @@ class LabelCollisionResolverTest {
         assertPosition(resolver.place(10f, 20f, 30f, 10f, 0f, 2), 10f, 0f)
     }
 
+    @Test
+    fun hasBudget_budgetUsedUp_untilNextFrame() {
+        resolver.budget = 2
+        assertThat(resolver.hasBudget()).isTrue()
+        place(10f, 20f)
+        place(100f, 200f)
+        assertThat(resolver.hasBudget()).isFalse()
+        resolver.beginFrame()
+        assertThat(resolver.hasBudget()).isTrue()
+    }
+
     private fun place(x: Float, y: Float, angle: Float = 0f) =
         resolver.place(x, y, 30f, 10f, angle)
 
@@ -0,0 +1,53 @@
+package com.google.android.stardroid.renderer.util
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+
+class SignedDistanceFieldTest {
+    private val tol = 1e-4f
+
+    @Test
+    fun compute_verticalEdge_givesDistanceToEdge() {
+        // Left three columns inside, right five outside.
+        val width = 8
+        val coverage = ByteArray(width * 2) { if (it % width < 3) 0xff.toByte() else 0 }
+        val field = SignedDistanceField.compute(coverage, width, 2, width)
+
+        val expected = floatArrayOf(2.5f, 1.5f, 0.5f, -0.5f, -1.5f, -2.5f, -3.5f, -4.5f)
+        for (x in 0 until width) {
+            assertThat(field[x]).isWithin(tol).of(expected[x])
+            assertThat(field[width + x]).isWithin(tol).of(expected[x])
+        }
+    }
+
+    @Test
+    fun compute_singlePixel_givesEuclideanDistance() {
+        val size = 7
+        val coverage = ByteArray(size * size)
+        coverage[3 * size + 3] = 0xff.toByte()
+        val field = SignedDistanceField.compute(coverage, size, size, size)
+
+        assertThat(field[3 * size + 3]).isWithin(tol).of(0.5f)
+        assertThat(field[3 * size + 6]).isWithin(tol).of(0.5f - 3f)
+        assertThat(field[0]).isWithin(tol).of(0.5f - Math.sqrt(18.0).toFloat())
+    }
+
+    @Test
+    fun compute_respectsStrideAndThreshold() {
+        // Two pixels wide with a padding byte at the end of each row; 127 is outside, 128 inside.
+        val coverage = byteArrayOf(128.toByte(), 127, 0x55, 128.toByte(), 127, 0x55)
+        val field = SignedDistanceField.compute(coverage, 2, 2, 3)
+
+        assertThat(field[0]).isGreaterThan(0f)
+        assertThat(field[1]).isLessThan(0f)
+    }
+
+    @Test
+    fun encode_mapsEdgeToMiddleAndClamps() {
+        assertThat(SignedDistanceField.encode(0f, 4f).toInt() and 0xff).isEqualTo(128)
+        assertThat(SignedDistanceField.encode(4f, 4f).toInt() and 0xff).isEqualTo(255)
+        assertThat(SignedDistanceField.encode(-4f, 4f).toInt() and 0xff).isEqualTo(0)
+        assertThat(SignedDistanceField.encode(100f, 4f).toInt() and 0xff).isEqualTo(255)
+        assertThat(SignedDistanceField.encode(-100f, 4f).toInt() and 0xff).isEqualTo(0)
+    }
+}
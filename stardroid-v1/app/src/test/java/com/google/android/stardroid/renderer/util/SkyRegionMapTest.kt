@@ -0,0 +1,27 @@
+package com.google.android.stardroid.renderer.util
+
+import com.google.android.stardroid.math.getGeocentricCoords
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(manifest = Config.NONE)
+class SkyRegionMapTest {
+    @Test
+    fun getObjectRegion_matchesSharedSamples() {
+        // The catalog compiler is checked against the same samples, in SkyRegionIndexTest.
+        val samples = javaClass.getResourceAsStream("/sky_region_samples.txt")!!
+            .bufferedReader().readLines().filter { !it.startsWith("#") }
+        assertThat(samples.size).isGreaterThan(SkyRegionMap.REGION_CENTERS.size)
+
+        for (sample in samples) {
+            val (ra, dec, region) = sample.split(" ")
+            val position = getGeocentricCoords(ra.toFloat(), dec.toFloat())
+
+            assertThat(SkyRegionMap.getObjectRegion(position)).isEqualTo(region.toInt())
+        }
+    }
+}
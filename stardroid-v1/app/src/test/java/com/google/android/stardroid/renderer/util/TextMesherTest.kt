@@ -0,0 +1,79 @@
+package com.google.android.stardroid.renderer.util
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+
+class TextMesherTest {
+    /** Every cluster is a 10 x 20 image 12 wide, with images laid out left to right. */
+    private class FakeGlyphs : TextMesher.GlyphSource {
+        val requested = mutableListOf<String>()
+
+        override fun getGlyph(cluster: String): TextMesher.Glyph {
+            requested.add(cluster)
+            if (cluster == " ") return TextMesher.Glyph(6f, 0, 0, 0, 0, 0, 0)
+            return TextMesher.Glyph(12f, 1, -16, 10, 20, 10 * (requested.size - 1), 0)
+        }
+
+        override fun getAscent() = 15f
+        override fun getDescent() = 5f
+    }
+
+    @Test
+    fun splitClusters_latin_splitsByCharacter() {
+        assertThat(TextMesher.splitClusters("Vega")).containsExactly("V", "e", "g", "a").inOrder()
+    }
+
+    @Test
+    fun splitClusters_keepsSurrogatePairsTogether() {
+        assertThat(TextMesher.splitClusters("a🌟b"))
+            .containsExactly("a", "🌟", "b").inOrder()
+    }
+
+    @Test
+    fun splitClusters_complexScripts_keepsWholeText() {
+        // Arabic, Hindi, Thai and combining marks need the platform to shape the text as a whole.
+        for (text in listOf("الشعرى", "व्याध", "ดาวซิริอุส", "e\u0301")) {
+            assertThat(TextMesher.splitClusters(text)).containsExactly(text)
+        }
+    }
+
+    @Test
+    fun splitClusters_cjkAndCyrillic_splitsByCharacter() {
+        assertThat(TextMesher.splitClusters("天狼")).containsExactly("天", "狼").inOrder()
+        assertThat(TextMesher.splitClusters("Сириус")).hasSize(6)
+    }
+
+    @Test
+    fun mesh_placesGlyphsAlongPenAndCentres() {
+        val mesh = TextMesher.mesh("ab", FakeGlyphs())
+
+        assertThat(mesh.width).isEqualTo(24f)
+        assertThat(mesh.height).isEqualTo(20f)
+        assertThat(mesh.vertexCount).isEqualTo(12)
+        val positions = mesh.positions
+        // Baseline is at (5 - 15) / 2 = -5, so the image top is at -5 + 16 = 11.
+        // First glyph: x from -12 + 1 to -12 + 11, lower left vertex first.
+        assertThat(positions.copyOfRange(0, 4)).isEqualTo(floatArrayOf(-11f, -9f, -11f, 11f))
+        // Second glyph starts one advance along.
+        assertThat(positions[12]).isEqualTo(1f)
+        assertThat(positions[12 + 10]).isEqualTo(11f)
+    }
+
+    @Test
+    fun mesh_flipsTextureVertically() {
+        val mesh = TextMesher.mesh("a", FakeGlyphs())
+        // Lower left of the quad shows the bottom left of the image, upper left the top left.
+        assertThat(mesh.texCoords.copyOfRange(0, 4)).isEqualTo(floatArrayOf(0f, 20f, 0f, 0f))
+    }
+
+    @Test
+    fun mesh_skipsEmptyGlyphsButAdvances() {
+        val glyphs = FakeGlyphs()
+        val mesh = TextMesher.mesh("a b", glyphs)
+
+        assertThat(glyphs.requested).containsExactly("a", " ", "b").inOrder()
+        assertThat(mesh.vertexCount).isEqualTo(12)
+        assertThat(mesh.width).isEqualTo(30f)
+        assertThat(mesh.positionBuffer.get(12)).isEqualTo(-15f + 18f + 1f)
+    }
+}
@@ -0,0 +1,81 @@
+package com.google.android.stardroid.renderer.util
+
+import com.google.android.stardroid.math.Matrix4x4
+import com.google.android.stardroid.math.Vector3
+import com.google.common.truth.Truth.assertThat
+import kotlin.math.cos
+import kotlin.math.sin
+import org.junit.Test
+
+class ViewFrustumTest {
+    // Looking along x, with y up, 60 degrees high on a screen twice as high as it's wide.
+    private val frustum = ViewFrustum().apply {
+        val lookDir = Vector3(1f, 0f, 0f)
+        val up = Vector3(0f, 1f, 0f)
+        val view = Matrix4x4.createView(lookDir, up, lookDir * up)
+        val projection = Matrix4x4.createPerspectiveProjection(400f, 800f, Math.toRadians(30.0).toFloat())
+        setTransform(projection * view)
+    }
+
+    @Test
+    fun intersectsSphere_pointAhead_isInside() {
+        assertThat(frustum.intersectsSphere(1f, 0f, 0f, 0f)).isTrue()
+    }
+
+    @Test
+    fun intersectsSphere_pointBehind_isOutside() {
+        assertThat(frustum.intersectsSphere(-1f, 0f, 0f, 0f)).isFalse()
+    }
+
+    @Test
+    fun intersectsSphere_pointsJustWithinAndBeyondTopEdge() {
+        assertThat(frustum.intersectsSphere(angleUp(29.0), 0f)).isTrue()
+        assertThat(frustum.intersectsSphere(angleUp(31.0), 0f)).isFalse()
+    }
+
+    @Test
+    fun intersectsSphere_narrowerSideOfScreen_cullsSooner() {
+        // Half the width of the screen is only about 16 degrees.
+        val beyondSide = Vector3(cos(Math.toRadians(20.0)).toFloat(), 0f,
+            sin(Math.toRadians(20.0)).toFloat())
+        assertThat(frustum.intersectsSphere(beyondSide.x, beyondSide.y, beyondSide.z, 0f))
+            .isFalse()
+    }
+
+    @Test
+    fun intersectsSphere_sphereReachingIntoView_isInside() {
+        assertThat(frustum.intersectsSphere(angleUp(40.0), 0.2f)).isTrue()
+    }
+
+    @Test
+    fun computeBounds_containsAllPoints() {
+        val points = listOf(angleUp(10.0), angleUp(-10.0), Vector3(1f, 0f, 0f),
+            Vector3(cos(0.2f), 0f, sin(0.2f)))
+        val bounds = FloatArray(8)
+
+        ViewFrustum.computeBounds(points, 0.01f, bounds, 4)
+
+        val centre = Vector3(bounds[4], bounds[5], bounds[6])
+        for (p in points) {
+            assertThat(p.distanceFrom(centre)).isAtMost(bounds[7] - 0.01f + 1e-5f)
+        }
+        // Tighter than the unit sphere.
+        assertThat(bounds[7]).isLessThan(0.5f)
+    }
+
+    @Test
+    fun computeBounds_pointsAllAround_boundsWholeSphere() {
+        val points = listOf(Vector3(1f, 0f, 0f), Vector3(-1f, 0f, 0f))
+        val bounds = FloatArray(4)
+
+        ViewFrustum.computeBounds(points, 0f, bounds, 0)
+
+        assertThat(bounds[3]).isWithin(1e-5f).of(1f)
+    }
+
+    private fun angleUp(degrees: Double) =
+        Vector3(cos(Math.toRadians(degrees)).toFloat(), sin(Math.toRadians(degrees)).toFloat(), 0f)
+
+    private fun ViewFrustum.intersectsSphere(centre: Vector3, radius: Float) =
+        intersectsSphere(centre.x, centre.y, centre.z, radius)
+}
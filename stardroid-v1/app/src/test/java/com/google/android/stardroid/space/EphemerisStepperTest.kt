@@ -0,0 +1,128 @@
+package com.google.android.stardroid.space
+
+import com.google.android.stardroid.base.TimeConstants
+import com.google.android.stardroid.ephemeris.SolarSystemBody
+import com.google.android.stardroid.math.LatLong
+import com.google.android.stardroid.math.RaDec
+import com.google.android.stardroid.math.getGeocentricCoords
+import com.google.common.truth.Truth.assertThat
+import java.util.Date
+import kotlin.math.asin
+import kotlin.math.sqrt
+import org.junit.Test
+
+class EphemerisStepperTest {
+    @Test
+    fun positionAt_quadratic_isExact() {
+        val stepper = EphemerisStepper(STEP) { millis, out -> quadratic(millis, out) }
+        val stepped = DoubleArray(3)
+        val direct = DoubleArray(3)
+
+        for (millis in 0L..20 * STEP step STEP / 7) {
+            stepper.positionAt(millis, stepped)
+            quadratic(millis, direct)
+            for (i in 0..2) {
+                assertThat(stepped[i]).isWithin(1e-6).of(direct[i])
+            }
+        }
+    }
+
+    @Test
+    fun positionAt_scrub_evaluatesAboutOncePerStep() {
+        var evaluations = 0
+        val stepper = EphemerisStepper(STEP) { millis, out ->
+            evaluations++
+            quadratic(millis, out)
+        }
+        val out = DoubleArray(3)
+
+        // A hundred frames a step, forwards and back.
+        for (millis in 0L..50 * STEP step STEP / 100) {
+            stepper.positionAt(millis, out)
+        }
+        for (millis in 50 * STEP downTo 0L step STEP / 100) {
+            stepper.positionAt(millis, out)
+        }
+
+        assertThat(evaluations).isLessThan(2 * 55)
+    }
+
+    @Test
+    fun positionAt_afterJump_evaluatesDirectly() {
+        val evaluated = ArrayList<Long>()
+        val stepper = EphemerisStepper(STEP) { millis, out ->
+            evaluated.add(millis)
+            quadratic(millis, out)
+        }
+        val out = DoubleArray(3)
+        stepper.positionAt(0L, out)
+        stepper.positionAt(STEP / 2, out)
+        evaluated.clear()
+
+        stepper.positionAt(1000 * STEP + 123, out)
+
+        assertThat(evaluated).containsExactly(1000 * STEP + 123)
+    }
+
+    @Test
+    fun moon_steppedThroughAMonth_matchesDirectEvaluation() {
+        val stepped = Moon(stepped = true)
+        val direct = Moon()
+        val location = LatLong(51.5f, -0.1f)
+        var worst = 0.0
+        // A day a second, at sixty frames a second.
+        for (frame in 0..60 * 30) {
+            val date = Date(JAN_2024 + frame * 24 * TimeConstants.MILLISECONDS_PER_MINUTE)
+            worst = maxOf(worst, degreesBetween(
+                stepped.getTopocentricRaDec(date, location),
+                direct.getTopocentricRaDec(date, location)))
+        }
+        // An arcsecond is a quarter of the series' own error.
+        assertThat(worst).isLessThan(1 / 3600.0)
+    }
+
+    @Test
+    fun planets_steppedThroughAYear_matchDirectEvaluation() {
+        val stepped = Universe(stepped = true)
+        val direct = Universe()
+        var worst = 0.0
+        // A week a second, at sixty frames a second.
+        for (frame in 0..60 * 52) {
+            val date = Date(JAN_2024 + frame * 168 * TimeConstants.MILLISECONDS_PER_MINUTE)
+            for (body in PLANETS) {
+                worst = maxOf(worst, degreesBetween(
+                    stepped.getRaDec(body, date), direct.getRaDec(body, date)))
+            }
+        }
+        // A couple of arcseconds, well inside the Keplerian elements' own error.
+        assertThat(worst).isLessThan(2 / 3600.0)
+    }
+
+    companion object {
+        private const val STEP = 1_000_000L
+        private const val JAN_2024 = 1704067200000L
+        private val PLANETS = listOf(
+            SolarSystemBody.Mercury, SolarSystemBody.Venus, SolarSystemBody.Mars,
+            SolarSystemBody.Jupiter, SolarSystemBody.Saturn, SolarSystemBody.Uranus,
+            SolarSystemBody.Neptune, SolarSystemBody.Pluto
+        )
+
+        private fun quadratic(millis: Long, out: DoubleArray) {
+            val t = millis.toDouble() / STEP
+            out[0] = 3 + 2 * t - t * t
+            out[1] = -1 + 0.5 * t * t
+            out[2] = 7 * t
+        }
+
+        private fun degreesBetween(a: RaDec, b: RaDec): Double {
+            val u = getGeocentricCoords(a)
+            val v = getGeocentricCoords(b)
+            // From the cross product, which unlike the dot product keeps its precision for the
+            // tiny angles wanted here.
+            val x = u.y.toDouble() * v.z - u.z.toDouble() * v.y
+            val y = u.z.toDouble() * v.x - u.x.toDouble() * v.z
+            val z = u.x.toDouble() * v.y - u.y.toDouble() * v.x
+            return Math.toDegrees(asin(sqrt(x * x + y * y + z * z).coerceAtMost(1.0)))
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.google.android.stardroid.touch
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class FrameAnimatorTest {
+    private val animator = FrameAnimator()
+
+    @Test
+    fun advance_stepsByTimeSinceLastFrame() {
+        val steps = ArrayList<Float>()
+        val start = System.nanoTime()
+        animator.start { elapsed -> steps.add(elapsed); true }
+
+        animator.advance(start + 16_000_000L)
+        animator.advance(start + 24_000_000L)
+
+        assertThat(steps).hasSize(2)
+        assertThat(steps[0].toDouble()).isWithin(0.005).of(0.016)
+        assertThat(steps[1].toDouble()).isWithin(1e-6).of(0.008)
+    }
+
+    @Test
+    fun advance_finishedAnimation_isRemoved() {
+        val animation = FrameAnimator.Animation { false }
+        animator.start(animation)
+
+        animator.advance(System.nanoTime())
+
+        assertThat(animator.isRunning(animation)).isFalse()
+    }
+
+    @Test
+    fun advance_afterStall_stepIsCapped() {
+        var step = 0f
+        val start = System.nanoTime()
+        animator.start { elapsed -> step = elapsed; true }
+
+        animator.advance(start + 5_000_000_000L)
+
+        assertThat(step).isAtMost(0.1f)
+    }
+
+    @Test
+    fun fling_coversSameDistanceAtAnyFrameRate() {
+        assertThat(flingDistance(framesPerSecond = 120))
+            .isWithin(0.01f * flingDistance(framesPerSecond = 60))
+            .of(flingDistance(framesPerSecond = 60))
+        assertThat(flingDistance(framesPerSecond = 90))
+            .isWithin(0.01f * flingDistance(framesPerSecond = 60))
+            .of(flingDistance(framesPerSecond = 60))
+    }
+
+    @Test
+    fun fling_comesToAStop() {
+        val flinger = Flinger(animator) { _, _ -> }
+        flinger.fling(1000f, 0f)
+
+        runFrames(framesPerSecond = 60, seconds = 10f)
+
+        assertThat(animator.isRunning(flinger)).isFalse()
+    }
+
+    @Test
+    fun stop_haltsFling() {
+        var distance = 0f
+        val flinger = Flinger(animator) { dx, _ -> distance += dx }
+        flinger.fling(1000f, 0f)
+        runFrames(framesPerSecond = 60, seconds = 0.1f)
+        val distanceWhenStopped = distance
+
+        flinger.stop()
+        runFrames(framesPerSecond = 60, seconds = 1f)
+
+        assertThat(distance).isEqualTo(distanceWhenStopped)
+    }
+
+    private fun flingDistance(framesPerSecond: Int): Float {
+        val animator = FrameAnimator()
+        var distance = 0f
+        Flinger(animator) { dx, _ -> distance += dx }.fling(1000f, 0f)
+        runFrames(framesPerSecond, seconds = 10f, frameAnimator = animator)
+        return distance
+    }
+
+    private fun runFrames(framesPerSecond: Int, seconds: Float,
+                          frameAnimator: FrameAnimator = animator) {
+        val start = System.nanoTime()
+        val frames = (seconds * framesPerSecond).toInt()
+        for (i in 1..frames) {
+            frameAnimator.advance(start + i * 1_000_000_000L / framesPerSecond)
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.google.android.stardroid.util
+
+import com.google.common.truth.Truth.assertThat
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class AppExecutorsTest {
+    private val executors = AppExecutors()
+
+    @Test
+    fun get_runsOnTheLanesNamedThread() {
+        val name = executors[AppExecutors.Lane.IO].submit<String> { Thread.currentThread().name }
+
+        assertThat(name.get(5, TimeUnit.SECONDS)).startsWith("stardroid-io-")
+    }
+
+    @Test
+    fun cancelPausable_cancelsQueuedTasks() {
+        val release = CountDownLatch(1)
+        val lane = AppExecutors.Lane.IO
+        // Hold all the lane's threads.
+        val blockers = List(lane.threads) { executors.executeUntilPause(lane) { release.await() } }
+        var ran = false
+        val queued = executors.executeUntilPause(lane) { ran = true }
+
+        executors.cancelPausable()
+        release.countDown()
+        executors[lane].submit {}.get(5, TimeUnit.SECONDS)
+
+        assertThat(blockers.all { it.isCancelled }).isTrue()
+        assertThat(queued.isCancelled).isTrue()
+        assertThat(ran).isFalse()
+    }
+
+    @Test
+    fun stats_recordsQueueAndWait() {
+        val release = CountDownLatch(1)
+        val lane = AppExecutors.Lane.IO
+        repeat(lane.threads) { executors[lane].execute { release.await() } }
+        executors[lane].execute {}
+        executors[lane].execute {}
+        Thread.sleep(50)
+
+        assertThat(executors.stats(lane).queued).isEqualTo(2)
+
+        release.countDown()
+        executors[lane].submit {}.get(5, TimeUnit.SECONDS)
+        val stats = executors.stats(lane)
+        assertThat(stats.queued).isEqualTo(0)
+        assertThat(stats.maxWaitMillis).isAtLeast(40f)
+    }
+}
@@ -0,0 +1,245 @@
+package com.google.android.stardroid.util.smoothers
+
+import com.google.common.truth.Truth.assertThat
+import java.util.Random
+import kotlin.math.acos
+import kotlin.math.cos
+import kotlin.math.sin
+import kotlin.math.sqrt
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+/**
+ * Replays a synthetic session, held still, panned and held still again, through the fusion filter
+ * and the exponentially weighted smoothers it replaced, and measures the lag while panning and the
+ * jitter while still.
+ */
+@RunWith(RobolectricTestRunner::class)
+class SensorFusionReplayTest {
+    private class Result(
+        /** The mean pointing error while panning, in degrees. */
+        val panError: Double,
+        /** The mean frame to frame change while still, in degrees. */
+        val jitter: Double,
+        /** The mean pointing error while still, once settled, in degrees. */
+        val stillError: Double
+    )
+
+    /** The fused or smoothed acceleration and magnetic field, fed the sensor readings. */
+    private interface Smoother {
+        fun onAcceleration(nanos: Long, values: FloatArray)
+        fun onMagneticField(nanos: Long, values: FloatArray)
+        fun onGyroscope(nanos: Long, values: FloatArray) {}
+    }
+
+    // The exponential smoothers barely move for small changes, so they hold very steady but lag
+    // by degrees once the phone turns.  Without a gyroscope, fusion gives some of that steadiness
+    // up to follow much more closely.
+    @Test
+    fun fusion_withoutGyro_lagsFarLessThanExponentialSmoothers() {
+        val old = replay(exponentialSmoothers(), useGyro = false)
+        val fused = replay(fusion(), useGyro = false)
+
+        assertThat(fused.panError).isLessThan(old.panError / 4)
+    }
+
+    @Test
+    fun fusion_withGyro_lagsLessAndJittersLessThanExponentialSmoothers() {
+        val old = replay(exponentialSmoothers(), useGyro = false)
+        val fused = replay(fusion(), useGyro = true)
+
+        assertThat(fused.panError).isLessThan(old.panError / 10)
+        assertThat(fused.jitter).isLessThan(old.jitter)
+    }
+
+    @Test
+    fun fusion_withGyro_beatsFusionWithout() {
+        val without = replay(fusion(), useGyro = false)
+        val with = replay(fusion(), useGyro = true)
+
+        assertThat(with.panError).isLessThan(without.panError)
+        assertThat(with.jitter).isLessThan(without.jitter)
+        assertThat(with.stillError).isLessThan(without.stillError)
+    }
+
+    @Test
+    fun fusion_largerNoiseScale_tradesLagForSteadiness() {
+        val standard = replay(fusion(1f), useGyro = false)
+        val damped = replay(fusion(16f), useGyro = false)
+
+        assertThat(damped.jitter).isLessThan(standard.jitter)
+        assertThat(damped.panError).isGreaterThan(standard.panError)
+    }
+
+    private fun fusion(measurementNoiseScale: Float = 1f) = object : Smoother {
+        val filter = SensorFusionFilter(measurementNoiseScale)
+        override fun onAcceleration(nanos: Long, values: FloatArray) {
+            filter.onAcceleration(nanos, values[0], values[1], values[2])
+            filter.getAcceleration(values)
+        }
+        override fun onMagneticField(nanos: Long, values: FloatArray) {
+            filter.onMagneticField(nanos, values[0], values[1], values[2])
+            filter.getMagneticField(values)
+        }
+        override fun onGyroscope(nanos: Long, values: FloatArray) {
+            filter.onGyroscope(nanos, values[0], values[1], values[2])
+        }
+    }
+
+    // With the standard damping settings.
+    private fun exponentialSmoothers() = object : Smoother {
+        val accelerometer = ExponentiallyWeightedSmoother(null, 0.7f, 3)
+        val compass = ExponentiallyWeightedSmoother(null, 0.05f, 3)
+        override fun onAcceleration(nanos: Long, values: FloatArray) = accelerometer.smooth(values)
+        override fun onMagneticField(nanos: Long, values: FloatArray) = compass.smooth(values)
+    }
+
+    /**
+     * The phone is held tilted up by 30 degrees, still for two seconds, then turned about the
+     * vertical at 45 degrees a second for two, then still for three more.  The accelerometer and
+     * magnetometer report at 50 Hz, the gyroscope, which is biased, at 100 Hz, and the frames are
+     * at 60 Hz.
+     */
+    private fun replay(smoother: Smoother, useGyro: Boolean): Result {
+        val random = Random(1)
+        val gyroRandom = Random(2)
+        val acceleration = FloatArray(3)
+        val magneticField = FloatArray(3)
+        val smoothedAcceleration = FloatArray(3)
+        val smoothedMagneticField = FloatArray(3)
+        val gyro = FloatArray(3)
+        val truth = DoubleArray(6)
+        val estimate = DoubleArray(6)
+        val lastEstimate = DoubleArray(6)
+        var panError = 0.0
+        var panFrames = 0
+        var jitter = 0.0
+        var stillError = 0.0
+        var stillFrames = 0
+        var hasLastEstimate = false
+
+        var nextSensorNanos = 0L
+        var nextGyroNanos = 0L
+        var frameNanos = 0L
+        while (frameNanos < SESSION_NANOS) {
+            // The readings up to the frame, in the order they were taken.
+            while (useGyro && nextGyroNanos <= minOf(frameNanos, nextSensorNanos) ||
+                nextSensorNanos <= frameNanos) {
+                if (useGyro && nextGyroNanos <= nextSensorNanos) {
+                    angularVelocity(nextGyroNanos, gyro)
+                    for (i in 0..2) {
+                        gyro[i] += (GYRO_BIAS + gyroRandom.nextGaussian() * GYRO_NOISE).toFloat()
+                    }
+                    smoother.onGyroscope(nextGyroNanos, gyro)
+                    nextGyroNanos += 10_000_000L
+                    continue
+                }
+                toPhone(nextSensorNanos, WORLD_ACCELERATION, acceleration)
+                toPhone(nextSensorNanos, WORLD_MAGNETIC_FIELD, magneticField)
+                for (i in 0..2) {
+                    acceleration[i] += (random.nextGaussian() * ACCELERATION_NOISE).toFloat()
+                    magneticField[i] += (random.nextGaussian() * MAGNETIC_NOISE).toFloat()
+                }
+                smoother.onAcceleration(nextSensorNanos, acceleration)
+                acceleration.copyInto(smoothedAcceleration)
+                smoother.onMagneticField(nextSensorNanos, magneticField)
+                magneticField.copyInto(smoothedMagneticField)
+                nextSensorNanos += 20_000_000L
+            }
+            toPhone(frameNanos, WORLD_ACCELERATION, acceleration)
+            toPhone(frameNanos, WORLD_MAGNETIC_FIELD, magneticField)
+            pointing(acceleration, magneticField, truth)
+            pointing(smoothedAcceleration, smoothedMagneticField, estimate)
+
+            val seconds = frameNanos * 1e-9
+            if (seconds in 2.5..4.0) {
+                panError += angle(estimate, truth)
+                panFrames++
+            } else if (seconds >= 5.0 || seconds in 1.0..2.0) {
+                stillError += angle(estimate, truth)
+                if (hasLastEstimate) {
+                    jitter += angle(estimate, lastEstimate)
+                }
+                stillFrames++
+            }
+            estimate.copyInto(lastEstimate)
+            hasLastEstimate = true
+            frameNanos += 16_666_667L
+        }
+        return Result(panError / panFrames, jitter / stillFrames, stillError / stillFrames)
+    }
+
+    companion object {
+        private const val SESSION_NANOS = 7_000_000_000L
+        private const val TILT = 0.5236 // 30 degrees.
+        private const val PAN_RATE = 0.7854 // 45 degrees a second.
+
+        // East, north and up.  The accelerometer reads upwards when still.
+        private val WORLD_ACCELERATION = doubleArrayOf(0.0, 0.0, 9.81)
+        private val WORLD_MAGNETIC_FIELD = doubleArrayOf(0.0, 20.0, -40.0)
+        private const val ACCELERATION_NOISE = 0.05
+        private const val MAGNETIC_NOISE = 0.5
+        private const val GYRO_NOISE = 0.01
+        private const val GYRO_BIAS = 0.005
+
+        private fun yaw(nanos: Long): Double {
+            val seconds = nanos * 1e-9
+            return PAN_RATE * (seconds.coerceIn(2.0, 4.0) - 2.0)
+        }
+
+        private fun yawRate(nanos: Long) = if (nanos * 1e-9 in 2.0..4.0) PAN_RATE else 0.0
+
+        /**
+         * Writes the world vector in the frame of the phone, which is yawed about the vertical and
+         * then tilted about its own x axis.
+         */
+        private fun toPhone(nanos: Long, world: DoubleArray, out: FloatArray) {
+            val yaw = yaw(nanos)
+            // Undo the yaw, then the tilt.
+            val x = world[0] * cos(yaw) + world[1] * sin(yaw)
+            val y = -world[0] * sin(yaw) + world[1] * cos(yaw)
+            val z = world[2]
+            out[0] = x.toFloat()
+            out[1] = (y * cos(TILT) + z * sin(TILT)).toFloat()
+            out[2] = (-y * sin(TILT) + z * cos(TILT)).toFloat()
+        }
+
+        /** The yaw rate about the vertical, in the phone's frame. */
+        private fun angularVelocity(nanos: Long, out: FloatArray) {
+            val rate = yawRate(nanos)
+            out[0] = 0f
+            out[1] = (rate * sin(TILT)).toFloat()
+            out[2] = (rate * cos(TILT)).toFloat()
+        }
+
+        /** Writes the unit up and north vectors, in the phone's frame, as the model finds them. */
+        private fun pointing(acceleration: FloatArray, magneticField: FloatArray, out: DoubleArray) {
+            val up = normalized(acceleration[0].toDouble(), acceleration[1].toDouble(),
+                acceleration[2].toDouble())
+            val m = doubleArrayOf(magneticField[0].toDouble(), magneticField[1].toDouble(),
+                magneticField[2].toDouble())
+            val along = m[0] * up[0] + m[1] * up[1] + m[2] * up[2]
+            val north = normalized(m[0] - along * up[0], m[1] - along * up[1],
+                m[2] - along * up[2])
+            up.copyInto(out, 0)
+            north.copyInto(out, 3)
+        }
+
+        private fun normalized(x: Double, y: Double, z: Double): DoubleArray {
+            val length = sqrt(x * x + y * y + z * z)
+            return doubleArrayOf(x / length, y / length, z / length)
+        }
+
+        /** The larger of the angles between the up vectors and the north vectors, in degrees. */
+        private fun angle(a: DoubleArray, b: DoubleArray): Double {
+            var worst = 0.0
+            for (offset in intArrayOf(0, 3)) {
+                val dot = a[offset] * b[offset] + a[offset + 1] * b[offset + 1] +
+                    a[offset + 2] * b[offset + 2]
+                worst = maxOf(worst, Math.toDegrees(acos(dot.coerceIn(-1.0, 1.0))))
+            }
+            return worst
+        }
+    }
+}
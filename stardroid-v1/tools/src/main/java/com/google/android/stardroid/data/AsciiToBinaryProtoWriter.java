@@ -24,7 +24,8 @@ import java.io.FileReader;
 import java.io.IOException;
 
 /**
- * Class for writing Ascii protocol buffers in binary format.
+ * Class for writing Ascii protocol buffers in binary format.  The sources are sorted by sky
+ * region on the way (see {@link SkyRegionIndex}).
  *
  * @author Brent Bryan
  */
@@ -46,7 +47,7 @@ public class AsciiToBinaryProtoWriter {
 
       out = new FileOutputStream(args[0].substring(0, args[0].length() - 6) + ".binary");
 
-      AstronomicalSourcesProto sources = builder.build();
+      AstronomicalSourcesProto sources = SkyRegionIndex.sortByRegion(builder.build());
       System.out.println("Source count " + sources.getSourceCount());
       sources.writeTo(out);
     } finally {
@@ -8,12 +8,12 @@ import java.io.IOException;
  * Usage:
  *   java com.google.android.stardroid.data.Main <command> <args>
  *
- *   where command is one of GenStars, GenDeepSkyObjects, Binary
+ *   where command is one of GenStars, GenDeepSkyObjects, Binary, Compile
  *   See the various writer classes for the args.
  */
 public class Main {
   private enum Command {
-    GenStars, GenDeepSkyObjects, Rewrite, Binary
+    GenStars, GenDeepSkyObjects, Rewrite, Binary, Compile
   }
 
   public static void main(String[] in) throws IOException {
@@ -34,6 +34,9 @@ public class Main {
       case Binary:
         AsciiToBinaryProtoWriter.main(args);
         break;
+      case Compile:
+        StreamingCatalogCompiler.main(args);
+        break;
       default:
         throw new IllegalArgumentException("Unknown command");
     }
@@ -0,0 +1,161 @@
+// Copyright 2026 Penterakt LLC.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.android.stardroid.data;
+
+import com.google.android.stardroid.source.proto.SourceProto.AstronomicalSourceProto;
+import com.google.android.stardroid.source.proto.SourceProto.AstronomicalSourcesProto;
+import com.google.android.stardroid.source.proto.SourceProto.GeocentricCoordinatesProto;
+import com.google.android.stardroid.source.proto.SourceProto.LabelElementProto;
+import com.google.android.stardroid.source.proto.SourceProto.PointElementProto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Assigns sources to the sky regions the app renders by, so that catalogs can be written sorted
+ * by region with an index of where each region starts (the {@code region_start} field of
+ * {@code AstronomicalSourcesProto}).  The app can then put objects into regions as it reads them
+ * instead of searching for the nearest region of every object.
+ *
+ * <p>The region centres must match {@code SkyRegionMap.REGION_CENTERS} in the app, and the
+ * nearest centre is found the same way, in single precision.
+ */
+public class SkyRegionIndex {
+  static final float[][] REGION_CENTERS = {
+    {-0.850649066269f, 0.525733930059f, -0.000001851469f},
+    {-0.934170971625f, 0.000004098751f, -0.356825719588f},
+    {0.577349931933f, 0.577346773818f, 0.577354100533f},
+    {0.577350600623f, -0.577350601554f, -0.577349603176f},
+    {-0.577354427427f, -0.577349954285f, 0.577346424572f},
+    {-0.577346098609f, 0.577353779227f, -0.577350928448f},
+    {-0.577349943109f, -0.577346729115f, -0.577354134060f},
+    {-0.577350598760f, 0.577350586653f, 0.577349620871f},
+    {0.577354458161f, 0.577349932864f, -0.577346415259f},
+    {0.577346091159f, -0.577353793196f, 0.577350921929f},
+    {-0.850652559660f, -0.525728277862f, -0.000004770234f},
+    {-0.934173742309f, 0.000002107583f, 0.356818466447f},
+    {0.525734450668f, 0.000000594184f, -0.850648744032f},
+    {0.000002468936f, -0.356819496490f, -0.934173349291f},
+    {0.525727798231f, -0.000004087575f, 0.850652855821f},
+    {-0.000002444722f, 0.356819517910f, 0.934173340909f},
+    {-0.525727787986f, 0.000004113652f, -0.850652862340f},
+    {0.000004847534f, 0.356824675575f, -0.934171371162f},
+    {-0.000004885718f, -0.850652267225f, 0.525728750974f},
+    {-0.356825215742f, -0.934171164408f, -0.000003995374f},
+    {0.000000767410f, 0.850649364293f, 0.525733447634f},
+    {0.356825180352f, 0.934171177447f, 0.000003952533f},
+    {-0.000000790693f, -0.850649344735f, -0.525733478367f},
+    {0.356818960048f, -0.934173554182f, -0.000001195818f},
+    {0.850652555004f, 0.525728284381f, 0.000004773028f},
+    {0.934170960449f, -0.000004090369f, 0.356825748459f},
+    {-0.525734410621f, -0.000000609085f, 0.850648769177f},
+    {-0.000004815869f, -0.356824668124f, 0.934171373956f},
+    {0.000004877336f, 0.850652255118f, -0.525728769600f},
+    {-0.356819001026f, 0.934173538350f, 0.000001183711f},
+    {0.850649050437f, -0.525733955204f, 0.000001879409f},
+    {0.934173759073f, -0.000002136454f, -0.356818422675f},
+  };
+
+  private static final float DEGREES_TO_RADIANS = (float) Math.PI / 180.0f;
+
+  /** The number of sky regions. */
+  public static final int NUM_REGIONS = REGION_CENTERS.length;
+
+  /**
+   * The bucket, after all of the regions, for sources which can't be put in a single region:
+   * those whose elements are in different regions or which have no points or labels.
+   */
+  public static final int MIXED = NUM_REGIONS;
+
+  /** The number of buckets sources are sorted into. */
+  public static final int NUM_BUCKETS = NUM_REGIONS + 1;
+
+  private SkyRegionIndex() {}
+
+  /**
+   * Returns the given sources sorted by region, keeping their order within each region, with
+   * the region index filled in.
+   */
+  public static AstronomicalSourcesProto sortByRegion(AstronomicalSourcesProto sources) {
+    List<List<AstronomicalSourceProto>> buckets = new ArrayList<>(NUM_BUCKETS);
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      buckets.add(new ArrayList<>());
+    }
+    for (AstronomicalSourceProto source : sources.getSourceList()) {
+      buckets.get(bucketOf(source)).add(source);
+    }
+    long[] counts = new long[NUM_BUCKETS];
+    AstronomicalSourcesProto.Builder sorted = AstronomicalSourcesProto.newBuilder();
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      counts[i] = buckets.get(i).size();
+      sorted.addAllSource(buckets.get(i));
+    }
+    for (int start : startsFromCounts(counts)) {
+      sorted.addRegionStart(start);
+    }
+    return sorted.build();
+  }
+
+  /** Returns the region all of the source's points and labels are in, or {@link #MIXED}. */
+  public static int bucketOf(AstronomicalSourceProto source) {
+    int bucket = -1;
+    for (PointElementProto point : source.getPointList()) {
+      bucket = merge(bucket, regionOf(point.getLocation()));
+    }
+    for (LabelElementProto label : source.getLabelList()) {
+      bucket = merge(bucket, regionOf(label.getLocation()));
+    }
+    return bucket < 0 ? MIXED : bucket;
+  }
+
+  private static int merge(int bucket, int region) {
+    return bucket < 0 || bucket == region ? region : MIXED;
+  }
+
+  /** Returns the index of the region centre nearest to the given coordinates. */
+  public static int regionOf(GeocentricCoordinatesProto coords) {
+    float ra = coords.getRightAscension() * DEGREES_TO_RADIANS;
+    float dec = coords.getDeclination() * DEGREES_TO_RADIANS;
+    float x = (float) Math.cos(ra) * (float) Math.cos(dec);
+    float y = (float) Math.sin(ra) * (float) Math.cos(dec);
+    float z = (float) Math.sin(dec);
+
+    int region = 0;
+    float best = -2;
+    for (int i = 0; i < NUM_REGIONS; i++) {
+      float[] c = REGION_CENTERS[i];
+      float dot = c[0] * x + c[1] * y + c[2] * z;
+      if (dot > best) {
+        best = dot;
+        region = i;
+      }
+    }
+    return region;
+  }
+
+  /**
+   * Converts counts of sources per bucket to the {@code region_start} index: the position of
+   * the first source of each bucket, in bucket order.
+   */
+  public static int[] startsFromCounts(long[] counts) {
+    int[] starts = new int[counts.length];
+    long next = 0;
+    for (int i = 0; i < counts.length; i++) {
+      starts[i] = (int) next;
+      next += counts[i];
+    }
+    return starts;
+  }
+}
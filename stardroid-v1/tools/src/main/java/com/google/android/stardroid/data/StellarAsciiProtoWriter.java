@@ -60,6 +60,7 @@ public class StellarAsciiProtoWriter extends AbstractAsciiProtoWriter {
     GeocentricCoordinatesProto coords = getCoords(ra, dec);
     pointBuilder.setLocation(coords);
     pointBuilder.setSize(size);
+    pointBuilder.setMagnitude(magnitude);
     builder.addPoint(pointBuilder);
 
     if (name != null && !name.trim().isEmpty()) {
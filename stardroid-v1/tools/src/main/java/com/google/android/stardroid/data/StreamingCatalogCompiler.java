@@ -0,0 +1,274 @@
+// Copyright 2026 Penterakt LLC.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.android.stardroid.data;
+
+import com.google.android.stardroid.source.proto.SourceProto.AstronomicalSourceProto;
+import com.google.android.stardroid.source.proto.SourceProto.AstronomicalSourcesProto;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Compiles a catalog file straight to the binary protocol buffer used by the app, without
+ * holding the catalog in memory or going through the ASCII protocol buffer.
+ *
+ * <p>Lines are read in chunks and each chunk is parsed on a worker thread by one of the
+ * {@link AbstractAsciiProtoWriter}s, so their {@code getSourceFromLine} must not keep state
+ * between lines.  Each source is encoded as a length delimited {@code source} field, which is
+ * exactly how an {@link AstronomicalSourcesProto} is encoded, and appended, in input order, to a
+ * spill file for its sky region (see {@link SkyRegionIndex}).  Finally the spill files are
+ * concatenated in region order and the region index is appended, so the output is byte for byte
+ * what {@link AsciiToBinaryProtoWriter} produces for the same sources.  Only a few chunks are in
+ * flight at once, so memory use doesn't depend on the size of the catalog.
+ *
+ * <p>Usage: StreamingCatalogCompiler &lt;GenStars|GenDeepSkyObjects&gt; &lt;inputfile&gt;
+ * &lt;outputprefix&gt;.  Input files ending in .gz are decompressed on the fly.
+ */
+public class StreamingCatalogCompiler {
+  private static final int LINES_PER_CHUNK = 16384;
+
+  private final AbstractAsciiProtoWriter mParser;
+  private final int mThreads;
+  private final int mLinesPerChunk;
+
+  /** Counts from a compilation. */
+  public static class Stats {
+    public long lines;
+    public long sources;
+    public long bytes;
+    public long elapsedNanos;
+
+    @Override
+    public String toString() {
+      double seconds = elapsedNanos / 1e9;
+      return String.format("%d lines, %d sources, %d bytes in %.2fs (%.0f lines/s, %.1f MB/s)",
+          lines, sources, bytes, seconds, lines / seconds, bytes / seconds / 1e6);
+    }
+  }
+
+  // The output of parsing one chunk, split by sky region.
+  private static class Chunk {
+    int lines;
+    final long[] sources = new long[SkyRegionIndex.NUM_BUCKETS];
+    final byte[][] encoded = new byte[SkyRegionIndex.NUM_BUCKETS][];
+  }
+
+  public StreamingCatalogCompiler(AbstractAsciiProtoWriter parser, int threads) {
+    this(parser, threads, LINES_PER_CHUNK);
+  }
+
+  // Small chunks let tests cover several chunks with a small catalog.
+  StreamingCatalogCompiler(AbstractAsciiProtoWriter parser, int threads, int linesPerChunk) {
+    mParser = parser;
+    mThreads = threads;
+    mLinesPerChunk = linesPerChunk;
+  }
+
+  /**
+   * Compiles the lines read from {@code in} to {@code out}, using temporary files in
+   * {@code spillDirectory}.  The index passed to {@code getSourceFromLine} is the line number
+   * (counting from 0), since the number of sources before a line isn't known until earlier
+   * chunks have been parsed.
+   */
+  public Stats compile(BufferedReader in, OutputStream out, File spillDirectory)
+      throws IOException {
+    Stats stats = new Stats();
+    long start = System.nanoTime();
+    ExecutorService executor = Executors.newFixedThreadPool(mThreads);
+    ArrayDeque<Future<Chunk>> inFlight = new ArrayDeque<>();
+    File[] spillFiles = new File[SkyRegionIndex.NUM_BUCKETS];
+    OutputStream[] spills = new OutputStream[SkyRegionIndex.NUM_BUCKETS];
+    long[] counts = new long[SkyRegionIndex.NUM_BUCKETS];
+    try {
+      for (int i = 0; i < spills.length; i++) {
+        spillFiles[i] = File.createTempFile("region" + i + "-", ".spill", spillDirectory);
+        spills[i] = new BufferedOutputStream(new FileOutputStream(spillFiles[i]), 1 << 16);
+      }
+
+      long firstLine = 0;
+      List<String> lines;
+      while (!(lines = readChunk(in)).isEmpty()) {
+        final List<String> chunkLines = lines;
+        final long chunkStart = firstLine;
+        inFlight.add(executor.submit(() -> parseChunk(chunkLines, chunkStart)));
+        firstLine += lines.size();
+        // Keep enough chunks queued for every thread to have the next one ready.
+        while (inFlight.size() >= 2 * mThreads) {
+          spillChunk(inFlight.remove(), spills, counts, stats);
+        }
+      }
+      while (!inFlight.isEmpty()) {
+        spillChunk(inFlight.remove(), spills, counts, stats);
+      }
+
+      for (int i = 0; i < spills.length; i++) {
+        spills[i].close();
+        spills[i] = null;
+        Files.copy(spillFiles[i].toPath(), out);
+      }
+      stats.bytes += writeRegionIndex(SkyRegionIndex.startsFromCounts(counts), out);
+    } finally {
+      executor.shutdownNow();
+      for (int i = 0; i < spills.length; i++) {
+        if (spills[i] != null) {
+          spills[i].close();
+        }
+        if (spillFiles[i] != null) {
+          spillFiles[i].delete();
+        }
+      }
+    }
+    out.flush();
+    stats.elapsedNanos = System.nanoTime() - start;
+    return stats;
+  }
+
+  private List<String> readChunk(BufferedReader in) throws IOException {
+    List<String> lines = new ArrayList<>(mLinesPerChunk);
+    String line;
+    while (lines.size() < mLinesPerChunk && (line = in.readLine()) != null) {
+      lines.add(line);
+    }
+    return lines;
+  }
+
+  private Chunk parseChunk(List<String> lines, long firstLine) throws IOException {
+    Chunk chunk = new Chunk();
+    ByteArrayOutputStream[] bytes = new ByteArrayOutputStream[SkyRegionIndex.NUM_BUCKETS];
+    CodedOutputStream[] coded = new CodedOutputStream[SkyRegionIndex.NUM_BUCKETS];
+    for (int i = 0; i < lines.size(); i++) {
+      String line = lines.get(i).trim();
+      if (line.isEmpty()) {
+        continue;
+      }
+      AstronomicalSourceProto source = mParser.getSourceFromLine(line, (int) (firstLine + i));
+      if (source != null) {
+        int bucket = SkyRegionIndex.bucketOf(source);
+        if (coded[bucket] == null) {
+          bytes[bucket] = new ByteArrayOutputStream();
+          coded[bucket] = CodedOutputStream.newInstance(bytes[bucket]);
+        }
+        coded[bucket].writeMessage(AstronomicalSourcesProto.SOURCE_FIELD_NUMBER, source);
+        chunk.sources[bucket]++;
+      }
+    }
+    for (int i = 0; i < coded.length; i++) {
+      if (coded[i] != null) {
+        coded[i].flush();
+        chunk.encoded[i] = bytes[i].toByteArray();
+      }
+    }
+    chunk.lines = lines.size();
+    return chunk;
+  }
+
+  private static void spillChunk(Future<Chunk> future, OutputStream[] spills, long[] counts,
+                                 Stats stats) throws IOException {
+    Chunk chunk;
+    try {
+      chunk = future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while compiling", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Failed to parse line near " + (stats.lines + 1), e.getCause());
+    }
+    stats.lines += chunk.lines;
+    for (int i = 0; i < spills.length; i++) {
+      if (chunk.encoded[i] != null) {
+        spills[i].write(chunk.encoded[i]);
+        stats.bytes += chunk.encoded[i].length;
+      }
+      counts[i] += chunk.sources[i];
+      stats.sources += chunk.sources[i];
+    }
+  }
+
+  // Writes the packed region_start field, and returns its size in bytes.
+  private static int writeRegionIndex(int[] starts, OutputStream out) throws IOException {
+    int dataSize = 0;
+    for (int start : starts) {
+      dataSize += CodedOutputStream.computeInt32SizeNoTag(start);
+    }
+    int size = CodedOutputStream.computeTagSize(AstronomicalSourcesProto.REGION_START_FIELD_NUMBER)
+        + CodedOutputStream.computeUInt32SizeNoTag(dataSize) + dataSize;
+    CodedOutputStream coded = CodedOutputStream.newInstance(out);
+    coded.writeTag(AstronomicalSourcesProto.REGION_START_FIELD_NUMBER,
+                   WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    coded.writeUInt32NoTag(dataSize);
+    for (int start : starts) {
+      coded.writeInt32NoTag(start);
+    }
+    coded.flush();
+    return size;
+  }
+
+  private static AbstractAsciiProtoWriter parserFor(String command) {
+    switch (command) {
+      case "GenStars":
+        return new StellarAsciiProtoWriter();
+      case "GenDeepSkyObjects":
+        return new DeepSkyObjectAsciiProtoWriter();
+      default:
+        throw new IllegalArgumentException("Unknown catalog type: " + command);
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 3) {
+      System.out.println("Usage: StreamingCatalogCompiler <GenStars|GenDeepSkyObjects> "
+          + "<inputfile> <outputprefix>");
+      System.exit(1);
+    }
+    String input = args[1].trim();
+    String output = args[2].trim() + ".binary";
+    System.out.println("Input File: " + input);
+    System.out.println("Output File: " + output);
+
+    StreamingCatalogCompiler compiler = new StreamingCatalogCompiler(
+        parserFor(args[0]), Runtime.getRuntime().availableProcessors());
+    InputStream rawIn = new FileInputStream(input);
+    if (input.endsWith(".gz")) {
+      rawIn = new GZIPInputStream(rawIn, 1 << 16);
+    }
+    File spillDirectory = new File(output).getAbsoluteFile().getParentFile();
+    try (BufferedReader in = new BufferedReader(
+             new InputStreamReader(rawIn, StandardCharsets.UTF_8), 1 << 16);
+         OutputStream out = new BufferedOutputStream(new FileOutputStream(output), 1 << 16)) {
+      Stats stats = compiler.compile(in, out, spillDirectory);
+      System.out.println("Successfully wrote " + stats);
+    }
+  }
+}
@@ -21,8 +21,9 @@ import android.graphics.Color;
  *
  */
 public class StarAttributeCalculator {
-  // Much above this and the app crashes - best guess we run out of some openGL resource.
-  // TODO(jontayler): find out why.
+  // Much above this and the app used to crash: regions of the star catalog overflowed their 16
+  // bit vertex indices.  The renderer no longer has that limit, so this now only bounds the size
+  // of the catalog.
   public static final float MAX_MAGNITUDE = 5.6f;
   private static final int MAX_SIZE = 5;
 
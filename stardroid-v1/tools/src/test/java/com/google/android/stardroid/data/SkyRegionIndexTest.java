@@ -0,0 +1,174 @@
+package com.google.android.stardroid.data;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.stardroid.source.proto.SourceProto.AstronomicalSourceProto;
+import com.google.android.stardroid.source.proto.SourceProto.AstronomicalSourcesProto;
+import com.google.android.stardroid.source.proto.SourceProto.GeocentricCoordinatesProto;
+import com.google.android.stardroid.source.proto.SourceProto.LabelElementProto;
+import com.google.android.stardroid.source.proto.SourceProto.PointElementProto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * Checks that catalogs are sorted into the regions the app draws them in.  The app's sources are
+ * read from the app module, as the tests run from this one.
+ */
+public class SkyRegionIndexTest {
+  private static final Path APP = Paths.get("..", "app", "src");
+  private static final Path SKY_REGION_MAP = APP.resolve(
+      "main/java/com/google/android/stardroid/renderer/util/SkyRegionMap.java");
+  // Also checked against SkyRegionMap.getObjectRegion, by SkyRegionMapTest in the app.
+  private static final Path SAMPLES = APP.resolve("test/resources/sky_region_samples.txt");
+  private static final Path ASSETS = APP.resolve("main/assets");
+
+  private static final Pattern CENTER =
+      Pattern.compile("new Vector3\\((\\S+)f, (\\S+)f, (\\S+)f\\)");
+
+  private static GeocentricCoordinatesProto coords(float ra, float dec) {
+    return GeocentricCoordinatesProto.newBuilder()
+        .setRightAscension(ra)
+        .setDeclination(dec)
+        .build();
+  }
+
+  private static AstronomicalSourceProto point(GeocentricCoordinatesProto location) {
+    return AstronomicalSourceProto.newBuilder()
+        .addPoint(PointElementProto.newBuilder().setLocation(location))
+        .build();
+  }
+
+  @Test
+  public void regionCenters_matchTheApp() throws IOException {
+    String source = new String(Files.readAllBytes(SKY_REGION_MAP), StandardCharsets.UTF_8);
+    // The table of vectors, not the commented out one before it.
+    String table = source.substring(source.indexOf("Vector3[] REGION_CENTERS"));
+    table = table.substring(0, table.indexOf("};"));
+    List<float[]> centers = new ArrayList<>();
+    Matcher matcher = CENTER.matcher(table);
+    while (matcher.find()) {
+      centers.add(new float[] {
+          Float.parseFloat(matcher.group(1)),
+          Float.parseFloat(matcher.group(2)),
+          Float.parseFloat(matcher.group(3))});
+    }
+
+    assertThat(centers).hasSize(SkyRegionIndex.NUM_REGIONS);
+    for (int i = 0; i < centers.size(); i++) {
+      assertThat(SkyRegionIndex.REGION_CENTERS[i]).isEqualTo(centers.get(i));
+    }
+  }
+
+  @Test
+  public void regionOf_matchesSharedSamples() throws IOException {
+    int checked = 0;
+    for (String line : Files.readAllLines(SAMPLES, StandardCharsets.UTF_8)) {
+      if (line.startsWith("#")) {
+        continue;
+      }
+      String[] fields = line.split(" ");
+      GeocentricCoordinatesProto location =
+          coords(Float.parseFloat(fields[0]), Float.parseFloat(fields[1]));
+
+      assertThat(SkyRegionIndex.regionOf(location)).isEqualTo(Integer.parseInt(fields[2]));
+      assertThat(SkyRegionIndex.bucketOf(point(location)))
+          .isEqualTo(Integer.parseInt(fields[2]));
+      checked++;
+    }
+    assertThat(checked).isGreaterThan(SkyRegionIndex.NUM_REGIONS);
+  }
+
+  @Test
+  public void bundledCatalogs_areSortedByRegion() throws IOException {
+    for (String catalog : new String[] {
+        "stars.binary", "constellations.binary", "deep_sky_objects.binary"}) {
+      AstronomicalSourcesProto sources;
+      try (InputStream in = Files.newInputStream(ASSETS.resolve(catalog))) {
+        sources = AstronomicalSourcesProto.parseFrom(in);
+      }
+
+      assertThat(sources.getRegionStartCount()).isEqualTo(SkyRegionIndex.NUM_BUCKETS);
+      for (int i = 0; i < SkyRegionIndex.NUM_BUCKETS; i++) {
+        int end = i + 1 < SkyRegionIndex.NUM_BUCKETS
+            ? sources.getRegionStart(i + 1) : sources.getSourceCount();
+        for (int j = sources.getRegionStart(i); j < end; j++) {
+          assertThat(SkyRegionIndex.bucketOf(sources.getSource(j))).isEqualTo(i);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void bucketOf_pointAndLabelInOneRegion_isThatRegion() {
+    GeocentricCoordinatesProto location = coords(10, 20);
+    AstronomicalSourceProto source = point(location).toBuilder()
+        .addLabel(LabelElementProto.newBuilder().setLocation(location))
+        .build();
+
+    assertThat(SkyRegionIndex.bucketOf(source)).isEqualTo(SkyRegionIndex.regionOf(location));
+  }
+
+  @Test
+  public void bucketOf_elementsInDifferentRegions_isMixed() {
+    AstronomicalSourceProto source = point(coords(10, 20)).toBuilder()
+        .addLabel(LabelElementProto.newBuilder().setLocation(coords(190, -20)))
+        .build();
+
+    assertThat(SkyRegionIndex.bucketOf(source)).isEqualTo(SkyRegionIndex.MIXED);
+  }
+
+  @Test
+  public void bucketOf_noElements_isMixed() {
+    assertThat(SkyRegionIndex.bucketOf(AstronomicalSourceProto.getDefaultInstance()))
+        .isEqualTo(SkyRegionIndex.MIXED);
+  }
+
+  @Test
+  public void sortByRegion_groupsByRegionInOrder() {
+    AstronomicalSourceProto north = point(coords(0, 90));
+    AstronomicalSourceProto south = point(coords(0, -90));
+    AstronomicalSourceProto mixed = AstronomicalSourceProto.getDefaultInstance();
+    AstronomicalSourceProto otherNorth = point(coords(100, 89));
+    AstronomicalSourcesProto sources = AstronomicalSourcesProto.newBuilder()
+        .addSource(mixed).addSource(north).addSource(south).addSource(otherNorth)
+        .build();
+    int northRegion = SkyRegionIndex.bucketOf(north);
+    int southRegion = SkyRegionIndex.bucketOf(south);
+    assertThat(SkyRegionIndex.bucketOf(otherNorth)).isEqualTo(northRegion);
+
+    AstronomicalSourcesProto sorted = SkyRegionIndex.sortByRegion(sources);
+
+    List<AstronomicalSourceProto> expected = new ArrayList<>();
+    if (northRegion < southRegion) {
+      expected.add(north);
+      expected.add(otherNorth);
+      expected.add(south);
+    } else {
+      expected.add(south);
+      expected.add(north);
+      expected.add(otherNorth);
+    }
+    expected.add(mixed);
+    assertThat(sorted.getSourceList()).containsExactlyElementsIn(expected).inOrder();
+    assertThat(sorted.getRegionStartCount()).isEqualTo(SkyRegionIndex.NUM_BUCKETS);
+    assertThat(sorted.getRegionStart(SkyRegionIndex.MIXED)).isEqualTo(3);
+    for (int i = 0; i < SkyRegionIndex.NUM_REGIONS; i++) {
+      int start = sorted.getRegionStart(i);
+      int end = sorted.getRegionStart(i + 1);
+      for (int j = start; j < end; j++) {
+        assertThat(SkyRegionIndex.bucketOf(sorted.getSource(j))).isEqualTo(i);
+      }
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package com.google.android.stardroid.data;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.stardroid.source.proto.SourceProto.AstronomicalSourceProto;
+import com.google.android.stardroid.source.proto.SourceProto.AstronomicalSourcesProto;
+import com.google.android.stardroid.source.proto.SourceProto.PointElementProto;
+import com.google.android.stardroid.util.StarAttributeCalculator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+public class StellarAsciiProtoWriterTest {
+  @Test
+  public void getSourceFromLine_keepsMagnitude() {
+    AstronomicalSourceProto source = new StellarAsciiProtoWriter()
+        .getSourceFromLine("Vega,0.03,38.78,279.23,0,0,0", 0);
+
+    assertThat(source.getPoint(0).hasMagnitude()).isTrue();
+    assertThat(source.getPoint(0).getMagnitude()).isEqualTo(0.03f);
+  }
+
+  @Test
+  public void getSourceFromLine_tooFaint_isDropped() {
+    assertThat(new StellarAsciiProtoWriter().getSourceFromLine(",5.7,38.78,279.23,0,0,0", 0))
+        .isNull();
+  }
+
+  @Test
+  public void bundledStars_haveMagnitudes() throws IOException {
+    AstronomicalSourcesProto stars;
+    try (InputStream in = Files.newInputStream(
+        Paths.get("..", "app", "src", "main", "assets", "stars.binary"))) {
+      stars = AstronomicalSourcesProto.parseFrom(in);
+    }
+
+    assertThat(stars.getSourceCount()).isGreaterThan(0);
+    for (AstronomicalSourceProto star : stars.getSourceList()) {
+      for (PointElementProto point : star.getPointList()) {
+        assertThat(point.hasMagnitude()).isTrue();
+        assertThat(point.getMagnitude()).isLessThan(StarAttributeCalculator.MAX_MAGNITUDE);
+      }
+    }
+  }
+}
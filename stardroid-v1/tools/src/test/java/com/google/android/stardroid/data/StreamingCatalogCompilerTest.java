@@ -0,0 +1,106 @@
+package com.google.android.stardroid.data;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.android.stardroid.source.proto.SourceProto.AstronomicalSourcesProto;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StreamingCatalogCompilerTest {
+  private static final int LINES = 500;
+  private static final int LINES_PER_CHUNK = 37;
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  // Stars all over the sky, some too faint to keep, some named, with a few blank lines.
+  private static String catalog() {
+    Random random = new Random(42);
+    StringBuilder catalog = new StringBuilder();
+    for (int i = 0; i < LINES; i++) {
+      if (i % 50 == 7) {
+        catalog.append('\n');
+        continue;
+      }
+      String name = i % 3 == 0 ? "Star " + i : "";
+      float magnitude = random.nextFloat() * 7 - 1;
+      float dec = (float) Math.toDegrees(Math.asin(2 * random.nextFloat() - 1));
+      float ra = random.nextFloat() * 360;
+      catalog.append(String.format(Locale.US, "%s,%f,%f,%f,0,0,0\n", name, magnitude, dec, ra));
+    }
+    return catalog.toString();
+  }
+
+  private static byte[] compileSerially(String catalog) throws IOException {
+    AstronomicalSourcesProto sources = new StellarAsciiProtoWriter().readSources(
+        new BufferedReader(new StringReader(catalog)));
+    return SkyRegionIndex.sortByRegion(sources).toByteArray();
+  }
+
+  private byte[] compileStreaming(String catalog, File spillDirectory) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new StreamingCatalogCompiler(new StellarAsciiProtoWriter(), 3, LINES_PER_CHUNK)
+        .compile(new BufferedReader(new StringReader(catalog)), out, spillDirectory);
+    return out.toByteArray();
+  }
+
+  @Test
+  public void compile_severalChunks_matchesSerialCompilation() throws IOException {
+    String catalog = catalog();
+    File spillDirectory = folder.newFolder();
+
+    byte[] streamed = compileStreaming(catalog, spillDirectory);
+
+    assertThat(streamed).isEqualTo(compileSerially(catalog));
+    // Check the catalog was big enough to test what it's meant to.
+    assertThat(LINES / LINES_PER_CHUNK).isGreaterThan(2 * 3);
+    assertThat(AstronomicalSourcesProto.parseFrom(streamed).getSourceCount())
+        .isGreaterThan(LINES / 2);
+  }
+
+  @Test
+  public void compile_stats_countLinesSourcesAndBytes() throws IOException {
+    String catalog = catalog();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    StreamingCatalogCompiler.Stats stats =
+        new StreamingCatalogCompiler(new StellarAsciiProtoWriter(), 2, LINES_PER_CHUNK)
+            .compile(new BufferedReader(new StringReader(catalog)), out, folder.newFolder());
+
+    assertThat(stats.lines).isEqualTo((long) LINES);
+    assertThat(stats.sources)
+        .isEqualTo((long) AstronomicalSourcesProto.parseFrom(out.toByteArray()).getSourceCount());
+    assertThat(stats.bytes).isEqualTo((long) out.size());
+  }
+
+  @Test
+  public void compile_success_deletesSpillFiles() throws IOException {
+    File spillDirectory = folder.newFolder();
+
+    compileStreaming(catalog(), spillDirectory);
+
+    assertThat(spillDirectory.list()).isEmpty();
+  }
+
+  @Test
+  public void compile_badLine_failsAndDeletesSpillFiles() throws IOException {
+    // A line in a later chunk with too few fields, after earlier chunks have been spilled.
+    String catalog = catalog() + "Bad,1.0,2.0\n" + catalog();
+    File spillDirectory = folder.newFolder();
+
+    assertThrows(IOException.class, () -> compileStreaming(catalog, spillDirectory));
+
+    assertThat(spillDirectory.list()).isEmpty();
+  }
+}